@@ -58,6 +58,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class BuildComposablePipeline {
 
@@ -85,6 +87,19 @@ public class BuildComposablePipeline {
      * <p>Default: false</p>
      */
     public static final int GEN_GL_IDENTITY_BY_ASSIGNABLE_CLASS = 1 << 4;
+    /** <p>Default: true</p>. */
+    public static final int GEN_PROFILE = 1 << 5;
+    /** <p>Default: true</p>. */
+    public static final int GEN_STATE_FILTER = 1 << 6;
+    /**
+     * By extra command-line argument: <code>record</code>.
+     * <p>
+     * If true, the custom pipeline records the GL calls into a command stream and optionally passes them downstream,
+     * using the prolog class as its super class, e.g. <code>com.jogamp.opengl.util.GLCommandRecorder</code>.
+     * </p>
+     * <p>Default: false</p>
+     */
+    public static final int GEN_RECORD = 1 << 7;
 
     private static final HashMap<String, String> addedGLHooks = new HashMap<String, String>();
     private static final String[] addedGLHookMethodNames = new String[] {
@@ -150,6 +165,8 @@ public class BuildComposablePipeline {
                         mode |= GEN_PROLOG_XOR_DOWNSTREAM;
                     } else if (args[i].equals("gl_identity_by_assignable_class")) {
                         mode |= GEN_GL_IDENTITY_BY_ASSIGNABLE_CLASS;
+                    } else if (args[i].equals("record")) {
+                        mode |= GEN_RECORD;
                     }
                 }
             }
@@ -158,7 +175,7 @@ public class BuildComposablePipeline {
             outputName = null; // TBD ..
             classPrologOpt = null;
             classDownstream = classToComposeAround;
-            mode = GEN_DEBUG | GEN_TRACE ;
+            mode = GEN_DEBUG | GEN_TRACE | GEN_PROFILE | GEN_STATE_FILTER ;
         }
 
         final BuildComposablePipeline composer =
@@ -241,7 +258,15 @@ public class BuildComposablePipeline {
         if (0 != (mode & GEN_TRACE)) {
             (new TracePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
         }
-        if (0 != (mode & GEN_CUSTOM)) {
+        if (0 != (mode & GEN_PROFILE)) {
+            (new ProfilePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
+        if (0 != (mode & GEN_STATE_FILTER)) {
+            (new StateFilterPipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
+        if (0 != (mode & GEN_CUSTOM) && 0 != (mode & GEN_RECORD)) {
+            (new RecordPipeline(mode, outputDir, outputPackage, outputName, classToComposeAround, classPrologOpt, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        } else if (0 != (mode & GEN_CUSTOM)) {
             (new CustomPipeline(mode, outputDir, outputPackage, outputName, classToComposeAround, classPrologOpt, classDownstream)).emit(publicMethodsPlainSorted.iterator());
         }
     }
@@ -419,7 +444,7 @@ public class BuildComposablePipeline {
                     imports,
                     new String[]{"public"},
                     ifNames,
-                    null,
+                    getSuperClassNameOpt(),
                     new CodeGenUtils.EmissionCallback() {
                         @Override
                         public void emit(final PrintWriter w) {
@@ -595,6 +620,11 @@ public class BuildComposablePipeline {
         /** Get the output name for this pipeline class. */
         protected abstract String getOutputName();
 
+        /** Get the optional super class name of this pipeline class, defaults to <code>null</code>. */
+        protected String getSuperClassNameOpt() {
+            return null;
+        }
+
         /**
          * Called after the class headers have been generated, but before any
          * method wrappers have been generated.
@@ -838,6 +868,279 @@ public class BuildComposablePipeline {
         }
     } // end class CustomPipeline
 
+    /**
+     * Custom pipeline recording all recordable GL calls into the command stream
+     * of its super class, the given prolog class, and emitting the replay dispatch.
+     * GL calls are passed downstream if the super class' <code>isPassThrough()</code> is true,
+     * non GL methods are always passed downstream.
+     */
+    protected class RecordPipeline extends CustomPipeline {
+
+        /** Names of the recorded methods, their index being the opcode. */
+        private final ArrayList<String> opNames = new ArrayList<String>();
+        /** Replay expressions of the recorded methods, indexed by opcode. */
+        private final ArrayList<String> opCalls = new ArrayList<String>();
+        private final String recorderClassName;
+        private final Pattern uniformVecPattern = Pattern.compile("gl(Program)?Uniform([1-4])(f|i|ui|d|i64|ui64)v");
+        private final Pattern uniformMatPattern = Pattern.compile("gl(Program)?UniformMatrix([2-4])(x([2-4]))?(f|d)v");
+        private final Pattern vertexAttribPattern = Pattern.compile("glVertexAttrib[IL]?([1-4])N?[a-z]+v");
+        private final Pattern countFirstPattern = Pattern.compile("glDelete[A-Za-z]+s|glDrawBuffers|glShaderBinary");
+
+        RecordPipeline(final int mode, final String outputDir, final String outputPackage, final String outputName, final Class<?> baseInterfaceClass, final Class<?> recorderClass, final Class<?> downstreamClass) {
+            super(mode, outputDir, outputPackage, outputName, baseInterfaceClass, null, downstreamClass);
+            recorderClassName = recorderClass.getName();
+        }
+
+        @Override
+        protected String getSuperClassNameOpt() {
+            return recorderClassName;
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return false;
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.println("  /**");
+            output.println("   * @param " + getDownstreamObjectName() + " the downstream GL for non GL methods and pass-through,");
+            output.println("   *        may be <code>null</code> if neither is used, e.g. for a pure recorder or no-op GL.");
+            output.println("   */");
+            output.println("  public " + getOutputName() + "(" + downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    this." + getDownstreamObjectName() + " = " + getDownstreamObjectName() + ";");
+            output.println("  }");
+            output.println();
+        }
+
+        /** Returns the name of the super class method issuing the GL calls of the given convenience method, otherwise null. */
+        private String getExpansion(final Method m) {
+            final Class<?>[] argTypes = m.getParameterTypes();
+            if( 1 == argTypes.length ) {
+                if( m.getName().equals("glUniform") && argTypes[0].getSimpleName().equals("GLUniformData") ) {
+                    return "recordUniform";
+                } else if( m.getName().equals("glVertexAttribPointer") && argTypes[0].getSimpleName().equals("GLArrayData") ) {
+                    return "recordVertexAttribPointer";
+                }
+            }
+            return null;
+        }
+
+        private String getDownstreamCall(final Method m) {
+            return getDownstreamObjectName() + "." + m.getName() + "(" + getArgListAsString(m, false, true) + ")";
+        }
+
+        @Override
+        protected void emitBody(final PrintWriter output, final PlainMethod pm) {
+            if( !pm.runHooks() || pm.isSynthetic() ) {
+                super.emitBody(output, pm);
+                return;
+            }
+            final Method m = pm.getWrappedMethod();
+            final String expansion = getExpansion(m);
+            output.println("  {");
+            if( null != expansion ) {
+                // issues the recordable GL calls on this instance, passing them downstream if enabled
+                output.println("    " + expansion + "(this, arg0);");
+            } else if( isRecordable(m) ) {
+                final int op = opNames.size();
+                final Class<?>[] argTypes = m.getParameterTypes();
+                final StringBuilder call = new StringBuilder();
+                final HashMap<String, Integer> arraySlots = new HashMap<String, Integer>();
+                call.append("gl.").append(m.getName()).append('(');
+                output.println("    if( isRecording() ) {");
+                output.println("      beginCommand(" + op + ");");
+                for (int i = 0; i < argTypes.length; i++) {
+                    final Class<?> t = argTypes[i];
+                    if( 0 < i ) {
+                        call.append(", ");
+                    }
+                    if( t.isArray() && String.class != t.getComponentType() ) {
+                        final String type = getTypeName(t.getComponentType());
+                        final String count = getArrayCount(m, i);
+                        final Integer slot = arraySlots.get(type);
+                        arraySlots.put(type, null != slot ? slot.intValue() + 1 : 0);
+                        if( null != count ) {
+                            output.println("      put" + type + "Array(arg" + i + ", arg" + (i+1) + ", " + count + ");");
+                        } else {
+                            output.println("      put" + type + "Array(arg" + i + ", arg" + (i+1) + ");");
+                        }
+                        call.append("get" + type + "Array(" + arraySlots.get(type) + "), 0");
+                        i++; // offset
+                    } else if( Buffer.class.isAssignableFrom(t) ) {
+                        output.println("      putBuffer(arg" + i + ");");
+                        call.append("(" + t.getSimpleName() + ") getBuffer()");
+                    } else {
+                        final String type = t.isArray() ? "StringArray" : getTypeName(t);
+                        output.println("      put" + type + "(arg" + i + ");");
+                        call.append("get" + type + "()");
+                    }
+                }
+                output.println("    }");
+                output.println("    if( isPassThrough() ) {");
+                output.println("      " + getDownstreamCall(m) + ";");
+                output.println("    }");
+                call.append(')');
+                opNames.add(m.getName());
+                opCalls.add(call.toString());
+            } else {
+                output.println("    if( isPassThrough() ) {");
+                if( Void.TYPE != m.getReturnType() ) {
+                    output.println("      return " + getDownstreamCall(m) + ";");
+                } else {
+                    output.println("      " + getDownstreamCall(m) + ";");
+                    output.println("      return;");
+                }
+                output.println("    }");
+                output.println("    throw new GLException(\"Not recordable: " + m.getName() + "\");");
+            }
+            output.println("  }");
+        }
+
+        /**
+         * Returns true if the given method returns no value, does not write into its arguments
+         * and only uses primitive, String, NIO buffer or primitive array arguments followed by their offset.
+         */
+        private boolean isRecordable(final Method m) {
+            final String name = m.getName();
+            if( Void.TYPE != m.getReturnType() ||
+                name.startsWith("glGet") || name.startsWith("glRead") || name.startsWith("glIs") ||
+                ( name.startsWith("glGen") && !name.startsWith("glGenerate") ) ) {
+                return false;
+            }
+            final Class<?>[] argTypes = m.getParameterTypes();
+            for (int i = 0; i < argTypes.length; i++) {
+                final Class<?> t = argTypes[i];
+                if( t.isArray() ) {
+                    final Class<?> c = t.getComponentType();
+                    if( String.class == c ) {
+                        continue;
+                    }
+                    if( null == getTypeName(c) || Boolean.TYPE == c || Character.TYPE == c ||
+                        i + 1 >= argTypes.length || Integer.TYPE != argTypes[i+1] ) {
+                        return false;
+                    }
+                    i++; // offset
+                } else if( !Buffer.class.isAssignableFrom(t) && null == getTypeName(t) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the expression of the element count of the array argument at the given index,
+         * derived from the other arguments of well known entry points, or null if unknown,
+         * i.e. the array is recorded from its offset to its end.
+         */
+        private String getArrayCount(final Method m, final int arrayIdx) {
+            final String name = m.getName();
+            final Class<?>[] argTypes = m.getParameterTypes();
+            Matcher matcher;
+            if( ( matcher = uniformVecPattern.matcher(name) ).matches() ) {
+                final int countIdx = null != matcher.group(1) ? 2 : 1;
+                return getCountArg(argTypes, countIdx, arrayIdx, " * " + matcher.group(2));
+            } else if( ( matcher = uniformMatPattern.matcher(name) ).matches() ) {
+                final int countIdx = null != matcher.group(1) ? 2 : 1;
+                final int cols = Integer.parseInt(matcher.group(2));
+                final int rows = null != matcher.group(4) ? Integer.parseInt(matcher.group(4)) : cols;
+                return getCountArg(argTypes, countIdx, arrayIdx, " * " + ( cols * rows ));
+            } else if( ( matcher = vertexAttribPattern.matcher(name) ).matches() && 1 == arrayIdx ) {
+                return matcher.group(1);
+            } else if( countFirstPattern.matcher(name).matches() ) {
+                return getCountArg(argTypes, 0, arrayIdx, "");
+            } else if( name.equals("glInvalidateFramebuffer") || name.equals("glInvalidateSubFramebuffer") ) {
+                return getCountArg(argTypes, 1, arrayIdx, "");
+            }
+            return null;
+        }
+
+        /** Returns the count argument w/ the given factor, if it is an int preceding the array argument, otherwise null. */
+        private String getCountArg(final Class<?>[] argTypes, final int countIdx, final int arrayIdx, final String factor) {
+            if( countIdx < arrayIdx && Integer.TYPE == argTypes[countIdx] ) {
+                return "arg" + countIdx + factor;
+            }
+            return null;
+        }
+
+        /** Returns the accessor type name of the given primitive or String type, otherwise null. */
+        private String getTypeName(final Class<?> t) {
+            if( String.class == t ) {
+                return "String";
+            } else if( !t.isPrimitive() || Void.TYPE == t ) {
+                return null;
+            }
+            final String n = t.getName();
+            return Character.toUpperCase(n.charAt(0)) + n.substring(1);
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            final int chunkBits = 6;
+            final int chunks = ( opNames.size() + ( 1 << chunkBits ) - 1 ) >>> chunkBits;
+            output.println();
+            long hash = 0xcbf29ce484222325L; // FNV-1a 64 of the opcode table, i.e. ';' terminated names in opcode order
+            for (int op = 0; op < opNames.size(); op++) {
+                final String n = opNames.get(op) + ';';
+                for (int j = 0; j < n.length(); j++) {
+                    hash = ( hash ^ n.charAt(j) ) * 0x100000001b3L;
+                }
+            }
+            output.println("  @Override");
+            output.println("  protected final int getOpcodeCount() { return " + opNames.size() + "; }");
+            output.println();
+            output.println("  @Override");
+            output.println("  protected final long getOpcodeTableHash() { return 0x" + Long.toHexString(hash) + "L; }");
+            output.println();
+            output.println("  @Override");
+            output.println("  protected final void dispatch(final GL gl, final int op) {");
+            output.println("    if( !gl.is" + baseName + "() ) {");
+            output.println("      throw new GLException(\"Not a " + baseName + " implementation: \"+gl);");
+            output.println("    }");
+            output.println("    final " + baseName + " _gl = (" + baseName + ") gl;");
+            output.println("    // dispatch is split in chunks of " + ( 1 << chunkBits ) + " opcodes, keeping the methods small");
+            output.println("    switch( op >>> " + chunkBits + " ) {");
+            for (int c = 0; c < chunks; c++) {
+                output.println("      case " + c + ": dispatch" + c + "(_gl, op); break;");
+            }
+            output.println("      default: throw new GLException(\"Invalid opcode \"+op);");
+            output.println("    }");
+            output.println("  }");
+            for (int c = 0; c < chunks; c++) {
+                output.println("  private void dispatch" + c + "(final " + baseName + " gl, final int op) {");
+                output.println("    switch( op ) {");
+                final int end = Math.min(opNames.size(), ( c + 1 ) << chunkBits);
+                for (int op = c << chunkBits; op < end; op++) {
+                    output.println("      case " + op + ": " + opCalls.get(op) + "; break;");
+                }
+                output.println("      default: throw new GLException(\"Invalid opcode \"+op);");
+                output.println("    }");
+                output.println("  }");
+            }
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Recording implementation of {@link " + baseInterfaceClass.getName() + "},");
+            output.println(" * serializing the GL calls into an off-heap command stream to be replayed on the GL thread.");
+            output.println(" * See {@link " + recorderClassName + "} for details.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which records and replays GL commands:");
+            output.println(" * <pre>");
+            output.println(" *   final " + getOutputName() + " rec = new " + getOutputName() + "(drawable.getGL().get" + baseName + "());");
+            output.println(" *   rec.glClear(GL.GL_COLOR_BUFFER_BIT); // any thread");
+            output.println(" *   drawable.invoke(true, rec);");
+            output.println(" * </pre>");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+    } // end class RecordPipeline
+
     protected class DebugPipeline extends PipelineEmitter {
 
         String className;
@@ -1179,6 +1482,255 @@ public class BuildComposablePipeline {
         }
     } // end class TracePipeline
 
+    //-------------------------------------------------------
+    protected class ProfilePipeline extends PipelineEmitter {
+
+        String className;
+        /** Distinct names of the profiled methods in emission order, their index being the function id. */
+        private final ArrayList<String> functionNames = new ArrayList<String>();
+
+        ProfilePipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "Profile" + getBaseInterfaceName();
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected String getSuperClassNameOpt() {
+            return "GLCallProfiler";
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    super(" + getFunctionNamesName() + ");");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  private static final String[] " + getFunctionNamesName() + " = new String[] {");
+            for (int i = 0; i < functionNames.size(); i++) {
+                output.println("    \"" + functionNames.get(i) + "\",");
+            }
+            output.println("  };");
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * counting calls and accumulating the CPU time spent per OpenGL entry point.");
+            output.println(" * See {@link GLCallProfiler} for the statistics API.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline:");
+            output.println(" * <pre>");
+            output.println(" *   gl = drawable.setGL(new " + className + "(drawable.getGL()." + "get" + baseName + "()));");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic();
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    final long _t0 = System.nanoTime();");
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic();
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            final String name = pm.getWrappedMethod().getName();
+            // methods are emitted sorted by name, hence overloads are adjacent and share one id
+            final int last = functionNames.size() - 1;
+            if ( 0 > last || !functionNames.get(last).equals(name) ) {
+                functionNames.add(name);
+            }
+            final int id = functionNames.size() - 1;
+            output.println("    nanos[" + id + "] += System.nanoTime() - _t0;");
+            output.println("    calls[" + id + "]++;");
+        }
+
+        private String getFunctionNamesName() {
+            return "functionNames";
+        }
+    } // end class ProfilePipeline
+
+    //-------------------------------------------------------
+    protected class StateFilterPipeline extends PipelineEmitter {
+
+        String className;
+        /** Maps 'name/argument-count' of filtered methods to the redundancy check of GLStateFilter. */
+        private final HashMap<String, String> filters = new HashMap<String, String>();
+        /** Maps names of methods implicitly changing the shadowed state to the invalidation of GLStateFilter. */
+        private final HashMap<String, String> invalidations = new HashMap<String, String>();
+
+        StateFilterPipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "StateFilter" + getBaseInterfaceName();
+
+            filters.put("glUseProgram/1", "filterUseProgram(arg0)");
+            filters.put("glActiveTexture/1", "filterActiveTexture(arg0)");
+            filters.put("glBindTexture/2", "filterBindTexture(arg0, arg1)");
+            filters.put("glBindBuffer/2", "filterBindBuffer(arg0, arg1)");
+            filters.put("glBindVertexArray/1", "filterBindVertexArray(arg0)");
+            filters.put("glEnable/1", "filterCapability(arg0, true)");
+            filters.put("glDisable/1", "filterCapability(arg0, false)");
+            filters.put("glBlendFunc/2", "filterBlendFuncSeparate(arg0, arg1, arg0, arg1)");
+            filters.put("glBlendFuncSeparate/4", "filterBlendFuncSeparate(arg0, arg1, arg2, arg3)");
+            filters.put("glDepthFunc/1", "filterDepthFunc(arg0)");
+            filters.put("glDepthMask/1", "filterDepthMask(arg0)");
+            filters.put("glCullFace/1", "filterCullFace(arg0)");
+            filters.put("glFrontFace/1", "filterFrontFace(arg0)");
+
+            invalidations.put("glDeleteTextures", "invalidateTextureBindings()");
+            invalidations.put("glBindTextures", "invalidateTextureBindings()");
+            invalidations.put("glBindTextureUnit", "invalidateTextureBindings()");
+            invalidations.put("glBindMultiTextureEXT", "invalidateTextureBindings()");
+            invalidations.put("glDeleteBuffers", "invalidateBufferBindings()");
+            invalidations.put("glBindBufferBase", "invalidateBufferBindings()");
+            invalidations.put("glBindBufferRange", "invalidateBufferBindings()");
+            invalidations.put("glBindBuffersBase", "invalidateBufferBindings()");
+            invalidations.put("glBindBuffersRange", "invalidateBufferBindings()");
+            invalidations.put("glDeleteVertexArrays", "invalidateVertexArrayBinding()");
+            invalidations.put("glDeleteProgram", "invalidateProgram()");
+            invalidations.put("glUseProgramObjectARB", "invalidateProgram()");
+            invalidations.put("glEnablei", "invalidate()");
+            invalidations.put("glDisablei", "invalidate()");
+            invalidations.put("glBlendFunci", "invalidate()");
+            invalidations.put("glBlendFuncSeparatei", "invalidate()");
+            invalidations.put("glPopAttrib", "invalidate()");
+            invalidations.put("glPopClientAttrib", "invalidate()");
+            invalidations.put("glCallList", "invalidate()");
+            invalidations.put("glCallLists", "invalidate()");
+            invalidations.put("glNewList", "beginList()");
+            invalidations.put("glEndList", "endList()");
+        }
+
+        private String getFilter(final PlainMethod pm) {
+            final Method m = pm.getWrappedMethod();
+            return filters.get(m.getName() + "/" + m.getParameterTypes().length);
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected String getSuperClassNameOpt() {
+            return "GLStateFilter";
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * dropping calls which would not change the shadowed OpenGL state.");
+            output.println(" * See {@link GLStateFilter} for the filtered state and the invalidation API.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline:");
+            output.println(" * <pre>");
+            output.println(" *   gl = drawable.setGL(new " + className + "(drawable.getGL()." + "get" + baseName + "()));");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic() && null != getFilter(pm) && Void.TYPE == pm.getWrappedMethod().getReturnType();
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    if( " + getFilter(pm) + " ) {");
+            output.println("      return;");
+            output.println("    }");
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic() && invalidations.containsKey(pm.getWrappedMethod().getName());
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    " + invalidations.get(pm.getWrappedMethod().getName()) + ";");
+        }
+    } // end class StateFilterPipeline
+
     public static final void printFunctionCallString(final PrintWriter output, final Method m) {
         final Class<?>[] params = m.getParameterTypes();
         output.print("    \"" + m.getName() + "(\"");
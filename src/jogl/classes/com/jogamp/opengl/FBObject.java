@@ -28,6 +28,7 @@
 
 package com.jogamp.opengl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 
 import com.jogamp.opengl.GL;
@@ -44,6 +45,7 @@ import com.jogamp.opengl.GLProfile;
 import jogamp.opengl.Debug;
 
 import com.jogamp.common.ExceptionUtils;
+import com.jogamp.common.util.Bitfield;
 import com.jogamp.common.util.PropertyAccess;
 import com.jogamp.opengl.FBObject.Attachment.Type;
 
@@ -55,6 +57,11 @@ import com.jogamp.opengl.FBObject.Attachment.Type;
  * while preserving the {@link Attachment} references.
  * </p>
  * <p>
+ * Optionally the attachments may be over-allocated to a {@link #setSizeBucket(int) size bucket},
+ * avoiding reallocation while resizing within the bucket,
+ * and released attachments may be recycled via an {@link AttachmentPool} shared by all FBObjects of one {@link GLContext}.
+ * </p>
+ * <p>
  * Integrates default read/write framebuffers via {@link GLContext#getDefaultReadFramebuffer()} and {@link GLContext#getDefaultReadFramebuffer()},
  * which is being hooked at {@link GL#glBindFramebuffer(int, int)} when the default (<code>zero</code>) framebuffer is selected.
  * </p>
@@ -661,6 +668,178 @@ public class FBObject {
                                               "; name "+toHexString(getName())+", obj "+toHexString(objectHashCode())+"]";
         }
     }
+    /**
+     * Recycling pool of released {@link Attachment} GL objects, i.e. textures and renderbuffers,
+     * usually shared between all {@link FBObject}s of the same {@link GLContext}, see {@link #get(GL)}.
+     * <p>
+     * {@link Attachment}s released by an {@link FBObject} using this pool via {@link FBObject#setAttachmentPool(AttachmentPool)}
+     * are not deleted but kept idle, to be reused by the next uninitialized {@link Attachment}
+     * of same type, format, sample count, size and texture parameter.
+     * If more than {@link #getMaxIdleCount()} attachments are idle, the least recently released one is deleted.
+     * </p>
+     * <p>
+     * Attachments using a custom {@link StorageDefinition} shall not be used with a pool.
+     * </p>
+     * <p>
+     * The pool is not thread safe and shall only be used while its {@link GLContext} is current.
+     * </p>
+     */
+    public static final class AttachmentPool {
+        private static final String contextKey = "com.jogamp.opengl.FBObject.AttachmentPool";
+
+        /** Default maximum number of idle attachments, value {@value}. */
+        public static final int DEFAULT_MAX_IDLE = 16;
+
+        /**
+         * Returns the {@link AttachmentPool} attached to the current {@link GLContext} of the given {@link GL},
+         * creating and attaching a new instance w/ {@link #DEFAULT_MAX_IDLE} if none exists yet.
+         */
+        public static AttachmentPool get(final GL gl) {
+            final GLContext context = gl.getContext();
+            context.validateCurrent();
+            AttachmentPool pool = (AttachmentPool) context.getAttachedObject(contextKey);
+            if( null == pool ) {
+                pool = new AttachmentPool(DEFAULT_MAX_IDLE);
+                context.attachObject(contextKey, pool);
+            }
+            return pool;
+        }
+
+        private static final class Entry {
+            final Type type;
+            final int format, samples, width, height;
+            final int dataFormat, dataType, magFilter, minFilter, wrapS, wrapT;
+            final int name;
+
+            Entry(final Attachment a) {
+                type = a.type;
+                format = a.format;
+                width = a.getWidth();
+                height = a.getHeight();
+                name = a.getName();
+                if( a instanceof TextureAttachment ) {
+                    final TextureAttachment ta = (TextureAttachment)a;
+                    samples = 0;
+                    dataFormat = ta.dataFormat;
+                    dataType = ta.dataType;
+                    magFilter = ta.magFilter;
+                    minFilter = ta.minFilter;
+                    wrapS = ta.wrapS;
+                    wrapT = ta.wrapT;
+                } else {
+                    samples = ((RenderAttachment)a).getSamples();
+                    dataFormat = 0;
+                    dataType = 0;
+                    magFilter = 0;
+                    minFilter = 0;
+                    wrapS = 0;
+                    wrapT = 0;
+                }
+            }
+            boolean matches(final Attachment a) {
+                if( type != a.type || format != a.format || width != a.getWidth() || height != a.getHeight() ) {
+                    return false;
+                }
+                if( a instanceof TextureAttachment ) {
+                    final TextureAttachment ta = (TextureAttachment)a;
+                    return dataFormat == ta.dataFormat && dataType == ta.dataType &&
+                           magFilter == ta.magFilter && minFilter == ta.minFilter &&
+                           wrapS == ta.wrapS && wrapT == ta.wrapT;
+                } else {
+                    return samples == ((RenderAttachment)a).getSamples();
+                }
+            }
+            boolean isTexture() { return Type.COLOR_TEXTURE == type || Type.DEPTH_TEXTURE == type || Type.STENCIL_TEXTURE == type; }
+        }
+
+        /** Idle entries, least recently released first. */
+        private final ArrayList<Entry> idle = new ArrayList<Entry>();
+        private final int maxIdle;
+        private int hitCount, missCount;
+
+        /**
+         * Creates a new pool.
+         * @param maxIdle maximum number of idle attachments kept for reuse
+         */
+        public AttachmentPool(final int maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        /**
+         * Assigns the most recently released idle GL object matching the given uninitialized {@link Attachment}.
+         * @return {@code true} if a GL object has been assigned, otherwise {@code false}.
+         */
+        /* pp */ final boolean acquire(final Attachment a) {
+            for(int i=idle.size()-1; i>=0; i--) {
+                final Entry e = idle.get(i);
+                if( e.matches(a) ) {
+                    idle.remove(i);
+                    a.setName(e.name);
+                    hitCount++;
+                    if(DEBUG) {
+                        System.err.println("FBObject.AttachmentPool.acquire: recycled "+a);
+                    }
+                    return true;
+                }
+            }
+            missCount++;
+            return false;
+        }
+
+        /**
+         * Moves the GL object of the given initialized {@link Attachment} into this pool
+         * and resets its name to <code>zero</code>.
+         */
+        /* pp */ final void release(final GL gl, final Attachment a) {
+            if( 0 == a.getName() ) {
+                return;
+            }
+            if( 0 >= maxIdle ) {
+                a.free(gl);
+                return;
+            }
+            if(DEBUG) {
+                System.err.println("FBObject.AttachmentPool.release: "+a);
+            }
+            idle.add(new Entry(a));
+            a.setName(0);
+            while( idle.size() > maxIdle ) {
+                delete(gl, idle.remove(0));
+            }
+        }
+
+        private static void delete(final GL gl, final Entry e) {
+            final int[] name = new int[] { e.name };
+            if( e.isTexture() ) {
+                gl.glDeleteTextures(1, name, 0);
+            } else {
+                gl.glDeleteRenderbuffers(1, name, 0);
+            }
+        }
+
+        /** Deletes all idle GL objects of this pool. */
+        public final void clear(final GL gl) {
+            for(int i=0; i<idle.size(); i++) {
+                delete(gl, idle.get(i));
+            }
+            idle.clear();
+        }
+
+        /** Returns the maximum number of idle attachments kept for reuse. */
+        public final int getMaxIdleCount() { return maxIdle; }
+        /** Returns the number of idle attachments. */
+        public final int getIdleCount() { return idle.size(); }
+        /** Returns the number of attachments served from this pool. */
+        public final int getHitCount() { return hitCount; }
+        /** Returns the number of attachments not served from this pool and hence newly allocated. */
+        public final int getMissCount() { return missCount; }
+
+        @Override
+        public String toString() {
+            return "AttachmentPool[idle "+idle.size()+"/"+maxIdle+", hits "+hitCount+", misses "+missCount+"]";
+        }
+    }
+
     static String toHexString(final int v) {
         return "0x"+Integer.toHexString(v);
     }
@@ -807,6 +986,9 @@ public class FBObject {
     private int maxColorAttachments, maxSamples, maxTextureSize, maxRenderbufferSize;
 
     private int width, height, samples;
+    private int allocWidth, allocHeight;
+    private int sizeBucket;
+    private AttachmentPool attachmentPool;
     private int vStatus;
     private boolean ignoreStatus;
     private int fbName;
@@ -983,6 +1165,10 @@ public class FBObject {
         this.width = 0;
         this.height = 0;
         this.samples = 0;
+        this.allocWidth = 0;
+        this.allocHeight = 0;
+        this.sizeBucket = SIZE_BUCKET_NONE;
+        this.attachmentPool = null;
         this.vStatus = -1;
         this.ignoreStatus = false;
         this.fbName = 0;
@@ -1072,9 +1258,11 @@ public class FBObject {
         this.width = 0 < newWidth ? newWidth : 1;
         this.height = 0 < newHeight ? newHeight : 1;
         this.samples = newSamples <= maxSamples ? newSamples : maxSamples;
+        this.allocWidth = getBucketSize(width);
+        this.allocHeight = getBucketSize(height);
 
         if(DEBUG) {
-            System.err.println("FBObject.init() START: "+width+"x"+height+", "+newSamples+" -> "+this.samples+" samples");
+            System.err.println("FBObject.init() START: "+width+"x"+height+" (alloc "+allocWidth+"x"+allocHeight+"), "+newSamples+" -> "+this.samples+" samples");
             System.err.println("fullFBOSupport:           "+fullFBOSupport);
             System.err.println("maxColorAttachments:      "+maxColorAttachments+"/"+realMaxColorAttachments+" [capped/real]");
             System.err.println("maxSamples:               "+maxSamples);
@@ -1095,8 +1283,8 @@ public class FBObject {
 
         checkPreGLError(gl);
 
-        if( width > maxRenderbufferSize || height > maxRenderbufferSize  ) {
-            throw new GLException("Size "+width+"x"+height+" exceeds on of the maxima renderbuffer size "+maxRenderbufferSize+": \n\t"+this);
+        if( allocWidth > maxRenderbufferSize || allocHeight > maxRenderbufferSize  ) {
+            throw new GLException("Size "+allocWidth+"x"+allocHeight+" exceeds on of the maxima renderbuffer size "+maxRenderbufferSize+": \n\t"+this);
         }
 
         modified = true;
@@ -1130,6 +1318,9 @@ public class FBObject {
      * <p>
      * In case the new parameters are compatible with the current ones
      * no action will be performed and method returns immediately.<br>
+     * In case only the size has changed and the new size still fits the
+     * current {@link #setSizeBucket(int) size bucket}, only the logical size
+     * is updated and the attachments are kept.<br>
      * Otherwise all attachments will be recreated
      * to match the new given parameters.
      * </p>
@@ -1164,9 +1355,25 @@ public class FBObject {
             if( newWidth > maxRenderbufferSize || newHeight > maxRenderbufferSize  ) {
                 throw new GLException("Size "+newWidth+"x"+newHeight+" exceeds on of the maxima renderbuffer size "+maxRenderbufferSize+": \n\t"+this);
             }
+            final int newAllocWidth = getBucketSize(newWidth);
+            final int newAllocHeight = getBucketSize(newHeight);
+
+            if( newSamples == samples && newAllocWidth == allocWidth && newAllocHeight == allocHeight ) {
+                // within size bucket: keep attachments, only the logical size changes
+                if(DEBUG) {
+                    System.err.println("FBObject.reset - BUCKET - "+width+"x"+height+" -> "+newWidth+"x"+newHeight+", alloc "+allocWidth+"x"+allocHeight);
+                }
+                width = newWidth;
+                height = newHeight;
+                modified = true;
+                samplingSinkDirty = true;
+                resetSamplingSink(gl);
+                return true;
+            }
 
             if(DEBUG) {
-                System.err.println("FBObject.reset - START - "+width+"x"+height+", "+samples+" -> "+newWidth+"x"+newHeight+", "+newSamples+"; "+this);
+                System.err.println("FBObject.reset - START - "+width+"x"+height+", "+samples+" -> "+newWidth+"x"+newHeight+", "+newSamples+
+                                   ", alloc "+allocWidth+"x"+allocHeight+" -> "+newAllocWidth+"x"+newAllocHeight+"; "+this);
             }
 
             final boolean wasBound = isBound();
@@ -1183,6 +1390,8 @@ public class FBObject {
             }
             width = newWidth;
             height = newHeight;
+            allocWidth = newAllocWidth;
+            allocHeight = newAllocHeight;
             samples = newSamples;
 
             modified = true;
@@ -1206,6 +1415,9 @@ public class FBObject {
 
     /**
      * Simply resets this instance's size only, w/o validation.
+     * <p>
+     * Attachments are only recreated if the new size doesn't fit the current {@link #setSizeBucket(int) size bucket}.
+     * </p>
      *
      * <p>Leaves the FBO bound</p>
      *
@@ -1219,19 +1431,114 @@ public class FBObject {
         }
 
         final int sampleCountChange = 0; // keep MSAA settings
+        final int newAllocWidth = getBucketSize(newWidth);
+        final int newAllocHeight = getBucketSize(newHeight);
         width = newWidth;
         height = newHeight;
 
         modified = true;
         samplingSinkDirty = true;
 
-        detachAllImpl(gl, true, true, sampleCountChange);
+        if( newAllocWidth != allocWidth || newAllocHeight != allocHeight ) {
+            allocWidth = newAllocWidth;
+            allocHeight = newAllocHeight;
+            detachAllImpl(gl, true, true, sampleCountChange);
+        } else {
+            bind(gl);
+        }
 
         if(DEBUG) {
             System.err.println("FBObject.resetSize - END - "+this);
         }
     }
 
+    /** No size bucket, attachments are allocated w/ the exact {@link #getWidth() size}, value {@value}. */
+    public static final int SIZE_BUCKET_NONE = 0;
+
+    /** Size bucket rounding the allocated size up to the next power of two, value {@value}. */
+    public static final int SIZE_BUCKET_POT = -1;
+
+    /**
+     * Sets the size bucket used to over-allocate all attachments, taking effect at next {@link #init(GL, int, int, int) init}
+     * or size changing {@link #reset(GL, int, int, int) reset}.
+     * <p>
+     * If enabled, the attachments are allocated w/ the logical size rounded up to the bucket,
+     * see {@link #getAllocatedWidth()} and {@link #getAllocatedHeight()},
+     * and {@link #reset(GL, int, int, int) reset} only recreates them when crossing a bucket boundary.
+     * The rendered region is the lower left {@link #getWidth()} x {@link #getHeight()} sub-rectangle,
+     * hence the viewport must be set to the logical size and a sampled {@link TextureAttachment}
+     * requires its texture coordinates to be scaled by the logical size / allocated size ratio.
+     * </p>
+     * <p>
+     * The allocated size is capped to {@link #getMaxTextureSize()} and {@link #getMaxRenderbufferSize()},
+     * but never below the logical size.
+     * </p>
+     * @param sizeBucket {@link #SIZE_BUCKET_NONE} (default), {@link #SIZE_BUCKET_POT}
+     *                   or a positive step in pixels, e.g. 64.
+     * @throws IllegalArgumentException if {@code sizeBucket} is invalid
+     */
+    public final void setSizeBucket(final int sizeBucket) throws IllegalArgumentException {
+        if( SIZE_BUCKET_POT > sizeBucket ) {
+            throw new IllegalArgumentException("Invalid sizeBucket "+sizeBucket+", "+this);
+        }
+        this.sizeBucket = sizeBucket;
+    }
+    /** Returns the size bucket, see {@link #setSizeBucket(int)}. */
+    public final int getSizeBucket() { return sizeBucket; }
+
+    private final int getBucketSize(final int size) {
+        final int res;
+        if( SIZE_BUCKET_POT == sizeBucket ) {
+            res = Bitfield.Util.roundToPowerOf2(size);
+        } else if( 0 < sizeBucket ) {
+            res = ( ( size + sizeBucket - 1 ) / sizeBucket ) * sizeBucket;
+        } else {
+            return size;
+        }
+        final int maxSize = 0 < maxTextureSize ? Math.min(maxTextureSize, maxRenderbufferSize) : maxRenderbufferSize;
+        return res <= maxSize ? res : Math.max(size, maxSize);
+    }
+
+    /**
+     * Sets the {@link AttachmentPool} used to recycle released attachments of this instance
+     * and its internally created {@link #getSamplingSinkFBO() sampling sink}.
+     * <p>
+     * Usually the pool shared by all FBObjects of the current context is used, i.e. {@link AttachmentPool#get(GL)}.
+     * </p>
+     * @param pool the pool to use or {@code null} to disable recycling (default)
+     */
+    public final void setAttachmentPool(final AttachmentPool pool) {
+        attachmentPool = pool;
+        if( null != samplingSink ) {
+            samplingSink.setAttachmentPool(pool);
+        }
+    }
+    /** Returns the {@link AttachmentPool} used, or {@code null}, see {@link #setAttachmentPool(AttachmentPool)}. */
+    public final AttachmentPool getAttachmentPool() { return attachmentPool; }
+
+    /**
+     * {@link Attachment#initialize(GL) Initializes} the given attachment, if uninitialized,
+     * using a recycled GL object from the {@link AttachmentPool} if available.
+     * @return {@code true} if newly initialized or recycled, otherwise {@code false}.
+     */
+    private final boolean initializeAttachment(final GL gl, final Attachment a) throws GLException {
+        if( null != attachmentPool && 0 == a.getName() && attachmentPool.acquire(a) ) {
+            return true;
+        }
+        return a.initialize(gl);
+    }
+
+    /**
+     * {@link Attachment#free(GL) Frees} the given attachment or moves it into the {@link AttachmentPool}, if used.
+     */
+    private final void freeAttachment(final GL gl, final Attachment a) throws GLException {
+        if( null != attachmentPool ) {
+            attachmentPool.release(gl, a);
+        } else {
+            a.free(gl);
+        }
+    }
+
     private void validateAttachmentSize(final Attachment a) {
         final int aWidth = a.getWidth();
         final int aHeight = a.getHeight();
@@ -1397,7 +1704,7 @@ public class FBObject {
      */
     public final TextureAttachment attachTexture2D(final GL gl, final int attachmentPoint, final boolean alpha) throws GLException {
         return attachColorbuffer(gl, attachmentPoint,
-                                 createColorTextureAttachment(gl, alpha, width, height)).getTextureAttachment();
+                                 createColorTextureAttachment(gl, alpha, allocWidth, allocHeight)).getTextureAttachment();
     }
 
     /**
@@ -1419,7 +1726,7 @@ public class FBObject {
      */
     public final TextureAttachment attachTexture2D(final GL gl, final int attachmentPoint, final boolean alpha, final int magFilter, final int minFilter, final int wrapS, final int wrapT) throws GLException {
         return attachColorbuffer(gl, attachmentPoint,
-                                 createColorTextureAttachment(gl, alpha, width, height, magFilter, minFilter, wrapS, wrapT)).getTextureAttachment();
+                                 createColorTextureAttachment(gl, alpha, allocWidth, allocHeight, magFilter, minFilter, wrapS, wrapT)).getTextureAttachment();
     }
 
     /**
@@ -1444,7 +1751,7 @@ public class FBObject {
                                                    final int internalFormat, final int dataFormat, final int dataType,
                                                    final int magFilter, final int minFilter, final int wrapS, final int wrapT) throws GLException {
         return attachColorbuffer(gl, attachmentPoint,
-                                 createColorTextureAttachment(internalFormat, width, height, dataFormat, dataType, magFilter, minFilter, wrapS, wrapT)).getTextureAttachment();
+                                 createColorTextureAttachment(internalFormat, allocWidth, allocHeight, dataFormat, dataType, magFilter, minFilter, wrapS, wrapT)).getTextureAttachment();
     }
 
     /**
@@ -1466,7 +1773,7 @@ public class FBObject {
         } else {
             internalFormat = alpha ? GL.GL_RGBA4 : GL.GL_RGB565;
         }
-        return createColorAttachment(internalFormat, samples, width, height);
+        return createColorAttachment(internalFormat, samples, allocWidth, allocHeight);
     }
 
     /**
@@ -1530,7 +1837,7 @@ public class FBObject {
             throw new IllegalArgumentException("colorformat invalid: "+toHexString(internalFormat)+", "+this);
         }
 
-        return attachColorbuffer(gl, attachmentPoint, createColorAttachment(internalFormat, samples, width, height)).getColorAttachment();
+        return attachColorbuffer(gl, attachmentPoint, createColorAttachment(internalFormat, samples, allocWidth, allocHeight)).getColorAttachment();
     }
 
     /**
@@ -1563,7 +1870,7 @@ public class FBObject {
         validateAddColorAttachment(attachmentPoint, colbuf);
         validateAttachmentSize((Attachment)colbuf);
 
-        final boolean initializedColorbuf = colbuf.initialize(gl);
+        final boolean initializedColorbuf = initializeAttachment(gl, (Attachment)colbuf);
         addColorAttachment(attachmentPoint, colbuf, false);
 
         if( colbuf.isTextureAttachment() ) {
@@ -1571,7 +1878,7 @@ public class FBObject {
             if( samples > 0 ) {
                 removeColorAttachment(attachmentPoint, texA);
                 if( initializedColorbuf ) {
-                    texA.free(gl);
+                    freeAttachment(gl, texA);
                 }
                 throw new GLException("Texture2D not supported w/ MSAA. If you have enabled MSAA with exisiting texture attachments, you may want to detach them via detachAllTexturebuffer(gl).");
             }
@@ -1798,34 +2105,34 @@ public class FBObject {
         // atype and current depth and stencil instance are already validated in 'attachRenderbufferImpl(..)'
         if( Attachment.Type.DEPTH == atype ) {
             if(null == depth) {
-                depth = createRenderAttachment(Type.DEPTH, internalFormat, samples, width, height);
+                depth = createRenderAttachment(Type.DEPTH, internalFormat, samples, allocWidth, allocHeight);
             } else {
-                depth.setSize(width, height);
+                depth.setSize(allocWidth, allocHeight);
                 depth.setSamples(samples);
             }
             validateAttachmentSize(depth);
-            depth.initialize(gl);
+            initializeAttachment(gl, depth);
         } else if( Attachment.Type.STENCIL == atype ) {
             if(null == stencil) {
-                stencil = createRenderAttachment(Type.STENCIL, internalFormat, samples, width, height);
+                stencil = createRenderAttachment(Type.STENCIL, internalFormat, samples, allocWidth, allocHeight);
             } else {
-                stencil.setSize(width, height);
+                stencil.setSize(allocWidth, allocHeight);
                 stencil.setSamples(samples);
             }
             validateAttachmentSize(stencil);
-            stencil.initialize(gl);
+            initializeAttachment(gl, stencil);
         } else if( Attachment.Type.DEPTH_STENCIL == atype ) {
             if(null == depth) {
                 if(null != stencil) {
                     throw new InternalError("XXX: DEPTH_STENCIL, depth was null, stencil not: "+this.toString());
                 }
-                depth = createRenderAttachment(Type.DEPTH_STENCIL, internalFormat, samples, width, height);
+                depth = createRenderAttachment(Type.DEPTH_STENCIL, internalFormat, samples, allocWidth, allocHeight);
             } else {
-                depth.setSize(width, height);
+                depth.setSize(allocWidth, allocHeight);
                 depth.setSamples(samples);
             }
             validateAttachmentSize(depth);
-            depth.initialize(gl);
+            initializeAttachment(gl, depth);
             // DEPTH_STENCIL shares buffer w/ depth and stencil
             stencil = depth;
         }
@@ -1897,7 +2204,7 @@ public class FBObject {
                 switch(detachAction) {
                     case DISPOSE:
                     case RECREATE:
-                        texA.free(gl);
+                        freeAttachment(gl, texA);
                         break;
                     default:
                 }
@@ -1909,7 +2216,7 @@ public class FBObject {
                     colbufNew = createColorAttachment(hasAlpha(texA.format));
                 } else {
                     // keep MSAA settings
-                    texA.setSize(width, height);
+                    texA.setSize(allocWidth, allocHeight);
                     colbufNew = texA;
                 }
                 attachColorbufferImpl(gl, attachmentPoint, colbufNew);
@@ -1923,7 +2230,7 @@ public class FBObject {
                 switch(detachAction) {
                     case DISPOSE:
                     case RECREATE:
-                        colA.free(gl);
+                        freeAttachment(gl, colA);
                         break;
                     default:
                 }
@@ -1934,19 +2241,19 @@ public class FBObject {
                     // keep ColorAttachment,
                     // including 'switch to non-MSAA' if no samplingColorSink is available
                     // to determine whether a TextureAttachment or ColorAttachment is desired!
-                    colA.setSize(width, height);
+                    colA.setSize(allocWidth, allocHeight);
                     colA.setSamples(samples);
                     colbufNew = colA;
                 } else {
                     // switch to non MSAA
                     if( samplingColorSink.isTextureAttachment() ) {
                         final TextureAttachment samplingTextureSink = samplingColorSink.getTextureAttachment();
-                        colbufNew = createColorTextureAttachment(samplingTextureSink.format, width, height,
+                        colbufNew = createColorTextureAttachment(samplingTextureSink.format, allocWidth, allocHeight,
                                                                  samplingTextureSink.dataFormat, samplingTextureSink.dataType,
                                                                  samplingTextureSink.magFilter, samplingTextureSink.minFilter,
                                                                  samplingTextureSink.wrapS, samplingTextureSink.wrapT);
                     } else {
-                        colbufNew = createColorAttachment(samplingColorSink.getFormat(), 0, width, height);
+                        colbufNew = createColorAttachment(samplingColorSink.getFormat(), 0, allocWidth, allocHeight);
                     }
                 }
                 attachColorbuffer(gl, attachmentPoint, colbufNew);
@@ -1971,7 +2278,7 @@ public class FBObject {
                                   GL.GL_TEXTURE_2D, 0, 0);
                     gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
                 }
-                texA.free(gl);
+                freeAttachment(gl, texA);
             } else {
                 final ColorAttachment colA = colbuf.getColorAttachment();
                 if( 0 != colA.getName() ) {
@@ -1979,7 +2286,7 @@ public class FBObject {
                                                  GL.GL_COLOR_ATTACHMENT0 + i,
                                                  GL.GL_RENDERBUFFER, 0);
                 }
-                colA.free(gl);
+                freeAttachment(gl, colA);
             }
         }
     }
@@ -2043,7 +2350,7 @@ public class FBObject {
                         switch(detachAction) {
                             case DISPOSE:
                             case RECREATE:
-                                renderOld.free(gl);
+                                freeAttachment(gl, renderOld);
                                 break;
                             default:
                         }
@@ -2064,7 +2371,7 @@ public class FBObject {
                         switch(detachAction) {
                             case DISPOSE:
                             case RECREATE:
-                                renderOld.free(gl);
+                                freeAttachment(gl, renderOld);
                                 break;
                             default:
                         }
@@ -2088,7 +2395,7 @@ public class FBObject {
                         switch(detachAction) {
                             case DISPOSE:
                             case RECREATE:
-                                renderOld.free(gl);
+                                freeAttachment(gl, renderOld);
                                 break;
                             default:
                         }
@@ -2109,7 +2416,7 @@ public class FBObject {
                         switch(detachAction) {
                             case DISPOSE:
                             case RECREATE:
-                                stencil.free(gl);
+                                freeAttachment(gl, stencil);
                                 break;
                             default:
                         }
@@ -2137,13 +2444,13 @@ public class FBObject {
                 if(packed) {
                     gl.glFramebufferRenderbuffer(GL.GL_FRAMEBUFFER, GL.GL_STENCIL_ATTACHMENT, GL.GL_RENDERBUFFER, 0);
                 }
-                depth.free(gl);
+                freeAttachment(gl, depth);
             }
         }
         if( !packed && null != stencil ) {
             if(0 != stencil.getName()) {
                 gl.glFramebufferRenderbuffer(GL.GL_FRAMEBUFFER, GL.GL_STENCIL_ATTACHMENT, GL.GL_RENDERBUFFER, 0);
-                stencil.free(gl);
+                freeAttachment(gl, stencil);
             }
         }
     }
@@ -2293,7 +2600,8 @@ public class FBObject {
     }
 
     private final boolean sampleSinkSizeMismatch() {
-        return samplingSink.getWidth() != width || samplingSink.getHeight() != height ;
+        return samplingSink.getWidth() != width || samplingSink.getHeight() != height ||
+               samplingSink.getAllocatedWidth() != allocWidth || samplingSink.getAllocatedHeight() != allocHeight ;
     }
     private final boolean sampleSinkDepthStencilMismatch() {
         if ( ( null != depth && ( null == samplingSink.depth || depth.format != samplingSink.depth.format ) )
@@ -2384,6 +2692,8 @@ public class FBObject {
 
         if( null == samplingSink ) {
             samplingSink = new FBObject();
+            samplingSink.setSizeBucket(sizeBucket);
+            samplingSink.setAttachmentPool(attachmentPool);
             samplingSink.init(gl, width, height, 0);
             samplingColorSink = null;
             modifiedInstance = true;
@@ -2447,6 +2757,7 @@ public class FBObject {
             samplingSink.detachAllColorbuffer(gl);
             samplingColorSink = null;
         } else if( sampleSinkSizeMismatch ) {
+            samplingSink.setSizeBucket(sizeBucket);
             samplingSink.resetSizeImpl(gl, width, height);
             samplingColorSink = samplingSink.getColorbuffer(0);
         }
@@ -2456,11 +2767,11 @@ public class FBObject {
             if( null != cb0 ) {
                 // match pre-existing format
                 if( samplingColorSinkShallBeTA ) {
-                    samplingColorSink = createColorTextureAttachment(gl, cb0.getFormat(), width, height,
+                    samplingColorSink = createColorTextureAttachment(gl, cb0.getFormat(), allocWidth, allocHeight,
                                                                      GL.GL_NEAREST, GL.GL_NEAREST,
                                                                      GL.GL_CLAMP_TO_EDGE, GL.GL_CLAMP_TO_EDGE);
                 } else {
-                    samplingColorSink = createColorAttachment(cb0.getFormat(), 0, width, height);
+                    samplingColorSink = createColorAttachment(cb0.getFormat(), 0, allocWidth, allocHeight);
                 }
                 samplingSink.attachColorbuffer(gl, 0, samplingColorSink);
             } else {
@@ -2764,6 +3075,10 @@ public class FBObject {
     public final int getWidth() { return width; }
     /** Returns the height */
     public final int getHeight() { return height; }
+    /** Returns the allocated width of all attachments, which may exceed {@link #getWidth()}, see {@link #setSizeBucket(int)}. */
+    public final int getAllocatedWidth() { return allocWidth; }
+    /** Returns the allocated height of all attachments, which may exceed {@link #getHeight()}, see {@link #setSizeBucket(int)}. */
+    public final int getAllocatedHeight() { return allocHeight; }
     /** Returns the number of samples for multisampling (MSAA). zero if no multisampling is used. */
     public final int getNumSamples() { return samples; }
     /** Returns the framebuffer name to render to. */
@@ -2812,6 +3127,7 @@ public class FBObject {
     public final String toString() {
         final String caps = null != colorbufferAttachments ? Arrays.asList(colorbufferAttachments).toString() : null ;
         return "FBO[name r/w "+fbName+"/"+getReadFramebuffer()+", init "+initialized+", bound "+bound+", size "+width+"x"+height+
+               ", alloc "+allocWidth+"x"+allocHeight+", bucket "+sizeBucket+
                ", samples "+samples+"/"+maxSamples+", modified "+modified+"/"+isModified()+", depth "+depth+", stencil "+stencil+
                ", colorbuffer attachments: "+colorbufferCount+"/"+maxColorAttachments+", with "+textureAttachmentCount+" textures"+
                ": "+caps+", msaa["+samplingColorSink+", hasSink "+(null != samplingSink)+
@@ -410,6 +410,27 @@ public interface GLAutoDrawable extends GLDrawable {
    */
   public Thread getExclusiveContextThread();
 
+  /**
+   * Enables or disables recording of per-frame timings of this drawable's {@link #display()} cycle,
+   * i.e. the CPU time of each {@link GLEventListener#display(GLAutoDrawable) listener},
+   * the {@link #invoke(boolean, GLRunnable) enqueued} {@link GLRunnable}s, the buffer swap
+   * and the GPU time if supported.
+   * <p>
+   * Recording is disabled by default. Enabling replaces a previous {@link GLFrameProfiler}
+   * with a new empty one.
+   * </p>
+   * @param frameCapacity number of most recent frames to retain, e.g. {@link GLFrameProfiler#DEFAULT_FRAME_CAPACITY},
+   *                      or 0 to disable recording
+   * @return the new {@link GLFrameProfiler} or <code>null</code> if disabled
+   * @see GLFrameProfiler
+   */
+  public GLFrameProfiler setFrameProfiling(int frameCapacity);
+
+  /**
+   * Returns the {@link GLFrameProfiler} if enabled via {@link #setFrameProfiling(int)}, otherwise <code>null</code>.
+   */
+  public GLFrameProfiler getFrameProfiler();
+
   /**
    * Enqueues a one-shot {@link GLRunnable},
    * which will be executed within the next {@link #display()} call
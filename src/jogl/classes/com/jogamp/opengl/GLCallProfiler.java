@@ -0,0 +1,284 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Base class of the generated composable <code>ProfileGL*</code> pipelines,
+ * counting calls and accumulating the CPU time spent per GL entry point.
+ * <p>
+ * Sample code which installs the pipeline:
+ * <pre>
+ *   gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Profile", null, gl, null) );
+ *   final GLCallProfiler profiler = (GLCallProfiler) gl;
+ * </pre>
+ * and which dumps the 10 most expensive functions of each frame, e.g. at the end of {@link GLEventListener#display(GLAutoDrawable)}:
+ * <pre>
+ *   System.err.println( profiler.endFrame().toString(10, true) );
+ * </pre>
+ * </p>
+ * <p>
+ * Statistics are kept in primitive arrays indexed by the function id,
+ * i.e. the index of the entry point's name in {@link #getFunctionName(int)}.
+ * Overloaded entry points share one id.
+ * Counting does not allocate or lock, hence statistics shall be read on the GL thread
+ * which issues the calls, otherwise values of a {@link #snapshot()} may be inconsistent.
+ * </p>
+ */
+public abstract class GLCallProfiler {
+    /** Category of entry points not being a {@link #CATEGORY_DRAW draw call} nor a {@link #CATEGORY_STATE state change}, {@value}. */
+    public static final int CATEGORY_OTHER = 0;
+    /**
+     * Category of draw calls, i.e. <code>glDrawArrays*</code>, <code>glDrawElements*</code>, <code>glDrawRangeElements*</code>,
+     * <code>glMultiDraw*</code>, <code>glDispatchCompute*</code>, <code>glCallList[s]</code> and <code>glBegin</code>, {@value}.
+     */
+    public static final int CATEGORY_DRAW  = 1;
+    /** Category of state changes, e.g. <code>glBind*</code>, <code>glUseProgram</code>, <code>glEnable</code> or <code>glBlendFunc</code>, {@value}. */
+    public static final int CATEGORY_STATE = 2;
+
+    /** Prefixes of draw call families, excluding e.g. <code>glDrawBuffer[s]</code> and <code>glDrawPixels</code>. */
+    private static final String[] drawPrefixes = { "glDrawArrays", "glDrawElements", "glDrawRangeElements", "glMultiDraw", "glDispatchCompute" };
+    /** Exact draw call names, excluding e.g. <code>glBeginQuery</code> or <code>glBeginTransformFeedback</code>. */
+    private static final HashSet<String> drawNames = new HashSet<String>(Arrays.asList("glCallList", "glCallLists", "glBegin"));
+    private static final String[] statePrefixes = {
+        "glBind", "glUseProgram", "glActiveTexture", "glClientActiveTexture", "glEnable", "glDisable",
+        "glBlend", "glDepthFunc", "glDepthMask", "glDepthRange", "glStencil", "glColorMask", "glCullFace", "glFrontFace",
+        "glPolygonMode", "glPolygonOffset", "glLineWidth", "glPointSize", "glViewport", "glScissor",
+        "glPixelStore", "glTexParameter", "glSamplerParameter", "glUniform", "glVertexAttribPointer",
+        "glMatrixMode", "glLoadIdentity", "glLoadMatrix", "glShadeModel", "glClearColor", "glClearDepth" };
+
+    /**
+     * Returns the {@link #CATEGORY_OTHER category} of the given entry point name.
+     */
+    public static int getCategory(final String name) {
+        if( drawNames.contains(name) ) {
+            return CATEGORY_DRAW;
+        }
+        for(int i=0; i<drawPrefixes.length; i++) {
+            if( name.startsWith(drawPrefixes[i]) ) {
+                return CATEGORY_DRAW;
+            }
+        }
+        for(int i=0; i<statePrefixes.length; i++) {
+            if( name.startsWith(statePrefixes[i]) ) {
+                return CATEGORY_STATE;
+            }
+        }
+        return CATEGORY_OTHER;
+    }
+
+    private final String[] names;
+    private final byte[] categories;
+    /** Call count per function id, incremented by the generated pipeline. */
+    protected final long[] calls;
+    /** Accumulated CPU time in nanoseconds per function id, incremented by the generated pipeline. */
+    protected final long[] nanos;
+    private final long[] frameCalls;
+    private final long[] frameNanos;
+
+    /**
+     * @param names the sorted entry point names, indexed by function id
+     */
+    protected GLCallProfiler(final String[] names) {
+        this.names = names;
+        this.categories = new byte[names.length];
+        for(int i=0; i<names.length; i++) {
+            categories[i] = (byte) getCategory(names[i]);
+        }
+        this.calls = new long[names.length];
+        this.nanos = new long[names.length];
+        this.frameCalls = new long[names.length];
+        this.frameNanos = new long[names.length];
+    }
+
+    /** Returns the number of profiled entry points, i.e. the upper bound of function ids. */
+    public final int getFunctionCount() { return names.length; }
+
+    /** Returns the entry point name of the given function id. */
+    public final String getFunctionName(final int id) { return names[id]; }
+
+    /**
+     * Returns the function id of the given entry point name, or <code>-1</code> if not profiled.
+     */
+    public final int getFunctionId(final String name) {
+        final int id = Arrays.binarySearch(names, name);
+        return 0 <= id ? id : -1;
+    }
+
+    /** Returns the total call count of the given function id since creation or {@link #reset()}. */
+    public final long getCallCount(final int id) { return calls[id]; }
+
+    /** Returns the total CPU time in nanoseconds of the given function id since creation or {@link #reset()}. */
+    public final long getCallNanos(final int id) { return nanos[id]; }
+
+    /** Returns a snapshot of all statistics since creation or {@link #reset()}. */
+    public final Snapshot snapshot() {
+        return new Snapshot(names, categories, calls.clone(), nanos.clone());
+    }
+
+    /**
+     * Returns a snapshot of the statistics since the previous call of this method, or since creation or {@link #reset()},
+     * and starts a new frame.
+     */
+    public final Snapshot endFrame() {
+        final int n = names.length;
+        final long[] dCalls = new long[n];
+        final long[] dNanos = new long[n];
+        for(int i=0; i<n; i++) {
+            final long c = calls[i];
+            final long t = nanos[i];
+            dCalls[i] = c - frameCalls[i];
+            dNanos[i] = t - frameNanos[i];
+            frameCalls[i] = c;
+            frameNanos[i] = t;
+        }
+        return new Snapshot(names, categories, dCalls, dNanos);
+    }
+
+    /** Clears all statistics. */
+    public final void reset() {
+        Arrays.fill(calls, 0);
+        Arrays.fill(nanos, 0);
+        Arrays.fill(frameCalls, 0);
+        Arrays.fill(frameNanos, 0);
+    }
+
+    /** Immutable statistics of a time span, see {@link GLCallProfiler#snapshot()} and {@link GLCallProfiler#endFrame()}. */
+    public static final class Snapshot {
+        private final String[] names;
+        private final byte[] categories;
+        private final long[] calls;
+        private final long[] nanos;
+
+        Snapshot(final String[] names, final byte[] categories, final long[] calls, final long[] nanos) {
+            this.names = names;
+            this.categories = categories;
+            this.calls = calls;
+            this.nanos = nanos;
+        }
+
+        /** Returns the number of function ids. */
+        public int getFunctionCount() { return names.length; }
+        /** Returns the entry point name of the given function id. */
+        public String getFunctionName(final int id) { return names[id]; }
+        /** Returns the call count of the given function id. */
+        public long getCallCount(final int id) { return calls[id]; }
+        /** Returns the CPU time in nanoseconds of the given function id. */
+        public long getCallNanos(final int id) { return nanos[id]; }
+
+        /** Returns the number of calls of all entry points. */
+        public long getTotalCalls() { return sumCalls(-1); }
+        /** Returns the CPU time in nanoseconds of all entry points. */
+        public long getTotalNanos() { return sumNanos(-1); }
+        /** Returns the number of {@link GLCallProfiler#CATEGORY_DRAW draw calls}. */
+        public long getDrawCalls() { return sumCalls(CATEGORY_DRAW); }
+        /** Returns the number of {@link GLCallProfiler#CATEGORY_STATE state changes}. */
+        public long getStateChanges() { return sumCalls(CATEGORY_STATE); }
+
+        private long sumCalls(final int category) {
+            long s = 0;
+            for(int i=0; i<calls.length; i++) {
+                if( 0 > category || categories[i] == category ) {
+                    s += calls[i];
+                }
+            }
+            return s;
+        }
+        private long sumNanos(final int category) {
+            long s = 0;
+            for(int i=0; i<nanos.length; i++) {
+                if( 0 > category || categories[i] == category ) {
+                    s += nanos[i];
+                }
+            }
+            return s;
+        }
+
+        /**
+         * Returns the function ids of the top <code>n</code> called entry points in descending order,
+         * omitting entry points not being called.
+         * @param n maximum number of returned ids
+         * @param byTime if <code>true</code> order by CPU time, otherwise by call count
+         */
+        public int[] getTop(final int n, final boolean byTime) {
+            final long[] values = byTime ? nanos : calls;
+            final int[] top = new int[Math.max(0, Math.min(n, values.length))];
+            int count = 0;
+            for(int i=0; i<values.length && 0<top.length; i++) {
+                if( 0 == calls[i] ) {
+                    continue;
+                }
+                // insertion into the descending top list, dropping its last element if full
+                final long v = values[i];
+                int j;
+                if( count < top.length ) {
+                    j = count++;
+                } else if( values[top[count-1]] < v ) {
+                    j = count-1;
+                } else {
+                    continue;
+                }
+                while( j > 0 && values[top[j-1]] < v ) {
+                    top[j] = top[j-1];
+                    j--;
+                }
+                top[j] = i;
+            }
+            if( count < top.length ) {
+                final int[] res = new int[count];
+                System.arraycopy(top, 0, res, 0, count);
+                return res;
+            }
+            return top;
+        }
+
+        /**
+         * Returns a summary of the totals and the top <code>n</code> entry points.
+         * @param n maximum number of listed entry points
+         * @param byTime if <code>true</code> order by CPU time, otherwise by call count
+         */
+        public String toString(final int n, final boolean byTime) {
+            final StringBuilder sb = new StringBuilder();
+            sb.append("GLCalls[calls ").append(getTotalCalls()).append(", ").append(getTotalNanos()/1000).append(" us, draw ")
+              .append(getDrawCalls()).append(", state ").append(getStateChanges()).append("]");
+            final int[] top = getTop(n, byTime);
+            for(int i=0; i<top.length; i++) {
+                final int id = top[i];
+                sb.append(String.format("%n  %2d: %-32s %8d calls, %10.3f us", i+1, names[id], calls[id], nanos[id]/1000.0));
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return toString(10, true);
+        }
+    }
+}
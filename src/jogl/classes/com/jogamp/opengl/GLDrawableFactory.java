@@ -386,6 +386,21 @@ public abstract class GLDrawableFactory {
   }
   protected abstract boolean createSharedResourceImpl(AbstractGraphicsDevice device);
 
+  /**
+   * Variant of {@link #createSharedResource(AbstractGraphicsDevice)},
+   * which creates the shared resource on the calling thread if supported by the implementation,
+   * allowing distinct devices to be probed concurrently.
+   * <p>
+   * Implementations not supporting concurrent creation fall back to {@link #createSharedResource(AbstractGraphicsDevice)}.
+   * </p>
+   *
+   * @param device which {@link AbstractGraphicsDevice#getConnection() connection} denotes the shared the target device, may be <code>null</code> for the platform's default device.
+   * @return true if a shared resource could been created, otherwise false.
+   */
+  protected boolean createSharedResourceConcurrent(final AbstractGraphicsDevice device) {
+      return createSharedResourceImpl(device);
+  }
+
   /**
    * Returns true if the <code>quirk</code> exist in the shared resource's context {@link GLRendererQuirks}.
    * <p>
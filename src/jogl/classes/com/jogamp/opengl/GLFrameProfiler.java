@@ -0,0 +1,194 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+/**
+ * Per-frame timing records of a {@link GLAutoDrawable}'s {@link GLAutoDrawable#display() display} cycle.
+ * <p>
+ * An instance is created and attached via {@link GLAutoDrawable#setFrameProfiling(int)}
+ * and records for each frame:
+ * <ul>
+ *   <li>the CPU time spent in each {@link GLEventListener#display(GLAutoDrawable)} call, see {@link Frame#getListenerNanos(int)}</li>
+ *   <li>the CPU time spent executing the enqueued {@link GLRunnable}s and the longest time one of them waited in the queue,
+ *       see {@link Frame#getRunnableNanos()} and {@link Frame#getRunnableMaxWaitNanos()}</li>
+ *   <li>the CPU time spent in {@link GLDrawable#swapBuffers()}, see {@link Frame#getSwapNanos()}</li>
+ *   <li>the GPU time of all GL commands issued by the listeners and runnables, see {@link Frame#getGPUNanos()}.
+ *       The latter requires <code>GL_TIME_ELAPSED</code> queries, i.e. a GL &ge; 3.3 context,
+ *       <code>GL_ARB_timer_query</code>, <code>GL_EXT_timer_query</code> or <code>GL_EXT_disjoint_timer_query</code>.
+ *       GPU results are collected a few frames later without stalling the pipeline.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Records are kept in a fixed size ring of the most recent frames.
+ * The rendering thread writes into the ring without locking or allocation,
+ * while any other thread may read {@link #getFrames(int) frame snapshots} and
+ * {@link #getPercentile(Metric, float) percentiles} concurrently.
+ * A snapshot of a slot being overwritten at the same time is skipped.
+ * </p>
+ */
+public interface GLFrameProfiler {
+    /** Default number of retained frames, {@value}. */
+    public static final int DEFAULT_FRAME_CAPACITY = 256;
+
+    /** Maximum number of {@link GLEventListener}s timed individually per frame, {@value}. Further listeners only count to {@link Metric#LISTENERS}. */
+    public static final int MAX_LISTENERS = 16;
+
+    /** Timing metric of a {@link Frame}, used for {@link GLFrameProfiler#getPercentile(Metric, float) percentiles}. */
+    public static enum Metric {
+        /** Duration from start of {@link GLAutoDrawable#display()} until after the buffer swap, see {@link Frame#getTotalNanos()}. */
+        TOTAL,
+        /** Sum of all {@link GLEventListener#display(GLAutoDrawable)} durations, see {@link Frame#getListenersNanos()}. */
+        LISTENERS,
+        /** Duration of all executed {@link GLRunnable}s, see {@link Frame#getRunnableNanos()}. */
+        RUNNABLES,
+        /** Longest queue wait time of an executed {@link GLRunnable}, see {@link Frame#getRunnableMaxWaitNanos()}. */
+        RUNNABLE_WAIT,
+        /** Duration of {@link GLDrawable#swapBuffers()}, see {@link Frame#getSwapNanos()}. */
+        SWAP,
+        /** GPU time, see {@link Frame#getGPUNanos()}. Frames w/o GPU result are not considered. */
+        GPU;
+    }
+
+    /** Immutable snapshot of one recorded frame. All durations are in nanoseconds. */
+    public static final class Frame {
+        private final long number, startNanos, totalNanos, runnableNanos, runnableMaxWaitNanos, swapNanos, gpuNanos;
+        private final int runnableCount;
+        private final GLEventListener[] listeners;
+        private final long[] listenerNanos;
+        private final long listenersNanos;
+
+        public Frame(final long number, final long startNanos, final long totalNanos,
+                     final GLEventListener[] listeners, final long[] listenerNanos, final long listenersNanos,
+                     final int runnableCount, final long runnableNanos, final long runnableMaxWaitNanos,
+                     final long swapNanos, final long gpuNanos) {
+            this.number = number;
+            this.startNanos = startNanos;
+            this.totalNanos = totalNanos;
+            this.listeners = listeners;
+            this.listenerNanos = listenerNanos;
+            this.listenersNanos = listenersNanos;
+            this.runnableCount = runnableCount;
+            this.runnableNanos = runnableNanos;
+            this.runnableMaxWaitNanos = runnableMaxWaitNanos;
+            this.swapNanos = swapNanos;
+            this.gpuNanos = gpuNanos;
+        }
+
+        /** Returns the monotonic frame number, starting with 0 for the first recorded frame. */
+        public final long getNumber() { return number; }
+        /** Returns the {@link System#nanoTime()} at start of the frame. */
+        public final long getStartNanos() { return startNanos; }
+        /** Returns the duration of the whole frame including the buffer swap. */
+        public final long getTotalNanos() { return totalNanos; }
+        /** Returns the number of individually timed {@link GLEventListener}s, at most {@link GLFrameProfiler#MAX_LISTENERS}. */
+        public final int getListenerCount() { return listenerNanos.length; }
+        /** Returns the <code>i</code>-th timed {@link GLEventListener}. */
+        public final GLEventListener getListener(final int i) { return listeners[i]; }
+        /** Returns the duration of the <code>i</code>-th {@link GLEventListener#display(GLAutoDrawable)} call, including a pending {@link GLEventListener#init(GLAutoDrawable) init}. */
+        public final long getListenerNanos(final int i) { return listenerNanos[i]; }
+        /** Returns the sum of all {@link GLEventListener#display(GLAutoDrawable)} durations. */
+        public final long getListenersNanos() { return listenersNanos; }
+        /** Returns the number of executed {@link GLRunnable}s. */
+        public final int getRunnableCount() { return runnableCount; }
+        /** Returns the duration of all executed {@link GLRunnable}s. */
+        public final long getRunnableNanos() { return runnableNanos; }
+        /** Returns the longest time an executed {@link GLRunnable} waited in the queue. */
+        public final long getRunnableMaxWaitNanos() { return runnableMaxWaitNanos; }
+        /** Returns the duration of {@link GLDrawable#swapBuffers()}, 0 if not swapped automatically. */
+        public final long getSwapNanos() { return swapNanos; }
+        /** Returns the GPU time of this frame or -1 if not (yet) available. */
+        public final long getGPUNanos() { return gpuNanos; }
+
+        /** Returns the duration of given {@link Metric} or -1 if not available. */
+        public final long get(final Metric m) {
+            switch(m) {
+                case TOTAL: return totalNanos;
+                case LISTENERS: return listenersNanos;
+                case RUNNABLES: return runnableNanos;
+                case RUNNABLE_WAIT: return runnableMaxWaitNanos;
+                case SWAP: return swapNanos;
+                case GPU: return gpuNanos;
+                default: return -1;
+            }
+        }
+
+        @Override
+        public final String toString() {
+            final StringBuilder sb = new StringBuilder();
+            sb.append("Frame[#").append(number).append(", total ").append(totalNanos/1000).append(" us, listener ").append(listenersNanos/1000).append(" us [");
+            for(int i=0; i<listenerNanos.length; i++) {
+                if( 0 < i ) {
+                    sb.append(", ");
+                }
+                sb.append(listeners[i].getClass().getSimpleName()).append(" ").append(listenerNanos[i]/1000);
+            }
+            sb.append("], runnables ").append(runnableCount).append(" in ").append(runnableNanos/1000).append(" us, max-wait ").append(runnableMaxWaitNanos/1000)
+              .append(" us, swap ").append(swapNanos/1000).append(" us, gpu ").append(0 <= gpuNanos ? String.valueOf(gpuNanos/1000)+" us" : "n/a").append("]");
+            return sb.toString();
+        }
+    }
+
+    /** Returns the number of retained frames. */
+    public int getFrameCapacity();
+
+    /** Returns the number of frames recorded since creation or {@link #reset()}. */
+    public long getFrameCount();
+
+    /**
+     * Returns <code>true</code> if the GPU time is measured,
+     * which is known only after the first frame has been rendered.
+     */
+    public boolean isGPUTimingAvailable();
+
+    /**
+     * Returns snapshots of the up to <code>count</code> most recent frames, oldest first.
+     * Frames overwritten while reading are omitted.
+     */
+    public Frame[] getFrames(int count);
+
+    /** Returns the most recent frame or <code>null</code> if none has been recorded yet. */
+    public Frame getLastFrame();
+
+    /**
+     * Returns the <code>p</code>-th percentile of given {@link Metric} over all retained frames
+     * in nanoseconds, or -1 if no frame provides the metric.
+     * @param p percentile within [0..1], e.g. 0.5f for the median or 0.99f.
+     */
+    public long getPercentile(Metric m, float p);
+
+    /**
+     * Returns the <code>p</code>-th percentile of given {@link GLEventListener}'s
+     * {@link GLEventListener#display(GLAutoDrawable) display} duration over all retained frames
+     * in nanoseconds, or -1 if it has not been timed.
+     * @param p percentile within [0..1]
+     */
+    public long getListenerPercentile(GLEventListener listener, float p);
+
+    /** Clears all recorded frames. */
+    public void reset();
+}
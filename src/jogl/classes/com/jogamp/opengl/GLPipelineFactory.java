@@ -60,6 +60,14 @@ public class GLPipelineFactory {
      *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Debug", GL2ES2.class, gl, null) );
      *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Trace", GL2ES2.class, gl, new Object[] { System.err } ) );
      * </pre>
+     * A Profile pipeline counting calls and CPU time per function, see {@link GLCallProfiler}, is installed via:
+     * <pre>
+     *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Profile", null, gl, null) );
+     * </pre>
+     * A StateFilter pipeline dropping redundant state changes, see {@link GLStateFilter}, is installed via:
+     * <pre>
+     *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.StateFilter", null, gl, null) );
+     * </pre>
      * or automatic w/ automatic defined class:
      * <pre>
      *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Debug",         null, gl, null) );
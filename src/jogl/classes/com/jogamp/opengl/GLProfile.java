@@ -46,6 +46,8 @@ import com.jogamp.common.ExceptionUtils;
 import com.jogamp.common.GlueGenVersion;
 import com.jogamp.common.jvm.JNILibLoaderBase;
 import com.jogamp.common.os.Platform;
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.common.util.InterruptedRuntimeException;
 import com.jogamp.common.util.PropertyAccess;
 import com.jogamp.common.util.ReflectionUtil;
 import com.jogamp.common.util.VersionUtil;
@@ -64,7 +66,10 @@ import com.jogamp.opengl.fixedfunc.GLPointerFunc;
 import java.lang.reflect.Constructor;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -118,6 +123,17 @@ public class GLProfile {
      */
     public static final boolean disableOpenGLDesktop;
 
+    /**
+     * In case OpenGL ES profiles are not required at startup,
+     * setting the property <code>jogl.defer.opengles</code> defers querying the OpenGL ES profiles
+     * of a device until a profile is requested which is not available via desktop OpenGL.
+     * <p>
+     * This avoids the EGL probing cost at initialization if a desktop OpenGL implementation is available.
+     * If the latter is not available for a device, its OpenGL ES profiles are queried eagerly.
+     * </p>
+     */
+    public static final boolean deferOpenGLES;
+
     /**
      * In case no EGL implementation is available
      * like on the {@link Platform.OSType#IOS} platform,
@@ -161,6 +177,7 @@ public class GLProfile {
         disableOpenGLARBContext = PropertyAccess.isPropertyDefined("jogl.disable.openglarbcontext", true) && !isOSXorIOS;
         disableOpenGLES = disableOpenGLARBContext || PropertyAccess.isPropertyDefined("jogl.disable.opengles", true);
         disableOpenGLDesktop = PropertyAccess.isPropertyDefined("jogl.disable.opengldesktop", true);
+        deferOpenGLES = PropertyAccess.isPropertyDefined("jogl.defer.opengles", true);
         disableSurfacelessContext = PropertyAccess.isPropertyDefined("jogl.disable.surfacelesscontext", true);
         enableANGLE = PropertyAccess.isPropertyDefined("jogl.enable.ANGLE", true);
     }
@@ -268,6 +285,89 @@ public class GLProfile {
         getProfileMap(device, true);
     }
 
+    /**
+     * Trigger eager initialization of GLProfiles for all given devices,
+     * in case it isn't done yet.
+     * <p>
+     * If supported by the desktop {@link GLDrawableFactory} implementation,
+     * the shared resources of all uninitialized devices are created concurrently on separate threads,
+     * which is where most of the initialization time is spent.
+     * Thereafter the GLProfiles of each device are mapped sequentially.
+     * </p>
+     *
+     * @param devices the devices to initialize, <code>null</code> elements are ignored
+     * @return the number of given devices with at least one available profile
+     */
+    public static int initProfilesForDevices(final Collection<? extends AbstractGraphicsDevice> devices) {
+        initSingleton();
+        int count = 0;
+        initLock.lock();
+        try {
+            final ArrayList<AbstractGraphicsDevice> pending = new ArrayList<AbstractGraphicsDevice>();
+            for(final AbstractGraphicsDevice device : devices) {
+                if( null != device && !pending.contains(device) && null == getProfileMapImpl(device) &&
+                    hasDesktopGLFactory && desktopFactory.getIsDeviceCompatible(device) &&
+                    !GLContext.getAvailableGLVersionsSet(device) )
+                {
+                    // 1st pretend we have all Desktop and EGL profiles, see initProfilesForDeviceCritical(..)
+                    computeProfileMap(device, true /* desktopCtxUndef*/, true  /* esCtxUndef */);
+                    pending.add(device);
+                }
+            }
+            if( pending.size() > 1 ) {
+                createSharedResourcesConcurrent(pending);
+            }
+            for(final AbstractGraphicsDevice device : devices) {
+                if( null != device ) {
+                    final boolean added;
+                    if( pending.contains(device) ) {
+                        added = initProfilesForDevice(device, true /* prefetched */);
+                    } else {
+                        final HashMap<String /*GLProfile_name*/, GLProfile> map = getProfileMap(device, false);
+                        added = null != map && map.size() > 0;
+                    }
+                    if( added ) {
+                        count++;
+                    }
+                }
+            }
+        } finally {
+            initLock.unlock();
+        }
+        return count;
+    }
+    private static void createSharedResourcesConcurrent(final List<AbstractGraphicsDevice> devices) {
+        final Thread[] threads = new Thread[devices.size()];
+        for(int i=0; i<threads.length; i++) {
+            final AbstractGraphicsDevice device = devices.get(i);
+            threads[i] = new InterruptSource.Thread(null, new Runnable() {
+                @Override
+                public void run() {
+                    desktopFactory.createSharedResourceConcurrent(device);
+                } }, Thread.currentThread().getName()+"-GLProfileInit-"+i);
+            threads[i].setDaemon(true);
+            // shared resource creation may query the pretended GLProfiles of its device
+            initLock.addOwner(threads[i]);
+        }
+        try {
+            for(int i=0; i<threads.length; i++) {
+                threads[i].start();
+            }
+            for(int i=0; i<threads.length; i++) {
+                threads[i].join();
+            }
+        } catch (final InterruptedException ie) {
+            throw new InterruptedRuntimeException(ie);
+        } finally {
+            for(int i=0; i<threads.length; i++) {
+                initLock.removeOwner(threads[i]);
+            }
+        }
+        if(DEBUG) {
+            System.err.println("GLProfile.initProfiles: created shared resources concurrently for "+devices);
+        }
+    }
+
     /**
      * Manual shutdown method, may be called after your last JOGL use
      * within the running JVM.<br>
@@ -307,7 +407,29 @@ public class GLProfile {
      */
     public static boolean isAvailable(final AbstractGraphicsDevice device, final String profile) {
         initSingleton();
-        return isAvailableImpl(getProfileMap(device, false), profile);
+        if( isAvailableImpl(getProfileMap(device, false), profile) ) {
+            return true;
+        }
+        return initDeferredProfiles(device) && isAvailableImpl(getProfileMap(device, false), profile);
+    }
+
+    /**
+     * Returns true if the OpenGL ES profiles of the given device have been {@link #deferOpenGLES deferred}
+     * and not yet been queried, otherwise false.
+     *
+     * @param device a valid AbstractGraphicsDevice, or <code>null</null> for the default device.
+     */
+    public static boolean isOpenGLESDeferred(AbstractGraphicsDevice device) {
+        initSingleton();
+        if(null==device) {
+            device = defaultDevice;
+        }
+        initLock.lock();
+        try {
+            return deferredMobileDevices.contains(device.getUniqueID());
+        } finally {
+            initLock.unlock();
+        }
     }
     private static boolean isAvailableImpl(final HashMap<String /*GLProfile_name*/, GLProfile> map, final String profile) {
         return null != map && null != map.get(profile);
@@ -1006,8 +1128,12 @@ public class GLProfile {
         if(null==profile || profile == GL_GL) {
             profile = GL_DEFAULT;
         }
-        final HashMap<String /*GLProfile_name*/, GLProfile> glpMap = getProfileMap(device, true);
-        final GLProfile glp = glpMap.get(profile);
+        HashMap<String /*GLProfile_name*/, GLProfile> glpMap = getProfileMap(device, true);
+        GLProfile glp = glpMap.get(profile);
+        if( null == glp && initDeferredProfiles(device) ) {
+            glpMap = getProfileMap(device, true);
+            glp = glpMap.get(profile);
+        }
         if(null == glp) {
             throw new GLException("Profile "+profile+" is not available on "+device+", but: "+glpMap.values());
         }
@@ -1037,9 +1163,20 @@ public class GLProfile {
     public static GLProfile get(final AbstractGraphicsDevice device, final String[] profiles, final boolean favorHardwareRasterizer)
         throws GLException
     {
+        final GLProfile glp = getImpl(getProfileMap(device, true), profiles, favorHardwareRasterizer);
+        if( null != glp ) {
+            return glp;
+        }
+        if( initDeferredProfiles(device) ) {
+            final GLProfile glpDeferred = getImpl(getProfileMap(device, true), profiles, favorHardwareRasterizer);
+            if( null != glpDeferred ) {
+                return glpDeferred;
+            }
+        }
+        throw new GLException("Profiles "+array2String(profiles)+" not available on device "+device);
+    }
+    private static GLProfile getImpl(final HashMap<String /*GLProfile_name*/, GLProfile> map, final String[] profiles, final boolean favorHardwareRasterizer) {
         GLProfile glProfileAny = null;
-
-        final HashMap<String /*GLProfile_name*/, GLProfile> map = getProfileMap(device, true);
         for(int i=0; i<profiles.length; i++) {
             final GLProfile glProfile = map.get(profiles[i]);
             if(null!=glProfile) {
@@ -1054,10 +1191,7 @@ public class GLProfile {
                 }
             }
         }
-        if(null!=glProfileAny) {
-            return glProfileAny;
-        }
-        throw new GLException("Profiles "+array2String(profiles)+" not available on device "+device);
+        return glProfileAny;
     }
 
     /** Uses the default device
@@ -1857,9 +1991,17 @@ public class GLProfile {
             defaultDevice = null;
         }
 
-        // we require to initialize the EGL device 1st, if available
-        final boolean addedMobileProfile     = null != defaultMobileDevice ? initProfilesForDevice(defaultMobileDevice) : false;
-        final boolean addedDesktopProfile = null != defaultDesktopDevice ? initProfilesForDevice(defaultDesktopDevice) : false;
+        final boolean addedMobileProfile;
+        final boolean addedDesktopProfile;
+        if( deferOpenGLES && null != defaultDesktopDevice ) {
+            // probe the desktop device only, the EGL device is initialized on demand or if desktop GL is not available
+            addedDesktopProfile = initProfilesForDevice(defaultDesktopDevice);
+            addedMobileProfile  = !addedDesktopProfile && null != defaultMobileDevice ? initProfilesForDevice(defaultMobileDevice) : false;
+        } else {
+            // we require to initialize the EGL device 1st, if available
+            addedMobileProfile  = null != defaultMobileDevice ? initProfilesForDevice(defaultMobileDevice) : false;
+            addedDesktopProfile = null != defaultDesktopDevice ? initProfilesForDevice(defaultDesktopDevice) : false;
+        }
         final boolean addedAnyProfile     = addedMobileProfile || addedDesktopProfile ;
 
         if(DEBUG) {
@@ -1883,6 +2025,15 @@ public class GLProfile {
      * @return true if any profile for the device exists, otherwise false
      */
     private static boolean initProfilesForDevice(final AbstractGraphicsDevice device) {
+        return initProfilesForDevice(device, false);
+    }
+    /**
+     * @param device the device for which profiles shall be initialized
+     * @param prefetched true if the device's desktop shared resource has been created upfront
+     *                   while pretending all profiles being available, see {@link #initProfilesForDevices(Collection)}.
+     * @return true if any profile for the device exists, otherwise false
+     */
+    private static boolean initProfilesForDevice(final AbstractGraphicsDevice device, final boolean prefetched) {
         if(null == device) {
             return false;
         }
@@ -1892,7 +2043,7 @@ public class GLProfile {
             if( null != factory ) {
                 factory.enterThreadCriticalZone();
                 try {
-                    return initProfilesForDeviceCritical(device);
+                    return initProfilesForDeviceCritical(device, prefetched);
                 } finally {
                     factory.leaveThreadCriticalZone();
                 }
@@ -1902,8 +2053,8 @@ public class GLProfile {
         }
         return false;
     }
-    private static boolean initProfilesForDeviceCritical(final AbstractGraphicsDevice device) {
-        final boolean isSet = GLContext.getAvailableGLVersionsSet(device);
+    private static boolean initProfilesForDeviceCritical(final AbstractGraphicsDevice device, final boolean prefetched) {
+        final boolean isSet = !prefetched && GLContext.getAvailableGLVersionsSet(device);
 
         if(DEBUG) {
             System.err.println("Info: GLProfile.initProfilesForDevice: "+device+" ("+device.getClass().getName()+"), isSet "+isSet+", hasDesktopGLFactory "+hasDesktopGLFactory+", hasEGLFactory "+hasMobileFactory);
@@ -1954,32 +2105,19 @@ public class GLProfile {
 
         final boolean deviceIsMobileCompatible = hasMobileFactory && mobileFactory.getIsDeviceCompatible(device);
 
-        // also test GLES1, GLES2 and GLES3 on desktop, since we have implementations / emulations available.
-        if( deviceIsMobileCompatible ) {
+        if( deviceIsMobileCompatible && deferOpenGLES && addedDesktopProfile ) {
+            // query EGL profiles on demand, see initDeferredProfiles(..)
+            deferredMobileDevices.add(device.getUniqueID());
+            if (DEBUG) {
+                System.err.println("GLProfile.initProfilesForDevice: "+device+": mobile profiles deferred");
+            }
+        } else if( deviceIsMobileCompatible ) {
+            // also test GLES1, GLES2 and GLES3 on desktop, since we have implementations / emulations available.
             // 1st pretend we have all EGL profiles ..
             computeProfileMap(device, true /* desktopCtxUndef*/, true /* esCtxUndef */);
 
-            // Triggers eager initialization of share context in GLDrawableFactory for the device,
-            // hence querying all available GLProfiles
-            final Thread sharedResourceThread = mobileFactory.getSharedResourceThread();
-            if(null != sharedResourceThread) {
-                initLock.addOwner(sharedResourceThread);
-            }
-            final boolean eglSharedCtxAvail = mobileFactory.createSharedResource(device);
-            if(null != sharedResourceThread) {
-                initLock.removeOwner(sharedResourceThread);
-            }
-            if( eglSharedCtxAvail ) {
-                if( !GLContext.getAvailableGLVersionsSet(device) ) {
-                    throw new InternalError("Available GLVersions not set for "+device);
-                }
-                mappedEGLProfiles = computeProfileMap(device, false /* desktopCtxUndef*/, false /* esCtxUndef */);
-                addedMobileProfile = mappedEGLProfiles.size() > 0;
-            }
-            if (DEBUG) {
-                System.err.println("GLProfile.initProfilesForDevice: "+device+": mobile Shared Ctx "+eglSharedCtxAvail+
-                                   ", profiles: "+(addedMobileProfile ? mappedEGLProfiles.size() : 0));
-            }
+            mappedEGLProfiles = initMobileProfilesForDevice(device);
+            addedMobileProfile = null != mappedEGLProfiles && mappedEGLProfiles.size() > 0;
         }
 
         final HashMap<String, GLProfile> mappedAllProfiles;
@@ -2027,6 +2165,80 @@ public class GLProfile {
         return addedDesktopProfile || addedMobileProfile;
     }
 
+    /**
+     * Triggers eager initialization of the EGL shared context for the device,
+     * hence querying all available OpenGL ES profiles.
+     * <p>
+     * Caller shall have pretended all EGL profiles being available via {@link #computeProfileMap(AbstractGraphicsDevice, boolean, boolean)}.
+     * </p>
+     * @return the mapped profiles including the OpenGL ES profiles, or <code>null</code> if EGL is not available for the device.
+     */
+    private static HashMap<String, GLProfile> initMobileProfilesForDevice(final AbstractGraphicsDevice device) {
+        final Thread sharedResourceThread = mobileFactory.getSharedResourceThread();
+        if(null != sharedResourceThread) {
+            initLock.addOwner(sharedResourceThread);
+        }
+        final boolean eglSharedCtxAvail = mobileFactory.createSharedResource(device);
+        if(null != sharedResourceThread) {
+            initLock.removeOwner(sharedResourceThread);
+        }
+        HashMap<String, GLProfile> mappedEGLProfiles = null;
+        if( eglSharedCtxAvail ) {
+            if( !GLContext.getAvailableGLVersionsSet(device) ) {
+                throw new InternalError("Available GLVersions not set for "+device);
+            }
+            mappedEGLProfiles = computeProfileMap(device, false /* desktopCtxUndef*/, false /* esCtxUndef */);
+        }
+        if (DEBUG) {
+            System.err.println("GLProfile.initProfilesForDevice: "+device+": mobile Shared Ctx "+eglSharedCtxAvail+
+                               ", profiles: "+(null != mappedEGLProfiles ? mappedEGLProfiles.size() : 0));
+        }
+        return mappedEGLProfiles;
+    }
+
+    /**
+     * Queries the OpenGL ES profiles of the given device, if they have been {@link #deferOpenGLES deferred}.
+     *
+     * @param device the device, or <code>null</code> for the default device
+     * @return true if deferred profiles have been queried, i.e. the device's profile map may have changed, otherwise false.
+     */
+    private static boolean initDeferredProfiles(AbstractGraphicsDevice device) {
+        if( !deferOpenGLES ) {
+            return false;
+        }
+        if(null==device) {
+            device = defaultDevice;
+        }
+        initLock.lock();
+        try {
+            if( !deferredMobileDevices.remove(device.getUniqueID()) ) {
+                return false;
+            }
+            // we require to initialize the EGL default device 1st
+            getProfileMap(mobileFactory.getDefaultDevice(), false);
+
+            final GLDrawableFactory factory = GLDrawableFactory.getFactory(device);
+            factory.enterThreadCriticalZone();
+            try {
+                final HashMap<String, GLProfile> mappedDesktopProfiles = getProfileMapImpl(device);
+                // pretend we have all EGL profiles, while keeping the known desktop profiles
+                computeProfileMap(device, false /* desktopCtxUndef*/, true /* esCtxUndef */);
+                final HashMap<String, GLProfile> mappedEGLProfiles = initMobileProfilesForDevice(device);
+                if( null == mappedEGLProfiles || 0 == mappedEGLProfiles.size() ) {
+                    setProfileMap(device, mappedDesktopProfiles);
+                }
+                if (DEBUG) {
+                    System.err.println("GLProfile.initDeferredProfiles: "+device.getUniqueID()+": "+glAvailabilityToString(device));
+                }
+            } finally {
+                factory.leaveThreadCriticalZone();
+            }
+            return true;
+        } finally {
+            initLock.unlock();
+        }
+    }
+
     private static void dumpGLInfo(final GLDrawableFactoryImpl factory, final AbstractGraphicsDevice device)  {
         final GLContext ctx = factory.getOrCreateSharedContext(device);
         if(null != ctx) {
@@ -2307,6 +2519,9 @@ public class GLProfile {
     private static /*final*/ HashMap<String /*device_connection*/, HashMap<String /*GLProfile_name*/, GLProfile>> deviceConn2ProfileMap =
                 new HashMap<String /*device_connection*/, HashMap<String /*GLProfile_name*/, GLProfile>>();
 
+    /** Devices whose OpenGL ES profiles have been {@link #deferOpenGLES deferred}, guarded by initLock. */
+    private static final HashSet<String /*device_connection*/> deferredMobileDevices = new HashSet<String>();
+
     /**
      * This implementation support lazy initialization, while avoiding recursion/deadlocks.<br>
      * If no mapping 'device -> GLProfiles-Map' exists yet, it triggers<br>
@@ -2331,8 +2546,7 @@ public class GLProfile {
             device = defaultDevice;
         }
 
-        final String deviceKey = device.getUniqueID();
-        HashMap<String /*GLProfile_name*/, GLProfile> map = deviceConn2ProfileMap.get(deviceKey);
+        HashMap<String /*GLProfile_name*/, GLProfile> map = getProfileMapImpl(device);
         if( null != map ) {
             return map;
         }
@@ -2343,13 +2557,19 @@ public class GLProfile {
                 return null;
             }
         }
-        map = deviceConn2ProfileMap.get(deviceKey);
+        map = getProfileMapImpl(device);
         if( null == map && throwExceptionOnZeroProfile ) {
             throw new InternalError("initProfilesForDevice(..) didn't setProfileMap(..) for "+device);
         }
         return map;
     }
 
+    private static HashMap<String /*GLProfile_name*/, GLProfile> getProfileMapImpl(final AbstractGraphicsDevice device) {
+        synchronized ( deviceConn2ProfileMap ) {
+            return deviceConn2ProfileMap.get(device.getUniqueID());
+        }
+    }
+
     private static void setProfileMap(final AbstractGraphicsDevice device, final HashMap<String /*GLProfile_name*/, GLProfile> mappedProfiles) {
         synchronized ( deviceConn2ProfileMap ) {
             deviceConn2ProfileMap.put(device.getUniqueID(), mappedProfiles);
@@ -558,21 +558,24 @@ public class GLRendererQuirks {
      * The {@link AbstractGraphicsDevice}s are mapped via their {@link AbstractGraphicsDevice#getUniqueID()}.
      * </p>
      * <p>
-     * Not thread safe.
+     * The device mapping itself is thread safe, allowing shared resources of distinct devices
+     * being created concurrently. The returned per device instance is not thread safe.
      * </p>
      * @see #areSameStickyDevice(AbstractGraphicsDevice, AbstractGraphicsDevice)
      */
     public static GLRendererQuirks getStickyDeviceQuirks(final AbstractGraphicsDevice device) {
         final String key = device.getUniqueID();
-        final GLRendererQuirks has = stickyDeviceQuirks.get(key);
-        final GLRendererQuirks res;
-        if( null == has ) {
-            res = new GLRendererQuirks();
-            stickyDeviceQuirks.put(key, res);
-        } else {
-            res = has;
+        synchronized( stickyDeviceQuirks ) {
+            final GLRendererQuirks has = stickyDeviceQuirks.get(key);
+            final GLRendererQuirks res;
+            if( null == has ) {
+                res = new GLRendererQuirks();
+                stickyDeviceQuirks.put(key, res);
+            } else {
+                res = has;
+            }
+            return res;
         }
-        return res;
     }
 
     /**
@@ -626,6 +629,17 @@ public class GLRendererQuirks {
     public static void pushStickyDeviceQuirks(final AbstractGraphicsDevice device, final GLRendererQuirks dest) {
         dest.addQuirks(getStickyDeviceQuirks(device));
     }
+    /**
+     * Replaces the sticky {@link AbstractGraphicsDevice}'s {@link GLRendererQuirks} with the given {@link GLRendererQuirks quirks},
+     * e.g. reverting to a snapshot previously taken via {@link #pushStickyDeviceQuirks(AbstractGraphicsDevice, GLRendererQuirks)}.
+     * <p>
+     * Not thread safe.
+     * </p>
+     * @see #getStickyDeviceQuirks(AbstractGraphicsDevice)
+     */
+    public static void setStickyDeviceQuirks(final AbstractGraphicsDevice device, final GLRendererQuirks quirks) {
+        getStickyDeviceQuirks(device)._bitmask = quirks._bitmask;
+    }
 
     public static final Override getOverride(final int quirkBit) throws IllegalArgumentException {
         validateQuirk(quirkBit);
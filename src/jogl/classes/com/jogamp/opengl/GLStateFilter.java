@@ -0,0 +1,353 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import com.jogamp.common.util.IntIntHashMap;
+
+/**
+ * Base class of the generated composable <code>StateFilterGL*</code> pipelines,
+ * dropping calls which would not change the current OpenGL state.
+ * <p>
+ * The pipeline shadows the following state of its context and skips a call
+ * if it would set the same value again:
+ * <ul>
+ *   <li><code>glUseProgram</code></li>
+ *   <li><code>glActiveTexture</code> and <code>glBindTexture</code> per texture unit and target</li>
+ *   <li><code>glBindBuffer</code> per target and <code>glBindVertexArray</code></li>
+ *   <li><code>glEnable</code> and <code>glDisable</code>, except the per texture unit fixed function capabilities</li>
+ *   <li><code>glBlendFunc</code>, <code>glBlendFuncSeparate</code>, <code>glDepthFunc</code>, <code>glDepthMask</code>,
+ *       <code>glCullFace</code> and <code>glFrontFace</code></li>
+ * </ul>
+ * Initially all state is unknown and the first call of each kind is passed downstream.
+ * Calls with an implicit effect on the shadowed state, e.g. deleting bound objects,
+ * <code>glPopAttrib</code> or <code>glCallList</code>, invalidate the affected state.
+ * While a display list is being compiled no call is filtered.
+ * </p>
+ * <p>
+ * Code modifying the shadowed state while bypassing this pipeline,
+ * e.g. via {@link GL#getDownstreamGL()} or a different GL pipeline instance of the same context,
+ * must call {@link #invalidate()} afterwards.
+ * </p>
+ * <p>
+ * Sample code which installs the pipeline:
+ * <pre>
+ *   gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.StateFilter", null, gl, null) );
+ * </pre>
+ * </p>
+ * <p>
+ * Instances are not thread safe, as is the OpenGL context they belong to.
+ * </p>
+ */
+public abstract class GLStateFilter {
+    private static final int UNKNOWN = 0xFFFFFFFF;
+    private static final int UNKNOWN_UNIT = -1;
+
+    private final IntIntHashMap textureBindings = new IntIntHashMap();
+    private final IntIntHashMap bufferBindings = new IntIntHashMap();
+    private final IntIntHashMap capabilities = new IntIntHashMap();
+    private int program;
+    private int vertexArray;
+    private int activeUnit;
+    private int blendSrcRGB, blendDstRGB, blendSrcAlpha, blendDstAlpha;
+    private int depthFunc;
+    private int depthMask;
+    private int cullFace;
+    private int frontFace;
+    private boolean enabled = true;
+    private boolean compilingList = false;
+    private long filteredCount = 0;
+    private long passedCount = 0;
+
+    protected GLStateFilter() {
+        textureBindings.setKeyNotFoundValue(UNKNOWN);
+        bufferBindings.setKeyNotFoundValue(UNKNOWN);
+        capabilities.setKeyNotFoundValue(UNKNOWN);
+        invalidate();
+    }
+
+    /**
+     * Marks all shadowed state as unknown,
+     * i.e. the next call of each kind is passed downstream.
+     * <p>
+     * Shall be called after the shadowed state has been modified bypassing this pipeline.
+     * </p>
+     */
+    public final void invalidate() {
+        textureBindings.clear();
+        bufferBindings.clear();
+        capabilities.clear();
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        activeUnit = UNKNOWN_UNIT;
+        blendSrcRGB = UNKNOWN;
+        blendDstRGB = UNKNOWN;
+        blendSrcAlpha = UNKNOWN;
+        blendDstAlpha = UNKNOWN;
+        depthFunc = UNKNOWN;
+        depthMask = UNKNOWN;
+        cullFace = UNKNOWN;
+        frontFace = UNKNOWN;
+    }
+
+    /**
+     * Enables or disables filtering. If disabled, all calls are passed downstream
+     * and the shadowed state is {@link #invalidate() invalidated}.
+     */
+    public final void setFilterEnabled(final boolean enable) {
+        enabled = enable;
+        invalidate();
+    }
+
+    /** Returns <code>true</code> if filtering is enabled, which is the default. */
+    public final boolean isFilterEnabled() { return enabled; }
+
+    /** Returns the number of dropped redundant calls since creation or {@link #resetCounter()}. */
+    public final long getFilteredCount() { return filteredCount; }
+
+    /** Returns the number of filterable calls passed downstream since creation or {@link #resetCounter()}. */
+    public final long getPassedCount() { return passedCount; }
+
+    /** Resets the {@link #getFilteredCount() filtered} and {@link #getPassedCount() passed} counter. */
+    public final void resetCounter() {
+        filteredCount = 0;
+        passedCount = 0;
+    }
+
+    private boolean isActive() {
+        if( enabled && !compilingList ) {
+            return true;
+        }
+        passedCount++;
+        return false;
+    }
+    private boolean filtered() {
+        filteredCount++;
+        return true;
+    }
+    private boolean passed() {
+        passedCount++;
+        return false;
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterUseProgram(final int program) {
+        if( !isActive() ) {
+            return false;
+        }
+        if( this.program == program ) {
+            return filtered();
+        }
+        this.program = program;
+        return passed();
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterActiveTexture(final int texture) {
+        if( !isActive() ) {
+            return false;
+        }
+        final int unit = texture - GL.GL_TEXTURE0;
+        if( activeUnit == unit ) {
+            return filtered();
+        }
+        // units beyond 0xff remain unknown, since the binding key is limited to 8 bit
+        activeUnit = 0 <= unit && unit <= 0xff ? unit : UNKNOWN_UNIT;
+        return passed();
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterBindTexture(final int target, final int texture) {
+        if( !isActive() ) {
+            return false;
+        }
+        if( UNKNOWN_UNIT == activeUnit || 0 != ( target & 0xff000000 ) ) {
+            return passed();
+        }
+        final int key = ( activeUnit << 24 ) | target;
+        if( textureBindings.get(key) == texture && UNKNOWN != texture ) {
+            return filtered();
+        }
+        textureBindings.put(key, texture);
+        return passed();
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterBindBuffer(final int target, final int buffer) {
+        if( !isActive() ) {
+            return false;
+        }
+        if( bufferBindings.get(target) == buffer && UNKNOWN != buffer ) {
+            return filtered();
+        }
+        bufferBindings.put(target, buffer);
+        return passed();
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterBindVertexArray(final int array) {
+        if( !isActive() ) {
+            return false;
+        }
+        if( vertexArray == array && UNKNOWN != array ) {
+            return filtered();
+        }
+        vertexArray = array;
+        // the element array buffer binding is part of the vertex array object state
+        bufferBindings.remove(GL.GL_ELEMENT_ARRAY_BUFFER);
+        return passed();
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterCapability(final int cap, final boolean enable) {
+        if( !isActive() ) {
+            return false;
+        }
+        if( isTextureUnitCapability(cap) ) {
+            return passed();
+        }
+        final int value = enable ? 1 : 0;
+        if( capabilities.get(cap) == value ) {
+            return filtered();
+        }
+        capabilities.put(cap, value);
+        return passed();
+    }
+    private static boolean isTextureUnitCapability(final int cap) {
+        switch( cap ) {
+            case GL2GL3.GL_TEXTURE_1D:
+            case GL.GL_TEXTURE_2D:
+            case GL2ES2.GL_TEXTURE_3D:
+            case GL.GL_TEXTURE_CUBE_MAP:
+            case GL2GL3.GL_TEXTURE_RECTANGLE:
+            case GLES2.GL_TEXTURE_EXTERNAL_OES:
+            case GL2.GL_TEXTURE_GEN_S:
+            case GL2.GL_TEXTURE_GEN_T:
+            case GL2.GL_TEXTURE_GEN_R:
+            case GL2.GL_TEXTURE_GEN_Q:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterBlendFuncSeparate(final int srcRGB, final int dstRGB, final int srcAlpha, final int dstAlpha) {
+        if( !isActive() ) {
+            return false;
+        }
+        if( blendSrcRGB == srcRGB && blendDstRGB == dstRGB && blendSrcAlpha == srcAlpha && blendDstAlpha == dstAlpha ) {
+            return filtered();
+        }
+        blendSrcRGB = srcRGB;
+        blendDstRGB = dstRGB;
+        blendSrcAlpha = srcAlpha;
+        blendDstAlpha = dstAlpha;
+        return passed();
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterDepthFunc(final int func) {
+        if( !isActive() ) {
+            return false;
+        }
+        if( depthFunc == func ) {
+            return filtered();
+        }
+        depthFunc = func;
+        return passed();
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterDepthMask(final boolean flag) {
+        if( !isActive() ) {
+            return false;
+        }
+        final int value = flag ? 1 : 0;
+        if( depthMask == value ) {
+            return filtered();
+        }
+        depthMask = value;
+        return passed();
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterCullFace(final int mode) {
+        if( !isActive() ) {
+            return false;
+        }
+        if( cullFace == mode ) {
+            return filtered();
+        }
+        cullFace = mode;
+        return passed();
+    }
+
+    /** @return <code>true</code> if the call is redundant and shall be dropped, otherwise the shadow is updated */
+    protected final boolean filterFrontFace(final int mode) {
+        if( !isActive() ) {
+            return false;
+        }
+        if( frontFace == mode ) {
+            return filtered();
+        }
+        frontFace = mode;
+        return passed();
+    }
+
+    /** Invalidates all texture bindings, e.g. after deleting textures. */
+    protected final void invalidateTextureBindings() {
+        textureBindings.clear();
+    }
+
+    /** Invalidates all buffer bindings, e.g. after deleting buffers or indexed buffer binding. */
+    protected final void invalidateBufferBindings() {
+        bufferBindings.clear();
+    }
+
+    /** Invalidates the vertex array binding and the buffer bindings, e.g. after deleting vertex arrays. */
+    protected final void invalidateVertexArrayBinding() {
+        vertexArray = UNKNOWN;
+        bufferBindings.clear();
+    }
+
+    /** Invalidates the current program, e.g. after deleting programs. */
+    protected final void invalidateProgram() {
+        program = UNKNOWN;
+    }
+
+    /** Notifies the start of display list compilation, disabling filtering. */
+    protected final void beginList() {
+        compilingList = true;
+    }
+
+    /** Notifies the end of display list compilation, which might have been executed as well. */
+    protected final void endList() {
+        compilingList = false;
+        invalidate();
+    }
+}
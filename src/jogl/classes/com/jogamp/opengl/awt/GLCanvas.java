@@ -79,6 +79,7 @@ import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLDrawableFactory;
 import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLFrameProfiler;
 import com.jogamp.opengl.GLOffscreenAutoDrawable;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.GLRunnable;
@@ -1117,6 +1118,16 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
       return helper.getExclusiveContextThread();
   }
 
+  @Override
+  public final GLFrameProfiler setFrameProfiling(final int frameCapacity) {
+      return helper.setFrameProfiling(frameCapacity);
+  }
+
+  @Override
+  public final GLFrameProfiler getFrameProfiler() {
+      return helper.getFrameProfiler();
+  }
+
   @Override
   public boolean invoke(final boolean wait, final GLRunnable glRunnable) throws IllegalStateException {
     return helper.invoke(this, wait, glRunnable);
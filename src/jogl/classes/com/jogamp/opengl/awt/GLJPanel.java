@@ -55,6 +55,8 @@ import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
 import java.beans.Beans;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.util.List;
 
@@ -68,6 +70,7 @@ import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GL2ES3;
 import com.jogamp.opengl.GL2GL3;
+import com.jogamp.opengl.GL3ES3;
 import com.jogamp.opengl.GLAnimatorControl;
 import com.jogamp.opengl.GLAutoDrawable;
 import com.jogamp.opengl.GLCapabilities;
@@ -79,6 +82,7 @@ import com.jogamp.opengl.GLDrawableFactory;
 import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLFBODrawable;
+import com.jogamp.opengl.GLFrameProfiler;
 import com.jogamp.opengl.GLOffscreenAutoDrawable;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.GLRunnable;
@@ -111,6 +115,7 @@ import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
 import com.jogamp.opengl.util.GLPixelBuffer.SingletonGLPixelBufferProvider;
 import com.jogamp.opengl.util.GLDrawableUtil;
 import com.jogamp.opengl.util.GLPixelStorageModes;
+import com.jogamp.opengl.util.GLReadBufferUtil;
 import com.jogamp.opengl.util.TileRenderer;
 import com.jogamp.opengl.util.awt.AWTGLPixelBuffer;
 import com.jogamp.opengl.util.awt.AWTGLPixelBuffer.AWTGLPixelBufferProvider;
@@ -151,6 +156,9 @@ import com.jogamp.opengl.util.texture.TextureState;
     Finally the Java2D compositioning takes place via via {@link Graphics#drawImage(java.awt.Image, int, int, int, int, java.awt.image.ImageObserver) Graphics.drawImage(...)}
     on the prepared {@link BufferedImage} as described above.
     </p>
+    <p>
+    Optionally the pixels may be read back asynchronously, see <a href="#pboReadback">PBO readback</a>.
+    </p>
     <P>
  *  Please read <a href="GLCanvas.html#java2dgl">Java2D OpenGL Remarks</a>.
  *  </P>
@@ -176,6 +184,22 @@ import com.jogamp.opengl.util.texture.TextureState;
     It is recommended to reset those states to default when leaving the {@link GLEventListener#display(GLAutoDrawable)} method!
     We may change this behavior in the future, i.e. preserve all influencing states.
     </p>
+    <a name="pboReadback"><h5>PBO Readback</h5></a>
+    If enabled via {@link #setPBOReadback(boolean)} or system property <code>jogl.gljpanel.pboreadback</code>
+    and supported by the offscreen context, i.e. {@link GLReadBufferUtil#isAsyncReadbackSupported(GL)},
+    the offscreen backend reads the pixels into one of two pixel pack buffer objects (PBO) guarded by a fence sync object.
+    While animated by a {@link GLAnimatorControl} on another thread, the pixels of the previous frame are copied
+    from the mapped PBO directly into the {@link DataBufferInt} of the {@link BufferedImage},
+    i.e. the displayed image has one frame latency but {@link GL#glReadPixels(int, int, int, int, int, int, long) glReadPixels(..)}
+    does not stall the GL pipeline. Otherwise the pixels of the current frame are copied right away.
+    <p>
+    The <a href="#fboGLSLVerticalFlip">FBO / GLSL vertical flip</a> is used if available,
+    otherwise the rows are flipped while copying from the mapped PBO.
+    </p>
+    <p>
+    The time spent for readback and Java2D blitting per frame is measured,
+    see {@link #getLastReadbackNanos()} and {@link #getLastBlitNanos()}.
+    </p>
     <p>
     <a name="contextSharing"><h5>OpenGL Context Sharing</h5></a>
     To share a {@link GLContext} see the following note in the documentation overview:
@@ -191,6 +215,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
   private static final boolean DEBUG_VIEWPORT;
   private static final boolean USE_GLSL_TEXTURE_RASTERIZER;
   private static final boolean SKIP_VERTICAL_FLIP_DEFAULT;
+  private static final boolean PBO_READBACK_DEFAULT;
 
   /** Indicates whether the Java 2D OpenGL pipeline is requested by user. */
   private static final boolean java2dOGLEnabledByProp;
@@ -208,6 +233,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       DEBUG_VIEWPORT = PropertyAccess.isPropertyDefined("jogl.debug.GLJPanel.Viewport", true);
       USE_GLSL_TEXTURE_RASTERIZER = !PropertyAccess.isPropertyDefined("jogl.gljpanel.noglsl", true);
       SKIP_VERTICAL_FLIP_DEFAULT = PropertyAccess.isPropertyDefined("jogl.gljpanel.noverticalflip", true);
+      PBO_READBACK_DEFAULT = PropertyAccess.isPropertyDefined("jogl.gljpanel.pboreadback", true);
       boolean enabled = PropertyAccess.getBooleanProperty("sun.java2d.opengl", false);
       java2dOGLEnabledByProp = enabled && !PropertyAccess.isPropertyDefined("jogl.gljpanel.noogl", true);
 
@@ -228,6 +254,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
           System.err.println("GLJPanel: DEBUG_VIEWPORT "+DEBUG_VIEWPORT);
           System.err.println("GLJPanel: USE_GLSL_TEXTURE_RASTERIZER "+USE_GLSL_TEXTURE_RASTERIZER);
           System.err.println("GLJPanel: SKIP_VERTICAL_FLIP_DEFAULT "+SKIP_VERTICAL_FLIP_DEFAULT);
+          System.err.println("GLJPanel: PBO_READBACK_DEFAULT "+PBO_READBACK_DEFAULT);
           System.err.println("GLJPanel: java2dOGLEnabledByProp "+java2dOGLEnabledByProp);
           System.err.println("GLJPanel: useJava2DGLPipeline "+useJava2DGLPipeline);
           System.err.println("GLJPanel: java2DGLPipelineOK "+java2DGLPipelineOK);
@@ -290,6 +317,16 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
 
   private boolean skipGLOrientationVerticalFlip = SKIP_VERTICAL_FLIP_DEFAULT;
 
+  private volatile boolean pboReadback = PBO_READBACK_DEFAULT;
+
+  // Readback and blit instrumentation, see getLastReadbackNanos() ..
+  private volatile long lastReadbackNanos = 0;
+  private volatile long lastBlitNanos = 0;
+  private long totalReadbackNanos = 0;
+  private long totalBlitNanos = 0;
+  private long readbackFrameCount = 0;
+  private long blitFrameCount = 0;
+
   // Used by all backends either directly or indirectly to hook up callbacks
   private final Updater updater = new Updater();
 
@@ -1029,6 +1066,16 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       return helper.getExclusiveContextThread();
   }
 
+  @Override
+  public final GLFrameProfiler setFrameProfiling(final int frameCapacity) {
+      return helper.setFrameProfiling(frameCapacity);
+  }
+
+  @Override
+  public final GLFrameProfiler getFrameProfiler() {
+      return helper.getFrameProfiler();
+  }
+
   @Override
   public boolean invoke(final boolean wait, final GLRunnable glRunnable) throws IllegalStateException {
     return helper.invoke(this, wait, glRunnable);
@@ -1227,6 +1274,69 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       return skipGLOrientationVerticalFlip;
   }
 
+  /**
+   * Enables or disables the asynchronous <a href="#pboReadback">PBO readback</a> of the offscreen backend.
+   * <p>
+   * Default is <code>false</code>, unless system property <code>jogl.gljpanel.pboreadback</code> is defined.
+   * May be changed at any time and takes effect with the next frame.
+   * </p>
+   */
+  public final void setPBOReadback(final boolean v) {
+      pboReadback = v;
+  }
+  /** See {@link #setPBOReadback(boolean)}. */
+  public final boolean getPBOReadback() {
+      return pboReadback;
+  }
+
+  /**
+   * Returns the duration of the last frame's readback of the offscreen backend in nanoseconds,
+   * i.e. issuing {@link GL#glReadPixels(int, int, int, int, int, int, java.nio.Buffer) glReadPixels(..)},
+   * the optional CPU vertical flip and the copy from a mapped <a href="#pboReadback">PBO</a>.
+   * <p>
+   * Returns 0 if no readback has been performed, e.g. using the Java2D OpenGL pipeline.
+   * </p>
+   */
+  public final long getLastReadbackNanos() { return lastReadbackNanos; }
+
+  /**
+   * Returns the duration of the last frame's Java2D blit of the offscreen image in nanoseconds,
+   * i.e. {@link Graphics#drawImage(java.awt.Image, int, int, int, int, java.awt.image.ImageObserver) Graphics.drawImage(..)}.
+   */
+  public final long getLastBlitNanos() { return lastBlitNanos; }
+
+  /** Returns the mean readback duration in nanoseconds since the last {@link #resetReadbackStatistics()}, see {@link #getLastReadbackNanos()}. */
+  public final synchronized long getMeanReadbackNanos() {
+      return 0 < readbackFrameCount ? totalReadbackNanos / readbackFrameCount : 0;
+  }
+
+  /** Returns the mean blit duration in nanoseconds since the last {@link #resetReadbackStatistics()}, see {@link #getLastBlitNanos()}. */
+  public final synchronized long getMeanBlitNanos() {
+      return 0 < blitFrameCount ? totalBlitNanos / blitFrameCount : 0;
+  }
+
+  /** Resets the readback and blit statistics. */
+  public final synchronized void resetReadbackStatistics() {
+      lastReadbackNanos = 0;
+      lastBlitNanos = 0;
+      totalReadbackNanos = 0;
+      totalBlitNanos = 0;
+      readbackFrameCount = 0;
+      blitFrameCount = 0;
+  }
+
+  private final synchronized void addReadbackNanos(final long ns) {
+      lastReadbackNanos = ns;
+      totalReadbackNanos += ns;
+      readbackFrameCount++;
+  }
+
+  private final synchronized void addBlitNanos(final long ns) {
+      lastBlitNanos = ns;
+      totalBlitNanos += ns;
+      blitFrameCount++;
+  }
+
   @Override
   public GLCapabilitiesImmutable getChosenGLCapabilities() {
     final Backend b = backend;
@@ -1673,6 +1783,15 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     // For saving/restoring of OpenGL state during ReadPixels
     private final GLPixelStorageModes psm =  new GLPixelStorageModes();
 
+    // PBO readback, see GLJPanel.setPBOReadback(..)
+    private final int[] readbackPBO = { 0, 0 };
+    private final int[] readbackPBOSize = { 0, 0 };
+    private final long[] readbackSync = { 0, 0 };
+    private final int[] readbackWidth = { 0, 0 };
+    private final int[] readbackHeight = { 0, 0 };
+    private final boolean[] readbackCPUFlip = { false, false };
+    private int readbackNext = 0;
+
     OffscreenBackend(final AWTGLPixelBufferProvider custom) {
         if(null == custom) {
             pixelBufferProvider = getSingleAWTGLPixelBufferProvider();
@@ -1806,6 +1925,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
         if( GLContext.CONTEXT_NOT_CURRENT < offscreenContext.makeCurrent() ) {
             try {
                 final GL gl = offscreenContext.getGL();
+                disposePBOReadback(gl);
                 if(null != glslTextureRaster) {
                     glslTextureRaster.dispose(gl.getGL2ES2());
                 }
@@ -1821,6 +1941,8 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       glslTextureRaster = null;
       fboFlipped = null;
       offscreenContext = null;
+      readbackPBO[0] = 0; readbackPBO[1] = 0;
+      readbackSync[0] = 0; readbackSync[1] = 0;
 
       if (offscreenDrawable != null) {
         final AbstractGraphicsDevice adevice = offscreenDrawable.getNativeSurface().getGraphicsConfiguration().getScreen().getDevice();
@@ -1968,9 +2090,14 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
                 System.err.println(getThreadName()+": GLJPanel.OffscreenBackend.postGL.0: "+GLJPanel.this.getName()+" new alignedImage "+alignedImage.getWidth()+"x"+alignedImage.getHeight()+" @ scale "+getPixelScaleStr()+", "+alignedImage+", pixelBuffer "+pixelBuffer.width+"x"+pixelBuffer.height+", "+pixelBuffer);
             }
         }
+        final long readbackT0 = System.nanoTime();
+        final boolean usePBO = pboReadback && 4 == pixelAttribs.pfmt.comp.bytesPerPixel() &&
+                               GLReadBufferUtil.isAsyncReadbackSupported(gl);
         final IntBuffer readBackInts;
 
-        if( !flipVertical || null != glslTextureRaster ) {
+        if( usePBO ) {
+           readBackInts = null; // read into PBO, flipped while copying if required
+        } else if( !flipVertical || null != glslTextureRaster ) {
            readBackInts = (IntBuffer) pixelBuffer.buffer;
         } else {
            if( null == readBackIntsForCPUVFlip || pixelBuffer.width * pixelBuffer.height > readBackIntsForCPUVFlip.remaining() ) {
@@ -1983,6 +2110,9 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
         if( DEBUG_FRAMES ) {
             System.err.println(getThreadName()+": GLJPanel.OffscreenBackend.postGL.readPixels: - frameCount "+frameCount);
         }
+        if( !usePBO && 0 != readbackPBO[0] ) {
+            disposePBOReadback(gl);
+        }
 
         // Save PACK modes, reset them to defaults and set alignment
         psm.setPackAlignment(gl, alignment);
@@ -2034,7 +2164,11 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
               System.err.println(getThreadName()+": GLJPanel.OffscreenBackend.postGL.0.1: bound-readFBO  0x"+Integer.toHexString(gl.getBoundFramebuffer(GL.GL_READ_FRAMEBUFFER)));
               System.err.println(getThreadName()+": GLJPanel.OffscreenBackend.postGL.0.1: "+GLJPanel.this.getName()+" pixelAttribs "+pixelAttribs);
             }
-            gl.glReadPixels(0, 0, panelWidth, panelHeight, pixelAttribs.format, pixelAttribs.type, readBackInts);
+            if( usePBO ) {
+                readPixelsPBO(gl, pixelAttribs, false);
+            } else {
+                gl.glReadPixels(0, 0, panelWidth, panelHeight, pixelAttribs.format, pixelAttribs.type, readBackInts);
+            }
 
             fboFlipped.unbind(gl);
             if( DEBUG_INIT ) {
@@ -2048,6 +2182,8 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
             if( viewportChange ) {
                 gl.glViewport(usrViewport[0], usrViewport[1], usrViewport[2], usrViewport[3]);
             }
+        } else if( usePBO ) {
+            readPixelsPBO(gl, pixelAttribs, flipVertical);
         } else {
             gl.glReadPixels(0, 0, panelWidth, panelHeight, pixelAttribs.format, pixelAttribs.type, readBackInts);
 
@@ -2077,11 +2213,123 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
         // Restore saved modes.
         psm.restore(gl);
 
+        if( usePBO ) {
+            // Only pipeline the readback if continuously animated,
+            // otherwise the last frame would never be shown.
+            if( helper.isAnimatorAnimatingOnOtherThread() ) {
+                if( !copyPixelsPBO(gl, readbackNext) ) { // previous frame, if pending
+                    // n/a or of different size, fall back to the synchronous readback of the current frame
+                    copyPixelsPBO(gl, ( readbackNext + 1 ) % 2);
+                }
+            } else {
+                copyPixelsPBO(gl, ( readbackNext + 1 ) % 2); // current frame
+            }
+        }
+        addReadbackNanos(System.nanoTime() - readbackT0);
+
         // Note: image will be drawn back in paintComponent() for
         // correctness on all platforms
       }
     }
 
+    /**
+     * Issues the asynchronous readback of the current frame into the next PBO,
+     * using the current pack pixel storage modes.
+     */
+    private final void readPixelsPBO(final GL gl, final GLPixelAttributes pixelAttribs, final boolean cpuFlip) {
+        final GL3ES3 gl3es3 = gl.getGL3ES3();
+        final int slot = readbackNext;
+        if( 0 == readbackPBO[0] ) {
+            gl.glGenBuffers(2, readbackPBO, 0);
+            readbackPBOSize[0] = 0;
+            readbackPBOSize[1] = 0;
+        }
+        if( 0 != readbackSync[slot] ) {
+            // still pending, i.e. not copied, drop it
+            gl3es3.glDeleteSync(readbackSync[slot]);
+            readbackSync[slot] = 0;
+        }
+        final int byteSize = panelWidth * panelHeight * pixelAttribs.pfmt.comp.bytesPerPixel();
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, readbackPBO[slot]);
+        if( readbackPBOSize[slot] < byteSize ) {
+            gl.glBufferData(GL2ES3.GL_PIXEL_PACK_BUFFER, byteSize, null, GL2ES3.GL_STREAM_READ);
+            readbackPBOSize[slot] = byteSize;
+        }
+        gl.glReadPixels(0, 0, panelWidth, panelHeight, pixelAttribs.format, pixelAttribs.type, 0L);
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        readbackSync[slot] = gl3es3.glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        readbackWidth[slot] = panelWidth;
+        readbackHeight[slot] = panelHeight;
+        readbackCPUFlip[slot] = cpuFlip;
+        readbackNext = ( slot + 1 ) % 2;
+    }
+
+    /**
+     * Copies the pixels of the given PBO, if pending, directly into the {@link DataBufferInt} of the {@link #alignedImage},
+     * waiting for its fence. Pixels of a different size are dropped.
+     * @return true if the pixels have been copied, otherwise false, i.e. not pending, of different size or failed.
+     */
+    private final boolean copyPixelsPBO(final GL gl, final int slot) {
+        if( 0 == readbackSync[slot] ) {
+            return false;
+        }
+        final GL3ES3 gl3es3 = gl.getGL3ES3();
+        final long sync = readbackSync[slot];
+        readbackSync[slot] = 0;
+        int status;
+        do {
+            status = gl3es3.glClientWaitSync(sync, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, 1000000000L /* 1s */);
+        } while( GL3ES3.GL_TIMEOUT_EXPIRED == status );
+        gl3es3.glDeleteSync(sync);
+        if( GL3ES3.GL_WAIT_FAILED == status ) {
+            if( DEBUG ) {
+                System.err.println(getThreadName()+": GLJPanel.copyPixelsPBO: wait failed on slot "+slot+", glerr 0x"+Integer.toHexString(gl.glGetError()));
+            }
+            return false;
+        }
+        final int width = readbackWidth[slot];
+        final int height = readbackHeight[slot];
+        if( null == alignedImage ||
+            width != alignedImage.getWidth() || height != alignedImage.getHeight() ) {
+            return false;
+        }
+        final int[] dest = ((DataBufferInt) alignedImage.getRaster().getDataBuffer()).getData();
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, readbackPBO[slot]);
+        try {
+            final ByteBuffer mapped = gl.glMapBufferRange(GL2ES3.GL_PIXEL_PACK_BUFFER, 0, width * height * 4, GL.GL_MAP_READ_BIT);
+            if( null == mapped ) {
+                return false;
+            }
+            final IntBuffer src = mapped.order(ByteOrder.nativeOrder()).asIntBuffer();
+            if( readbackCPUFlip[slot] ) {
+                for(int destPos = (height - 1) * width; destPos >= 0; destPos -= width) {
+                    src.get(dest, destPos, width);
+                }
+            } else {
+                src.get(dest, 0, width * height);
+            }
+            gl.glUnmapBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER);
+            return true;
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        }
+    }
+
+    private final void disposePBOReadback(final GL gl) {
+        for(int i=0; i<2; i++) {
+            if( 0 != readbackSync[i] ) {
+                gl.getGL3ES3().glDeleteSync(readbackSync[i]);
+                readbackSync[i] = 0;
+            }
+        }
+        if( 0 != readbackPBO[0] ) {
+            gl.glDeleteBuffers(2, readbackPBO, 0);
+            readbackPBO[0] = 0;
+            readbackPBO[1] = 0;
+        }
+        readbackNext = 0;
+    }
+
     @Override
     public final int getTextureUnit() {
         if(null != glslTextureRaster && null != offscreenDrawable) { // implies flippedVertical
@@ -2099,9 +2347,11 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
             System.err.println(getThreadName()+": GLJPanel.OffscreenBackend.doPaintComponent.drawImage: - frameCount "+frameCount);
         }
         // Draw resulting image in one shot
+        final long t0 = System.nanoTime();
         g.drawImage(alignedImage, 0, 0,
                     SurfaceScaleUtils.scaleInv(alignedImage.getWidth(), hasPixelScale[0]),
                     SurfaceScaleUtils.scaleInv(alignedImage.getHeight(), hasPixelScale[1]), null); // Null ImageObserver since image data is ready.
+        addBlitNanos(System.nanoTime() - t0);
       }
       frameCount++;
     }
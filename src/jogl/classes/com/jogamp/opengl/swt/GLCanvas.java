@@ -50,6 +50,7 @@ import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLDrawableFactory;
 import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLFrameProfiler;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.GLRunnable;
 import com.jogamp.opengl.GLSharedContextSetter;
@@ -774,6 +775,16 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
        return helper.getExclusiveContextThread();
    }
 
+   @Override
+   public final GLFrameProfiler setFrameProfiling(final int frameCapacity) {
+       return helper.setFrameProfiling(frameCapacity);
+   }
+
+   @Override
+   public final GLFrameProfiler getFrameProfiler() {
+       return helper.getFrameProfiler();
+   }
+
    @Override
    public boolean getAutoSwapBufferMode() {
       return helper.getAutoSwapBufferMode();
@@ -127,6 +127,35 @@ public class Animator extends AnimatorBase {
         runAsFastAsPossible = runFast;
     }
 
+    /**
+     * Called by the animation thread after each frame, i.e. after all drawables have been displayed,
+     * outside of any lock.
+     * <p>
+     * Default implementation yields the animation thread to avoid swamping the CPU,
+     * unless {@link #setRunAsFastAsPossible(boolean)} has been enabled.
+     * Subclasses may override this method to pace the animation.
+     * </p>
+     * @param displayStart {@link System#nanoTime()} before displaying the drawables
+     * @param displayEnd {@link System#nanoTime()} after displaying the drawables
+     */
+    protected void frameDisplayed(final long displayStart, final long displayEnd) {
+        if ( !runAsFastAsPossible ) {
+            // Avoid swamping the CPU
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Called by the animation thread when the animation gets paused or stopped, i.e. no more frames follow until resumed.
+     * <p>
+     * If paused, this method is called while holding this animator's lock.
+     * Default implementation does nothing.
+     * </p>
+     * @param stopped true if the animation stopped, otherwise it has been paused
+     */
+    protected void animationSuspended(final boolean stopped) {
+    }
+
     class MainLoop implements Runnable {
         @Override
         public String toString() {
@@ -153,6 +182,7 @@ public class Animator extends AnimatorBase {
                     synchronized (Animator.this) {
                         // Pause; Also don't consume CPU unless there is work to be done and not paused
                         boolean ectCleared = false;
+                        boolean suspended = false;
                         while ( !stopIssued && ( pauseIssued || drawablesEmpty ) ) {
                             if( drawablesEmpty ) {
                                 pauseIssued = true;
@@ -172,6 +202,10 @@ public class Animator extends AnimatorBase {
                                     break; // end pause loop
                                 }
                             }
+                            if ( !suspended ) {
+                                suspended = true;
+                                animationSuspended(false);
+                            }
                             isAnimating = false;
                             Animator.this.notifyAll();
                             try {
@@ -200,6 +234,7 @@ public class Animator extends AnimatorBase {
                         }
                     } // sync Animator.this
                     if ( !pauseIssued && !stopIssued ) {
+                        final long t0 = System.nanoTime();
                         try {
                             display();
                         } catch (final UncaughtAnimatorException dre) {
@@ -207,10 +242,7 @@ public class Animator extends AnimatorBase {
                             stopIssued = true;
                             break; // end animation loop
                         }
-                        if ( !runAsFastAsPossible ) {
-                            // Avoid swamping the CPU
-                            Thread.yield();
-                        }
+                        frameDisplayed(t0, System.nanoTime());
                     }
                 }
             } catch(final ThreadDeath td) {
@@ -219,6 +251,7 @@ public class Animator extends AnimatorBase {
                 }
                 caughtThreadDeath = td;
             }
+            animationSuspended(true);
             if( exclusiveContext && !drawablesEmpty ) {
                 setDrawablesExclCtxState(false);
                 try {
@@ -153,7 +153,10 @@ public abstract class AnimatorBase implements GLAnimatorControl {
     protected final synchronized void initImpl(final boolean force) {
         if( force || null == impl ) {
             final String seqSuffix = String.format((Locale)null, "#%02d", seqInstanceNumber++);
-            if( useAWTAnimatorImpl( modeBits ) ) {
+            impl = createCustomImpl();
+            if( null != impl ) {
+                baseName = getBaseName("")+seqSuffix;
+            } else if( useAWTAnimatorImpl( modeBits ) ) {
                 try {
                     impl = (AnimatorImpl) awtAnimatorImplClazz.newInstance();
                     baseName = getBaseName("AWT")+seqSuffix;
@@ -170,6 +173,17 @@ public abstract class AnimatorBase implements GLAnimatorControl {
     }
     protected abstract String getBaseName(String prefix);
 
+    /**
+     * Returns a custom {@link AnimatorImpl} used by {@link #initImpl(boolean)},
+     * or <code>null</code> to use the default implementation, which is aware of {@link #MODE_EXPECT_AWT_RENDERING_THREAD}.
+     * <p>
+     * Default implementation returns <code>null</code>.
+     * </p>
+     */
+    protected AnimatorImpl createCustomImpl() {
+        return null;
+    }
+
     /**
      * Enables or disables the given <code>bitValues</code>
      * in this Animators <code>modeBits</code>.
@@ -294,6 +308,9 @@ public abstract class AnimatorBase implements GLAnimatorControl {
     // @Override
     public final synchronized Thread setExclusiveContext(final Thread t) {
         final boolean enable = null != t;
+        if( enable ) {
+            validateExclusiveContext();
+        }
         final Thread old = userExclusiveContextThread;
         if( enable && t != animThread ) { // disable: will be cleared at end after propagation && filter out own animThread usae
             userExclusiveContextThread=t;
@@ -325,6 +342,9 @@ public abstract class AnimatorBase implements GLAnimatorControl {
      */
     // @Override
     public final boolean setExclusiveContext(final boolean enable) {
+        if( enable ) {
+            validateExclusiveContext();
+        }
         final boolean propagateState;
         final boolean oldExclusiveContext;
         final Thread _exclusiveContextThread;
@@ -379,6 +399,17 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         return oldExclusiveContext;
     }
 
+    /**
+     * Invoked by {@link #setExclusiveContext(boolean)} and {@link #setExclusiveContext(Thread)} before enabling
+     * the exclusive context thread, allowing subclasses to reject it.
+     * <p>
+     * Default implementation does nothing.
+     * </p>
+     * @throws GLException if the exclusive context thread is not supported by this animator
+     */
+    protected void validateExclusiveContext() throws GLException {
+    }
+
     /**
      * Returns <code>true</code>, if the exclusive context thread is enabled, otherwise <code>false</code>.
      *
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Allocator of the direct NIO client buffer used by {@link GLArrayDataClient},
+ * see {@link GLArrayDataClient#setAllocator(GLArrayDataAllocator)}.
+ * <p>
+ * All allocators account the direct bytes they have handed out and not yet released,
+ * summed up across the process, see {@link #getTotalDirectBytes()}.
+ * </p>
+ * <p>
+ * Implementations shall be thread safe.
+ * </p>
+ * @see GLArrayDataArena
+ */
+public abstract class GLArrayDataAllocator {
+    private static final AtomicLong totalDirectBytes = new AtomicLong(0);
+    private static final AtomicLong peakDirectBytes = new AtomicLong(0);
+
+    /**
+     * Default allocator, creating a new direct {@link ByteBuffer} for each allocation
+     * and leaving released buffers to the garbage collector.
+     */
+    public static final GLArrayDataAllocator DEFAULT = new GLArrayDataAllocator() {
+        @Override
+        public ByteBuffer allocate(final int byteCount) {
+            final ByteBuffer bb = Buffers.newDirectByteBuffer(byteCount);
+            addDirectBytes(bb.capacity());
+            return bb;
+        }
+        @Override
+        public void release(final ByteBuffer bb) {
+            addDirectBytes(-bb.capacity());
+        }
+        @Override
+        public String toString() { return "GLArrayDataAllocator.DEFAULT"; }
+    };
+
+    /**
+     * Returns a cleared direct {@link ByteBuffer} in native byte order
+     * with a capacity of at least {@code byteCount} bytes.
+     */
+    public abstract ByteBuffer allocate(final int byteCount);
+
+    /**
+     * Releases the given {@link ByteBuffer}, previously returned by {@link #allocate(int)} of this instance.
+     * <p>
+     * The buffer and all its views must not be used anymore.
+     * </p>
+     */
+    public abstract void release(final ByteBuffer bb);
+
+    /**
+     * Discards the given {@link ByteBuffer}, previously returned by {@link #allocate(int)} of this instance,
+     * while views of it may still be in use, i.e. the buffer is accounted as released but never reused
+     * and left to the garbage collector.
+     */
+    public void discard(final ByteBuffer bb) {
+        addDirectBytes(-bb.capacity());
+    }
+
+    /**
+     * Accounts the given number of direct bytes handed out by an allocator, negative if released.
+     */
+    protected static final void addDirectBytes(final long byteCount) {
+        final long total = totalDirectBytes.addAndGet(byteCount);
+        long peak = peakDirectBytes.get();
+        while( total > peak && !peakDirectBytes.compareAndSet(peak, total) ) {
+            peak = peakDirectBytes.get();
+        }
+    }
+
+    /**
+     * Returns the total number of direct bytes currently handed out by all allocators across the process,
+     * i.e. used by client buffers of all {@link GLArrayDataClient}s not {@link GLArrayDataClient#destroy(com.jogamp.opengl.GL) destroyed} yet.
+     * <p>
+     * Bytes kept for reuse by a {@link GLArrayDataArena} are not included, see {@link GLArrayDataArena#getRetainedBytes()}.
+     * </p>
+     */
+    public static long getTotalDirectBytes() { return totalDirectBytes.get(); }
+
+    /** Returns the peak of {@link #getTotalDirectBytes()}. */
+    public static long getPeakDirectBytes() { return peakDirectBytes.get(); }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.util.Bitfield;
+
+/**
+ * Reusable off-heap arena for {@link GLArrayDataClient} buffers,
+ * i.e. a slab allocator of direct {@link ByteBuffer}s keyed by power-of-two size classes.
+ * <p>
+ * Size classes smaller than the slab size are carved out of one direct slab of slab size,
+ * if its remaining pieces fit into the {@link #getMaxRetainedBytes() retained bytes} maximum.
+ * Larger size classes and those exceeding this maximum are allocated individually.
+ * Released buffers are kept in a free list per size class for reuse
+ * as long as the total {@link #getRetainedBytes() retained bytes} do not exceed the given maximum.
+ * </p>
+ * <p>
+ * A buffer must not be released while a view of it is still in use, otherwise it shall be {@link #discard(ByteBuffer) discarded}.
+ * {@link GLArrayDataClient} discards its buffer if it has been shared with a copy created via its copy constructor.
+ * </p>
+ */
+public class GLArrayDataArena extends GLArrayDataAllocator {
+    /** Minimum size class in bytes, value {@value}. */
+    public static final int MIN_SIZE_CLASS = 1 << 8;
+    /** Maximum size class in bytes, value {@value}. */
+    public static final int MAX_SIZE_CLASS = 1 << 30;
+    /** Default slab size in bytes, value {@value}. */
+    public static final int DEFAULT_SLAB_SIZE = 1 << 16;
+
+    private final int slabSize;
+    private final long maxRetainedBytes;
+    private final ArrayList<ByteBuffer>[] freeLists;
+    private long retainedBytes;
+    private int allocCount, reuseCount;
+    private long directBytes;
+
+    /**
+     * Creates an arena using {@link #DEFAULT_SLAB_SIZE}.
+     * @param maxRetainedBytes maximum number of bytes kept for reuse
+     */
+    public GLArrayDataArena(final long maxRetainedBytes) {
+        this(DEFAULT_SLAB_SIZE, maxRetainedBytes);
+    }
+
+    /**
+     * Creates an arena.
+     * @param slabSize slab size in bytes, a power of two of at least {@link #MIN_SIZE_CLASS}
+     * @param maxRetainedBytes maximum number of bytes kept for reuse
+     * @throws IllegalArgumentException if {@code slabSize} is invalid
+     */
+    @SuppressWarnings("unchecked")
+    public GLArrayDataArena(final int slabSize, final long maxRetainedBytes) throws IllegalArgumentException {
+        if( MIN_SIZE_CLASS > slabSize || MAX_SIZE_CLASS < slabSize || !Bitfield.Util.isPowerOf2(slabSize) ) {
+            throw new IllegalArgumentException("Invalid slabSize "+slabSize);
+        }
+        this.slabSize = slabSize;
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.freeLists = new ArrayList[getSizeClassIndex(MAX_SIZE_CLASS)+1];
+        for(int i=0; i<freeLists.length; i++) {
+            freeLists[i] = new ArrayList<ByteBuffer>();
+        }
+        this.retainedBytes = 0;
+        this.allocCount = 0;
+        this.reuseCount = 0;
+        this.directBytes = 0;
+    }
+
+    /**
+     * Returns the size class in bytes for the given byte count.
+     * @throws IllegalArgumentException if {@code byteCount} exceeds {@link #MAX_SIZE_CLASS}
+     */
+    public static int getSizeClass(final int byteCount) throws IllegalArgumentException {
+        if( MAX_SIZE_CLASS < byteCount ) {
+            throw new IllegalArgumentException("byteCount "+byteCount+" exceeds "+MAX_SIZE_CLASS);
+        }
+        return byteCount <= MIN_SIZE_CLASS ? MIN_SIZE_CLASS : Bitfield.Util.roundToPowerOf2(byteCount);
+    }
+
+    private static int getSizeClassIndex(final int sizeClass) {
+        return Integer.numberOfTrailingZeros(sizeClass) - Integer.numberOfTrailingZeros(MIN_SIZE_CLASS);
+    }
+
+    @Override
+    public synchronized ByteBuffer allocate(final int byteCount) {
+        final int sizeClass = getSizeClass(byteCount);
+        final ArrayList<ByteBuffer> freeList = freeLists[getSizeClassIndex(sizeClass)];
+        final ByteBuffer bb;
+        if( !freeList.isEmpty() ) {
+            bb = freeList.remove(freeList.size()-1);
+            bb.clear();
+            retainedBytes -= sizeClass;
+            reuseCount++;
+        } else if( sizeClass < slabSize && retainedBytes + ( slabSize - sizeClass ) <= maxRetainedBytes ) {
+            // carve a slab only if its remaining pieces may be retained, otherwise allocate individually below
+            final ByteBuffer slab = Buffers.newDirectByteBuffer(slabSize);
+            directBytes += slabSize;
+            final int pieces = slabSize / sizeClass;
+            for(int i=pieces-1; i>=1; i--) {
+                freeList.add(slice(slab, i*sizeClass, sizeClass));
+            }
+            retainedBytes += ( pieces - 1 ) * sizeClass;
+            bb = slice(slab, 0, sizeClass);
+        } else {
+            bb = Buffers.newDirectByteBuffer(sizeClass);
+            directBytes += sizeClass;
+        }
+        allocCount++;
+        addDirectBytes(sizeClass);
+        return bb;
+    }
+
+    private static ByteBuffer slice(final ByteBuffer slab, final int offset, final int size) {
+        slab.limit(offset + size);
+        slab.position(offset);
+        final ByteBuffer bb = slab.slice().order(ByteOrder.nativeOrder());
+        slab.clear();
+        return bb;
+    }
+
+    @Override
+    public synchronized void release(final ByteBuffer bb) {
+        final int capacity = bb.capacity();
+        addDirectBytes(-capacity);
+        if( MIN_SIZE_CLASS <= capacity && Bitfield.Util.isPowerOf2(capacity) &&
+            retainedBytes + capacity <= maxRetainedBytes ) {
+            freeLists[getSizeClassIndex(capacity)].add(bb);
+            retainedBytes += capacity;
+        }
+    }
+
+    /** Drops all retained buffers, leaving them to the garbage collector. */
+    public synchronized void clear() {
+        for(int i=0; i<freeLists.length; i++) {
+            freeLists[i].clear();
+        }
+        retainedBytes = 0;
+    }
+
+    /** Returns the slab size in bytes. */
+    public final int getSlabSize() { return slabSize; }
+    /** Returns the maximum number of bytes kept for reuse. */
+    public final long getMaxRetainedBytes() { return maxRetainedBytes; }
+    /** Returns the number of bytes currently kept for reuse. */
+    public synchronized long getRetainedBytes() { return retainedBytes; }
+    /** Returns the total number of direct bytes allocated from the system by this arena. */
+    public synchronized long getDirectBytes() { return directBytes; }
+    /** Returns the number of {@link #allocate(int) allocations}. */
+    public synchronized int getAllocCount() { return allocCount; }
+    /** Returns the number of {@link #allocate(int) allocations} served by a retained buffer. */
+    public synchronized int getReuseCount() { return reuseCount; }
+
+    @Override
+    public synchronized String toString() {
+        return "GLArrayDataArena[slab "+slabSize+", retained "+retainedBytes+"/"+maxRetainedBytes+
+               ", direct "+directBytes+", alloc "+allocCount+", reused "+reuseCount+"]";
+    }
+}
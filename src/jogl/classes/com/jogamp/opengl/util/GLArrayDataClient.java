@@ -184,9 +184,24 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
   @Override
   public void destroy(final GL gl) {
     reset(gl);
+    releaseOwnedBuffer();
     super.destroy(gl);
   }
 
+  /**
+   * Sets the {@link GLArrayDataAllocator} used for subsequent client buffer allocations,
+   * defaults to {@link GLArrayDataAllocator#DEFAULT}.
+   * <p>
+   * A client buffer allocated before is released to its original allocator when replaced or {@link #destroy(GL) destroyed}.
+   * </p>
+   */
+  public final void setAllocator(final GLArrayDataAllocator allocator) {
+    this.allocator = null != allocator ? allocator : GLArrayDataAllocator.DEFAULT;
+  }
+
+  /** Returns the {@link GLArrayDataAllocator} used for client buffer allocations. */
+  public final GLArrayDataAllocator getAllocator() { return allocator; }
+
   @Override
   public void reset(final GL gl) {
     enableBuffer(gl, false);
@@ -339,6 +354,7 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
                        ", stride "+strideB+"b "+strideL+"c"+
                        ", mappedElementCount "+mappedElementCount+
                        ", initialElementCount "+initialElementCount+
+                       ", allocator "+allocator+
                        ", sealed "+sealed+
                        ", bufferEnabled "+bufferEnabled+
                        ", bufferWritten "+bufferWritten+
@@ -362,6 +378,15 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     return false;
   }
 
+  /**
+   * Grows the client buffer by at least the given number of elements,
+   * but at least doubling its current capacity, i.e. geometric growth with amortized linear cost.
+   * <p>
+   * The new buffer is allocated via the {@link #getAllocator() allocator},
+   * a previously allocated buffer is released after copying its content,
+   * or {@link GLArrayDataAllocator#discard(ByteBuffer) discarded} if shared with a copy, which keeps using it.
+   * </p>
+   */
   protected final void growBuffer(int additionalElements) {
     if(!alive || sealed) {
        throw new GLException("Invalid state: "+this);
@@ -371,46 +396,73 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     additionalElements += (additionalElements/componentsPerElement)*(strideL-componentsPerElement);
 
     final int osize = (buffer!=null) ? buffer.capacity() : 0;
-    final int nsize = osize + ( additionalElements * componentsPerElement );
+    final int minSize = osize + ( additionalElements * componentsPerElement );
+    final int nsize = osize <= Integer.MAX_VALUE / 2 ? Math.max(minSize, 2 * osize) : minSize;
     final Buffer oldBuffer = buffer;
+    final int elemSize;
+    if(componentClazz==ByteBuffer.class) {
+        elemSize = Buffers.SIZEOF_BYTE;
+    } else if(componentClazz==ShortBuffer.class) {
+        elemSize = Buffers.SIZEOF_SHORT;
+    } else if(componentClazz==IntBuffer.class) {
+        elemSize = Buffers.SIZEOF_INT;
+    } else if(componentClazz==FloatBuffer.class) {
+        elemSize = Buffers.SIZEOF_FLOAT;
+    } else {
+        throw new GLException("Given Buffer Class not supported: "+componentClazz+":\n\t"+this);
+    }
+    final ByteBuffer newBuffer = allocator.allocate( nsize * elemSize );
 
     if(componentClazz==ByteBuffer.class) {
-        final ByteBuffer newBBuffer = Buffers.newDirectByteBuffer( nsize );
         if(buffer!=null) {
             buffer.flip();
-            newBBuffer.put((ByteBuffer)buffer);
+            newBuffer.put((ByteBuffer)buffer);
         }
-        buffer = newBBuffer;
+        buffer = newBuffer;
     } else if(componentClazz==ShortBuffer.class) {
-        final ShortBuffer newSBuffer = Buffers.newDirectShortBuffer( nsize );
+        final ShortBuffer newSBuffer = newBuffer.asShortBuffer();
         if(buffer!=null) {
             buffer.flip();
             newSBuffer.put((ShortBuffer)buffer);
         }
         buffer = newSBuffer;
     } else if(componentClazz==IntBuffer.class) {
-        final IntBuffer newIBuffer = Buffers.newDirectIntBuffer( nsize );
+        final IntBuffer newIBuffer = newBuffer.asIntBuffer();
         if(buffer!=null) {
             buffer.flip();
             newIBuffer.put((IntBuffer)buffer);
         }
         buffer = newIBuffer;
-    } else if(componentClazz==FloatBuffer.class) {
-        final FloatBuffer newFBuffer = Buffers.newDirectFloatBuffer( nsize );
+    } else {
+        final FloatBuffer newFBuffer = newBuffer.asFloatBuffer();
         if(buffer!=null) {
             buffer.flip();
             newFBuffer.put((FloatBuffer)buffer);
         }
         buffer = newFBuffer;
-    } else {
-        throw new GLException("Given Buffer Class not supported: "+componentClazz+":\n\t"+this);
     }
+    releaseOwnedBuffer();
+    ownedBuffer = newBuffer;
+    ownedAllocator = allocator;
     if(DEBUG) {
-        System.err.println("*** Grow: comps: "+componentsPerElement+", "+(osize/componentsPerElement)+"/"+osize+" -> "+(nsize/componentsPerElement)+"/"+nsize+
+        System.err.println("*** Grow: comps: "+componentsPerElement+", "+(osize/componentsPerElement)+"/"+osize+" -> "+(buffer.capacity()/componentsPerElement)+"/"+buffer.capacity()+
                            "; "+oldBuffer+" -> "+buffer+"; "+this);
     }
   }
 
+  private final void releaseOwnedBuffer() {
+    if( null != ownedBuffer ) {
+        if( ownedBufferShared ) {
+            ownedAllocator.discard(ownedBuffer); // copies still slice it, must not be reused
+        } else {
+            ownedAllocator.release(ownedBuffer);
+        }
+        ownedBuffer = null;
+        ownedAllocator = null;
+        ownedBufferShared = false;
+    }
+  }
+
   protected final void checkSeal(final boolean test) throws GLException {
     if(!alive) {
         throw new GLException("Invalid state: "+this);
@@ -436,6 +488,10 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
         throw new IllegalArgumentException("mappedElementCount:="+mappedElementCount+" specified, but passing non zero initialElementSize");
     }
     this.initialElementCount = initialElementCount;
+    this.allocator = GLArrayDataAllocator.DEFAULT;
+    this.ownedBuffer = null;
+    this.ownedAllocator = null;
+    this.ownedBufferShared = false;
     this.glArrayHandler = handler;
     this.usesGLSL = usesGLSL;
     this.sealed=false;
@@ -463,6 +519,9 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
    * Copy Constructor
    * <p>
    * Buffer is {@link Buffers#slice(Buffer) sliced}, i.e. sharing content but using own state.
+   * The source owns the shared buffer, hence shall not be {@link #destroy(GL) destroyed} while the copy is in use.
+   * Once shared, the source's buffer is no more reused by its allocator when the source grows,
+   * i.e. the copy keeps the content at the time of growth.
    * </p>
    * <p>
    * All other values are simply copied.
@@ -476,6 +535,13 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     this.bufferWritten = src.bufferWritten;
     this.enableBufferAlways = src.enableBufferAlways;
     this.initialElementCount = src.initialElementCount;
+    this.allocator = src.allocator;
+    this.ownedBuffer = null;
+    this.ownedAllocator = null;
+    this.ownedBufferShared = false;
+    if( null != src.ownedBuffer ) {
+        src.ownedBufferShared = true;
+    }
     if( null != src.glArrayHandler ) {
         final Class<? extends GLArrayHandler> clazz = src.glArrayHandler.getClass();
         try {
@@ -498,6 +564,14 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
 
   protected int initialElementCount;
 
+  /** Allocator used for new client buffers */
+  protected GLArrayDataAllocator allocator;
+  /** Client buffer allocated by {@link #ownedAllocator}, backing {@link #buffer} */
+  private ByteBuffer ownedBuffer;
+  private GLArrayDataAllocator ownedAllocator;
+  /** True if {@link #ownedBuffer} is sliced by a copy, hence must not be reused */
+  private boolean ownedBufferShared;
+
   protected GLArrayHandler glArrayHandler;
   protected boolean usesGLSL;
   protected ShaderState shaderState;
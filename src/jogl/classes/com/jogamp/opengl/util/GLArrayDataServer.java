@@ -501,8 +501,18 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     // super.destroy(gl):
     // - GLArrayDataClient.destroy(gl): disables & clears client-side buffer
     //   - GLArrayDataWrapper.destroy(gl) (clears all values 'vboName' ..)
-    final int _vboName = vboName;
+    final int _vboName;
+    if( null != streamingRing ) {
+        // VBO is owned by the ring
+        _vboName = 0;
+    } else {
+        _vboName = vboName;
+    }
     super.destroy(gl);
+    if( null != streamingRing ) {
+        streamingRing.destroy(gl);
+        streamingRing = null;
+    }
     if(_vboName!=0) {
         final int[] tmp = new int[] { _vboName } ;
         gl.glDeleteBuffers(1, tmp, 0);
@@ -525,6 +535,70 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     super.setVBOEnabled(vboUsage);
   }
 
+  /**
+   * Enables or disables the streaming mode, must be called before the first {@link #enableBuffer(GL, boolean) enabling}.
+   * <p>
+   * In streaming mode the VBO is owned by a {@link GLStreamingBufferRing} of the given segment count.
+   * Each time the sealed and not yet written client data is {@link #enableBuffer(GL, boolean) enabled} or {@link #bindBuffer(GL, boolean) bound},
+   * it is copied into the next ring segment and the array is bound using the segment's offset,
+   * avoiding per frame buffer allocation and implicit synchronization.
+   * </p>
+   * <p>
+   * Typical per frame usage: {@link #seal(GL, boolean) seal(gl, false)}, {@link #rewind()}, put data .., {@link #seal(GL, boolean) seal(gl, true)}.
+   * </p>
+   * <p>
+   * Streaming is not supported for interleaved arrays, mapped storage and {@link GL#GL_ELEMENT_ARRAY_BUFFER element arrays},
+   * since indexed draw calls would require the segment's offset.
+   * </p>
+   * @param segmentCount number of ring segments, &ge; 2, usually the number of frames in flight plus one, or zero to disable streaming.
+   * @throws IllegalStateException if already in use, interleaved, mapped or an element array
+   */
+  public final void setStreaming(final int segmentCount) throws IllegalStateException {
+      if( 0 != vboName || bufferEnabled ) {
+          throw new IllegalStateException("VBO already in use: "+this);
+      }
+      if( 0 < interleavedOffset || 0 < mappedElementCount || null != mappedStorage ) {
+          throw new IllegalStateException("Streaming not supported for interleaved or mapped arrays: "+this);
+      }
+      if( GL.GL_ELEMENT_ARRAY_BUFFER == getVBOTarget() ) {
+          throw new IllegalStateException("Streaming not supported for element arrays: "+this);
+      }
+      streamingRing = 0 < segmentCount ? new GLStreamingBufferRing(segmentCount) : null;
+  }
+
+  /** Returns the {@link GLStreamingBufferRing} if in {@link #setStreaming(int) streaming mode}, otherwise {@code null}. */
+  public final GLStreamingBufferRing getStreamingRing() { return streamingRing; }
+
+  @Override
+  public void enableBuffer(final GL gl, final boolean enable) {
+    if( enable && null != streamingRing ) {
+        streamData(gl);
+    }
+    super.enableBuffer(gl, enable);
+  }
+
+  @Override
+  public boolean bindBuffer(final GL gl, final boolean bind) {
+    if( bind && null != streamingRing ) {
+        streamData(gl);
+    }
+    return super.bindBuffer(gl, bind);
+  }
+
+  /**
+   * Copies the sealed client data into the next segment of the {@link #getStreamingRing() streaming ring},
+   * if not yet written, and updates VBO name and offset accordingly.
+   */
+  private final void streamData(final GL gl) {
+    if( bufferWritten || !sealed || !vboEnabled || null == buffer || 0 == buffer.limit() ) {
+        return;
+    }
+    vboOffset = streamingRing.write(gl, getVBOTarget(), buffer, getSizeInBytes());
+    vboName = streamingRing.getVBOName();
+    gl.glBindBuffer(getVBOTarget(), 0);
+    bufferWritten = true;
+  }
+
   public GLBufferStorage mapStorage(final GL gl, final int access) {
       if( null != this.getBuffer() ) {
           throw new IllegalStateException("user buffer not null");
@@ -603,6 +677,7 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
                        ", initialElementCount "+initialElementCount+
                        ", mappedElementCount "+mappedElementCount+
                        ", mappedStorage "+mappedStorage+
+                       ", streamingRing "+streamingRing+
                        ", vboEnabled "+vboEnabled+
                        ", vboName "+vboName+
                        ", vboUsage 0x"+Integer.toHexString(vboUsage)+
@@ -636,7 +711,7 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
   @Override
   protected void init_vbo(final GL gl) {
     super.init_vbo(gl);
-    if(vboEnabled && vboName==0) {
+    if(vboEnabled && vboName==0 && null == streamingRing) { // streaming VBO is owned by the ring
         final int[] tmp = new int[1];
         gl.glGenBuffers(1, tmp, 0);
         vboName = tmp[0];
@@ -665,5 +740,6 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
 
   private int interleavedOffset = 0;
   private GLBufferStorage mappedStorage = null;
+  private GLStreamingBufferRing streamingRing = null;
 }
 
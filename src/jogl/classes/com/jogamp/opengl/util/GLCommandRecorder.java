@@ -0,0 +1,829 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GLArrayData;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.GLUniformData;
+
+/**
+ * Base class of the generated recording GL implementations, e.g. {@link RecordGL2ES2},
+ * serializing GL calls and their array and buffer arguments into a compact off-heap command stream,
+ * which can be {@link #replay(GL) replayed} on the GL thread later on.
+ * <p>
+ * Recording does not require a current {@link com.jogamp.opengl.GLContext GLContext}
+ * and hence may happen on any thread, allowing to generate GL commands on multiple worker threads
+ * using one recorder per thread. The recorder is a {@link GLRunnable}, i.e. it can be passed
+ * to {@link GLAutoDrawable#invoke(boolean, GLRunnable)} to be replayed in one go:
+ * <pre>
+ *   final RecordGL2ES2 rec = new RecordGL2ES2(drawable.getGL().getGL2ES2());
+ *   // on a worker thread
+ *   rec.glClearColor(0f, 0f, 1f, 1f);
+ *   rec.glClear(GL.GL_COLOR_BUFFER_BIT);
+ *   drawable.invoke(true, rec);
+ *   rec.reset();
+ * </pre>
+ * </p>
+ * <p>
+ * Array and buffer arguments are copied at recording time. Buffers are copied from their position to their limit.
+ * Arrays are copied from their offset by the element count given by the call's arguments,
+ * e.g. <code>count * 4</code> for <code>glUniform4fv</code>, or to their end if the count is unknown.
+ * Buffers passed at replay are slices of the command stream, which stay valid until the next {@link #reset()}
+ * or recording, hence client side vertex arrays may be recorded as long as they are drawn within the same stream.
+ * Arrays passed at replay are reused scratch arrays, hence no allocation happens per replayed command.
+ * </p>
+ * <p>
+ * Commands returning a value or writing into their arguments, e.g. <code>glGet*</code>, <code>glGen*</code>
+ * or <code>glReadPixels</code>, cannot be recorded and throw a {@link GLException}.
+ * Non GL methods, e.g. {@link GL#getContext()} or {@link GL#isExtensionAvailable(String)},
+ * are passed to the downstream GL. Convenience methods like {@link GL2ES2#glUniform(GLUniformData)}
+ * are recorded as the GL calls they issue.
+ * </p>
+ * <p>
+ * If {@link #setPassThrough(boolean) pass-through} is enabled, all calls are also passed to the downstream GL,
+ * allowing to capture the command stream of a running application by installing the recorder as the drawable's GL:
+ * <pre>
+ *   rec.setPassThrough(true);
+ *   drawable.setGL(rec);
+ *   // display N frames, then
+ *   drawable.setGL(rec.getDownstreamGL());
+ *   rec.write(out);
+ * </pre>
+ * Objects created by non recordable commands, e.g. <code>glGen*</code> or <code>glCreateProgram</code>,
+ * are not part of the captured stream, i.e. it can only be replayed on the same context
+ * or against a stub GL, e.g. a recorder with {@link #setRecording(boolean) recording} and pass-through disabled.
+ * The latter allows measuring the pure Java side dispatch cost.
+ * </p>
+ * <p>
+ * A recorder is not thread safe, i.e. it shall be used by one thread at a time
+ * and must not be recorded to while being replayed.
+ * </p>
+ */
+public abstract class GLCommandRecorder implements GLRunnable {
+    private static final Charset utf8 = Charset.forName("UTF-8");
+    /** Magic of the {@link #write(OutputStream) stream format}, 'JGLC'. */
+    private static final int MAGIC = 0x4A474C43;
+    private static final int VERSION = 2;
+    private static final int DEFAULT_CAPACITY = 64 * 1024;
+    /** Maximum size of the command stream in bytes, aligned. */
+    private static final int MAX_SIZE = Integer.MAX_VALUE & ~7;
+
+    private static final int TAG_NULL   = 0;
+    private static final int TAG_BYTE   = 1;
+    private static final int TAG_SHORT  = 2;
+    private static final int TAG_CHAR   = 3;
+    private static final int TAG_INT    = 4;
+    private static final int TAG_LONG   = 5;
+    private static final int TAG_FLOAT  = 6;
+    private static final int TAG_DOUBLE = 7;
+
+    private ByteBuffer data;
+    private int writePos = 0;
+    private int readPos = 0;
+    private int commandCount = 0;
+    /** Write position before the current command, allowing to drop it if its arguments are invalid. */
+    private int commandStart = 0;
+    /** If true, recordable calls are recorded by the generated implementation. */
+    private boolean recording = true;
+    /** If true, all calls are passed to the downstream GL by the generated implementation. */
+    private boolean passThrough = false;
+    // Replay scratch arrays per type and argument slot, see getIntArray(int)
+    private byte[][] byteScratch = new byte[0][];
+    private short[][] shortScratch = new short[0][];
+    private int[][] intScratch = new int[0][];
+    private long[][] longScratch = new long[0][];
+    private float[][] floatScratch = new float[0][];
+    private double[][] doubleScratch = new double[0][];
+    private byte[] stringScratch = new byte[64];
+
+    protected GLCommandRecorder() {
+    }
+
+    /**
+     * Enables or disables recording, enabled by default.
+     * <p>
+     * With recording and {@link #setPassThrough(boolean) pass-through} disabled,
+     * recordable calls have no effect, i.e. the recorder acts as a no-op GL.
+     * </p>
+     */
+    public final void setRecording(final boolean enable) { recording = enable; }
+
+    /** Returns <code>true</code> if recording is enabled, see {@link #setRecording(boolean)}. */
+    public final boolean isRecording() { return recording; }
+
+    /**
+     * Enables or disables passing all calls to the downstream GL, disabled by default.
+     * <p>
+     * If enabled, the recorder must only be used on the thread the downstream GL is current on.
+     * </p>
+     */
+    public final void setPassThrough(final boolean enable) { passThrough = enable; }
+
+    /** Returns <code>true</code> if pass-through is enabled, see {@link #setPassThrough(boolean)}. */
+    public final boolean isPassThrough() { return passThrough; }
+
+    /** Returns the number of recorded commands since creation or {@link #reset()}. */
+    public final int getCommandCount() { return commandCount; }
+
+    /** Returns the size of the recorded command stream in bytes. */
+    public final int getSize() { return writePos; }
+
+    /** Returns the capacity of the off-heap command stream storage in bytes. */
+    public final int getCapacity() { return null != data ? data.capacity() : 0; }
+
+    /** Returns <code>true</code> if no command has been recorded since creation or {@link #reset()}. */
+    public final boolean isEmpty() { return 0 == commandCount; }
+
+    /**
+     * Discards all recorded commands, keeping the allocated storage for reuse.
+     */
+    public final void reset() {
+        writePos = 0;
+        readPos = 0;
+        commandCount = 0;
+    }
+
+    /**
+     * Appends all commands of the given recorder to this recorder, allowing to batch
+     * the recordings of multiple worker threads into one submission.
+     * @throws IllegalArgumentException if the given recorder is of a different type, i.e. uses different opcodes
+     */
+    public final void append(final GLCommandRecorder src) throws IllegalArgumentException {
+        if( src.getClass() != getClass() ) {
+            throw new IllegalArgumentException("Recorder type mismatch: "+src.getClass().getName()+" != "+getClass().getName());
+        }
+        if( 0 < src.writePos ) {
+            // both streams start 8 byte aligned, keeping the payload alignment intact
+            writePos = align(writePos);
+            ensure(src.writePos);
+            slice(writePos, src.writePos).put(src.slice(0, src.writePos));
+            writePos += src.writePos;
+            commandCount += src.commandCount;
+        }
+    }
+
+    /**
+     * Writes the recorded command stream to the given output stream,
+     * to be {@link #read(InputStream) read} and replayed later on, e.g. for benchmarking.
+     * <p>
+     * The stream is written in native byte order and can only be read on a platform of the same byte order.
+     * </p>
+     */
+    public final void write(final OutputStream out) throws IOException {
+        final DataOutputStream dout = new DataOutputStream(out);
+        dout.writeInt(MAGIC);
+        dout.writeInt(VERSION);
+        dout.writeBoolean(ByteOrder.LITTLE_ENDIAN == ByteOrder.nativeOrder());
+        dout.writeUTF(getClass().getName());
+        dout.writeInt(getOpcodeCount());
+        dout.writeLong(getOpcodeTableHash());
+        dout.writeInt(commandCount);
+        dout.writeInt(writePos);
+        final byte[] tmp = new byte[Math.min(writePos, 64 * 1024)];
+        for(int pos = 0; pos < writePos; ) {
+            final int n = Math.min(tmp.length, writePos - pos);
+            slice(pos, n).get(tmp, 0, n);
+            dout.write(tmp, 0, n);
+            pos += n;
+        }
+        dout.flush();
+    }
+
+    /**
+     * Replaces the recorded command stream with the one read from the given input stream,
+     * as previously {@link #write(OutputStream) written} by a recorder of the same type.
+     * @throws IOException if the stream is not a command stream of this recorder type, opcode table and platform byte order
+     */
+    public final void read(final InputStream in) throws IOException {
+        final DataInputStream din = new DataInputStream(in);
+        if( MAGIC != din.readInt() ) {
+            throw new IOException("Not a GL command stream");
+        }
+        final int version = din.readInt();
+        if( VERSION != version ) {
+            throw new IOException("Unsupported GL command stream version "+version);
+        }
+        if( din.readBoolean() != ( ByteOrder.LITTLE_ENDIAN == ByteOrder.nativeOrder() ) ) {
+            throw new IOException("GL command stream byte order mismatch");
+        }
+        final String type = din.readUTF();
+        if( !getClass().getName().equals(type) ) {
+            throw new IOException("GL command stream type mismatch: "+type+" != "+getClass().getName());
+        }
+        final int opCount = din.readInt();
+        final long opHash = din.readLong();
+        if( getOpcodeCount() != opCount || getOpcodeTableHash() != opHash ) {
+            // written by a recorder generated from a different GL interface, i.e. w/ different opcodes
+            throw new IOException("GL command stream opcode table mismatch: "+opCount+" opcodes, hash 0x"+Long.toHexString(opHash)+
+                                  " != "+getOpcodeCount()+" opcodes, hash 0x"+Long.toHexString(getOpcodeTableHash()));
+        }
+        final int count = din.readInt();
+        final int size = din.readInt();
+        if( 0 > size || MAX_SIZE < size || 0 > count || size / 4 < count ) {
+            // each command holds at least its opcode
+            throw new IOException("Invalid GL command stream: "+count+" commands, "+size+" bytes");
+        }
+        reset();
+        ensure(size);
+        final byte[] tmp = new byte[Math.min(size, 64 * 1024)];
+        for(int pos = 0; pos < size; ) {
+            final int n = Math.min(tmp.length, size - pos);
+            din.readFully(tmp, 0, n);
+            slice(pos, n).put(tmp, 0, n);
+            pos += n;
+        }
+        writePos = size;
+        commandCount = count;
+    }
+
+    /**
+     * Replays all recorded commands on the given GL object, which must be current on the calling thread.
+     * <p>
+     * The recorded commands are kept, i.e. the command stream may be replayed multiple times.
+     * </p>
+     * @throws GLException if a command fails or the given GL object does not implement the recorded profile
+     */
+    public final void replay(final GL gl) throws GLException {
+        readPos = 0;
+        while( readPos < writePos ) {
+            readPos = align(readPos);
+            if( readPos >= writePos ) {
+                break;
+            }
+            dispatch(gl, getInt());
+        }
+    }
+
+    /**
+     * {@link #replay(GL) Replays} all recorded commands on the drawable's GL object.
+     * @return always <code>true</code>
+     */
+    @Override
+    public boolean run(final GLAutoDrawable drawable) {
+        replay(drawable.getGL());
+        return true;
+    }
+
+    /**
+     * Executes the command of the given opcode, reading its arguments from the command stream
+     * in the order written by the recording method.
+     */
+    protected abstract void dispatch(GL gl, int op);
+
+    /** Returns the number of opcodes of the generated implementation. */
+    protected abstract int getOpcodeCount();
+
+    /** Returns the hash of the generated implementation's opcode table, i.e. its ordered recorded entry point names. */
+    protected abstract long getOpcodeTableHash();
+
+    /**
+     * Issues the GL calls of {@link GL2ES2#glUniform(GLUniformData)} on the given recorder,
+     * mirroring the GL implementation.
+     */
+    protected static void recordUniform(final GL2ES2 gl, final GLUniformData data) {
+        if( data.isBuffer() ) {
+            final Buffer buffer = data.getBuffer();
+            if( data.isMatrix() ) {
+                if( buffer instanceof FloatBuffer ) {
+                    switch( data.columns() ) {
+                        case 2: gl.glUniformMatrix2fv(data.getLocation(), data.count(), false, (FloatBuffer)buffer); return;
+                        case 3: gl.glUniformMatrix3fv(data.getLocation(), data.count(), false, (FloatBuffer)buffer); return;
+                        case 4: gl.glUniformMatrix4fv(data.getLocation(), data.count(), false, (FloatBuffer)buffer); return;
+                    }
+                }
+                throw new GLException("glUniformMatrix only available for 2fv, 3fv and 4fv");
+            } else {
+                if( buffer instanceof IntBuffer ) {
+                    switch( data.components() ) {
+                        case 1: gl.glUniform1iv(data.getLocation(), data.count(), (IntBuffer)buffer); return;
+                        case 2: gl.glUniform2iv(data.getLocation(), data.count(), (IntBuffer)buffer); return;
+                        case 3: gl.glUniform3iv(data.getLocation(), data.count(), (IntBuffer)buffer); return;
+                        case 4: gl.glUniform4iv(data.getLocation(), data.count(), (IntBuffer)buffer); return;
+                    }
+                } else if( buffer instanceof FloatBuffer ) {
+                    switch( data.components() ) {
+                        case 1: gl.glUniform1fv(data.getLocation(), data.count(), (FloatBuffer)buffer); return;
+                        case 2: gl.glUniform2fv(data.getLocation(), data.count(), (FloatBuffer)buffer); return;
+                        case 3: gl.glUniform3fv(data.getLocation(), data.count(), (FloatBuffer)buffer); return;
+                        case 4: gl.glUniform4fv(data.getLocation(), data.count(), (FloatBuffer)buffer); return;
+                    }
+                }
+                throw new GLException("glUniform vector only available for 1[if]v 2[if]v, 3[if]v and 4[if]v");
+            }
+        } else {
+            final Object obj = data.getObject();
+            if( obj instanceof Integer ) {
+                gl.glUniform1i(data.getLocation(), ((Integer)obj).intValue());
+            } else if( obj instanceof Float ) {
+                gl.glUniform1f(data.getLocation(), ((Float)obj).floatValue());
+            } else {
+                throw new GLException("glUniform atom only available for 1i and 1f");
+            }
+        }
+    }
+
+    /**
+     * Issues the GL calls of {@link GL2ES2#glVertexAttribPointer(GLArrayData)} on the given recorder,
+     * mirroring the GL implementation.
+     */
+    protected static void recordVertexAttribPointer(final GL2ES2 gl, final GLArrayData array) {
+        if( 0 == array.getComponentCount() ) {
+            return;
+        }
+        if( array.isVBO() ) {
+            gl.glVertexAttribPointer(array.getLocation(), array.getComponentCount(), array.getComponentType(),
+                                     array.getNormalized(), array.getStride(), array.getVBOOffset());
+        } else {
+            gl.glVertexAttribPointer(array.getLocation(), array.getComponentCount(), array.getComponentType(),
+                                     array.getNormalized(), array.getStride(), array.getBuffer());
+        }
+    }
+
+    //
+    // Writing
+    //
+
+    /** Starts recording the command of the given opcode. Each command starts 8 byte aligned. */
+    protected final void beginCommand(final int op) {
+        commandStart = writePos;
+        writePos = align(writePos);
+        ensure(4);
+        data.putInt(writePos, op);
+        writePos += 4;
+        commandCount++;
+    }
+
+    protected final void putBoolean(final boolean v) {
+        putByte( v ? (byte)1 : (byte)0 );
+    }
+    protected final void putByte(final byte v) {
+        ensure(1);
+        data.put(writePos, v);
+        writePos += 1;
+    }
+    protected final void putShort(final short v) {
+        ensure(2);
+        data.putShort(writePos, v);
+        writePos += 2;
+    }
+    protected final void putChar(final char v) {
+        ensure(2);
+        data.putChar(writePos, v);
+        writePos += 2;
+    }
+    protected final void putInt(final int v) {
+        ensure(4);
+        data.putInt(writePos, v);
+        writePos += 4;
+    }
+    protected final void putLong(final long v) {
+        ensure(8);
+        data.putLong(writePos, v);
+        writePos += 8;
+    }
+    protected final void putFloat(final float v) {
+        ensure(4);
+        data.putFloat(writePos, v);
+        writePos += 4;
+    }
+    protected final void putDouble(final double v) {
+        ensure(8);
+        data.putDouble(writePos, v);
+        writePos += 8;
+    }
+
+    protected final void putString(final String s) {
+        if( null == s ) {
+            putInt(-1);
+        } else {
+            putByteArray(s.getBytes(utf8), 0);
+        }
+    }
+    protected final void putStringArray(final String[] a) {
+        if( null == a ) {
+            putInt(-1);
+        } else {
+            putInt(a.length);
+            for(int i=0; i<a.length; i++) {
+                putString(a[i]);
+            }
+        }
+    }
+
+    /** Copies the remaining elements of the given buffer into the command stream. */
+    protected final void putBuffer(final Buffer b) {
+        if( null == b ) {
+            putInt(TAG_NULL);
+            return;
+        }
+        final int bytes = Buffers.sizeOfBufferElem(b) * b.remaining();
+        final ByteBuffer dst = beginPayload(getTag(b), bytes);
+        if( b instanceof ByteBuffer ) {
+            dst.put( ((ByteBuffer)b).duplicate() );
+        } else if( b instanceof IntBuffer ) {
+            dst.asIntBuffer().put( ((IntBuffer)b).duplicate() );
+        } else if( b instanceof FloatBuffer ) {
+            dst.asFloatBuffer().put( ((FloatBuffer)b).duplicate() );
+        } else if( b instanceof ShortBuffer ) {
+            dst.asShortBuffer().put( ((ShortBuffer)b).duplicate() );
+        } else if( b instanceof LongBuffer ) {
+            dst.asLongBuffer().put( ((LongBuffer)b).duplicate() );
+        } else if( b instanceof DoubleBuffer ) {
+            dst.asDoubleBuffer().put( ((DoubleBuffer)b).duplicate() );
+        } else {
+            dst.asCharBuffer().put( ((CharBuffer)b).duplicate() );
+        }
+    }
+
+    /** Copies the given array from <code>offset</code> to its end into the command stream. */
+    protected final void putByteArray(final byte[] a, final int offset) {
+        putByteArray(a, offset, null != a ? a.length - offset : 0);
+    }
+    /**
+     * Copies <code>count</code> elements of the given array from <code>offset</code> into the command stream.
+     * @throws GLException if the range exceeds the array, the current command is dropped
+     */
+    protected final void putByteArray(final byte[] a, final int offset, final int count) {
+        if( null == a ) {
+            putInt(-1);
+        } else {
+            checkArrayRange(a.length, offset, count);
+            beginPayload(count, count).put(a, offset, count);
+        }
+    }
+    protected final void putShortArray(final short[] a, final int offset) {
+        putShortArray(a, offset, null != a ? a.length - offset : 0);
+    }
+    protected final void putShortArray(final short[] a, final int offset, final int count) {
+        if( null == a ) {
+            putInt(-1);
+        } else {
+            checkArrayRange(a.length, offset, count);
+            beginPayload(count, Buffers.SIZEOF_SHORT * count).asShortBuffer().put(a, offset, count);
+        }
+    }
+    protected final void putIntArray(final int[] a, final int offset) {
+        putIntArray(a, offset, null != a ? a.length - offset : 0);
+    }
+    protected final void putIntArray(final int[] a, final int offset, final int count) {
+        if( null == a ) {
+            putInt(-1);
+        } else {
+            checkArrayRange(a.length, offset, count);
+            beginPayload(count, Buffers.SIZEOF_INT * count).asIntBuffer().put(a, offset, count);
+        }
+    }
+    protected final void putLongArray(final long[] a, final int offset) {
+        putLongArray(a, offset, null != a ? a.length - offset : 0);
+    }
+    protected final void putLongArray(final long[] a, final int offset, final int count) {
+        if( null == a ) {
+            putInt(-1);
+        } else {
+            checkArrayRange(a.length, offset, count);
+            beginPayload(count, Buffers.SIZEOF_LONG * count).asLongBuffer().put(a, offset, count);
+        }
+    }
+    protected final void putFloatArray(final float[] a, final int offset) {
+        putFloatArray(a, offset, null != a ? a.length - offset : 0);
+    }
+    protected final void putFloatArray(final float[] a, final int offset, final int count) {
+        if( null == a ) {
+            putInt(-1);
+        } else {
+            checkArrayRange(a.length, offset, count);
+            beginPayload(count, Buffers.SIZEOF_FLOAT * count).asFloatBuffer().put(a, offset, count);
+        }
+    }
+    protected final void putDoubleArray(final double[] a, final int offset) {
+        putDoubleArray(a, offset, null != a ? a.length - offset : 0);
+    }
+    protected final void putDoubleArray(final double[] a, final int offset, final int count) {
+        if( null == a ) {
+            putInt(-1);
+        } else {
+            checkArrayRange(a.length, offset, count);
+            beginPayload(count, Buffers.SIZEOF_DOUBLE * count).asDoubleBuffer().put(a, offset, count);
+        }
+    }
+
+    /** Drops the current command and throws a {@link GLException} if the given range exceeds the array. */
+    private void checkArrayRange(final int length, final int offset, final int count) {
+        if( 0 > offset || 0 > count || offset + count > length ) {
+            writePos = commandStart;
+            commandCount--;
+            throw new GLException("Array range [offset "+offset+", count "+count+"] exceeds length "+length);
+        }
+    }
+
+    /**
+     * Writes the given header and reserves an 8 byte aligned payload of the given size.
+     * @return the payload slice in native byte order
+     */
+    private ByteBuffer beginPayload(final int header, final int bytes) {
+        putInt(header);
+        putInt(bytes);
+        writePos = align(writePos);
+        ensure(bytes);
+        final ByteBuffer dst = slice(writePos, bytes);
+        writePos += bytes;
+        return dst;
+    }
+
+    //
+    // Reading
+    //
+
+    protected final boolean getBoolean() {
+        return 0 != getByte();
+    }
+    protected final byte getByte() {
+        final byte v = data.get(readPos);
+        readPos += 1;
+        return v;
+    }
+    protected final short getShort() {
+        final short v = data.getShort(readPos);
+        readPos += 2;
+        return v;
+    }
+    protected final char getChar() {
+        final char v = data.getChar(readPos);
+        readPos += 2;
+        return v;
+    }
+    protected final int getInt() {
+        final int v = data.getInt(readPos);
+        readPos += 4;
+        return v;
+    }
+    protected final long getLong() {
+        final long v = data.getLong(readPos);
+        readPos += 8;
+        return v;
+    }
+    protected final float getFloat() {
+        final float v = data.getFloat(readPos);
+        readPos += 4;
+        return v;
+    }
+    protected final double getDouble() {
+        final double v = data.getDouble(readPos);
+        readPos += 8;
+        return v;
+    }
+
+    protected final String getString() {
+        final int n = getInt();
+        if( 0 > n ) {
+            return null;
+        }
+        if( stringScratch.length < n ) {
+            stringScratch = new byte[ Math.max(n, 2 * stringScratch.length) ];
+        }
+        getPayload().get(stringScratch, 0, n);
+        return new String(stringScratch, 0, n, utf8);
+    }
+    protected final String[] getStringArray() {
+        final int n = getInt();
+        if( 0 > n ) {
+            return null;
+        }
+        final String[] a = new String[n];
+        for(int i=0; i<n; i++) {
+            a[i] = getString();
+        }
+        return a;
+    }
+
+    /**
+     * Returns a slice of the command stream in native byte order,
+     * typed as the buffer passed to {@link #putBuffer(Buffer)}, or <code>null</code>.
+     */
+    protected final Buffer getBuffer() {
+        final int tag = getInt();
+        if( TAG_NULL == tag ) {
+            return null;
+        }
+        final ByteBuffer b = getPayload();
+        switch( tag ) {
+            case TAG_BYTE:   return b;
+            case TAG_SHORT:  return b.asShortBuffer();
+            case TAG_CHAR:   return b.asCharBuffer();
+            case TAG_INT:    return b.asIntBuffer();
+            case TAG_LONG:   return b.asLongBuffer();
+            case TAG_FLOAT:  return b.asFloatBuffer();
+            case TAG_DOUBLE: return b.asDoubleBuffer();
+            default: throw new GLException("Invalid buffer tag "+tag+" at "+readPos);
+        }
+    }
+
+    //
+    // The array getters return per replayer scratch arrays, reused by all commands to avoid allocations at replay.
+    // The slot distinguishes multiple array arguments of the same type within one command.
+    // The returned array may be longer than the recorded element count, which is passed to the GL call
+    // by a separate argument, and stays valid until the next command of the same slot is read.
+    //
+
+    protected final byte[] getByteArray(final int slot) {
+        final int n = getInt();
+        if( 0 > n ) {
+            return null;
+        }
+        if( slot >= byteScratch.length ) {
+            byteScratch = Arrays.copyOf(byteScratch, slot + 1);
+        }
+        byte[] a = byteScratch[slot];
+        if( null == a || a.length < n ) {
+            a = new byte[ Math.max(n, null != a ? 2 * a.length : 16) ];
+            byteScratch[slot] = a;
+        }
+        getPayload().get(a, 0, n);
+        return a;
+    }
+    protected final short[] getShortArray(final int slot) {
+        final int n = getInt();
+        if( 0 > n ) {
+            return null;
+        }
+        if( slot >= shortScratch.length ) {
+            shortScratch = Arrays.copyOf(shortScratch, slot + 1);
+        }
+        short[] a = shortScratch[slot];
+        if( null == a || a.length < n ) {
+            a = new short[ Math.max(n, null != a ? 2 * a.length : 16) ];
+            shortScratch[slot] = a;
+        }
+        getPayload().asShortBuffer().get(a, 0, n);
+        return a;
+    }
+    protected final int[] getIntArray(final int slot) {
+        final int n = getInt();
+        if( 0 > n ) {
+            return null;
+        }
+        if( slot >= intScratch.length ) {
+            intScratch = Arrays.copyOf(intScratch, slot + 1);
+        }
+        int[] a = intScratch[slot];
+        if( null == a || a.length < n ) {
+            a = new int[ Math.max(n, null != a ? 2 * a.length : 16) ];
+            intScratch[slot] = a;
+        }
+        getPayload().asIntBuffer().get(a, 0, n);
+        return a;
+    }
+    protected final long[] getLongArray(final int slot) {
+        final int n = getInt();
+        if( 0 > n ) {
+            return null;
+        }
+        if( slot >= longScratch.length ) {
+            longScratch = Arrays.copyOf(longScratch, slot + 1);
+        }
+        long[] a = longScratch[slot];
+        if( null == a || a.length < n ) {
+            a = new long[ Math.max(n, null != a ? 2 * a.length : 16) ];
+            longScratch[slot] = a;
+        }
+        getPayload().asLongBuffer().get(a, 0, n);
+        return a;
+    }
+    protected final float[] getFloatArray(final int slot) {
+        final int n = getInt();
+        if( 0 > n ) {
+            return null;
+        }
+        if( slot >= floatScratch.length ) {
+            floatScratch = Arrays.copyOf(floatScratch, slot + 1);
+        }
+        float[] a = floatScratch[slot];
+        if( null == a || a.length < n ) {
+            a = new float[ Math.max(n, null != a ? 2 * a.length : 16) ];
+            floatScratch[slot] = a;
+        }
+        getPayload().asFloatBuffer().get(a, 0, n);
+        return a;
+    }
+    protected final double[] getDoubleArray(final int slot) {
+        final int n = getInt();
+        if( 0 > n ) {
+            return null;
+        }
+        if( slot >= doubleScratch.length ) {
+            doubleScratch = Arrays.copyOf(doubleScratch, slot + 1);
+        }
+        double[] a = doubleScratch[slot];
+        if( null == a || a.length < n ) {
+            a = new double[ Math.max(n, null != a ? 2 * a.length : 16) ];
+            doubleScratch[slot] = a;
+        }
+        getPayload().asDoubleBuffer().get(a, 0, n);
+        return a;
+    }
+
+    private ByteBuffer getPayload() {
+        final int bytes = getInt();
+        readPos = align(readPos);
+        final ByteBuffer b = slice(readPos, bytes);
+        readPos += bytes;
+        return b;
+    }
+
+    //
+    // Storage
+    //
+
+    private static int align(final int pos) {
+        return ( pos + 7 ) & ~7;
+    }
+
+    private static int getTag(final Buffer b) {
+        if( b instanceof ByteBuffer ) {
+            return TAG_BYTE;
+        } else if( b instanceof IntBuffer ) {
+            return TAG_INT;
+        } else if( b instanceof FloatBuffer ) {
+            return TAG_FLOAT;
+        } else if( b instanceof ShortBuffer ) {
+            return TAG_SHORT;
+        } else if( b instanceof LongBuffer ) {
+            return TAG_LONG;
+        } else if( b instanceof DoubleBuffer ) {
+            return TAG_DOUBLE;
+        } else if( b instanceof CharBuffer ) {
+            return TAG_CHAR;
+        }
+        throw new GLException("Unsupported buffer type "+b.getClass().getName());
+    }
+
+    private ByteBuffer slice(final int pos, final int bytes) {
+        final ByteBuffer b = data.duplicate();
+        b.limit(pos + bytes);
+        b.position(pos);
+        return b.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /** Ensures the storage can hold <code>bytes</code> more bytes at the current write position, growing it geometrically. */
+    private void ensure(final int bytes) {
+        final int required = writePos + bytes;
+        if( null == data ) {
+            data = Buffers.newDirectByteBuffer( Math.max(DEFAULT_CAPACITY, align(required)) );
+        } else if( required > data.capacity() ) {
+            final ByteBuffer nd = Buffers.newDirectByteBuffer( Math.max(2 * data.capacity(), align(required)) );
+            final ByteBuffer src = data.duplicate();
+            src.position(0);
+            src.limit(writePos);
+            nd.put(src);
+            nd.clear();
+            data = nd;
+        }
+    }
+}
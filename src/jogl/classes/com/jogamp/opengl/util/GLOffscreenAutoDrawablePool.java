@@ -0,0 +1,462 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilitiesImmutable;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLRunnable;
+
+import jogamp.opengl.Debug;
+
+/**
+ * Bounded pool of reusable {@link GLOffscreenAutoDrawable}s, avoiding the costly creation
+ * of the {@link com.jogamp.opengl.GLContext GLContext} and FBO for each short-lived offscreen rendering task,
+ * e.g. server side image rendering.
+ * <p>
+ * Idle drawables are keyed by their {@link GLCapabilitiesImmutable capabilities} and size class,
+ * i.e. the power of two of their width and height. A drawable of the requested size class is reused,
+ * preferably one of the exact size, otherwise its surface is {@link GLOffscreenAutoDrawable#setSurfaceSize(int, int) resized}.
+ * If the pool is exhausted, the least recently used idle drawable of another key is evicted,
+ * otherwise {@link #lease(GLCapabilitiesImmutable, int, int, long) lease} waits for a {@link #release(GLOffscreenAutoDrawable) release}.
+ * </p>
+ * <p>
+ * All drawables of the same capabilities share their GL objects with one pool owned master context,
+ * i.e. textures, buffers and programs may be created once and used by all leases.
+ * </p>
+ * <p>
+ * On {@link #release(GLOffscreenAutoDrawable) release}, all {@link com.jogamp.opengl.GLEventListener}s are disposed and removed,
+ * a custom {@link GLAutoDrawable#setGL(GL) GL pipeline} is removed and the common GL state is reset:
+ * default framebuffer, viewport, program, texture unit 0 and its 2D texture, array buffers,
+ * capabilities blend, depth test, scissor test, stencil test and face culling, depth and color masks as well as the clear color.
+ * </p>
+ * <pre>
+ *   final GLOffscreenAutoDrawable glad = pool.lease(caps, width, height);
+ *   try {
+ *       glad.invoke(true, renderTask);
+ *   } finally {
+ *       pool.release(glad);
+ *   }
+ * </pre>
+ */
+public class GLOffscreenAutoDrawablePool {
+    private static final boolean DEBUG = Debug.debug("GLOffscreenAutoDrawablePool");
+
+    private static class Key {
+        final GLCapabilitiesImmutable caps;
+        final int widthClass, heightClass;
+        final int hash;
+
+        Key(final GLCapabilitiesImmutable caps, final int width, final int height) {
+            this.caps = caps;
+            this.widthClass = getSizeClass(width);
+            this.heightClass = getSizeClass(height);
+            int h = 31 + caps.hashCode();
+            h = ((h << 5) - h) + widthClass;
+            this.hash = ((h << 5) - h) + heightClass;
+        }
+        @Override
+        public int hashCode() { return hash; }
+        @Override
+        public boolean equals(final Object o) {
+            if( this == o ) { return true; }
+            if( !(o instanceof Key) ) { return false; }
+            final Key k = (Key) o;
+            return widthClass == k.widthClass && heightClass == k.heightClass && caps.equals(k.caps);
+        }
+        @Override
+        public String toString() { return "Key["+widthClass+"x"+heightClass+", "+caps+"]"; }
+    }
+
+    private static class Entry {
+        final GLOffscreenAutoDrawable drawable;
+        final GLCapabilitiesImmutable caps;
+        Key key;
+        Entry(final GLOffscreenAutoDrawable drawable, final GLCapabilitiesImmutable caps, final Key key) {
+            this.drawable = drawable;
+            this.caps = caps;
+            this.key = key;
+        }
+    }
+
+    private final GLDrawableFactory factory;
+    private final int maxDrawables;
+    /** Idle entries in release order, i.e. the least recently used first. */
+    private final ArrayList<Entry> idle = new ArrayList<Entry>();
+    private final HashMap<GLOffscreenAutoDrawable, Entry> leased = new HashMap<GLOffscreenAutoDrawable, Entry>();
+    private final HashMap<GLCapabilitiesImmutable, GLAutoDrawable> masters = new HashMap<GLCapabilitiesImmutable, GLAutoDrawable>();
+    /** Number of existing drawables including reserved slots being created, guarded by this instance. */
+    private int size = 0;
+    private boolean destroyed = false;
+
+    private long leaseCount = 0;
+    private long waitCount = 0;
+    private long waitNanos = 0;
+    private long creationCount = 0;
+    private long resizeCount = 0;
+    private long evictionCount = 0;
+
+    private final GLRunnable resetState = new GLRunnable() {
+        @Override
+        public boolean run(final GLAutoDrawable drawable) {
+            final GL gl = drawable.getGL();
+            gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, gl.getDefaultDrawFramebuffer());
+            gl.glViewport(0, 0, drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
+            if( gl.isGL2ES2() ) {
+                gl.getGL2ES2().glUseProgram(0);
+            }
+            gl.glActiveTexture(GL.GL_TEXTURE0);
+            gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+            if( gl.isGL2ES3() ) {
+                // unbind the lessee's VAO first, not to clear its element array binding below;
+                // core profiles w/o a VAO 0 use the context's default VAO.
+                gl.getGL2ES3().glBindVertexArray(drawable.getContext().getDefaultVAO());
+            }
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+            gl.glDisable(GL.GL_BLEND);
+            gl.glDisable(GL.GL_DEPTH_TEST);
+            gl.glDisable(GL.GL_SCISSOR_TEST);
+            gl.glDisable(GL.GL_STENCIL_TEST);
+            gl.glDisable(GL.GL_CULL_FACE);
+            gl.glDepthMask(true);
+            gl.glColorMask(true, true, true, true);
+            gl.glClearColor(0f, 0f, 0f, 0f);
+            return true;
+        }
+    };
+
+    /**
+     * @param factory the factory creating the drawables
+     * @param maxDrawables maximum number of idle and leased drawables
+     */
+    public GLOffscreenAutoDrawablePool(final GLDrawableFactory factory, final int maxDrawables) {
+        if( 0 >= maxDrawables ) {
+            throw new IllegalArgumentException("maxDrawables "+maxDrawables+" <= 0");
+        }
+        this.factory = factory;
+        this.maxDrawables = maxDrawables;
+    }
+
+    /** Returns the size class of the given width or height, i.e. its next power of two of at least 16. */
+    public static int getSizeClass(final int size) {
+        int c = 16;
+        while( c < size ) {
+            c <<= 1;
+        }
+        return c;
+    }
+
+    /**
+     * Leases a drawable of the given capabilities and size, waiting indefinitely if the pool is exhausted.
+     * @see #lease(GLCapabilitiesImmutable, int, int, long)
+     */
+    public final GLOffscreenAutoDrawable lease(final GLCapabilitiesImmutable caps, final int width, final int height) throws InterruptedException {
+        return lease(caps, width, height, -1);
+    }
+
+    /**
+     * Leases a realized drawable of the given capabilities and size with a created context,
+     * which must be {@link #release(GLOffscreenAutoDrawable) released} to this pool.
+     * @param caps the offscreen capabilities
+     * @param width the surface width
+     * @param height the surface height
+     * @param timeoutMS maximum time to wait in milliseconds if the pool is exhausted, negative to wait indefinitely
+     * @return the leased drawable or <code>null</code> if timed out
+     * @throws IllegalStateException if the pool is destroyed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public final GLOffscreenAutoDrawable lease(final GLCapabilitiesImmutable caps, final int width, final int height, final long timeoutMS)
+            throws IllegalStateException, InterruptedException
+    {
+        final Key key = new Key(caps, width, height);
+        Entry entry = null;
+        Entry evicted = null;
+        synchronized( this ) {
+            final long t0 = System.nanoTime();
+            boolean waited = false;
+            while( null == entry ) {
+                if( destroyed ) {
+                    throw new IllegalStateException("Pool destroyed");
+                }
+                entry = removeIdle(key, width, height);
+                if( null == entry ) {
+                    if( size < maxDrawables ) {
+                        size++; // reserve slot, created below
+                        break;
+                    } else if( 0 < idle.size() ) {
+                        evicted = idle.remove(0); // LRU of other key, its slot is reused
+                        evictionCount++;
+                        break;
+                    }
+                    final long remaining = 0 <= timeoutMS ? timeoutMS - ( System.nanoTime() - t0 ) / 1000000L : 0;
+                    if( 0 <= timeoutMS && 0 >= remaining ) {
+                        waitNanos += System.nanoTime() - t0;
+                        return null;
+                    }
+                    if( !waited ) {
+                        waited = true;
+                        waitCount++;
+                    }
+                    wait( remaining );
+                }
+            }
+            if( waited ) {
+                waitNanos += System.nanoTime() - t0;
+            }
+            leaseCount++;
+        }
+        if( null != evicted ) {
+            if( DEBUG ) {
+                System.err.println("GLOffscreenAutoDrawablePool: Evict "+evicted.key+" for "+key);
+            }
+            evicted.drawable.destroy();
+        }
+        try {
+            if( null == entry ) {
+                entry = new Entry(create(caps, width, height), caps, key);
+                synchronized( this ) {
+                    creationCount++;
+                }
+            } else if( entry.drawable.getSurfaceWidth() != width || entry.drawable.getSurfaceHeight() != height ) {
+                entry.drawable.setSurfaceSize(width, height);
+                synchronized( this ) {
+                    resizeCount++;
+                }
+            }
+        } catch (final RuntimeException e) {
+            try {
+                if( null != entry ) {
+                    entry.drawable.destroy(); // reused drawable failed to resize
+                }
+            } finally {
+                final ArrayList<GLAutoDrawable> unusedMasters;
+                synchronized( this ) {
+                    size--;
+                    unusedMasters = removeMastersIfUnused();
+                    notifyAll();
+                }
+                destroyAll(unusedMasters);
+            }
+            throw e;
+        }
+        synchronized( this ) {
+            leased.put(entry.drawable, entry);
+        }
+        return entry.drawable;
+    }
+
+    /**
+     * Returns the given leased drawable to the pool after resetting its state, see above.
+     * <p>
+     * If the pool is {@link #destroy() destroyed}, the drawable is destroyed.
+     * </p>
+     * @throws IllegalArgumentException if the drawable is not leased from this pool
+     */
+    public final void release(final GLOffscreenAutoDrawable drawable) throws IllegalArgumentException {
+        final Entry entry;
+        synchronized( this ) {
+            entry = leased.remove(drawable);
+        }
+        if( null == entry ) {
+            throw new IllegalArgumentException("Drawable not leased from this pool: "+drawable);
+        }
+        boolean reset = false;
+        try {
+            while( 0 < drawable.getGLEventListenerCount() ) {
+                drawable.disposeGLEventListener(drawable.getGLEventListener(0), true);
+            }
+            GL gl = drawable.getGL();
+            while( null != gl.getDownstreamGL() ) {
+                gl = gl.getDownstreamGL();
+            }
+            drawable.setGL(gl);
+            reset = drawable.invoke(true, resetState);
+        } catch (final GLException e) {
+            if( DEBUG ) {
+                e.printStackTrace();
+            }
+        }
+        final boolean destroy;
+        final ArrayList<GLAutoDrawable> unusedMasters;
+        synchronized( this ) {
+            destroy = destroyed || !reset;
+            if( destroy ) {
+                size--;
+            } else {
+                entry.key = new Key(entry.caps, drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
+                idle.add(entry);
+            }
+            unusedMasters = removeMastersIfUnused();
+            notifyAll();
+        }
+        if( destroy ) {
+            drawable.destroy();
+        }
+        destroyAll(unusedMasters); // after their last sharing drawable
+    }
+
+    /**
+     * Destroys all idle drawables.
+     * Drawables still leased are destroyed when {@link #release(GLOffscreenAutoDrawable) released}.
+     * The shared master contexts are destroyed after the last drawable, i.e. immediately if none is leased,
+     * otherwise with the last {@link #release(GLOffscreenAutoDrawable) release}.
+     */
+    public final void destroy() {
+        final ArrayList<GLAutoDrawable> toDestroy = new ArrayList<GLAutoDrawable>();
+        final ArrayList<GLAutoDrawable> unusedMasters;
+        synchronized( this ) {
+            destroyed = true;
+            for(final Iterator<Entry> it = idle.iterator(); it.hasNext(); ) {
+                toDestroy.add(it.next().drawable);
+                size--;
+            }
+            idle.clear();
+            unusedMasters = removeMastersIfUnused();
+            notifyAll();
+        }
+        destroyAll(toDestroy);
+        destroyAll(unusedMasters);
+    }
+
+    /** Returns the maximum number of drawables. */
+    public final int getMaxDrawables() { return maxDrawables; }
+    /** Returns the number of existing idle and leased drawables. */
+    public final synchronized int getSize() { return size; }
+    /** Returns the number of idle drawables. */
+    public final synchronized int getIdleCount() { return idle.size(); }
+    /** Returns the number of leased drawables. */
+    public final synchronized int getLeasedCount() { return leased.size(); }
+    /** Returns the number of successful leases. */
+    public final synchronized long getLeaseCount() { return leaseCount; }
+    /** Returns the number of leases which had to wait for a release. */
+    public final synchronized long getWaitCount() { return waitCount; }
+    /** Returns the accumulated time in nanoseconds leases waited for a release. */
+    public final synchronized long getWaitNanos() { return waitNanos; }
+    /** Returns the number of created drawables. */
+    public final synchronized long getCreationCount() { return creationCount; }
+    /** Returns the number of reused drawables whose surface has been resized. */
+    public final synchronized long getResizeCount() { return resizeCount; }
+    /** Returns the number of idle drawables destroyed to create one of a different key. */
+    public final synchronized long getEvictionCount() { return evictionCount; }
+
+    @Override
+    public final synchronized String toString() {
+        return "GLOffscreenAutoDrawablePool[size "+size+"/"+maxDrawables+", idle "+idle.size()+", leased "+leased.size()+
+               ", leases "+leaseCount+", waits "+waitCount+" / "+(waitNanos/1000000L)+" ms, created "+creationCount+
+               ", resized "+resizeCount+", evicted "+evictionCount+"]";
+    }
+
+    /** Removes the idle entry of the given key, preferably of the given size, otherwise returns <code>null</code>. */
+    private Entry removeIdle(final Key key, final int width, final int height) {
+        int match = -1;
+        for(int i = idle.size() - 1; i >= 0; i--) { // most recently used first
+            final Entry e = idle.get(i);
+            if( key.equals(e.key) ) {
+                if( e.drawable.getSurfaceWidth() == width && e.drawable.getSurfaceHeight() == height ) {
+                    match = i;
+                    break;
+                } else if( 0 > match ) {
+                    match = i;
+                }
+            }
+        }
+        return 0 <= match ? idle.remove(match) : null;
+    }
+
+    private GLOffscreenAutoDrawable create(final GLCapabilitiesImmutable caps, final int width, final int height) {
+        final GLAutoDrawable master = getMaster(caps);
+        final GLOffscreenAutoDrawable drawable = factory.createOffscreenAutoDrawable(null, caps, null, width, height);
+        try {
+            drawable.setSharedAutoDrawable(master);
+            drawable.display(); // create context
+        } catch (final RuntimeException e) {
+            drawable.destroy();
+            throw e;
+        }
+        if( DEBUG ) {
+            System.err.println("GLOffscreenAutoDrawablePool: Created "+width+"x"+height+": "+drawable.getContext());
+        }
+        return drawable;
+    }
+
+    /**
+     * Removes and returns the master drawables if the pool is destroyed and no drawable sharing them exists anymore,
+     * otherwise returns <code>null</code>. Caller must hold this instance's lock.
+     */
+    private ArrayList<GLAutoDrawable> removeMastersIfUnused() {
+        if( !destroyed || 0 < size ) {
+            return null;
+        }
+        synchronized( masters ) {
+            final ArrayList<GLAutoDrawable> res = new ArrayList<GLAutoDrawable>(masters.values());
+            masters.clear();
+            return res;
+        }
+    }
+
+    private static void destroyAll(final ArrayList<GLAutoDrawable> drawables) {
+        if( null != drawables ) {
+            for(int i=0; i<drawables.size(); i++) {
+                drawables.get(i).destroy();
+            }
+        }
+    }
+
+    /**
+     * Returns the master drawable of the given capabilities, creating it if not existing.
+     * <p>
+     * A master created concurrently to {@link #destroy()} is destroyed with the last drawable,
+     * since the caller holds a reserved slot.
+     * </p>
+     * @throws IllegalStateException if the pool is destroyed
+     */
+    private GLAutoDrawable getMaster(final GLCapabilitiesImmutable caps) throws IllegalStateException {
+        synchronized( this ) {
+            if( destroyed ) {
+                throw new IllegalStateException("Pool destroyed");
+            }
+        }
+        synchronized( masters ) {
+            GLAutoDrawable master = masters.get(caps);
+            if( null == master ) {
+                master = factory.createDummyAutoDrawable(null, true /* createNewDevice */, caps, null);
+                master.display(); // create context
+                masters.put(caps, master);
+            }
+            return master;
+        }
+    }
+}
@@ -30,10 +30,15 @@ package com.jogamp.opengl.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 
 import com.jogamp.nativewindow.util.PixelFormat;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GL3ES3;
 import com.jogamp.opengl.GLAutoDrawable;
 import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLException;
@@ -46,11 +51,60 @@ import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
 import com.jogamp.opengl.util.GLPixelBuffer.GLPixelBufferProvider;
 import com.jogamp.opengl.util.texture.TextureIO;
 
+import jogamp.opengl.Debug;
+
 /**
  * Utility to read out the current FB to TextureData, optionally writing the data back to a texture object.
  * <p>May be used directly to write the TextureData to file (screenshot).</p>
+ * <p>
+ * Besides the synchronous {@link #readPixels(GL, boolean) readPixels(..)},
+ * an asynchronous readback mode is available via {@link #setAsyncReadback(int, AsyncReadListener)}
+ * and {@link #readPixelsAsync(GL, boolean) readPixelsAsync(..)}:
+ * Each frame is read into one of <i>N</i> pixel pack buffer objects (PBO) guarded by a fence sync object.
+ * The result of a frame is mapped and delivered to the {@link AsyncReadListener}
+ * not before its fence has been signaled, i.e. usually <i>N-1</i> frames later,
+ * hence the render thread does not stall on <code>glReadPixels</code>.
+ * If PBOs or fences are not supported, e.g. on a software GL implementation,
+ * the synchronous path is used and each frame is delivered immediately.
+ * </p>
  */
 public class GLReadBufferUtil {
+    private static final boolean DEBUG = Debug.debug("GLReadBufferUtil");
+
+    /**
+     * Listener receiving the frames read via {@link GLReadBufferUtil#readPixelsAsync(GL, boolean) readPixelsAsync(..)}.
+     */
+    public static interface AsyncReadListener {
+        /**
+         * The pixels of a frame are available via {@link GLReadBufferUtil#getPixelBuffer()}
+         * and {@link GLReadBufferUtil#getTextureData()}, valid until this method returns.
+         * <p>
+         * Called on the GL thread with the context current.
+         * </p>
+         * @param util the source of this event
+         * @param gl the current GL object
+         * @param frameNumber the frame number, i.e. the sequence number of the <code>readPixelsAsync(..)</code> call starting w/ zero
+         * @param latencyNanos duration between the <code>readPixelsAsync(..)</code> call and delivery in nanoseconds
+         */
+        void pixelsRead(GLReadBufferUtil util, GL gl, long frameNumber, long latencyNanos);
+    }
+
+    /** One PBO of the asynchronous readback ring. */
+    private static class AsyncSlot {
+        int pbo = 0;
+        int pboSize = 0;
+        long sync = 0;
+        boolean pending = false;
+        long frameNumber;
+        long issueNanos;
+        int x, y, width, height, readPixelSize, internalFormat;
+        boolean flipVertically;
+        PixelFormat.Composition hostPixelComp;
+        GLPixelAttributes pixelAttribs;
+    }
+    private static final long ASYNC_WAIT_TIMEOUT = 1000000000L; // 1s
+
+
     protected final GLPixelBufferProvider pixelBufferProvider;
     protected final Texture readTexture;
     protected final GLPixelStorageModes psm;
@@ -60,6 +114,19 @@ public class GLReadBufferUtil {
     protected GLPixelBuffer readPixelBuffer = null;
     protected TextureData readTextureData = null;
 
+    private int asyncSlotCount = 0;
+    private AsyncReadListener asyncListener = null;
+    private AsyncSlot[] asyncSlots = null;
+    private int asyncNext = 0;
+    private int asyncPendingCount = 0;
+    private long asyncFrameCount = 0;
+    private long asyncIssued = 0;
+    private long asyncDelivered = 0;
+    private long asyncStalls = 0;
+    private long asyncFallbacks = 0;
+    private long asyncLatencyNanos = 0;
+    private long asyncLatencyFrames = 0;
+
     /**
      * Using the default {@link GLPixelBuffer}: {@link GLPixelBuffer#defaultProviderNoRowStride}.
      *
@@ -162,18 +229,22 @@ public class GLReadBufferUtil {
      */
     public boolean readPixels(final GL gl, final int inX, final int inY, final int inWidth, final int inHeight, final boolean mustFlipVertically) {
         final GLDrawable drawable = gl.getContext().getGLReadDrawable();
-        final int width, height;
+        return readPixelsImpl(drawable, gl, inX, inY, getReadWidth(drawable, inWidth), getReadHeight(drawable, inHeight), mustFlipVertically);
+    }
+
+    private static int getReadWidth(final GLDrawable drawable, final int inWidth) {
         if( 0 >= inWidth || drawable.getSurfaceWidth() < inWidth ) {
-            width = drawable.getSurfaceWidth();
+            return drawable.getSurfaceWidth();
         } else {
-            width = inWidth;
+            return inWidth;
         }
+    }
+    private static int getReadHeight(final GLDrawable drawable, final int inHeight) {
         if( 0 >= inHeight || drawable.getSurfaceHeight() < inHeight ) {
-            height = drawable.getSurfaceHeight();
+            return drawable.getSurfaceHeight();
         } else {
-            height= inHeight;
+            return inHeight;
         }
-        return readPixelsImpl(drawable, gl, inX, inY, width, height, mustFlipVertically);
     }
 
     protected boolean readPixelsImpl(final GLDrawable drawable, final GL gl,
@@ -186,26 +257,59 @@ public class GLReadBufferUtil {
         final int reqCompCount = alphaRequested ? 4 : 3; // see Bug 1381: we keep host PixelFormat functional using requested immutable alphaRequested
         final PixelFormat.Composition hostPixelComp = pixelBufferProvider.getHostPixelComp(gl.getGLProfile(), reqCompCount);
         final GLPixelAttributes pixelAttribs = pixelBufferProvider.getAttributes(gl, reqCompCount, true);
-        final int componentCount = pixelAttribs.pfmt.comp.componentCount();
         hasAlpha = 0 <= pixelAttribs.pfmt.comp.find(PixelFormat.CType.A);
-        final int alignment, internalFormat;
-        if( 4 == componentCount ) {
-            alignment = 4;
-            internalFormat = GL.GL_RGBA;
-        } else {
-            alignment = 1;
-            internalFormat = GL.GL_RGB;
-        }
-        final boolean flipVertically;
-        if( drawable.isGLOriented() ) {
-            flipVertically = mustFlipVertically;
-        } else {
-            flipVertically = !mustFlipVertically;
-        }
+        final int alignment = getPackAlignment(pixelAttribs);
+        final int internalFormat = getInternalFormat(pixelAttribs);
+        final boolean flipVertically = drawable.isGLOriented() ? mustFlipVertically : !mustFlipVertically;
 
         final int tmp[] = new int[1];
         final int readPixelSize = GLBuffers.sizeof(gl, tmp, pixelAttribs.pfmt.comp.bytesPerPixel(), width, height, 1, true);
 
+        final boolean newData = setupReadPixelBuffer(gl, hostPixelComp, pixelAttribs, internalFormat, width, height, flipVertically, readPixelSize);
+        boolean res = null!=readPixelBuffer && readPixelBuffer.isValid();
+        if(res) {
+            psm.setPackAlignment(gl, alignment);
+            if(gl.isGL2ES3()) {
+                final GL2ES3 gl2es3 = gl.getGL2ES3();
+                psm.setPackRowLength(gl2es3, width);
+                gl2es3.glReadBuffer(gl2es3.getDefaultReadBuffer());
+            }
+            readPixelBuffer.clear();
+            try {
+                gl.glReadPixels(inX, inY, width, height, pixelAttribs.format, pixelAttribs.type, readPixelBuffer.buffer);
+            } catch(final GLException gle) { res = false; gle.printStackTrace(); }
+            readPixelBuffer.position( readPixelSize );
+            readPixelBuffer.flip();
+            final int glerr1 = gl.glGetError();
+            if(GL.GL_NO_ERROR != glerr1) {
+                System.err.println("GLReadBufferUtil.readPixels: readPixels error 0x"+Integer.toHexString(glerr1)+
+                                   " "+width+"x"+height+
+                                   ", "+pixelAttribs+
+                                   ", "+readPixelBuffer+", sz "+readPixelSize);
+                res = false;
+            }
+            if(res) {
+                updateReadTexture(gl, newData, inX, inY, width, height);
+            }
+            psm.restore(gl);
+        }
+        return res;
+    }
+
+    private static int getPackAlignment(final GLPixelAttributes pixelAttribs) {
+        return 4 == pixelAttribs.pfmt.comp.componentCount() ? 4 : 1;
+    }
+    private static int getInternalFormat(final GLPixelAttributes pixelAttribs) {
+        return 4 == pixelAttribs.pfmt.comp.componentCount() ? GL.GL_RGBA : GL.GL_RGB;
+    }
+
+    /**
+     * Allocates {@link #readPixelBuffer} and {@link #readTextureData} if required, otherwise updates the latter.
+     * @return true if new data has been allocated
+     */
+    private boolean setupReadPixelBuffer(final GL gl, final PixelFormat.Composition hostPixelComp, final GLPixelAttributes pixelAttribs,
+                                         final int internalFormat, final int width, final int height,
+                                         final boolean flipVertically, final int readPixelSize) {
         boolean newData = false;
         if( null == readPixelBuffer || readPixelBuffer.requiresNewBuffer(gl, width, height, readPixelSize) ) {
             readPixelBuffer = pixelBufferProvider.allocate(gl, hostPixelComp, pixelAttribs, true, width, height, 1, readPixelSize);
@@ -232,46 +336,351 @@ public class GLReadBufferUtil {
             readTextureData.setWidth(width);
             readTextureData.setHeight(height);
             readTextureData.setPixelAttributes(pixelAttribs);
+            readTextureData.setMustFlipVertically(flipVertically);
         }
-        boolean res = null!=readPixelBuffer && readPixelBuffer.isValid();
-        if(res) {
-            psm.setPackAlignment(gl, alignment);
-            if(gl.isGL2ES3()) {
-                final GL2ES3 gl2es3 = gl.getGL2ES3();
-                psm.setPackRowLength(gl2es3, width);
-                gl2es3.glReadBuffer(gl2es3.getDefaultReadBuffer());
+        return newData;
+    }
+
+    private void updateReadTexture(final GL gl, final boolean newData, final int inX, final int inY, final int width, final int height) {
+        if(null != readTexture) {
+            if(newData) {
+                readTexture.updateImage(gl, readTextureData);
+            } else {
+                readTexture.updateSubImage(gl, readTextureData, 0,
+                                           inX, inY, // dst offset
+                                           0,   0,   // src offset
+                                           width, height);
             }
-            readPixelBuffer.clear();
-            try {
-                gl.glReadPixels(inX, inY, width, height, pixelAttribs.format, pixelAttribs.type, readPixelBuffer.buffer);
-            } catch(final GLException gle) { res = false; gle.printStackTrace(); }
-            readPixelBuffer.position( readPixelSize );
-            readPixelBuffer.flip();
-            final int glerr1 = gl.glGetError();
-            if(GL.GL_NO_ERROR != glerr1) {
-                System.err.println("GLReadBufferUtil.readPixels: readPixels error 0x"+Integer.toHexString(glerr1)+
-                                   " "+width+"x"+height+
-                                   ", "+pixelAttribs+
-                                   ", "+readPixelBuffer+", sz "+readPixelSize);
-                res = false;
+            readPixelBuffer.rewind();
+        }
+    }
+
+    //
+    // Asynchronous readback
+    //
+
+    /**
+     * Returns true if the asynchronous readback via PBOs and fences is supported by the given GL object,
+     * otherwise {@link #readPixelsAsync(GL, boolean) readPixelsAsync(..)} falls back to the synchronous path.
+     */
+    public static boolean isAsyncReadbackSupported(final GL gl) {
+        return gl.isGL3ES3() &&
+               gl.isFunctionAvailable("glFenceSync") &&
+               gl.isFunctionAvailable("glClientWaitSync") &&
+               gl.isFunctionAvailable("glMapBufferRange");
+    }
+
+    /**
+     * Configures the asynchronous readback.
+     * <p>
+     * Must be called before the first {@link #readPixelsAsync(GL, boolean) readPixelsAsync(..)}
+     * or after {@link #disposeAsync(GL)}.
+     * </p>
+     * @param slotCount number of pixel pack buffers in use, &ge; 1.
+     *                  With <i>N</i> slots a frame is delivered at the latest <i>N</i> frames later.
+     *                  A value of 2 or 3 usually avoids any stall.
+     * @param listener receiving the frames
+     * @throws IllegalArgumentException if slotCount &lt; 1 or listener is null
+     * @throws IllegalStateException if asynchronous readback is in use
+     */
+    public void setAsyncReadback(final int slotCount, final AsyncReadListener listener) throws IllegalArgumentException, IllegalStateException {
+        if( 1 > slotCount || null == listener ) {
+            throw new IllegalArgumentException("Invalid slotCount "+slotCount+" or null listener");
+        }
+        if( null != asyncSlots ) {
+            throw new IllegalStateException("Asynchronous readback in use, call disposeAsync(GL) first");
+        }
+        asyncSlotCount = slotCount;
+        asyncListener = listener;
+    }
+
+    /** Returns the number of pixel pack buffers used for asynchronous readback, see {@link #setAsyncReadback(int, AsyncReadListener)}. */
+    public int getAsyncSlotCount() { return asyncSlotCount; }
+
+    /** Returns the number of issued frames, whose pixels have not yet been delivered. */
+    public int getAsyncPendingCount() { return asyncPendingCount; }
+
+    /**
+     * Same as {@link #readPixelsAsync(GL, int, int, int, int, boolean)} reading the whole drawable.
+     */
+    public boolean readPixelsAsync(final GL gl, final boolean mustFlipVertically) {
+        return readPixelsAsync(gl, 0, 0, 0, 0, mustFlipVertically);
+    }
+
+    /**
+     * Issues an asynchronous read of the drawable's pixels and delivers all previously issued frames,
+     * whose fence has been signaled, to the {@link AsyncReadListener}, oldest first.
+     * <p>
+     * If all slots are pending, the oldest frame is waited for and delivered,
+     * which is counted as a {@link #getAsyncStallCount() stall}.
+     * </p>
+     * <p>
+     * If {@link #isAsyncReadbackSupported(GL) not supported},
+     * the pixels are read synchronously and delivered immediately.
+     * </p>
+     * <p>
+     * Use {@link #finishAsync(GL)} to deliver all pending frames, e.g. after the last frame.
+     * </p>
+     *
+     * @param gl the current GL context object. It's read drawable is being used as the pixel source.
+     * @param inX readPixel x offset
+     * @param inY readPixel y offset
+     * @param inWidth optional readPixel width value, used if [1 .. drawable.width], otherwise using drawable.width
+     * @param inHeight optional readPixel height, used if [1 .. drawable.height], otherwise using drawable.height
+     * @param mustFlipVertically see {@link #readPixels(GL, int, int, int, int, boolean)}
+     * @return true if the read has been issued successfully
+     * @throws IllegalStateException if {@link #setAsyncReadback(int, AsyncReadListener)} has not been called
+     * @see #setAsyncReadback(int, AsyncReadListener)
+     */
+    public boolean readPixelsAsync(final GL gl, final int inX, final int inY, final int inWidth, final int inHeight, final boolean mustFlipVertically)
+            throws IllegalStateException
+    {
+        if( null == asyncListener ) {
+            throw new IllegalStateException("setAsyncReadback(..) not called");
+        }
+        final GLDrawable drawable = gl.getContext().getGLReadDrawable();
+        final int width = getReadWidth(drawable, inWidth);
+        final int height = getReadHeight(drawable, inHeight);
+        final long frameNumber = asyncFrameCount++;
+        asyncIssued++;
+
+        if( !isAsyncReadbackSupported(gl) ) {
+            final long t0 = System.nanoTime();
+            asyncFallbacks++;
+            if( readPixelsImpl(drawable, gl, inX, inY, width, height, mustFlipVertically) ) {
+                asyncDelivered++;
+                final long dt = System.nanoTime() - t0;
+                asyncLatencyNanos += dt;
+                asyncListener.pixelsRead(this, gl, frameNumber, dt);
+                return true;
+            }
+            return false;
+        }
+        final GL3ES3 gl3es3 = gl.getGL3ES3();
+        if( null == asyncSlots ) {
+            asyncSlots = new AsyncSlot[asyncSlotCount];
+            final int[] names = new int[asyncSlotCount];
+            gl.glGenBuffers(asyncSlotCount, names, 0);
+            for(int i=0; i<asyncSlotCount; i++) {
+                asyncSlots[i] = new AsyncSlot();
+                asyncSlots[i].pbo = names[i];
+            }
+            asyncNext = 0;
+            asyncPendingCount = 0;
+        }
+        // Deliver all completed frames w/o blocking
+        deliverAsync(gl3es3, false, false);
+
+        final AsyncSlot slot = asyncSlots[asyncNext];
+        if( slot.pending ) {
+            // ring is full, oldest pending frame is in this slot
+            asyncStalls++;
+            deliverAsync(gl3es3, true, true);
+        }
+
+        final int reqCompCount = alphaRequested ? 4 : 3;
+        slot.hostPixelComp = pixelBufferProvider.getHostPixelComp(gl.getGLProfile(), reqCompCount);
+        slot.pixelAttribs = pixelBufferProvider.getAttributes(gl, reqCompCount, true);
+        hasAlpha = 0 <= slot.pixelAttribs.pfmt.comp.find(PixelFormat.CType.A);
+        slot.internalFormat = getInternalFormat(slot.pixelAttribs);
+        slot.flipVertically = drawable.isGLOriented() ? mustFlipVertically : !mustFlipVertically;
+        slot.x = inX;
+        slot.y = inY;
+        slot.width = width;
+        slot.height = height;
+        final int tmp[] = new int[1];
+        slot.readPixelSize = GLBuffers.sizeof(gl, tmp, slot.pixelAttribs.pfmt.comp.bytesPerPixel(), width, height, 1, true);
+
+        final int glerr0 = gl.glGetError();
+        if(GL.GL_NO_ERROR != glerr0) {
+            System.err.println("Info: GLReadBufferUtil.readPixelsAsync: pre-exisiting GL error 0x"+Integer.toHexString(glerr0));
+        }
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+        if( slot.pboSize < slot.readPixelSize ) {
+            gl.glBufferData(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.readPixelSize, null, GL2ES3.GL_STREAM_READ);
+            slot.pboSize = slot.readPixelSize;
+        }
+        psm.setPackAlignment(gl, getPackAlignment(slot.pixelAttribs));
+        psm.setPackRowLength(gl3es3, width);
+        gl3es3.glReadBuffer(gl3es3.getDefaultReadBuffer());
+        gl.glReadPixels(inX, inY, width, height, slot.pixelAttribs.format, slot.pixelAttribs.type, 0L);
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        psm.restore(gl);
+        slot.sync = gl3es3.glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        final int glerr1 = gl.glGetError();
+        if(GL.GL_NO_ERROR != glerr1) {
+            System.err.println("GLReadBufferUtil.readPixelsAsync: readPixels error 0x"+Integer.toHexString(glerr1)+
+                               " "+width+"x"+height+", "+slot.pixelAttribs+", sz "+slot.readPixelSize);
+            if( 0 != slot.sync ) {
+                gl3es3.glDeleteSync(slot.sync);
+                slot.sync = 0;
             }
-            if(res && null != readTexture) {
-                if(newData) {
-                    readTexture.updateImage(gl, readTextureData);
-                } else {
-                    readTexture.updateSubImage(gl, readTextureData, 0,
-                                               inX, inY, // dst offset
-                                               0,   0,   // src offset
-                                               width, height);
+            return false;
+        }
+        slot.frameNumber = frameNumber;
+        slot.issueNanos = System.nanoTime();
+        slot.pending = true;
+        asyncPendingCount++;
+        asyncNext = ( asyncNext + 1 ) % asyncSlots.length;
+        return true;
+    }
+
+    /**
+     * Waits for all pending asynchronous reads and delivers them to the {@link AsyncReadListener}.
+     * @param gl the current GL context object
+     * @return the number of delivered frames
+     */
+    public int finishAsync(final GL gl) {
+        if( null == asyncSlots || 0 == asyncPendingCount ) {
+            return 0;
+        }
+        return deliverAsync(gl.getGL3ES3(), true, false);
+    }
+
+    /**
+     * Delivers pending frames oldest first.
+     * @param block if true, wait for the fence of pending frames, otherwise stop at the first unsignaled fence
+     * @param onlyOne if true, deliver at most one frame
+     * @return the number of delivered frames
+     */
+    private int deliverAsync(final GL3ES3 gl, final boolean block, final boolean onlyOne) {
+        int count = 0;
+        while( 0 < asyncPendingCount && ( !onlyOne || 0 == count ) ) {
+            final AsyncSlot slot = asyncSlots[ ( asyncNext - asyncPendingCount + asyncSlots.length ) % asyncSlots.length ];
+            if( !waitSync(gl, slot, block) ) {
+                break;
+            }
+            deliverSlot(gl, slot);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if the slot's fence has been signaled, deleting the fence.
+     * A failed wait is reported under DEBUG and completed via <code>glFinish</code>.
+     */
+    private static boolean waitSync(final GL3ES3 gl, final AsyncSlot slot, final boolean block) {
+        if( 0 != slot.sync ) {
+            int r;
+            do {
+                r = gl.glClientWaitSync(slot.sync, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, block ? ASYNC_WAIT_TIMEOUT : 0);
+            } while( block && GL3ES3.GL_TIMEOUT_EXPIRED == r );
+            if( GL3ES3.GL_TIMEOUT_EXPIRED == r ) {
+                return false;
+            }
+            if( GL3ES3.GL_WAIT_FAILED == r ) {
+                // invalid fence or lost context, complete the readback the hard way
+                if( DEBUG ) {
+                    System.err.println("GLReadBufferUtil: Wait failed on fence 0x"+Long.toHexString(slot.sync)+", glerr 0x"+Integer.toHexString(gl.glGetError())+", using glFinish");
                 }
-                readPixelBuffer.rewind();
+                gl.glFinish();
             }
-            psm.restore(gl);
+            gl.glDeleteSync(slot.sync);
+            slot.sync = 0;
+        }
+        return true;
+    }
+
+    private void deliverSlot(final GL3ES3 gl, final AsyncSlot slot) {
+        slot.pending = false;
+        asyncPendingCount--;
+        final boolean newData = setupReadPixelBuffer(gl, slot.hostPixelComp, slot.pixelAttribs, slot.internalFormat,
+                                                     slot.width, slot.height, slot.flipVertically, slot.readPixelSize);
+        if( null == readPixelBuffer || !readPixelBuffer.isValid() ) {
+            return;
+        }
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+        try {
+            final ByteBuffer mapped = gl.glMapBufferRange(GL2ES3.GL_PIXEL_PACK_BUFFER, 0, slot.readPixelSize, GL.GL_MAP_READ_BIT);
+            if( null == mapped ) {
+                System.err.println("GLReadBufferUtil.readPixelsAsync: map failed, frame "+slot.frameNumber+", glerr 0x"+Integer.toHexString(gl.glGetError()));
+                return;
+            }
+            readPixelBuffer.clear();
+            copyMapped(mapped, readPixelBuffer.buffer, slot.readPixelSize);
+            gl.glUnmapBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER);
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        }
+        readPixelBuffer.position( slot.readPixelSize );
+        readPixelBuffer.flip();
+        updateReadTexture(gl, newData, slot.x, slot.y, slot.width, slot.height);
+
+        final long latency = System.nanoTime() - slot.issueNanos;
+        asyncDelivered++;
+        asyncLatencyNanos += latency;
+        asyncLatencyFrames += ( asyncFrameCount - 1 ) - slot.frameNumber;
+        asyncListener.pixelsRead(this, gl, slot.frameNumber, latency);
+    }
+
+    private static void copyMapped(final ByteBuffer mapped, final Buffer dest, final int byteCount) {
+        mapped.order(ByteOrder.nativeOrder());
+        mapped.position(0);
+        mapped.limit(byteCount);
+        if( dest instanceof ByteBuffer ) {
+            ((ByteBuffer)dest).put(mapped);
+        } else if( dest instanceof IntBuffer ) {
+            ((IntBuffer)dest).put(mapped.asIntBuffer());
+        } else {
+            throw new GLException("Unsupported pixel buffer "+dest);
+        }
+    }
+
+    /** Returns the number of frames issued via {@link #readPixelsAsync(GL, boolean) readPixelsAsync(..)}. */
+    public long getAsyncIssuedCount() { return asyncIssued; }
+
+    /** Returns the number of frames delivered to the {@link AsyncReadListener}. */
+    public long getAsyncDeliveredCount() { return asyncDelivered; }
+
+    /** Returns the number of times {@link #readPixelsAsync(GL, boolean) readPixelsAsync(..)} had to wait for the oldest frame, since all slots were pending. */
+    public long getAsyncStallCount() { return asyncStalls; }
+
+    /** Returns the number of frames read via the synchronous fallback, see {@link #isAsyncReadbackSupported(GL)}. */
+    public long getAsyncFallbackCount() { return asyncFallbacks; }
+
+    /** Returns the mean duration between issuing and delivering a frame in nanoseconds. */
+    public long getAsyncMeanLatencyNanos() { return 0 < asyncDelivered ? asyncLatencyNanos / asyncDelivered : 0; }
+
+    /** Returns the mean number of frames issued after a frame until its delivery. */
+    public float getAsyncMeanLatencyFrames() { return 0 < asyncDelivered ? (float)asyncLatencyFrames / (float)asyncDelivered : 0f; }
+
+    /** Resets all asynchronous readback counters. */
+    public void resetAsyncCounter() {
+        asyncIssued = 0;
+        asyncDelivered = 0;
+        asyncStalls = 0;
+        asyncFallbacks = 0;
+        asyncLatencyNanos = 0;
+        asyncLatencyFrames = 0;
+    }
+
+    /**
+     * Releases all asynchronous readback resources, dropping all pending frames.
+     * <p>
+     * Invoked by {@link #dispose(GL)}.
+     * </p>
+     */
+    public void disposeAsync(final GL gl) {
+        if( null != asyncSlots ) {
+            final int[] names = new int[asyncSlots.length];
+            for(int i=0; i<asyncSlots.length; i++) {
+                final AsyncSlot slot = asyncSlots[i];
+                if( 0 != slot.sync ) {
+                    gl.getGL3ES3().glDeleteSync(slot.sync);
+                    slot.sync = 0;
+                }
+                names[i] = slot.pbo;
+            }
+            gl.glDeleteBuffers(names.length, names, 0);
+            asyncSlots = null;
+            asyncPendingCount = 0;
+            asyncNext = 0;
         }
-        return res;
     }
 
     public void dispose(final GL gl) {
+        disposeAsync(gl);
         if(null != readTexture) {
             readTexture.destroy(gl);
             readTextureData = null;
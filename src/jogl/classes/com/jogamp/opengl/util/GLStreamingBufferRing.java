@@ -0,0 +1,283 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.GL4;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.GLException;
+
+import jogamp.opengl.Debug;
+
+/**
+ * Ring of equally sized segments within one buffer object, streaming per frame data
+ * w/o per frame buffer allocation and w/o implicit synchronization, see {@link GLArrayDataServer#setStreaming(int)}.
+ * <p>
+ * Each {@link #write(GL, int, Buffer, int) write} copies the given data into the next segment
+ * and returns its byte offset within the buffer object {@link #getVBOName()}, to be used for binding the data.
+ * </p>
+ * <p>
+ * If {@link GL4#glBufferStorage(int, long, Buffer, int)} and fences are available,
+ * the buffer storage is allocated once and persistently mapped w/ coherent write access,
+ * where each segment is guarded by a fence inserted when advancing to the next segment,
+ * i.e. after all commands using the previous segment have been issued.
+ * Otherwise each segment is written via an unsynchronized {@link GL#mapBufferRange(int, long, long, int) range mapping}
+ * and the buffer storage is orphaned via {@link GL#glBufferData(int, long, Buffer, int)} when wrapping around.
+ * If range mapping is not available either, {@link GL#glBufferSubData(int, long, long, Buffer)} is used.
+ * </p>
+ * <p>
+ * The buffer object is owned by this instance and recreated if a write exceeds the segment size,
+ * at least doubling the segment size, hence {@link #getVBOName()} shall be queried after each write.
+ * </p>
+ */
+public class GLStreamingBufferRing {
+    private static final boolean DEBUG = Debug.debug("GLArrayData");
+
+    /** Alignment of segment offsets in bytes, value {@value}. */
+    public static final int SEGMENT_ALIGNMENT = 256;
+
+    private static final long FENCE_WAIT_TIMEOUT = 1000000000L; // 1s
+
+    private final int segmentCount;
+    private final long[] fences;
+    private int segmentSize;
+    private int current;
+    private boolean persistent;
+    private ByteBuffer mappedBuffer;
+    private int vboName, vboTarget;
+    private int writeCount, waitCount, allocCount;
+
+    /**
+     * @param segmentCount number of ring segments, &ge; 2.
+     * @throws IllegalArgumentException if {@code segmentCount} &lt; 2
+     */
+    public GLStreamingBufferRing(final int segmentCount) throws IllegalArgumentException {
+        if( 2 > segmentCount ) {
+            throw new IllegalArgumentException("segmentCount "+segmentCount+" < 2");
+        }
+        this.segmentCount = segmentCount;
+        this.fences = new long[segmentCount];
+        this.segmentSize = 0;
+        this.current = -1;
+        this.persistent = false;
+        this.mappedBuffer = null;
+        this.vboName = 0;
+        this.vboTarget = 0;
+    }
+
+    /**
+     * Returns true if persistent mapping via {@link GL4#glBufferStorage(int, long, Buffer, int)} and fences
+     * is supported by the given GL object.
+     */
+    public static boolean isPersistentMappingSupported(final GL gl) {
+        return gl.isGL4() &&
+               gl.isFunctionAvailable("glBufferStorage") &&
+               gl.isFunctionAvailable("glMapBufferRange") &&
+               gl.isFunctionAvailable("glFenceSync") &&
+               gl.isFunctionAvailable("glClientWaitSync");
+    }
+
+    /**
+     * Copies {@code byteCount} bytes of the given data, starting at position zero, into the next ring segment.
+     * <p>
+     * Leaves the buffer object {@link #getVBOName()} bound to {@code target}.
+     * </p>
+     * @param gl the current GL object
+     * @param target the buffer target, e.g. {@link GL#GL_ARRAY_BUFFER}
+     * @param data the data to copy
+     * @param byteCount number of bytes to copy
+     * @return the byte offset of the written segment within the buffer object
+     */
+    public long write(final GL gl, final int target, final Buffer data, final int byteCount) throws GLException {
+        if( 0 == vboName || target != vboTarget || byteCount > segmentSize ) {
+            allocate(gl, target, byteCount);
+        } else {
+            gl.glBindBuffer(target, vboName);
+        }
+        // fence all commands issued w/ the current segment
+        if( persistent && 0 <= current ) {
+            final GL3ES3 gl3es3 = gl.getGL3ES3();
+            if( 0 != fences[current] ) {
+                gl3es3.glDeleteSync(fences[current]);
+            }
+            fences[current] = gl3es3.glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        }
+        current = ( current + 1 ) % segmentCount;
+        final long offset = (long)current * segmentSize;
+
+        if( persistent ) {
+            waitFence(gl.getGL3ES3(), current);
+            copy(mappedBuffer, (int)offset, data, byteCount);
+        } else if( gl.isFunctionAvailable("glMapBufferRange") ) {
+            if( 0 == current ) {
+                // (re)allocate storage, orphaning previous storage possibly still in use
+                gl.glBufferData(target, (long)segmentCount * segmentSize, null, GL2ES2.GL_STREAM_DRAW);
+            }
+            final GLBufferStorage storage = gl.mapBufferRange(target, offset, byteCount,
+                                                              GL.GL_MAP_WRITE_BIT | GL.GL_MAP_UNSYNCHRONIZED_BIT | GL.GL_MAP_INVALIDATE_RANGE_BIT);
+            copy(storage.getMappedBuffer(), 0, data, byteCount);
+            gl.glUnmapBuffer(target);
+        } else {
+            if( 0 == current ) {
+                gl.glBufferData(target, (long)segmentCount * segmentSize, null, GL2ES2.GL_STREAM_DRAW);
+            }
+            gl.glBufferSubData(target, offset, byteCount, data);
+        }
+        writeCount++;
+        return offset;
+    }
+
+    private void allocate(final GL gl, final int target, final int byteCount) {
+        final int oldSegmentSize = segmentSize;
+        destroy(gl);
+        final int[] tmp = new int[1];
+        gl.glGenBuffers(1, tmp, 0);
+        vboName = tmp[0];
+        vboTarget = target;
+        gl.glBindBuffer(target, vboName);
+        final int minSegmentSize = ( ( Math.max(1, byteCount) + SEGMENT_ALIGNMENT - 1 ) / SEGMENT_ALIGNMENT ) * SEGMENT_ALIGNMENT;
+        // grow at least by doubling, i.e. a steadily growing stream is reallocated only logarithmically often
+        segmentSize = oldSegmentSize <= Integer.MAX_VALUE / 2 ? Math.max(minSegmentSize, 2 * oldSegmentSize) : minSegmentSize;
+        final long size = (long)segmentCount * segmentSize;
+        persistent = isPersistentMappingSupported(gl);
+        if( persistent ) {
+            final int flags = GL.GL_MAP_WRITE_BIT | GL4.GL_MAP_PERSISTENT_BIT | GL4.GL_MAP_COHERENT_BIT;
+            gl.getGL4().glBufferStorage(target, size, null, flags);
+            mappedBuffer = gl.mapBufferRange(target, 0, size, flags).getMappedBuffer();
+        } // else storage is allocated by orphaning at segment zero
+        current = -1;
+        allocCount++;
+        if(DEBUG) {
+            System.err.println("GLStreamingBufferRing.allocate: "+this);
+        }
+    }
+
+    private void waitFence(final GL3ES3 gl, final int segment) {
+        final long sync = fences[segment];
+        if( 0 != sync ) {
+            int r = gl.glClientWaitSync(sync, 0, 0);
+            if( GL3ES3.GL_TIMEOUT_EXPIRED == r ) {
+                waitCount++;
+                do {
+                    r = gl.glClientWaitSync(sync, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_WAIT_TIMEOUT);
+                } while( GL3ES3.GL_TIMEOUT_EXPIRED == r );
+            }
+            gl.glDeleteSync(sync);
+            fences[segment] = 0;
+        }
+    }
+
+    /**
+     * Releases all fences, unmaps and deletes the buffer object.
+     */
+    public void destroy(final GL gl) {
+        if( 0 == vboName ) {
+            return;
+        }
+        if( persistent ) {
+            final GL3ES3 gl3es3 = gl.getGL3ES3();
+            for(int i=0; i<segmentCount; i++) {
+                if( 0 != fences[i] ) {
+                    gl3es3.glDeleteSync(fences[i]);
+                    fences[i] = 0;
+                }
+            }
+            gl.glBindBuffer(vboTarget, vboName);
+            gl.glUnmapBuffer(vboTarget);
+            gl.glBindBuffer(vboTarget, 0);
+        }
+        final int[] tmp = new int[] { vboName };
+        gl.glDeleteBuffers(1, tmp, 0);
+        mappedBuffer = null;
+        persistent = false;
+        segmentSize = 0;
+        current = -1;
+        vboName = 0;
+        vboTarget = 0;
+    }
+
+    private static void copy(final ByteBuffer dst, final int offset, final Buffer src, final int byteCount) {
+        final ByteBuffer d = dst.duplicate();
+        d.limit(offset + byteCount);
+        d.position(offset);
+        final ByteBuffer s = d.slice().order(ByteOrder.nativeOrder());
+        if( src instanceof ByteBuffer ) {
+            final ByteBuffer b = ((ByteBuffer)src).duplicate();
+            b.position(0);
+            b.limit(byteCount);
+            s.put(b);
+        } else if( src instanceof FloatBuffer ) {
+            final FloatBuffer b = ((FloatBuffer)src).duplicate();
+            b.position(0);
+            b.limit(byteCount / 4);
+            s.asFloatBuffer().put(b);
+        } else if( src instanceof IntBuffer ) {
+            final IntBuffer b = ((IntBuffer)src).duplicate();
+            b.position(0);
+            b.limit(byteCount / 4);
+            s.asIntBuffer().put(b);
+        } else if( src instanceof ShortBuffer ) {
+            final ShortBuffer b = ((ShortBuffer)src).duplicate();
+            b.position(0);
+            b.limit(byteCount / 2);
+            s.asShortBuffer().put(b);
+        } else {
+            throw new GLException("Buffer class not supported: "+src.getClass().getName());
+        }
+    }
+
+    /** Returns the buffer object name owned by this instance, zero if not allocated yet. */
+    public final int getVBOName() { return vboName; }
+    /** Returns the number of ring segments. */
+    public final int getSegmentCount() { return segmentCount; }
+    /** Returns the current segment size in bytes, zero if not allocated yet. */
+    public final int getSegmentSize() { return segmentSize; }
+    /** Returns true if the current storage is persistently mapped. */
+    public final boolean isPersistent() { return persistent; }
+    /** Returns the number of {@link #write(GL, int, Buffer, int) writes}. */
+    public final int getWriteCount() { return writeCount; }
+    /** Returns the number of {@link #write(GL, int, Buffer, int) writes} which had to wait for the GPU. */
+    public final int getWaitCount() { return waitCount; }
+    /** Returns the number of storage allocations. */
+    public final int getAllocCount() { return allocCount; }
+
+    @Override
+    public String toString() {
+        return "GLStreamingBufferRing[segments "+segmentCount+" x "+segmentSize+" bytes, current "+current+
+               ", persistent "+persistent+", vbo "+vboName+", writes "+writeCount+", waits "+waitCount+", allocs "+allocCount+"]";
+    }
+}
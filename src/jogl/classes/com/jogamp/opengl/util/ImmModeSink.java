@@ -48,6 +48,14 @@ import com.jogamp.opengl.util.glsl.ShaderState;
  * Note: Optional types, i.e. color, must be either not used or used w/ the same element count as vertex, etc.
  * This is a semantic constraint, same as in the original OpenGL spec.
  * </p>
+ * <a name="batching"><h5>Batching</h5></a>
+ * <p>
+ * If {@link #setBatching(boolean) batching} is enabled, {@link #glEnd(GL) glEnd(gl)} does not upload and render
+ * each glBegin/glEnd block on its own, but appends its elements to a pending batch.
+ * Strips, fans, loops, quads and polygons are converted to indexed triangles, lines or points,
+ * hence consecutive blocks of the same converted primitive type and attribute layout
+ * are rendered with a single upload and a single indexed draw call via {@link #flush(GL)}.
+ * </p>
  */
 public class ImmModeSink {
   protected static final boolean DEBUG_BEGIN_END;
@@ -65,6 +73,12 @@ public class ImmModeSink {
   public static final int GL_QUAD_STRIP = 0x0008;
   public static final int GL_POLYGON    = 0x0009;
 
+  /**
+   * Maximum element count of one batch, allowing {@link GL#GL_UNSIGNED_SHORT} indices.
+   * @see #setBatching(boolean)
+   */
+  public static final int MAX_BATCH_ELEMENTS = 0xffff;
+
   /**
    * Uses a GL2ES1, or ES2 fixed function emulation immediate mode sink
    * <p>
@@ -164,15 +178,31 @@ public class ImmModeSink {
     destroyList(gl);
 
     vboSet.destroy(gl);
+    if( null != batchSet ) {
+        batchSet.destroy(gl);
+        batchSet = null;
+    }
+    batchIndices = null;
   }
 
+  /**
+   * Discards all recorded blocks and a pending <a href="#batching">batch</a> w/o rendering it.
+   */
   public void reset() {
     reset(null);
   }
 
+  /**
+   * Discards all recorded blocks, a pending <a href="#batching">batch</a> is rendered via {@link #flush(GL)} first.
+   * @param gl the current GL object, if <code>null</code> a pending batch is discarded
+   */
   public void reset(final GL gl) {
+    if( null != gl ) {
+        flush(gl);
+    }
     destroyList(gl);
     vboSet.reset(gl);
+    resetBatch(gl);
   }
 
   @Override
@@ -190,6 +220,10 @@ public class ImmModeSink {
         sb.append(vboSet);
         sb.append("\n]");
     }
+    if( batching ) {
+        sb.append(",\nBatch: prim "+batchPrimType+", layout "+batchLayout+", elements "+getBatchElementCount()+
+                  ", indices "+( null != batchIndices ? batchIndices.position() : 0 )+", flushes "+batchFlushCount+"\n"+batchSet);
+    }
     return sb.toString();
   }
 
@@ -197,6 +231,7 @@ public class ImmModeSink {
     if(DEBUG_DRAW) {
         System.err.println("ImmModeSink.draw(disableBufferAfterDraw: "+disableBufferAfterDraw+"):\n\t"+this);
     }
+    flush(gl); // preserve order w/ a pending batch
     int n=0;
     for(int i=0; i<vboSetList.size(); i++, n++) {
         vboSetList.get(i).draw(gl, null, disableBufferAfterDraw, n);
@@ -207,6 +242,7 @@ public class ImmModeSink {
     if(DEBUG_DRAW) {
         System.err.println("ImmModeSink.draw(disableBufferAfterDraw: "+disableBufferAfterDraw+"):\n\t"+this);
     }
+    flush(gl); // preserve order w/ a pending batch
     int n=0;
     for(int i=0; i<vboSetList.size(); i++, n++) {
         vboSetList.get(i).draw(gl, indices, disableBufferAfterDraw, n);
@@ -244,9 +280,12 @@ public class ImmModeSink {
 
   private void glEnd(final GL gl, final Buffer indices, final boolean immediateDraw) {
     if(DEBUG_BEGIN_END) {
-        System.err.println("ImmModeSink START glEnd(immediate: "+immediateDraw+")");
+        System.err.println("ImmModeSink START glEnd(immediate: "+immediateDraw+", batching "+batching+")");
     }
-    if(immediateDraw) {
+    if(immediateDraw && batching && null == indices && appendBatch(gl)) {
+        vboSet.reset();
+    } else if(immediateDraw) {
+        flush(gl); // preserve order
         vboSet.seal(gl, true);
         vboSet.draw(gl, indices, true, -1);
         reset(gl);
@@ -261,6 +300,53 @@ public class ImmModeSink {
     }
   }
 
+  /**
+   * Enables or disables <a href="#batching">batching</a> of immediately rendered glBegin/glEnd blocks, disabled by default.
+   * <p>
+   * A pending batch is flushed implicitly by {@link #glEnd(GL) glEnd(gl)} if the new block is incompatible,
+   * i.e. uses a different converted primitive type or attribute layout,
+   * or if the batch would exceed {@link #MAX_BATCH_ELEMENTS}.
+   * Blocks which cannot be batched, e.g. using indices or an unknown primitive mode, flush the batch and are rendered directly.
+   * {@link #draw(GL, boolean) Drawing} recorded blocks and {@link #reset(GL) reset(gl)} flush the batch as well.
+   * </p>
+   * <p>
+   * Since the batch is rendered deferred, user code must call {@link #flush(GL)}
+   * before changing any GL state affecting its rendering, e.g. textures, uniforms or the shader program,
+   * and at the end of each frame.
+   * Disabling batching does not discard a pending batch, it is still rendered via {@link #flush(GL)}.
+   * </p>
+   */
+  public void setBatching(final boolean enable) {
+    batching = enable;
+  }
+
+  /** Returns true if <a href="#batching">batching</a> is enabled, see {@link #setBatching(boolean)}. */
+  public boolean isBatching() { return batching; }
+
+  /**
+   * Renders the pending <a href="#batching">batch</a> with a single indexed draw call, if any.
+   * @see #setBatching(boolean)
+   */
+  public void flush(final GL gl) {
+    if( null == batchSet || null == batchIndices || 0 == batchIndices.position() ) {
+        return;
+    }
+    if(DEBUG_DRAW) {
+        System.err.println("ImmModeSink.flush: prim "+batchPrimType+", indices "+batchIndices.position()+":\n\t"+batchSet);
+    }
+    batchIndices.flip();
+    batchSet.drawIndexed(gl, batchPrimType, batchIndices);
+    batchIndices.clear();
+    batchSet.reset(gl);
+    batchFlushCount++;
+  }
+
+  /** Returns the element count of the pending <a href="#batching">batch</a>. */
+  public int getBatchElementCount() { return null != batchSet ? batchSet.getElemCount() : 0; }
+
+  /** Returns the number of rendered <a href="#batching">batches</a>, i.e. the number of batched draw calls. */
+  public int getBatchFlushCount() { return batchFlushCount; }
+
   public void glVertexv(final Buffer v) {
     vboSet.glVertexv(v);
   }
@@ -401,8 +487,143 @@ public class ImmModeSink {
     vboSetList.clear();
   }
 
+  /**
+   * Appends the current unsealed {@link #vboSet} to the batch, flushing the batch beforehand if incompatible.
+   * @return true if appended, otherwise false if the current set cannot be batched and the batch has been flushed.
+   */
+  private boolean appendBatch(final GL gl) {
+    final int elems = vboSet.getElemCount();
+    if( 0 == elems ) {
+        return true;
+    }
+    final int primType = getBatchPrimitiveType(vboSet.modeOrig);
+    final int layout = vboSet.getBatchLayout();
+    if( 0 > primType || 0 > layout || MAX_BATCH_ELEMENTS < elems ) {
+        flush(gl);
+        return false;
+    }
+    if( null != batchSet && 0 < batchSet.getElemCount() &&
+        ( primType != batchPrimType || layout != batchLayout || MAX_BATCH_ELEMENTS < batchSet.getElemCount() + elems ) ) {
+        flush(gl);
+    }
+    if( null == batchSet ) {
+        batchSet = vboSet.regenerate(gl);
+    }
+    if( 0 == batchSet.getElemCount() ) {
+        batchPrimType = primType;
+        batchLayout = layout;
+    }
+    final int base = batchSet.getElemCount();
+    batchSet.append(vboSet);
+    putBatchIndices(vboSet.modeOrig, base, elems);
+    if(DEBUG_BEGIN_END) {
+        System.err.println("ImmModeSink.appendBatch: mode "+vboSet.modeOrig+" -> prim "+primType+", elements "+base+" + "+elems+", indices "+batchIndices.position());
+    }
+    return true;
+  }
+
+  /** Returns the batched primitive type for the given glBegin mode, or -1 if not batchable. */
+  private static int getBatchPrimitiveType(final int modeOrig) {
+    switch(modeOrig) {
+        case GL.GL_POINTS:
+            return GL.GL_POINTS;
+        case GL.GL_LINES:
+        case GL.GL_LINE_STRIP:
+        case GL.GL_LINE_LOOP:
+            return GL.GL_LINES;
+        case GL.GL_TRIANGLES:
+        case GL.GL_TRIANGLE_STRIP:
+        case GL.GL_TRIANGLE_FAN:
+        case GL_QUADS:
+        case GL_QUAD_STRIP:
+        case GL_POLYGON:
+            return GL.GL_TRIANGLES;
+        default:
+            return -1;
+    }
+  }
+
+  /** Appends the indices of one block of <code>count</code> elements starting at <code>base</code>, converted to the batched primitive type. */
+  private void putBatchIndices(final int modeOrig, final int base, final int count) {
+    final int maxIndices = 3 * count + 2;
+    if( null == batchIndices ) {
+        batchIndices = Buffers.newDirectShortBuffer(Math.max(256, maxIndices));
+    } else if( batchIndices.remaining() < maxIndices ) {
+        final ShortBuffer old = batchIndices;
+        batchIndices = Buffers.newDirectShortBuffer(Math.max(2 * old.capacity(), old.position() + maxIndices));
+        old.flip();
+        batchIndices.put(old);
+    }
+    final ShortBuffer ib = batchIndices;
+    switch(modeOrig) {
+        case GL.GL_POINTS:
+            for(int i=0; i<count; i++) {
+                ib.put( (short) ( base + i ) );
+            }
+            break;
+        case GL.GL_LINES:
+            for(int i=0; i<count-1; i+=2) {
+                ib.put( (short) ( base + i ) ).put( (short) ( base + i + 1 ) );
+            }
+            break;
+        case GL.GL_LINE_STRIP:
+        case GL.GL_LINE_LOOP:
+            for(int i=0; i<count-1; i++) {
+                ib.put( (short) ( base + i ) ).put( (short) ( base + i + 1 ) );
+            }
+            if( GL.GL_LINE_LOOP == modeOrig && 2 < count ) {
+                ib.put( (short) ( base + count - 1 ) ).put( (short) base );
+            }
+            break;
+        case GL.GL_TRIANGLES:
+            for(int i=0; i<count-2; i+=3) {
+                ib.put( (short) ( base + i ) ).put( (short) ( base + i + 1 ) ).put( (short) ( base + i + 2 ) );
+            }
+            break;
+        case GL.GL_TRIANGLE_STRIP:
+        case GL_QUAD_STRIP:
+            for(int i=0; i<count-2; i++) {
+                // keep winding order of odd triangles
+                if( 0 == ( i & 1 ) ) {
+                    ib.put( (short) ( base + i ) ).put( (short) ( base + i + 1 ) ).put( (short) ( base + i + 2 ) );
+                } else {
+                    ib.put( (short) ( base + i + 1 ) ).put( (short) ( base + i ) ).put( (short) ( base + i + 2 ) );
+                }
+            }
+            break;
+        case GL.GL_TRIANGLE_FAN:
+        case GL_POLYGON:
+            for(int i=1; i<count-1; i++) {
+                ib.put( (short) base ).put( (short) ( base + i ) ).put( (short) ( base + i + 1 ) );
+            }
+            break;
+        case GL_QUADS:
+            for(int i=0; i<count-3; i+=4) {
+                ib.put( (short) ( base + i ) ).put( (short) ( base + i + 1 ) ).put( (short) ( base + i + 2 ) );
+                ib.put( (short) ( base + i ) ).put( (short) ( base + i + 2 ) ).put( (short) ( base + i + 3 ) );
+            }
+            break;
+        default:
+            throw new InternalError("Unbatchable mode "+modeOrig);
+    }
+  }
+
+  private void resetBatch(final GL gl) {
+    if( null != batchSet ) {
+        batchSet.reset(gl);
+    }
+    if( null != batchIndices ) {
+        batchIndices.clear();
+    }
+  }
+
   private VBOSet vboSet;
   private final ArrayList<VBOSet> vboSetList;
+  private boolean batching = false;
+  private VBOSet batchSet = null;
+  private ShortBuffer batchIndices = null;
+  private int batchPrimType, batchLayout;
+  private int batchFlushCount = 0;
 
   protected static class VBOSet {
     protected VBOSet (final int initialElementCount,
@@ -575,6 +796,102 @@ public class ImmModeSink {
         }
     }
 
+    /**
+     * Renders all elements with the given converted primitive type and <code>GL_UNSIGNED_SHORT</code> indices
+     * in a single draw call, using an element array buffer if VBO is being used.
+     */
+    protected void drawIndexed(final GL gl, final int primType, final ShortBuffer indices) {
+        mode = primType;
+        modeOrig = primType;
+        seal(gl, true);
+        enableBuffer(gl, true);
+
+        if(null != shaderState || 0 != shaderProgram) {
+            useShaderProgram(gl.getGL2ES2(), false);
+        }
+
+        final int idxLen = indices.remaining();
+        if( useVBO ) {
+            if( 0 == indicesVBOName ) {
+                final int[] tmp = new int[1];
+                gl.glGenBuffers(1, tmp, 0);
+                indicesVBOName = tmp[0];
+            }
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, indicesVBOName);
+            gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, idxLen * Buffers.SIZEOF_SHORT, indices, glBufferUsage);
+            gl.glDrawElements(primType, idxLen, GL.GL_UNSIGNED_SHORT, 0);
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+        } else {
+            if( !gl.getContext().isCPUDataSourcingAvail() ) {
+                throw new GLException("CPU data sourcing n/a w/ "+gl.getContext());
+            }
+            if( gl.isGL2ES1() ) {
+                gl.getGL2ES1().glDrawElements(primType, idxLen, GL.GL_UNSIGNED_SHORT, indices);
+            } else if( gl.isGLES2() ) {
+                gl.getGLES2().glDrawElements(primType, idxLen, GL.GL_UNSIGNED_SHORT, indices);
+            } else {
+                throw new GLException("Client side indices n/a w/ "+gl.getContext());
+            }
+        }
+
+        enableBuffer(gl, false);
+    }
+
+    /** Returns the number of written vertex elements. */
+    protected int getElemCount() { return vElems; }
+
+    /**
+     * Returns the attribute layout bitmask of the used color, normal and texture-coord arrays,
+     * or -1 if a used array's element count differs from the vertex element count.
+     */
+    protected int getBatchLayout() {
+        int layout = 0;
+        if( 0 < cElems ) {
+            if( cElems != vElems ) { return -1; }
+            layout |= 1 << COLOR;
+        }
+        if( 0 < nElems ) {
+            if( nElems != vElems ) { return -1; }
+            layout |= 1 << NORMAL;
+        }
+        if( 0 < tElems ) {
+            if( tElems != vElems ) { return -1; }
+            layout |= 1 << TEXTCOORD;
+        }
+        return layout;
+    }
+
+    /**
+     * Appends all written elements of the unsealed <code>src</code> set of same layout,
+     * growing this set's buffer at least by its current element count if required.
+     * The <code>src</code> arrays are cleared.
+     */
+    protected void append(final VBOSet src) {
+        final int addElems = src.vElems;
+        if( vCount - vElems < addElems || cCount - cElems < src.cElems ||
+            nCount - nElems < src.nElems || tCount - tElems < src.tElems ) {
+            reallocateAndCopy( Math.max( addElems, Math.max(resizeElementCount, vElems) ) );
+        }
+        appendArray(vertexArray, src.vertexArray, src.vElems);
+        appendArray(colorArray, src.colorArray, src.cElems);
+        appendArray(normalArray, src.normalArray, src.nElems);
+        appendArray(textCoordArray, src.textCoordArray, src.tElems);
+        vElems += src.vElems;
+        cElems += src.cElems;
+        nElems += src.nElems;
+        tElems += src.tElems;
+    }
+
+    private static void appendArray(final Buffer dest, final Buffer src, final int srcElems) {
+        if( null != src ) {
+            if( 0 < srcElems ) {
+                src.flip();
+                Buffers.put(dest, src);
+            }
+            src.clear();
+        }
+    }
+
     public void glVertexv(final Buffer v) {
         checkSeal(false);
         Buffers.put(vertexArray, v);
@@ -907,6 +1224,11 @@ public class ImmModeSink {
 
     public void destroy(final GL gl) {
         reset(gl);
+        if( null != gl && 0 != indicesVBOName ) {
+            final int[] tmp = new int[] { indicesVBOName };
+            gl.glDeleteBuffers(1, tmp, 0);
+        }
+        indicesVBOName = 0;
 
         vCount=0; cCount=0; nCount=0; tCount=0;
         vertexArray=null; colorArray=null; normalArray=null; textCoordArray=null;
@@ -1386,29 +1708,35 @@ public class ImmModeSink {
     protected final boolean growBuffer(final int type) {
         if( null !=buffer && !sealed ) {
             if( !fitElementInBuffer(type) ) {
-                // save olde values ..
-                final Buffer _vertexArray=vertexArray, _colorArray=colorArray, _normalArray=normalArray, _textCoordArray=textCoordArray;
+                return reallocateAndCopy(resizeElementCount);
+            }
+        }
+        return false;
+    }
 
-                if ( reallocateBuffer(resizeElementCount) ) {
-                    if(null!=_vertexArray) {
-                        _vertexArray.flip();
-                        Buffers.put(vertexArray, _vertexArray);
-                    }
-                    if(null!=_colorArray) {
-                        _colorArray.flip();
-                        Buffers.put(colorArray, _colorArray);
-                    }
-                    if(null!=_normalArray) {
-                        _normalArray.flip();
-                        Buffers.put(normalArray, _normalArray);
-                    }
-                    if(null!=_textCoordArray) {
-                        _textCoordArray.flip();
-                        Buffers.put(textCoordArray, _textCoordArray);
-                    }
-                    return true;
-                }
+    /** reallocate buffer to fit <code>addElems</code> more elements, keeping all written elements */
+    private boolean reallocateAndCopy(final int addElems) {
+        // save olde values ..
+        final Buffer _vertexArray=vertexArray, _colorArray=colorArray, _normalArray=normalArray, _textCoordArray=textCoordArray;
+
+        if ( reallocateBuffer(addElems) ) {
+            if(null!=_vertexArray) {
+                _vertexArray.flip();
+                Buffers.put(vertexArray, _vertexArray);
+            }
+            if(null!=_colorArray) {
+                _colorArray.flip();
+                Buffers.put(colorArray, _colorArray);
+            }
+            if(null!=_normalArray) {
+                _normalArray.flip();
+                Buffers.put(normalArray, _normalArray);
+            }
+            if(null!=_textCoordArray) {
+                _textCoordArray.flip();
+                Buffers.put(textCoordArray, _textCoordArray);
             }
+            return true;
         }
         return false;
     }
@@ -1477,7 +1805,7 @@ public class ImmModeSink {
     private int mode, modeOrig, resizeElementCount;
 
     private ByteBuffer buffer;
-    private int vboName;
+    private int vboName, indicesVBOName;
 
     private static final int VERTEX = 0;
     private static final int COLOR = 1;
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.nativewindow.util.PixelFormatUtil;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.texture.spi.NetPbmTextureWriter;
+
+/**
+ * {@link TileRenderer.ImageSink} streaming the image row by row as binary PPM or PAM,
+ * using the header of {@link NetPbmTextureWriter}.
+ * <p>
+ * Since NetPbm stores the top row first, the tile rows must be rendered top to bottom,
+ * i.e. {@link TileRenderer#setRowOrder(int) row order} {@link TileRenderer#TR_TOP_TO_BOTTOM}.
+ * </p>
+ * <p>
+ * Supports 3 byte RGB and 4 byte RGBA {@link PixelFormat}s.
+ * PPM only stores RGB, i.e. drops the alpha channel of a 4 byte pixel format.
+ * </p>
+ */
+public class NetPbmImageSink implements TileRenderer.ImageSink {
+    private final OutputStream outstream;
+    private final boolean closeOutstream;
+    private final int magic;
+    private PixelFormat pixelformat = null;
+    private byte[] line = null;
+    private int width, height, bytesPerPixel, comps, nextRow;
+
+    /**
+     * @param outstream the output stream, should be buffered
+     * @param closeOutstream if true, closes the output stream at {@link #end()}
+     * @param magic 6 - PPM binary RGB, 7 - PAM binary RGB or RGBA
+     * @throws IllegalArgumentException if magic is neither 6 nor 7
+     */
+    public NetPbmImageSink(final OutputStream outstream, final boolean closeOutstream, final int magic) throws IllegalArgumentException {
+        if( 6 != magic && 7 != magic ) {
+            throw new IllegalArgumentException("Unsupported magic: "+magic+", should be 6 (PPM) or 7 (PAM)");
+        }
+        this.outstream = outstream;
+        this.closeOutstream = closeOutstream;
+        this.magic = magic;
+    }
+
+    @Override
+    public void begin(final int width, final int height, final GLPixelAttributes pixelAttribs) throws IOException {
+        bytesPerPixel = pixelAttribs.pfmt.comp.bytesPerPixel();
+        if( 3 != bytesPerPixel && 4 != bytesPerPixel ) {
+            throw new IOException("Unsupported pixel format "+pixelAttribs);
+        }
+        this.pixelformat = pixelAttribs.pfmt;
+        this.width = width;
+        this.height = height;
+        this.comps = 7 == magic ? bytesPerPixel : 3;
+        line = new byte[width * comps];
+        nextRow = 0;
+        outstream.write(NetPbmTextureWriter.getHeader(magic, width, height, comps).getBytes());
+    }
+
+    @Override
+    public void writeRows(final ByteBuffer rows, final int y, final int rowCount) throws IOException {
+        final int topRow = height - y - rowCount; // NetPbm row of the strip's top row
+        if( topRow != nextRow ) {
+            throw new IOException("Expected NetPbm row "+nextRow+", got "+topRow+" - requires row order TR_TOP_TO_BOTTOM");
+        }
+        final int stride = width * bytesPerPixel;
+        final int pos = rows.position();
+        final PixelFormat dstFmt = 4 == comps ? PixelFormat.RGBA8888 : PixelFormat.RGB888;
+        for(int i = rowCount - 1; i >= 0; i--) {
+            int dataOff = pos + i * stride;
+            int lineOff = 0;
+            for (int j = width - 1; j >= 0; j--) {
+                final int p = PixelFormatUtil.convertToInt32(dstFmt, pixelformat, rows, dataOff);
+                line[lineOff    ] = (byte)   p;              // R
+                line[lineOff + 1] = (byte) ( p >>> 8 );      // G
+                line[lineOff + 2] = (byte) ( p >>> 16 );     // B
+                if( 4 == comps ) {
+                    line[lineOff + 3] = (byte) ( p >>> 24 ); // A
+                }
+                dataOff += bytesPerPixel;
+                lineOff += comps;
+            }
+            outstream.write(line);
+            nextRow++;
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        try {
+            outstream.flush();
+        } finally {
+            line = null;
+            if( closeOutstream ) {
+                IOUtil.close(outstream, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.nativewindow.util.PixelFormatUtil;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.PNGPixelRect.CompressionPreset;
+
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.chunks.PngChunkTextVar;
+
+/**
+ * {@link TileRenderer.ImageSink} streaming the image row by row as PNG.
+ * <p>
+ * Since PNG stores the top row first, the tile rows must be rendered top to bottom,
+ * i.e. {@link TileRenderer#setRowOrder(int) row order} {@link TileRenderer#TR_TOP_TO_BOTTOM}.
+ * </p>
+ * <p>
+ * Supports 1 byte luminance, 3 byte RGB and 4 byte RGBA {@link PixelFormat}s,
+ * see {@link PNGPixelRect#write(OutputStream, boolean, CompressionPreset)}.
+ * </p>
+ */
+public class PNGImageSink implements TileRenderer.ImageSink {
+    private final OutputStream outstream;
+    private final boolean closeOutstream;
+    private final CompressionPreset preset;
+    private final double dpiX, dpiY;
+    private PngWriter png = null;
+    private ImageLine line = null;
+    private PixelFormat pixelformat = null;
+    private int width, height, bytesPerPixel, nextRow;
+
+    /**
+     * Creates a PNG sink using {@link CompressionPreset#DEFAULT} and 72 dpi.
+     * @param outstream the output stream
+     * @param closeOutstream if true, closes the output stream at {@link #end()}
+     */
+    public PNGImageSink(final OutputStream outstream, final boolean closeOutstream) {
+        this(outstream, closeOutstream, CompressionPreset.DEFAULT, 72.0, 72.0);
+    }
+
+    /**
+     * @param outstream the output stream
+     * @param closeOutstream if true, closes the output stream at {@link #end()}
+     * @param preset the {@link CompressionPreset} to encode with
+     * @param dpiX
+     * @param dpiY
+     */
+    public PNGImageSink(final OutputStream outstream, final boolean closeOutstream, final CompressionPreset preset,
+                        final double dpiX, final double dpiY) {
+        this.outstream = outstream;
+        this.closeOutstream = closeOutstream;
+        this.preset = preset;
+        this.dpiX = dpiX;
+        this.dpiY = dpiY;
+    }
+
+    @Override
+    public void begin(final int width, final int height, final GLPixelAttributes pixelAttribs) throws IOException {
+        bytesPerPixel = pixelAttribs.pfmt.comp.bytesPerPixel();
+        if( 1 != bytesPerPixel && 3 != bytesPerPixel && 4 != bytesPerPixel ) {
+            throw new IOException("Unsupported pixel format "+pixelAttribs);
+        }
+        this.pixelformat = pixelAttribs.pfmt;
+        this.width = width;
+        this.height = height;
+        final ImageInfo imi = new ImageInfo(width, height, 8 /* bitdepth */,
+                                            (4 == bytesPerPixel) ? true : false /* alpha */,
+                                            (1 == bytesPerPixel) ? true : false /* grayscale */,
+                                            false /* indexed */);
+        png = PNGPixelRect.createPngWriter(outstream, imi, preset);
+        png.getMetadata().setDpi(dpiX, dpiY);
+        png.getMetadata().setTimeNow(0); // 0 seconds from now = now
+        png.getMetadata().setText(PngChunkTextVar.KEY_Title, "JogAmp TileRenderer");
+        line = new ImageLine(imi);
+        nextRow = 0;
+    }
+
+    @Override
+    public void writeRows(final ByteBuffer rows, final int y, final int rowCount) throws IOException {
+        final int topRow = height - y - rowCount; // PNG row of the strip's top row
+        if( topRow != nextRow ) {
+            throw new IOException("Expected PNG row "+nextRow+", got "+topRow+" - requires row order TR_TOP_TO_BOTTOM");
+        }
+        final int stride = width * bytesPerPixel;
+        final int pos = rows.position();
+        final boolean hasAlpha = 4 == bytesPerPixel;
+        final PixelFormat dstFmt = hasAlpha ? PixelFormat.RGBA8888 : PixelFormat.RGB888;
+        for(int i = rowCount - 1; i >= 0; i--) {
+            int dataOff = pos + i * stride;
+            int lineOff = 0;
+            if( 1 == bytesPerPixel ) {
+                for (int j = width - 1; j >= 0; j--) {
+                    line.scanline[lineOff++] = 0xff & rows.get(dataOff++); // Luminance, 1 bytesPerPixel
+                }
+            } else {
+                for (int j = width - 1; j >= 0; j--) {
+                    final int p = PixelFormatUtil.convertToInt32(dstFmt, pixelformat, rows, dataOff);
+                    line.scanline[lineOff    ] = 0xff &   p;              // R
+                    line.scanline[lineOff + 1] = 0xff & ( p >>> 8 );      // G
+                    line.scanline[lineOff + 2] = 0xff & ( p >>> 16 );     // B
+                    if(hasAlpha) {
+                        line.scanline[lineOff + 3] = 0xff & ( p >>> 24 ); // A
+                    }
+                    dataOff += bytesPerPixel;
+                    lineOff += bytesPerPixel;
+                }
+            }
+            png.writeRow(line, nextRow++);
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        try {
+            png.end();
+        } finally {
+            png = null;
+            line = null;
+            if( closeOutstream ) {
+                IOUtil.close(outstream, false);
+            }
+        }
+    }
+}
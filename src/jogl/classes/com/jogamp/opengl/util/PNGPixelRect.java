@@ -33,6 +33,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.util.zip.Deflater;
 
 import com.jogamp.nativewindow.util.Dimension;
 import com.jogamp.nativewindow.util.DimensionImmutable;
@@ -41,6 +42,7 @@ import com.jogamp.nativewindow.util.PixelRectangle;
 import com.jogamp.nativewindow.util.PixelFormatUtil;
 
 import jogamp.opengl.Debug;
+import jogamp.opengl.util.pngj.FilterType;
 import jogamp.opengl.util.pngj.ImageInfo;
 import jogamp.opengl.util.pngj.ImageLine;
 import jogamp.opengl.util.pngj.ImageLineHelper;
@@ -56,6 +58,43 @@ import com.jogamp.common.util.IOUtil;
 public class PNGPixelRect extends PixelRectangle.GenericPixelRect {
     private static final boolean DEBUG = Debug.debug("PNG");
 
+    /**
+     * PNG encoder presets, trading encoding speed against file size.
+     * <p>
+     * Each preset selects the PNG row filter strategy, the deflate compression level
+     * and the deflate strategy.
+     * </p>
+     */
+    public static enum CompressionPreset {
+        /** Balanced default: heuristic filter selection, deflate level 6, {@link Deflater#FILTERED}. */
+        DEFAULT(FilterType.FILTER_DEFAULT, 6, Deflater.FILTERED),
+        /**
+         * Fast encoding, e.g. for screenshots with large uniform areas:
+         * <code>SUB</code> filter, deflate level 1, {@link Deflater#DEFAULT_STRATEGY}.
+         */
+        FAST(FilterType.FILTER_SUB, 1, Deflater.DEFAULT_STRATEGY),
+        /**
+         * Fast encoding for photographic content, where string matching rarely pays off:
+         * <code>SUB</code> filter, deflate level 1, {@link Deflater#HUFFMAN_ONLY}.
+         */
+        FAST_PHOTO(FilterType.FILTER_SUB, 1, Deflater.HUFFMAN_ONLY),
+        /**
+         * Smallest output: per-row filter selection by minimum sum of absolute differences,
+         * deflate level 9, {@link Deflater#FILTERED}.
+         */
+        SMALL(FilterType.FILTER_MINSUM, 9, Deflater.FILTERED);
+
+        private final FilterType filterType;
+        private final int compLevel;
+        private final int deflaterStrategy;
+
+        private CompressionPreset(final FilterType filterType, final int compLevel, final int deflaterStrategy) {
+            this.filterType = filterType;
+            this.compLevel = compLevel;
+            this.deflaterStrategy = deflaterStrategy;
+        }
+    }
+
     /**
      * Reads a PNG image from the specified InputStream.
      * <p>
@@ -302,7 +341,22 @@ public class PNGPixelRect extends PixelRectangle.GenericPixelRect {
     /** Returns the dpi of the image. */
     public double[] getDpi() { return dpi; }
 
+    /**
+     * Writes this image as PNG using {@link CompressionPreset#DEFAULT}.
+     * @see #write(OutputStream, boolean, CompressionPreset)
+     */
     public void write(final OutputStream outstream, final boolean closeOutstream) throws IOException {
+        write(outstream, closeOutstream, CompressionPreset.DEFAULT);
+    }
+
+    /**
+     * Writes this image as PNG.
+     * @param outstream the output stream
+     * @param closeOutstream if true, closes the output stream when done
+     * @param preset the {@link CompressionPreset} to encode with
+     * @throws IOException
+     */
+    public void write(final OutputStream outstream, final boolean closeOutstream, final CompressionPreset preset) throws IOException {
         final int width = size.getWidth();
         final int height = size.getHeight();
         final int bytesPerPixel = pixelformat.comp.bytesPerPixel();
@@ -313,7 +367,7 @@ public class PNGPixelRect extends PixelRectangle.GenericPixelRect {
 
         // open image for writing to a output stream
         try {
-            final PngWriter png = new PngWriter(outstream, imi);
+            final PngWriter png = createPngWriter(outstream, imi, preset);
             // add some optional metadata (chunks)
             png.getMetadata().setDpi(dpi[0], dpi[1]);
             png.getMetadata().setTimeNow(0); // 0 seconds from now = now
@@ -344,10 +398,36 @@ public class PNGPixelRect extends PixelRectangle.GenericPixelRect {
         }
     }
 
+    /**
+     * Writes the given pixels as PNG using {@link CompressionPreset#DEFAULT}.
+     * @see #write(PixelFormat, DimensionImmutable, int, boolean, IntBuffer, double, double, OutputStream, boolean, CompressionPreset)
+     */
     public static void write(final PixelFormat pixelformat, final DimensionImmutable size,
-                             int strideInPixels, final boolean isGLOriented, final IntBuffer pixels,
+                             final int strideInPixels, final boolean isGLOriented, final IntBuffer pixels,
                              final double dpiX, final double dpiY,
                              final OutputStream outstream, final boolean closeOutstream) throws IOException {
+        write(pixelformat, size, strideInPixels, isGLOriented, pixels, dpiX, dpiY, outstream, closeOutstream, CompressionPreset.DEFAULT);
+    }
+
+    /**
+     * Writes the given pixels as PNG.
+     * @param pixelformat
+     * @param size
+     * @param strideInPixels stride in pixels, maybe 0 to use the width
+     * @param isGLOriented see {@link #isGLOriented()}.
+     * @param pixels
+     * @param dpiX
+     * @param dpiY
+     * @param outstream the output stream
+     * @param closeOutstream if true, closes the output stream when done
+     * @param preset the {@link CompressionPreset} to encode with
+     * @throws IOException
+     */
+    public static void write(final PixelFormat pixelformat, final DimensionImmutable size,
+                             int strideInPixels, final boolean isGLOriented, final IntBuffer pixels,
+                             final double dpiX, final double dpiY,
+                             final OutputStream outstream, final boolean closeOutstream,
+                             final CompressionPreset preset) throws IOException {
         final int width = size.getWidth();
         final int height = size.getHeight();
         final int bytesPerPixel = pixelformat.comp.bytesPerPixel();
@@ -369,7 +449,7 @@ public class PNGPixelRect extends PixelRectangle.GenericPixelRect {
 
         // open image for writing to a output stream
         try {
-            final PngWriter png = new PngWriter(outstream, imi);
+            final PngWriter png = createPngWriter(outstream, imi, preset);
             // add some optional metadata (chunks)
             png.getMetadata().setDpi(dpiX, dpiY);
             png.getMetadata().setTimeNow(0); // 0 seconds from now = now
@@ -399,4 +479,12 @@ public class PNGPixelRect extends PixelRectangle.GenericPixelRect {
             }
         }
     }
+
+    /* pp */ static PngWriter createPngWriter(final OutputStream outstream, final ImageInfo imi, final CompressionPreset preset) {
+        final PngWriter png = new PngWriter(outstream, imi);
+        png.setFilterType(preset.filterType);
+        png.setCompLevel(preset.compLevel);
+        png.setDeflaterStrategy(preset.deflaterStrategy);
+        return png;
+    }
 }
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.concurrent.locks.LockSupport;
+
+import com.jogamp.opengl.GLAutoDrawable;
+
+/**
+ * An {@link Animator} pacing its frames to a target frame period,
+ * adapting to the measured display duration.
+ * <p>
+ * The duration of displaying all drawables is measured each frame
+ * and the next frame's duration is predicted via an exponentially weighted moving average
+ * plus a safety margin of twice its mean deviation.
+ * The animation thread parks until the predicted duration before the next deadline,
+ * so the frame completes just in time, while the last {@link #getSpinNanos() spin duration}
+ * is yielded away for accuracy.
+ * </p>
+ * <p>
+ * Deadlines are spaced by the {@link #setFrameTimeBudget(long) frame time budget}.
+ * A frame completing after its deadline is counted as {@link #getLateFrameCount() late};
+ * if the next deadline has passed as well, it is skipped, counted as {@link #getSkippedFrameCount() skipped},
+ * and the animation re-synchronizes to the deadline grid.
+ * </p>
+ * <p>
+ * {@link #setRunAsFastAsPossible(boolean)} has no effect on this animator,
+ * use a budget of 0 to run unpaced.
+ * The achieved frame rate is reported via the {@link com.jogamp.opengl.FPSCounter FPSCounter} methods as usual.
+ * </p>
+ */
+public class PacedAnimator extends Animator {
+    /** Default frame time budget of 60 fps in nanoseconds. */
+    public static final long DEFAULT_FRAME_TIME_BUDGET = 1000000000L / 60;
+    /** Default duration before the frame start, which is yielded away instead of parked, in nanoseconds. */
+    public static final long DEFAULT_SPIN_NANOS = 200000L;
+
+    private static final int EWMA_SHIFT = 3; // 1/8 weight
+
+    private volatile long budget = DEFAULT_FRAME_TIME_BUDGET;
+    private volatile long spinNanos = DEFAULT_SPIN_NANOS;
+
+    // animation thread only
+    private long nextDeadline = 0;
+    private long lastDisplayEnd = 0;
+
+    // statistics, guarded by stats
+    private final Object stats = new Object();
+    private long predicted = 0;
+    private long deviation = 0;
+    private long lastFrameNanos = 0;
+    private long frameCount = 0;
+    private long lateFrameCount = 0;
+    private long skippedFrameCount = 0;
+    private long totalParkNanos = 0;
+
+    /** Creates a new, empty PacedAnimator using the {@link #DEFAULT_FRAME_TIME_BUDGET}. */
+    public PacedAnimator() {
+        super();
+    }
+
+    /** Creates a new PacedAnimator for a particular drawable using the {@link #DEFAULT_FRAME_TIME_BUDGET}. */
+    public PacedAnimator(final GLAutoDrawable drawable) {
+        super(drawable);
+    }
+
+    /**
+     * Creates a new PacedAnimator for a particular drawable.
+     * @param drawable the drawable
+     * @param fps target frames per second, 0 to run unpaced
+     */
+    public PacedAnimator(final GLAutoDrawable drawable, final int fps) {
+        super();
+        setFPS(fps);
+        add(drawable);
+    }
+
+    /**
+     * Sets the target frame time budget, i.e. the period between two frame deadlines.
+     * May be changed while animating.
+     * @param nanos frame period in nanoseconds, 0 to run unpaced
+     * @throws IllegalArgumentException if nanos is negative
+     */
+    public final void setFrameTimeBudget(final long nanos) throws IllegalArgumentException {
+        if( 0 > nanos ) {
+            throw new IllegalArgumentException("Negative budget "+nanos);
+        }
+        budget = nanos;
+    }
+
+    /** Returns the frame time budget in nanoseconds, see {@link #setFrameTimeBudget(long)}. */
+    public final long getFrameTimeBudget() { return budget; }
+
+    /**
+     * Sets the {@link #setFrameTimeBudget(long) frame time budget} to <code>1s / fps</code>.
+     * @param fps target frames per second, 0 to run unpaced
+     * @throws IllegalArgumentException if fps is negative
+     */
+    public final void setFPS(final int fps) throws IllegalArgumentException {
+        if( 0 > fps ) {
+            throw new IllegalArgumentException("Negative fps "+fps);
+        }
+        setFrameTimeBudget( 0 < fps ? 1000000000L / fps : 0 );
+    }
+
+    /**
+     * Sets the duration before the frame start, which is yielded away instead of parked,
+     * compensating the coarse wake-up granularity of {@link LockSupport#parkNanos(long)}.
+     * @param nanos spin duration in nanoseconds, default {@link #DEFAULT_SPIN_NANOS}
+     */
+    public final void setSpinNanos(final long nanos) {
+        spinNanos = Math.max(0, nanos);
+    }
+
+    /** Returns the spin duration in nanoseconds, see {@link #setSpinNanos(long)}. */
+    public final long getSpinNanos() { return spinNanos; }
+
+    /** Returns the predicted display duration of the next frame in nanoseconds, excluding the safety margin. */
+    public final long getPredictedFrameNanos() { synchronized(stats) { return predicted; } }
+
+    /** Returns the mean deviation of the measured display duration from the prediction in nanoseconds. */
+    public final long getFrameDeviationNanos() { synchronized(stats) { return deviation; } }
+
+    /** Returns the measured display duration of the last frame in nanoseconds. */
+    public final long getLastFrameNanos() { synchronized(stats) { return lastFrameNanos; } }
+
+    /** Returns the number of paced frames since the last {@link #resetPacingStatistics()}. */
+    public final long getFrameCount() { synchronized(stats) { return frameCount; } }
+
+    /** Returns the number of frames completed after their deadline since the last {@link #resetPacingStatistics()}. */
+    public final long getLateFrameCount() { synchronized(stats) { return lateFrameCount; } }
+
+    /** Returns the number of skipped deadlines since the last {@link #resetPacingStatistics()}. */
+    public final long getSkippedFrameCount() { synchronized(stats) { return skippedFrameCount; } }
+
+    /** Returns the total duration the animation thread has been parked since the last {@link #resetPacingStatistics()}, in nanoseconds. */
+    public final long getTotalParkNanos() { synchronized(stats) { return totalParkNanos; } }
+
+    /** Resets the frame, late, skipped and park statistics, but keeps the prediction. */
+    public final void resetPacingStatistics() {
+        synchronized(stats) {
+            frameCount = 0;
+            lateFrameCount = 0;
+            skippedFrameCount = 0;
+            totalParkNanos = 0;
+        }
+    }
+
+    @Override
+    protected void frameDisplayed(final long displayStart, final long displayEnd) {
+        final long period = budget;
+        final long cost = displayEnd - displayStart;
+        final long margin;
+        final long prediction;
+        synchronized(stats) {
+            if( 0 == frameCount && 0 == predicted ) {
+                predicted = cost;
+            } else {
+                final long err = cost - predicted;
+                predicted += err >> EWMA_SHIFT;
+                deviation += ( Math.abs(err) - deviation ) >> EWMA_SHIFT;
+            }
+            lastFrameNanos = cost;
+            frameCount++;
+            prediction = predicted;
+            margin = 2 * deviation;
+        }
+        if( 0 >= period ) {
+            nextDeadline = 0;
+            lastDisplayEnd = displayEnd;
+            return;
+        }
+        long lateCount = 0, skipCount = 0;
+        if( 0 == nextDeadline || displayStart - lastDisplayEnd > 2 * period ) {
+            // first frame, resumed or budget enabled: re-synchronize
+            nextDeadline = displayEnd + period;
+        } else {
+            if( displayEnd - nextDeadline > 0 ) {
+                lateCount = 1;
+                final long missed = ( displayEnd - nextDeadline ) / period; // whole deadlines passed
+                skipCount = missed;
+                nextDeadline += ( missed + 1 ) * period;
+            } else {
+                nextDeadline += period;
+            }
+        }
+        lastDisplayEnd = displayEnd;
+
+        final long nextStart = nextDeadline - prediction - margin;
+        final long spin = spinNanos;
+        final long t0 = System.nanoTime();
+        long now = t0;
+        boolean interrupted = false;
+        while( nextStart - now > spin ) {
+            LockSupport.parkNanos(this, nextStart - now - spin);
+            now = System.nanoTime();
+            if( Thread.interrupted() ) {
+                Thread.currentThread().interrupt(); // let the main loop handle it
+                interrupted = true;
+                break;
+            }
+        }
+        final long parked = now - t0;
+        while( !interrupted && nextStart - now > 0 ) {
+            Thread.yield();
+            now = System.nanoTime();
+        }
+        synchronized(stats) {
+            lateFrameCount += lateCount;
+            skippedFrameCount += skipCount;
+            totalParkNanos += parked;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final String s = super.toString();
+        synchronized(stats) {
+            return s+"[budget "+budget/1000+" us, predicted "+predicted/1000+" us, deviation "+deviation/1000+
+                   " us, frames "+frameCount+", late "+lateFrameCount+", skipped "+skippedFrameCount+"]";
+        }
+    }
+}
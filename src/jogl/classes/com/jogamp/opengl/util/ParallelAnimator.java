@@ -0,0 +1,151 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLException;
+
+/**
+ * An {@link Animator} displaying all added {@link GLAutoDrawable}s concurrently.
+ * <p>
+ * Each drawable is displayed by its own worker thread, which by default claims
+ * the drawable's {@link GLAutoDrawable#setExclusiveContextThread(Thread) exclusive context thread},
+ * so its context stays current. Hence independent drawables, e.g. windows on different GPUs,
+ * render in parallel instead of in sequence.
+ * </p>
+ * <p>
+ * The animation thread hands each frame to all workers and waits until all are done.
+ * With the {@link #setSwapBarrier(boolean) swap barrier} enabled, the default,
+ * drawables with {@link GLAutoDrawable#getAutoSwapBufferMode() auto swap buffer mode}
+ * swap their buffers only after all drawables have been rendered, for tear-free multi-window output.
+ * </p>
+ * <p>
+ * Worker threads are stopped, releasing the exclusive context, whenever the animation is paused or stopped,
+ * which includes {@link #add(GLAutoDrawable) adding} and {@link #remove(GLAutoDrawable) removing} drawables.
+ * A new worker of the same drawable waits until its retiring predecessor has released the drawable.
+ * The animator wide {@link #setExclusiveContext(boolean) exclusive context} is not supported
+ * and throws a {@link GLException}, use {@link #setWorkerExclusiveContext(boolean)} instead.
+ * </p>
+ * <p>
+ * This animator never uses the AWT-EDT, regardless of {@link #MODE_EXPECT_AWT_RENDERING_THREAD}.
+ * </p>
+ */
+public class ParallelAnimator extends Animator {
+    private ParallelAnimatorImpl parallelImpl;
+
+    /** Creates a new, empty ParallelAnimator. */
+    public ParallelAnimator() {
+        super();
+    }
+
+    /** Creates a new ParallelAnimator w/ an associated ThreadGroup. */
+    public ParallelAnimator(final ThreadGroup tg) {
+        super(tg);
+    }
+
+    @Override
+    protected AnimatorImpl createCustomImpl() {
+        if( null == parallelImpl ) {
+            parallelImpl = new ParallelAnimatorImpl("ParallelAnimator");
+        }
+        return parallelImpl;
+    }
+
+    /**
+     * Enables or disables claiming the drawable's exclusive context thread by its worker thread, default is enabled.
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setWorkerExclusiveContext(final boolean enable) throws GLException {
+        if ( isStarted() ) {
+            throw new GLException("Animator already started.");
+        }
+        initImpl(false);
+        parallelImpl.exclusiveContext = enable;
+    }
+
+    /** Returns true if the workers claim the exclusive context thread, see {@link #setWorkerExclusiveContext(boolean)}. */
+    public final synchronized boolean isWorkerExclusiveContext() {
+        initImpl(false);
+        return parallelImpl.exclusiveContext;
+    }
+
+    /**
+     * Enables or disables the swap barrier, default is enabled.
+     * <p>
+     * If disabled, each drawable swaps right after it has been rendered.
+     * May be changed while animating and takes effect with the next frame.
+     * </p>
+     */
+    public final synchronized void setSwapBarrier(final boolean enable) {
+        initImpl(false);
+        parallelImpl.swapBarrier = enable;
+    }
+
+    /** Returns true if the swap barrier is enabled, see {@link #setSwapBarrier(boolean)}. */
+    public final synchronized boolean isSwapBarrier() {
+        initImpl(false);
+        return parallelImpl.swapBarrier;
+    }
+
+    /** Returns the current number of worker threads, i.e. the number of drawables while animating. */
+    public final int getWorkerCount() {
+        final ParallelAnimatorImpl pi;
+        synchronized(this) {
+            pi = parallelImpl;
+        }
+        return null != pi ? pi.getWorkerCount() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Always throws a {@link GLException}, since the drawables are displayed by their worker threads,
+     * use {@link #setWorkerExclusiveContext(boolean)} instead.
+     * </p>
+     */
+    @Override
+    protected void validateExclusiveContext() throws GLException {
+        throw new GLException("Animator wide exclusive context not supported by ParallelAnimator, use setWorkerExclusiveContext(boolean)");
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Stops all worker threads, joining them w/ a timeout.
+     * The timeout bounds the wait if paused, i.e. while holding this animator's lock,
+     * and a worker is blocked on the latter within its drawable's display.
+     * </p>
+     */
+    @Override
+    protected void animationSuspended(final boolean stopped) {
+        final ParallelAnimatorImpl pi = parallelImpl;
+        if( null != pi ) {
+            pi.stopWorkers();
+        }
+    }
+}
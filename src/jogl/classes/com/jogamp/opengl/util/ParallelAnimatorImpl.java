@@ -0,0 +1,289 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.common.util.SourcedInterruptedException;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLContext;
+
+import com.jogamp.opengl.util.AnimatorBase.UncaughtAnimatorException;
+
+/**
+ * {@link AnimatorBase.AnimatorImpl} of {@link ParallelAnimator},
+ * displaying each drawable on its own worker thread and swapping all buffers after a barrier.
+ */
+class ParallelAnimatorImpl implements AnimatorBase.AnimatorImpl {
+    /** One frame shared by all workers. */
+    private static class Frame {
+        final CyclicBarrier swapBarrier;
+        final CountDownLatch done;
+        Frame(final int count, final boolean swapBarrier) {
+            this.swapBarrier = swapBarrier ? new CyclicBarrier(count) : null;
+            this.done = new CountDownLatch(count);
+        }
+    }
+    private static final Frame STOP = new Frame(1, false);
+
+    /** Timeout in milliseconds joining stopped workers, which may be blocked in their drawable's display. */
+    static final long JOIN_TIMEOUT = 5000;
+
+    private class Worker implements Runnable {
+        final GLAutoDrawable drawable;
+        final LinkedBlockingQueue<Frame> frames = new LinkedBlockingQueue<Frame>();
+        final Thread thread;
+        /** Retiring worker thread of the same drawable, which must have released it before this worker claims it. */
+        final Thread predecessor;
+        volatile Throwable error;
+
+        Worker(final GLAutoDrawable drawable, final String threadName, final Thread predecessor) {
+            this.drawable = drawable;
+            this.predecessor = predecessor;
+            this.thread = new InterruptSource.Thread(null, this, threadName);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            if( null != predecessor ) {
+                try {
+                    predecessor.join();
+                } catch (final InterruptedException e) {
+                    error = SourcedInterruptedException.wrap(e);
+                }
+            }
+            final boolean autoSwap = drawable.getAutoSwapBufferMode();
+            Thread ect = null;
+            try {
+                drawable.setAutoSwapBufferMode(false);
+                if( exclusiveContext ) {
+                    drawable.setExclusiveContextThread(thread);
+                    ect = thread;
+                }
+            } catch (final Throwable t) {
+                error = t;
+            }
+            try {
+                while( true ) {
+                    final Frame frame;
+                    try {
+                        frame = frames.take();
+                    } catch (final InterruptedException e) {
+                        error = SourcedInterruptedException.wrap(e);
+                        break;
+                    }
+                    if( STOP == frame ) {
+                        break;
+                    }
+                    Throwable t = error;
+                    if( null == t ) {
+                        try {
+                            drawable.display();
+                        } catch (final Throwable t1) {
+                            t = t1;
+                        }
+                    }
+                    if( null != frame.swapBarrier ) {
+                        try {
+                            frame.swapBarrier.await(); // all drawables rendered
+                        } catch (final InterruptedException e) {
+                            if( null == t ) { t = SourcedInterruptedException.wrap(e); }
+                        } catch (final BrokenBarrierException e) {
+                            if( null == t ) { t = e; }
+                        }
+                    }
+                    if( null == t && autoSwap ) {
+                        try {
+                            drawable.swapBuffers();
+                        } catch (final Throwable t1) {
+                            t = t1;
+                        }
+                    }
+                    error = t;
+                    frame.done.countDown();
+                }
+            } finally {
+                try {
+                    if( null != ect ) {
+                        drawable.setExclusiveContextThread(null);
+                        final GLContext ctx = drawable.getContext();
+                        if( null != ctx && ctx.isCurrent() ) {
+                            ctx.release();
+                        }
+                    }
+                    drawable.setAutoSwapBufferMode(autoSwap);
+                } catch (final Throwable t) {
+                    if( AnimatorBase.DEBUG ) {
+                        t.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    private final Map<GLAutoDrawable, Worker> workers = new IdentityHashMap<GLAutoDrawable, Worker>();
+    /** Stopped but maybe not yet terminated worker threads per drawable. */
+    private final Map<GLAutoDrawable, Thread> retiring = new IdentityHashMap<GLAutoDrawable, Thread>();
+    private final String threadNamePrefix;
+    volatile boolean exclusiveContext = true;
+    volatile boolean swapBarrier = true;
+    private int threadNumber = 0;
+
+    ParallelAnimatorImpl(final String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    /** Returns the current number of worker threads. */
+    final synchronized int getWorkerCount() { return workers.size(); }
+
+    @Override
+    public void display(final ArrayList<GLAutoDrawable> drawables,
+                        final boolean ignoreExceptions,
+                        final boolean printExceptions) throws UncaughtAnimatorException {
+        final ArrayList<Worker> frameWorkers;
+        final ArrayList<Worker> stoppedWorkers = new ArrayList<Worker>();
+        synchronized( this ) {
+            // retire workers of removed drawables
+            for(final Iterator<Map.Entry<GLAutoDrawable, Worker>> iter = workers.entrySet().iterator(); iter.hasNext(); ) {
+                final Map.Entry<GLAutoDrawable, Worker> e = iter.next();
+                if( !drawables.contains(e.getKey()) ) {
+                    signalStop(e.getValue());
+                    stoppedWorkers.add(e.getValue());
+                    iter.remove();
+                }
+            }
+            frameWorkers = new ArrayList<Worker>(drawables.size());
+            for(int i=0; i<drawables.size(); i++) {
+                final GLAutoDrawable drawable = drawables.get(i);
+                Worker w = workers.get(drawable);
+                if( null == w ) {
+                    final Thread predecessor = retiring.remove(drawable);
+                    w = new Worker(drawable, threadNamePrefix+"-Worker-"+(threadNumber++),
+                                   null != predecessor && predecessor.isAlive() ? predecessor : null);
+                    workers.put(drawable, w);
+                    w.thread.start();
+                }
+                frameWorkers.add(w);
+            }
+        }
+        joinWorkers(stoppedWorkers); // w/o holding the lock
+        if( 0 == frameWorkers.size() ) {
+            return;
+        }
+        final Frame frame = new Frame(frameWorkers.size(), swapBarrier);
+        for(int i=0; i<frameWorkers.size(); i++) {
+            frameWorkers.get(i).frames.add(frame);
+        }
+        try {
+            frame.done.await();
+        } catch (final InterruptedException e) {
+            throw new UncaughtAnimatorException(null, SourcedInterruptedException.wrap(e));
+        }
+        for(int i=0; i<frameWorkers.size(); i++) {
+            final Worker w = frameWorkers.get(i);
+            final Throwable t = w.error;
+            if( null != t ) {
+                w.error = null;
+                if (ignoreExceptions) {
+                    if (printExceptions) {
+                        t.printStackTrace();
+                    }
+                } else {
+                    throw new UncaughtAnimatorException(w.drawable, t);
+                }
+            }
+        }
+    }
+
+    /** Signals the worker to stop and registers it as retiring, while holding the lock. */
+    private void signalStop(final Worker w) {
+        w.frames.add(STOP);
+        retiring.put(w.drawable, w.thread);
+    }
+
+    /** Joins the given stopped workers w/ {@link #JOIN_TIMEOUT}, must not hold the lock. */
+    private static void joinWorkers(final ArrayList<Worker> stopped) {
+        final long deadline = System.currentTimeMillis() + JOIN_TIMEOUT;
+        for(int i=0; i<stopped.size(); i++) {
+            final Worker w = stopped.get(i);
+            if( Thread.currentThread() == w.thread ) {
+                continue;
+            }
+            final long timeout = deadline - System.currentTimeMillis();
+            try {
+                if( 0 < timeout ) {
+                    w.thread.join(timeout);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if( AnimatorBase.DEBUG && w.thread.isAlive() ) {
+                System.err.println("ParallelAnimator: worker "+w.thread.getName()+" not yet terminated after "+JOIN_TIMEOUT+" ms");
+            }
+        }
+    }
+
+    /**
+     * Stops all worker threads, which release their drawable's exclusive context.
+     * <p>
+     * The workers are signaled while holding this instance's lock and joined w/o it, using {@link #JOIN_TIMEOUT}.
+     * A worker not terminated in time is joined by its successor before claiming the drawable.
+     * </p>
+     */
+    final void stopWorkers() {
+        final ArrayList<Worker> stopped;
+        synchronized( this ) {
+            for(final Iterator<Thread> iter = retiring.values().iterator(); iter.hasNext(); ) {
+                if( !iter.next().isAlive() ) {
+                    iter.remove();
+                }
+            }
+            stopped = new ArrayList<Worker>(workers.values());
+            for(int i=0; i<stopped.size(); i++) {
+                signalStop(stopped.get(i));
+            }
+            workers.clear();
+        }
+        joinWorkers(stopped);
+    }
+
+    @Override
+    public boolean blockUntilDone(final Thread thread) {
+        return Thread.currentThread() != thread;
+    }
+}
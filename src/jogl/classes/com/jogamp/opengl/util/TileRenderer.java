@@ -36,6 +36,16 @@
  */
 package com.jogamp.opengl.util;
 
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import com.jogamp.common.nio.Buffers;
+
+import jogamp.opengl.util.TileImageSinkWriter;
+import jogamp.opengl.util.TileReadbackPipeline;
+
 import com.jogamp.nativewindow.util.Dimension;
 import com.jogamp.nativewindow.util.DimensionImmutable;
 import com.jogamp.opengl.GL;
@@ -60,6 +70,30 @@ import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
  * <p>
  * See {@link TileRendererBase} for details.
  * </p>
+ * <a name="pipelined"><h5>Pipelined Mode</h5></a>
+ * <p>
+ * By default each tile is read back into the {@link #setImageBuffer(GLPixelBuffer) image buffer}
+ * synchronously within {@link #endTile(GL)}, stalling the GL pipeline.
+ * </p>
+ * <p>
+ * If enabled via {@link #setPipelined(int, int)}, each tile is read into one of <i>N</i>
+ * pixel pack buffer objects (PBO) guarded by a fence sync object, while the next tile renders.
+ * Completed tiles are copied into the image buffer by worker threads.
+ * The final {@link #endTile(GL)}, i.e. reaching {@link #eot()}, waits for all tiles,
+ * hence the image buffer is complete afterwards as usual.
+ * A {@link #setTileBuffer(GLPixelBuffer) tile buffer} is still read synchronously.
+ * If PBOs and fences are not supported by the {@link GL} instance, the synchronous mode is used.
+ * </p>
+ * <a name="imagesink"><h5>Image Sink</h5></a>
+ * <p>
+ * Instead of an {@link #setImageBuffer(GLPixelBuffer) image buffer} holding the whole image,
+ * an {@link ImageSink} may be set via {@link #setImageSink(ImageSink, GLPixelAttributes)}.
+ * The tiles of each tile row are assembled into one strip of <code>image-width x tile-height</code> pixels,
+ * which is passed to the sink as soon as the tile row is complete.
+ * Hence the image size is bounded by the sink's storage instead of memory,
+ * e.g. using {@link PNGImageSink} or {@link NetPbmImageSink}.
+ * The image sink is compatible with the <a href="#pipelined">pipelined mode</a>.
+ * </p>
  *
  * @author ryanm, sgothel
  */
@@ -143,6 +177,43 @@ public class TileRenderer extends TileRendererBase {
     private int currentColumn;
     private int offsetX;
     private int offsetY;
+    private int pipelineSlotCount = 0;
+    private int pipelineThreadCount = 0;
+    private TileReadbackPipeline pipeline = null;
+    private ImageSink imageSink = null;
+    private GLPixelAttributes imageSinkAttribs = null;
+    private TileImageSinkWriter imageSinkWriter = null;
+    private ByteBuffer imageSinkTile = null;
+
+    /**
+     * Receives the rendered image strip by strip, see <a href="#imagesink">Image Sink</a>.
+     * <p>
+     * Methods are called on the GL thread or on a worker thread in <a href="#pipelined">pipelined mode</a>,
+     * but never concurrently.
+     * </p>
+     */
+    public static interface ImageSink {
+        /**
+         * Called before the first strip is written.
+         * @param width the {@link TileRenderer#getClippedImageSize() clipped image} width
+         * @param height the {@link TileRenderer#getClippedImageSize() clipped image} height
+         * @param pixelAttribs the pixel attributes of all strips
+         */
+        void begin(int width, int height, GLPixelAttributes pixelAttribs) throws IOException;
+
+        /**
+         * Writes one complete strip of rows in the order the tile rows are rendered,
+         * see {@link TileRenderer#setRowOrder(int)}.
+         * @param rows tightly packed pixels of <code>rowCount</code> full width rows, bottom row first, from position to limit.
+         *             The buffer is reused after this method returns.
+         * @param y the image row of the bottom most row in OpenGL orientation, i.e. 0 is the bottom row of the image
+         * @param rowCount number of rows
+         */
+        void writeRows(ByteBuffer rows, int y, int rowCount) throws IOException;
+
+        /** Called after the last strip has been written. */
+        void end() throws IOException;
+    }
 
     @Override
     protected StringBuilder tileDetails(final StringBuilder sb) {
@@ -249,6 +320,67 @@ public class TileRenderer extends TileRendererBase {
         reset();
     }
 
+    /**
+     * Enables or disables the <a href="#pipelined">pipelined mode</a>.
+     * <p>
+     * Must not be called while tiles are being rendered, i.e. between the first
+     * {@link #beginTile(GL)} and reaching {@link #eot()}.
+     * </p>
+     *
+     * @param pboCount number of pixel pack buffers used for tile readback, 0 disables the pipelined mode.
+     *                 2 or 3 usually suffice to hide the readback latency.
+     * @param threadCount number of worker threads assembling the tiles into the image buffer,
+     *                    0 to assemble on the GL thread after readback.
+     * @throws IllegalArgumentException if a negative value is given
+     * @throws IllegalStateException if tiles are being rendered in pipelined mode
+     */
+    public final void setPipelined(final int pboCount, final int threadCount) throws IllegalArgumentException, IllegalStateException {
+        if( 0 > pboCount || 0 > threadCount ) {
+            throw new IllegalArgumentException("Invalid pboCount "+pboCount+" or threadCount "+threadCount);
+        }
+        if( null != pipeline ) {
+            throw new IllegalStateException("Pipelined tile rendering in progress: "+this);
+        }
+        pipelineSlotCount = pboCount;
+        pipelineThreadCount = threadCount;
+    }
+
+    /** Returns true if the <a href="#pipelined">pipelined mode</a> is enabled, see {@link #setPipelined(int, int)}. */
+    public final boolean isPipelined() { return 0 < pipelineSlotCount; }
+
+    /**
+     * Sets the {@link ImageSink} receiving the rendered image, see <a href="#imagesink">Image Sink</a>.
+     * <p>
+     * If set, the sink is used instead of the {@link #setImageBuffer(GLPixelBuffer) image buffer}.
+     * {@link ImageSink#begin(int, int, GLPixelAttributes)} is called by the first {@link #endTile(GL)}
+     * and {@link ImageSink#end()} by the last {@link #endTile(GL)}, i.e. reaching {@link #eot()}.
+     * </p>
+     * <p>
+     * Must not be called while tiles are being rendered, i.e. between the first
+     * {@link #beginTile(GL)} and reaching {@link #eot()}.
+     * </p>
+     *
+     * @param sink the image sink, or null to remove the sink
+     * @param pixelAttribs the pixel attributes used to read the tiles
+     * @throws IllegalArgumentException if sink is not null but pixelAttribs is null
+     * @throws IllegalStateException if tiles are being written to the current sink
+     */
+    public final void setImageSink(final ImageSink sink, final GLPixelAttributes pixelAttribs) throws IllegalArgumentException, IllegalStateException {
+        if( null != sink && null == pixelAttribs ) {
+            throw new IllegalArgumentException("Null pixelAttribs for sink "+sink);
+        }
+        if( null != imageSinkWriter && 0 < currentTile ) {
+            throw new IllegalStateException("Tiles are being written to image sink: "+this);
+        }
+        imageSink = sink;
+        imageSinkAttribs = null != sink ? pixelAttribs : null;
+        imageSinkWriter = null;
+        imageSinkTile = null;
+    }
+
+    /** @see #setImageSink(ImageSink, GLPixelAttributes) */
+    public final ImageSink getImageSink() { return imageSink; }
+
     /**
      * Sets an xy offset for the resulting tiles
      * {@link TileRendererBase#TR_CURRENT_TILE_X_POS x-pos} and {@link TileRendererBase#TR_CURRENT_TILE_Y_POS y-pos}.
@@ -491,7 +623,50 @@ public class TileRenderer extends TileRendererBase {
             tileBuffer.flip();
         }
 
-        if( imageBuffer != null ) {
+        if( 0 == currentTile ) {
+            if( null != pipeline ) {
+                // previous tiling has been aborted via reset()
+                pipeline.destroy(gl);
+                pipeline = null;
+            }
+            imageSinkWriter = null;
+        }
+        if( null != imageSink ) {
+            if( null == imageSinkWriter ) {
+                final DimensionImmutable clippedImageSize = getClippedImageSize();
+                imageSinkWriter = new TileImageSinkWriter(imageSink, imageSinkAttribs,
+                                                          clippedImageSize.getWidth(), clippedImageSize.getHeight(),
+                                                          tileSizeNB.getWidth(), tileSizeNB.getHeight(),
+                                                          TR_TOP_TO_BOTTOM == rowOrder);
+            }
+            final int srcWidth = currentTileWidth - 2 * tileBorder;
+            final int srcHeight = currentTileHeight - 2 * tileBorder;
+            if( isPipelined() && TileReadbackPipeline.isSupported(gl) ) {
+                if( null == pipeline ) {
+                    pipeline = new TileReadbackPipeline(gl, pipelineSlotCount, pipelineThreadCount, "TileRenderer-Worker");
+                }
+                pipeline.readTile(gl, tileBorder, tileBorder, srcWidth, srcHeight,
+                                  imageSinkAttribs, currentColumn, currentRow, imageSinkWriter);
+            } else {
+                final int tileBytes = tileSizeNB.getWidth() * tileSizeNB.getHeight() * imageSinkAttribs.pfmt.comp.bytesPerPixel();
+                if( null == imageSinkTile || imageSinkTile.capacity() < tileBytes ) {
+                    imageSinkTile = Buffers.newDirectByteBuffer(tileBytes);
+                }
+                if( null != gl2es3 ) {
+                    psm.setPackRowLength(gl2es3, 0);
+                }
+                imageSinkTile.clear();
+                gl.glReadPixels( tileBorder, tileBorder, srcWidth, srcHeight, imageSinkAttribs.format, imageSinkAttribs.type, imageSinkTile);
+                imageSinkTile.limit( srcWidth * srcHeight * imageSinkAttribs.pfmt.comp.bytesPerPixel() );
+                imageSinkWriter.consume(imageSinkTile, currentColumn, currentRow, srcWidth, srcHeight);
+            }
+        } else if( imageBuffer != null && isPipelined() && TileReadbackPipeline.isSupported(gl) ) {
+            if( null == pipeline ) {
+                pipeline = new TileReadbackPipeline(gl, pipelineSlotCount, pipelineThreadCount, "TileRenderer-Worker");
+            }
+            pipeline.readTile(gl, tileBorder, tileBorder, currentTileWidth - 2 * tileBorder, currentTileHeight - 2 * tileBorder,
+                              imageBuffer.pixelAttributes, currentColumn, currentRow, imageBufferConsumer);
+        } else if( imageBuffer != null ) {
             final GLPixelAttributes pixelAttribs = imageBuffer.pixelAttributes;
             final int srcX = tileBorder;
             final int srcY = tileBorder;
@@ -531,6 +706,61 @@ public class TileRenderer extends TileRendererBase {
         currentTile++;
         if( currentTile >= rows * columns ) {
             currentTile = -1; /* all done */
+            if( null != pipeline ) {
+                final TileReadbackPipeline _pipeline = pipeline;
+                pipeline = null;
+                try {
+                    _pipeline.finish(gl);
+                } finally {
+                    _pipeline.destroy(gl);
+                }
+                if( DEBUG ) {
+                    System.err.println("TileRenderer.end.X: pipelined "+_pipeline.getTileCount()+" tiles, "+_pipeline.getStallCount()+" stalls");
+                }
+                if( null == imageSinkWriter ) {
+                    imageBuffer.rewind();
+                }
+            }
+            if( null != imageSinkWriter ) {
+                final TileImageSinkWriter _imageSinkWriter = imageSinkWriter;
+                imageSinkWriter = null;
+                _imageSinkWriter.finish();
+                if( DEBUG ) {
+                    System.err.println("TileRenderer.end.X: wrote "+_imageSinkWriter.getStripCount()+" strips to "+imageSink);
+                }
+            }
         }
     }
+
+    /** Copies a tile into the {@link #imageBuffer}, called by the {@link #pipeline}. */
+    private final TileReadbackPipeline.TileConsumer imageBufferConsumer = new TileReadbackPipeline.TileConsumer() {
+        @Override
+        public void consume(final ByteBuffer pixels, final int column, final int row, final int width, final int height) {
+            final int bpp = imageBuffer.pixelAttributes.pfmt.comp.bytesPerPixel();
+            final int rowLength = imageSize.getWidth();
+            final int skipPixels = column * tileSizeNB.getWidth();
+            final int skipRows = row * tileSizeNB.getHeight();
+            final Buffer dst = imageBuffer.buffer;
+            if( dst instanceof ByteBuffer ) {
+                final ByteBuffer src = pixels.duplicate();
+                final ByteBuffer dst_ = ((ByteBuffer)dst).duplicate();
+                final int rowBytes = width * bpp;
+                for(int y=0; y<height; y++) {
+                    src.limit( ( y + 1 ) * rowBytes ).position( y * rowBytes );
+                    dst_.limit( dst_.capacity() ).position( ( ( skipRows + y ) * rowLength + skipPixels ) * bpp );
+                    dst_.put(src);
+                }
+            } else if( dst instanceof IntBuffer && 4 == bpp ) {
+                final IntBuffer src = pixels.asIntBuffer();
+                final IntBuffer dst_ = ((IntBuffer)dst).duplicate();
+                for(int y=0; y<height; y++) {
+                    src.limit( ( y + 1 ) * width ).position( y * width );
+                    dst_.limit( dst_.capacity() ).position( ( skipRows + y ) * rowLength + skipPixels );
+                    dst_.put(src);
+                }
+            } else {
+                throw new GLException("Unsupported image buffer "+imageBuffer);
+            }
+        }
+    };
 }
\ No newline at end of file
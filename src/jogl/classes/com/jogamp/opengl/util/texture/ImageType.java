@@ -219,6 +219,17 @@ public class ImageType {
      */
     public static final String T_DDS     = "dds";
 
+    /**
+     * Constant which can be used as a file suffix to indicate a Khronos KTX 1.1 texture stream, value {@value}.
+     * <p>
+     * {@code 0xAB 'K' 'T' 'X' ' ' '1' '1' 0xBB '\r' '\n' 0x1A '\n'}
+     * </p>
+     * <ul>
+     * <li>{@code https://www.khronos.org/opengles/sdk/tools/KTX/file_format_spec/}</li>
+     * </ul>
+     */
+    public static final String T_KTX     = "ktx";
+
     /**
      * Constant which can be used as a file suffix to indicate a Portable Arbitrary Map stream, NetPbm magic 7 - binary RGB and RGBA.
      * <ul>
@@ -1038,7 +1049,7 @@ public class ImageType {
 
     /**
      * Creates instance based on given stream.
-     * @param stream stream to parse, {@link InputStream#available()} must be &ge; {@link #MAGIC_MAX_SIZE}
+     * @param stream stream to parse, must provide &ge; {@link #MAGIC_MAX_SIZE} bytes
      * @throws java.io.IOException if an I/O exception occurred
      */
     public ImageType(final InputStream stream) throws IOException {
@@ -1088,7 +1099,7 @@ public class ImageType {
     	 * InputStream must return true from markSupported() and support a minimum of {@link #MAGIC_MAX_SIZE} bytes
     	 * of read-ahead.
     	 *
-    	 * @param stream stream to parse, {@link InputStream#available()} must be &ge; {@link #MAGIC_MAX_SIZE}
+    	 * @param stream stream to parse, must provide &ge; {@link #MAGIC_MAX_SIZE} bytes
     	 * @return the file suffix if any, otherwise <code>null</code>
     	 * @throws java.io.IOException if an I/O exception occurred
     	 */
@@ -1100,7 +1111,12 @@ public class ImageType {
          * InputStream must return true from markSupported() and support a minimum of {@link #MAGIC_MAX_SIZE} bytes
          * of read-ahead.
          *
-         * @param stream stream to parse, {@link InputStream#available()} must be &ge; {@link #MAGIC_MAX_SIZE}
+         * <p>
+         * If the stream is a {@link HeaderCachingInputStream} positioned at its start,
+         * the header is read only once and the cached result is returned for subsequent calls.
+         * </p>
+         *
+         * @param stream stream to parse, must provide &ge; {@link #MAGIC_MAX_SIZE} bytes
          * @param b byte array sink, size must be &ge; {@link #MAGIC_MAX_SIZE}
          * @return the file suffix if any, otherwise <code>null</code>
          * @throws java.io.IOException if an I/O exception occurred
@@ -1109,18 +1125,37 @@ public class ImageType {
     		if (stream == null) {
                 throw new IOException("Stream was null");
             }
+    		if( stream instanceof HeaderCachingInputStream ) {
+    		    final HeaderCachingInputStream hcis = (HeaderCachingInputStream)stream;
+    		    synchronized( hcis ) {
+    		        if( 0 == hcis.position ) {
+    		            if( null == hcis.header ) {
+    		                final byte[] header = new byte[MAGIC_MAX_SIZE];
+    		                hcis.type = getFileSuffixImpl(hcis, header);
+    		                hcis.header = header;
+    		            }
+    		            System.arraycopy(hcis.header, 0, b, 0, MAGIC_MAX_SIZE);
+    		            return hcis.type;
+    		        }
+    		    }
+    		}
     		if (!(stream instanceof BufferedInputStream)) {
     			stream = new BufferedInputStream(stream);
             }
+    		return getFileSuffixImpl(stream, b);
+    	}
+    	private static String getFileSuffixImpl(final InputStream stream, final byte[] b) throws IOException {
     		if (!stream.markSupported()) {
                 throw new IOException("Mark not supported");
-            }
-    		if (stream.available() < MAGIC_MAX_SIZE) {
-                throw new IOException("Requires "+MAGIC_MAX_SIZE+" bytes, has "+stream.available()+" bytes");
             }
     		try {
     			stream.mark(MAGIC_MAX_SIZE);
-    			final int bytesRead = stream.read(b);
+    			// A network backed stream may deliver the header in pieces
+    			int bytesRead = 0;
+    			int n;
+    			while( MAGIC_MAX_SIZE > bytesRead && 0 <= ( n = stream.read(b, bytesRead, MAGIC_MAX_SIZE - bytesRead) ) ) {
+    			    bytesRead += n;
+    			}
     			if( MAGIC_MAX_SIZE > bytesRead ) {
     			    throw new IOException("Could not read "+MAGIC_MAX_SIZE+" bytes, read "+bytesRead+" bytes");
     			}
@@ -1128,7 +1163,6 @@ public class ImageType {
     		} finally {
     			stream.reset();
     		}
-
     	}
 
     	/**
@@ -1540,6 +1574,11 @@ public class ImageType {
                      b[6] == (byte)0x1A && b[7] == (byte)0x0A) {
                 return T_MNG;
             }
+            else if (b0 == (byte)0xAB && b1 == (byte)0x4B && b2 == (byte)0x54 && b3 == (byte)0x58 && /* 'K' 'T' 'X' ' ' '1' '1', ascii code */
+                     b4 == (byte)0x20 && b5 == (byte)0x31 && b[6] == (byte)0x31 && b[7] == (byte)0xBB &&
+                     b[8] == (byte)0x0D && b[9] == (byte)0x0A && b[10] == (byte)0x1A && b[11] == (byte)0x0A) {
+                return T_KTX;
+            }
             else if (b0 == (byte)0xD0 && b1 == (byte)0xCF && b2 == (byte)0x11 && b3 == (byte)0xE0 &&
                      b4 == (byte)0xA1 && b5 == (byte)0xB1 &&
                      b[6] == (byte)0x1A && b[7] == (byte)0xE1 && b[8] == (byte)0x00) {
@@ -1576,4 +1615,64 @@ public class ImageType {
             return null;
     	}
     }
+
+    /**
+     * {@link BufferedInputStream} caching the {@link ImageType} header read at its start,
+     * see {@link Util#getFileSuffix(InputStream, byte[])}.
+     * <p>
+     * Allows multiple consumers, e.g. a chain of {@link com.jogamp.opengl.util.texture.spi.TextureProvider}s,
+     * to sniff the header without reading it over and over again.
+     * </p>
+     * @since 2.3.2
+     */
+    public static class HeaderCachingInputStream extends BufferedInputStream {
+        /** Number of bytes consumed, relative to the start */
+        private long position = 0;
+        private long markPosition = 0;
+        private byte[] header = null;
+        private String type = null;
+
+        public HeaderCachingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            final int c = super.read();
+            if( 0 <= c ) {
+                position++;
+            }
+            return c;
+        }
+
+        @Override
+        public synchronized int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if( 0 < n ) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public synchronized long skip(final long n) throws IOException {
+            final long s = super.skip(n);
+            if( 0 < s ) {
+                position += s;
+            }
+            return s;
+        }
+
+        @Override
+        public synchronized void mark(final int readlimit) {
+            super.mark(readlimit);
+            markPosition = position;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            super.reset();
+            position = markPosition;
+        }
+    }
 }
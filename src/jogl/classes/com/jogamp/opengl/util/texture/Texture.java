@@ -202,6 +202,9 @@ public class Texture {
     /** An estimate of the amount of texture memory this texture consumes. */
     private int estimatedMemorySize;
 
+    /** The {@link TextureManager} bookkeeping of this texture, if managed. */
+    volatile TextureManager.Entry managerEntry;
+
     private static final boolean DEBUG = Debug.debug("Texture");
     private static final boolean VERBOSE = Debug.verbose();
 
@@ -330,22 +333,40 @@ public class Texture {
      *
      * See the <a href="#perftips">performance tips</a> above for hints
      * on how to maximize performance when using many Texture objects.
+     * <p>
+     * If this texture is managed by a {@link TextureManager},
+     * it is marked as most recently used and reloaded if it has been evicted.
+     * </p>
      *
      * @param gl the current GL context
      * @throws GLException if no OpenGL context was current or if any
      * OpenGL-related errors occurred
      */
     public void bind(final GL gl) throws GLException {
+        final TextureManager.Entry me = managerEntry;
+        if( null != me ) {
+            me.manager.touch(gl, this);
+        }
         validateTexID(gl, true);
         gl.glBindTexture(target, texID);
     }
 
     /**
-     * Destroys the native resources used by this texture object.
+     * Destroys the native resources used by this texture object
+     * and removes it from its {@link TextureManager}, if any.
      *
      * @throws GLException if any OpenGL-related errors occurred
      */
     public void destroy(final GL gl) throws GLException {
+        final TextureManager.Entry me = managerEntry;
+        if( null != me ) {
+            me.manager.remove(this);
+        }
+        destroyImpl(gl);
+    }
+
+    /** Deletes the GL texture object only, used by {@link TextureManager} for eviction. */
+    final void destroyImpl(final GL gl) throws GLException {
         if(0!=texID) {
             gl.glDeleteTextures(1, new int[] {texID}, 0);
             texID = 0;
@@ -921,11 +942,19 @@ public class Texture {
      * Most applications will not need to access this, since it is
      * handled automatically by the bind(GL) and destroy(GL) APIs.
      * </p>
-     * @param gl required to be valid and current in case the texture object has not been generated yet,
-     *           otherwise it may be <code>null</code>.
+     * <p>
+     * If this texture is managed by a {@link TextureManager},
+     * it is marked as most recently used and reloaded if it has been evicted.
+     * </p>
+     * @param gl required to be valid and current in case the texture object has not been generated yet
+     *           or this texture is managed, otherwise it may be <code>null</code>.
      * @see #getTextureObject()
      */
     public int getTextureObject(final GL gl) {
+        final TextureManager.Entry me = managerEntry;
+        if( null != me && null != gl ) {
+            me.manager.touch(gl, this);
+        }
         validateTexID(gl, false);
         return texID;
     }
@@ -937,6 +966,10 @@ public class Texture {
      * Most applications will not need to access this, since it is
      * handled automatically by the bind(GL) and destroy(GL) APIs.
      * </p>
+     * <p>
+     * Returns <code>0</code> while this texture is evicted by its {@link TextureManager},
+     * use {@link #getTextureObject(GL)} to reload it.
+     * </p>
      * @see #getTextureObject(GL)
      */
     public int getTextureObject() {
@@ -40,7 +40,6 @@
 
 package com.jogamp.opengl.util.texture;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -62,6 +61,7 @@ import com.jogamp.nativewindow.util.DimensionImmutable;
 import com.jogamp.nativewindow.util.PixelFormat;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GL2ES2;
 import com.jogamp.opengl.GL2ES3;
 import com.jogamp.opengl.GL2GL3;
 import com.jogamp.opengl.GLContext;
@@ -71,12 +71,14 @@ import com.jogamp.opengl.GLProfile;
 import jogamp.opengl.Debug;
 
 import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.util.GLBuffers;
 import com.jogamp.opengl.util.GLPixelStorageModes;
 import com.jogamp.opengl.util.PNGPixelRect;
 import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
 import com.jogamp.opengl.util.texture.ImageType;
 import com.jogamp.opengl.util.texture.spi.DDSImage;
 import com.jogamp.opengl.util.texture.spi.JPEGImage;
+import com.jogamp.opengl.util.texture.spi.KTXImage;
 import com.jogamp.opengl.util.texture.spi.NetPbmTextureWriter;
 import com.jogamp.opengl.util.texture.spi.SGIImage;
 import com.jogamp.opengl.util.texture.spi.TGAImage;
@@ -142,6 +144,12 @@ public class TextureIO {
      */
     public static final String DDS     = ImageType.T_DDS;
 
+    /** Constant which can be used as a file suffix to indicate a
+        Khronos KTX 1.1 texture file, value {@value}.
+        <p>Alias for {@link ImageType#T_KTX}.</p>
+    */
+    public static final String KTX     = ImageType.T_KTX;
+
     /**
      * Constant which can be used as a file suffix to indicate an SGI RGB file, value {@value}.
      * <p>
@@ -200,6 +208,12 @@ public class TextureIO {
     // observation)
     private static boolean texRectEnabled = true;
 
+    // Number of top-most mipmap levels to skip when reading files containing a mipmap chain
+    private static volatile int skipMipmapLevels = 0;
+
+    // TextureManager tracking all textures created via newTexture(..), if set
+    private static volatile TextureManager textureManager = null;
+
     //----------------------------------------------------------------------
     // methods that *do not* require a current context
     // These methods assume RGB or RGBA textures.
@@ -470,10 +484,7 @@ public class TextureIO {
      * @throws IllegalArgumentException if the passed TextureData was null
      */
     public static Texture newTexture(final GL gl, final TextureData data) throws GLException, IllegalArgumentException {
-        if (data == null) {
-            throw new IllegalArgumentException("Null TextureData");
-        }
-        return new Texture(gl, data);
+        return newTextureImpl(gl, data, null);
     }
 
     /**
@@ -494,8 +505,14 @@ public class TextureIO {
     public static Texture newTexture(final File file, final boolean mipmap) throws IOException, GLException {
         final GL gl = GLContext.getCurrentGL();
         final GLProfile glp = gl.getGLProfile();
-        final TextureData data = newTextureData(glp, file, mipmap, IOUtil.getFileSuffix(file));
-        final Texture texture = newTexture(gl, data);
+        final String fileSuffix = IOUtil.getFileSuffix(file);
+        final TextureData data = newTextureData(glp, file, mipmap, fileSuffix);
+        final Texture texture = newTextureImpl(gl, data, new TextureManager.Source() {
+            @Override
+            public TextureData newTextureData(final GLProfile glp) throws IOException {
+                return TextureIO.newTextureData(glp, file, mipmap, fileSuffix);
+            }
+        });
         data.flush();
         return texture;
     }
@@ -555,8 +572,14 @@ public class TextureIO {
         }
         final GL gl = GLContext.getCurrentGL();
         final GLProfile glp = gl.getGLProfile();
+        final String _fileSuffix = fileSuffix;
         final TextureData data = newTextureData(glp, url, mipmap, fileSuffix);
-        final Texture texture = newTexture(gl, data);
+        final Texture texture = newTextureImpl(gl, data, new TextureManager.Source() {
+            @Override
+            public TextureData newTextureData(final GLProfile glp) throws IOException {
+                return TextureIO.newTextureData(glp, url, mipmap, _fileSuffix);
+            }
+        });
         data.flush();
         return texture;
     }
@@ -603,8 +626,25 @@ public class TextureIO {
      *   suitable writer was found
      * @throws GLException if no OpenGL context was current or an
      *   OpenGL-related error occurred
+     * @see #write(Texture, File, PNGPixelRect.CompressionPreset)
      */
     public static void write(final Texture texture, final File file) throws IOException, GLException {
+        write(texture, file, PNGPixelRect.CompressionPreset.DEFAULT);
+    }
+
+    /**
+     * Writes the given texture to a file, see {@link #write(Texture, File)}.
+     * <p>
+     * If the file is written as {@link #PNG}, the given {@link PNGPixelRect.CompressionPreset}
+     * is being used to trade encoding speed against file size.
+     * </p>
+     *
+     * @throws IOException if an error occurred during writing or no
+     *   suitable writer was found
+     * @throws GLException if no OpenGL context was current or an
+     *   OpenGL-related error occurred
+     */
+    public static void write(final Texture texture, final File file, final PNGPixelRect.CompressionPreset pngPreset) throws IOException, GLException {
         if (texture.getTarget() != GL.GL_TEXTURE_2D) {
             throw new GLException("Only GL_TEXTURE_2D textures are supported");
         }
@@ -677,13 +717,33 @@ public class TextureIO {
             }
         }
 
-        write(data, file);
+        write(data, file, pngPreset);
     }
 
     public static void write(final TextureData data, final File file) throws IOException, GLException {
+        write(data, file, PNGPixelRect.CompressionPreset.DEFAULT);
+    }
+
+    /**
+     * Writes the given {@link TextureData} to a file, the type of the file is inferred from its suffix.
+     * <p>
+     * If the file is written as {@link #PNG}, the given {@link PNGPixelRect.CompressionPreset}
+     * is being used to trade encoding speed against file size.
+     * </p>
+     *
+     * @throws IOException if an error occurred during writing or no
+     *   suitable writer was found
+     */
+    public static void write(final TextureData data, final File file, final PNGPixelRect.CompressionPreset pngPreset) throws IOException, GLException {
         for (final Iterator<TextureWriter> iter = textureWriters.iterator(); iter.hasNext(); ) {
             final TextureWriter writer = iter.next();
-            if (writer.write(file, data)) {
+            final boolean done;
+            if( writer instanceof PNGTextureWriter ) {
+                done = ((PNGTextureWriter)writer).write(file, data, pngPreset);
+            } else {
+                done = writer.write(file, data);
+            }
+            if (done) {
                 return;
             }
         }
@@ -761,10 +821,80 @@ public class TextureIO {
         return texRectEnabled;
     }
 
+    //---------------------------------------------------------------------------
+    // Global mipmap level reduction for files containing a mipmap chain
+    //
+
+    /**
+     * Sets the number of top-most mipmap levels to be skipped when reading
+     * texture files containing a mipmap chain, i.e. {@link #DDS} and {@link #KTX}.
+     * <p>
+     * The resulting {@link TextureData} starts with mipmap level <code>count</code>,
+     * hence has a quarter of the size per skipped level. The last level of a file is never skipped.
+     * Since these files are memory mapped when read from a {@link File},
+     * the skipped levels are never read, reducing load I/O and memory on constrained machines.
+     * </p>
+     * <p>
+     * The default is zero, i.e. no level is skipped.
+     * </p>
+     * @param count number of levels to skip, &ge; 0
+     */
+    public static void setSkipMipmapLevels(final int count) {
+        if( 0 > count ) {
+            throw new IllegalArgumentException("Negative count "+count);
+        }
+        skipMipmapLevels = count;
+    }
+
+    /** Returns the number of top-most mipmap levels to be skipped, see {@link #setSkipMipmapLevels(int)}. */
+    public static int getSkipMipmapLevels() {
+        return skipMipmapLevels;
+    }
+
+    /**
+     * Sets the {@link TextureManager} tracking all {@link Texture}s
+     * subsequently created by this class' <code>newTexture(..)</code> methods.
+     * <p>
+     * Textures created from a {@link File} or {@link URL} are reloadable
+     * and hence may be evicted by the manager. Textures created from a stream
+     * or {@link TextureData} are accounted for only,
+     * unless re-added with a {@link TextureManager.Source}.
+     * </p>
+     * <p>
+     * The default is <code>null</code>, i.e. no texture is tracked.
+     * </p>
+     * @param manager the texture manager or <code>null</code>
+     */
+    public static void setTextureManager(final TextureManager manager) {
+        textureManager = manager;
+    }
+
+    /** Returns the {@link TextureManager} set via {@link #setTextureManager(TextureManager)}, may be <code>null</code>. */
+    public static TextureManager getTextureManager() {
+        return textureManager;
+    }
+
+    /** Returns the first mipmap level to be used of a file containing <code>numLevels</code> levels. */
+    private static int getFirstMipmapLevel(final int numLevels) {
+        return Math.max(0, Math.min(skipMipmapLevels, numLevels - 1));
+    }
+
     //----------------------------------------------------------------------
     // Internals only below this point
     //
 
+    private static Texture newTextureImpl(final GL gl, final TextureData data, final TextureManager.Source source) throws GLException, IllegalArgumentException {
+        if (data == null) {
+            throw new IllegalArgumentException("Null TextureData");
+        }
+        final Texture texture = new Texture(gl, data);
+        final TextureManager manager = textureManager;
+        if( null != manager ) {
+            manager.add(gl, texture, source);
+        }
+        return texture;
+    }
+
     private static List<TextureProvider> textureProviders = new ArrayList<TextureProvider>();
     private static Map<ImageType,TextureProvider> imageType2TextureProvider = new HashMap<ImageType,TextureProvider>();
     private static List<TextureWriter>   textureWriters   = new ArrayList<TextureWriter>();
@@ -786,6 +916,7 @@ public class TextureIO {
 
         // Other special-case providers
         addTextureProvider(new DDSTextureProvider());
+        addTextureProvider(new KTXTextureProvider());
         addTextureProvider(new SGITextureProvider());
         addTextureProvider(new TGATextureProvider());
         addTextureProvider(new JPGTextureProvider());
@@ -811,6 +942,7 @@ public class TextureIO {
 
         // Other special-case writers
         addTextureWriter(new DDSTextureWriter());
+        addTextureWriter(new KTXTextureWriter());
         addTextureWriter(new SGITextureWriter());
         addTextureWriter(new TGATextureWriter());
         addTextureWriter(new NetPbmTextureWriter());
@@ -827,13 +959,15 @@ public class TextureIO {
             throw new IOException("Stream was null");
         }
 
-        // Note: use of BufferedInputStream works around 4764639/4892246
-        if (!(stream instanceof BufferedInputStream)) {
-            stream = new BufferedInputStream(stream);
+        // Note: use of BufferedInputStream works around 4764639/4892246.
+        // The header is read once and cached for all TextureProviders sniffing the stream.
+        if (!(stream instanceof ImageType.HeaderCachingInputStream)) {
+            stream = new ImageType.HeaderCachingInputStream(stream);
         }
 
         // First attempt to use an ImageType mapped TextureProvider for O(1)
         // using stream parsed data, ignoring the given fileSuffix!
+        // The sequential provider chain below is only used if this fails.
         try {
             final ImageType imageType = new ImageType(stream);
             if( imageType.isDefined() ) {
@@ -883,8 +1017,12 @@ public class TextureIO {
         if (file == null) {
             throw new IOException("File was null");
         }
-        final InputStream stream = new BufferedInputStream(new FileInputStream(file));
+        final InputStream stream = new ImageType.HeaderCachingInputStream(new FileInputStream(file));
         try {
+            final TextureData data = newTextureDataFromFileImpl(glp, file, stream, internalFormat, pixelFormat, mipmap);
+            if( null != data ) {
+                return data;
+            }
             return newTextureDataImpl( glp, stream, internalFormat, pixelFormat, mipmap,
                                        (fileSuffix != null) ? fileSuffix : IOUtil.getFileSuffix(file) );
         } catch(final IOException ioe) {
@@ -893,6 +1031,39 @@ public class TextureIO {
             stream.close();
         }
     }
+    /**
+     * Uses the {@link ImageType} mapped {@link TextureProvider} if it implements {@link TextureProvider.SupportsFile},
+     * allowing it to read the file directly, e.g. via memory mapping.
+     * @return the texture data or {@code null} if not applicable
+     */
+    private static TextureData newTextureDataFromFileImpl(final GLProfile glp, final File file, final InputStream stream,
+                                                          final int internalFormat,
+                                                          final int pixelFormat,
+                                                          final boolean mipmap) {
+        try {
+            final ImageType imageType = new ImageType(stream);
+            if( imageType.isDefined() ) {
+                final TextureProvider mappedProvider = imageType2TextureProvider.get(imageType);
+                if( mappedProvider instanceof TextureProvider.SupportsFile ) {
+                    final TextureData data = ((TextureProvider.SupportsFile)mappedProvider).newTextureData(glp, file,
+                                                                                                           internalFormat,
+                                                                                                           pixelFormat,
+                                                                                                           mipmap,
+                                                                                                           imageType.type);
+                    if (data != null) {
+                        data.srcImageType = imageType;
+                        return data;
+                    }
+                }
+            }
+        } catch (final IOException ioe) {
+            if(DEBUG) {
+                System.err.println("Caught "+ioe.getMessage());
+                ioe.printStackTrace();
+            }
+        }
+        return null;
+    }
     private static TextureData newTextureDataImpl(final GLProfile glp, final URL url,
                                                   final int internalFormat,
                                                   final int pixelFormat,
@@ -901,7 +1072,7 @@ public class TextureIO {
         if (url == null) {
             throw new IOException("URL was null");
         }
-        final InputStream stream = new BufferedInputStream(url.openStream());
+        final InputStream stream = new ImageType.HeaderCachingInputStream(url.openStream());
         try {
             return newTextureDataImpl(glp, stream, internalFormat, pixelFormat, mipmap, fileSuffix);
         } catch(final IOException ioe) {
@@ -913,7 +1084,7 @@ public class TextureIO {
 
     //----------------------------------------------------------------------
     // DDS image provider
-    static class DDSTextureProvider implements TextureProvider {
+    static class DDSTextureProvider implements TextureProvider, TextureProvider.SupportsFile {
         private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_DDS) };
         @Override
         public final ImageType[] getImageTypes() {
@@ -937,11 +1108,26 @@ public class TextureIO {
             return null;
         }
 
+        @Override
+        public TextureData newTextureData(final GLProfile glp, final File file,
+                                          final int internalFormat,
+                                          final int pixelFormat,
+                                          final boolean mipmap,
+                                          final String fileSuffix) throws IOException {
+            if (ImageType.T_DDS.equals(fileSuffix)) {
+                // memory mapped, only the used mipmap levels are paged in
+                final DDSImage image = DDSImage.read(file);
+                return newTextureData(glp, image, internalFormat, pixelFormat, mipmap);
+            }
+            return null;
+        }
+
         private TextureData newTextureData(final GLProfile glp, final DDSImage image,
                                            int internalFormat,
                                            int pixelFormat,
                                            boolean mipmap) {
-            final DDSImage.ImageInfo info = image.getMipMap(0);
+            final int firstLevel = getFirstMipmapLevel(image.getNumMipMaps());
+            final DDSImage.ImageInfo info = image.getMipMap(firstLevel);
             if (pixelFormat == 0) {
                 switch (image.getPixelFormat()) {
                 case DDSImage.D3DFMT_R8G8B8:
@@ -986,9 +1172,10 @@ public class TextureIO {
                 };
             TextureData data;
             if (mipmap && image.getNumMipMaps() > 0) {
-                final Buffer[] mipmapData = new Buffer[image.getNumMipMaps()];
-                for (int i = 0; i < image.getNumMipMaps(); i++) {
-                    mipmapData[i] = image.getMipMap(i).getData();
+                final DDSImage.ImageInfo[] infos = image.getMipMaps(0, firstLevel);
+                final Buffer[] mipmapData = new Buffer[infos.length];
+                for (int i = 0; i < infos.length; i++) {
+                    mipmapData[i] = infos[i].getData();
                 }
                 data = new TextureData(glp, internalFormat,
                                        info.getWidth(),
@@ -1020,6 +1207,107 @@ public class TextureIO {
         }
     }
 
+    //----------------------------------------------------------------------
+    // KTX texture provider
+    static class KTXTextureProvider implements TextureProvider, TextureProvider.SupportsFile {
+        private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_KTX) };
+        @Override
+        public final ImageType[] getImageTypes() {
+            return imageTypes;
+        }
+
+        @Override
+        public TextureData newTextureData(final GLProfile glp, final InputStream stream,
+                                          final int internalFormat,
+                                          final int pixelFormat,
+                                          final boolean mipmap,
+                                          final String fileSuffix) throws IOException {
+            if (ImageType.T_KTX.equals(fileSuffix) ||
+                ImageType.T_KTX.equals(ImageType.Util.getFileSuffix(stream))) {
+                final byte[] data = IOUtil.copyStream2ByteArray(stream);
+                final KTXImage image = KTXImage.read(ByteBuffer.wrap(data));
+                return newTextureData(glp, image, internalFormat, pixelFormat, mipmap);
+            }
+            return null;
+        }
+
+        @Override
+        public TextureData newTextureData(final GLProfile glp, final File file,
+                                          final int internalFormat,
+                                          final int pixelFormat,
+                                          final boolean mipmap,
+                                          final String fileSuffix) throws IOException {
+            if (ImageType.T_KTX.equals(fileSuffix)) {
+                // memory mapped, the image data is passed to the GL w/o copy
+                final KTXImage image = KTXImage.read(file);
+                return newTextureData(glp, image, internalFormat, pixelFormat, mipmap);
+            }
+            return null;
+        }
+
+        private TextureData newTextureData(final GLProfile glp, final KTXImage image,
+                                           int internalFormat,
+                                           int pixelFormat,
+                                           boolean mipmap) throws IOException {
+            if (DEBUG) {
+                System.err.println("TextureIO.KTX: "+image);
+            }
+            if (image.isCubemap()) {
+                image.close();
+                throw new IOException("KTX cube map textures not supported by TextureIO, use KTXImage.getMipMap(face, level)");
+            }
+            final int firstLevel = getFirstMipmapLevel(image.getNumMipMaps());
+            final KTXImage.ImageInfo info = image.getMipMap(firstLevel);
+            final boolean compressed = image.isCompressed();
+            if (internalFormat == 0) {
+                internalFormat = image.getGLInternalFormat();
+            }
+            if (pixelFormat == 0) {
+                pixelFormat = compressed ? image.getGLBaseInternalFormat() : image.getGLFormat();
+            }
+            final int pixelType = compressed ? GL.GL_UNSIGNED_BYTE : image.getGLType();
+            final TextureData.Flusher flusher = new TextureData.Flusher() {
+                    @Override
+                    public void flush() {
+                        image.close();
+                    }
+                };
+            final TextureData data;
+            if (mipmap && image.getNumMipMaps() > 1) {
+                final Buffer[] mipmapData = new Buffer[image.getNumMipMaps() - firstLevel];
+                for (int i = 0; i < mipmapData.length; i++) {
+                    mipmapData[i] = image.getMipMap(firstLevel + i).getData();
+                }
+                data = new TextureData(glp, internalFormat,
+                                       info.getWidth(),
+                                       info.getHeight(),
+                                       0,
+                                       pixelFormat,
+                                       pixelType,
+                                       compressed,
+                                       false,
+                                       mipmapData,
+                                       flusher);
+            } else {
+                // We can't generate mipmaps for compressed textures
+                mipmap = mipmap && !compressed;
+                data = new TextureData(glp, internalFormat,
+                                       info.getWidth(),
+                                       info.getHeight(),
+                                       0,
+                                       pixelFormat,
+                                       pixelType,
+                                       mipmap,
+                                       compressed,
+                                       false,
+                                       info.getData(),
+                                       flusher);
+            }
+            data.setAlignment(4); // KTX rows are aligned to 4 bytes
+            return data;
+        }
+    }
+
     //----------------------------------------------------------------------
     // SGI RGB image provider
     static class SGITextureProvider implements TextureProvider {
@@ -1250,6 +1538,149 @@ public class TextureIO {
         }
     }
 
+    //----------------------------------------------------------------------
+    // KTX texture writer
+    //
+    static class KTXTextureWriter implements TextureWriter {
+        @Override
+        public boolean write(final File file,
+                             final TextureData data) throws IOException {
+            if (ImageType.T_KTX.equals(IOUtil.getFileSuffix(file))) {
+                final GLPixelAttributes pixelAttribs = data.getPixelAttributes();
+                final int pixelFormat = pixelAttribs.format;
+                final boolean compressed = data.isDataCompressed();
+                final int pixelType = compressed ? 0 : pixelAttribs.type;
+                final int typeSize;
+                final int bytesPerPixel;
+                if( compressed ) {
+                    typeSize = 1;
+                    bytesPerPixel = 0;
+                } else {
+                    switch( pixelType ) {
+                        case GL.GL_BYTE:
+                        case GL.GL_UNSIGNED_BYTE:
+                            typeSize = 1; break;
+                        case GL.GL_SHORT:
+                        case GL.GL_UNSIGNED_SHORT:
+                        case GL.GL_UNSIGNED_SHORT_5_6_5:
+                        case GL.GL_UNSIGNED_SHORT_4_4_4_4:
+                        case GL.GL_UNSIGNED_SHORT_5_5_5_1:
+                        case GL.GL_HALF_FLOAT:
+                            typeSize = 2; break;
+                        case GL.GL_UNSIGNED_INT:
+                        case GL.GL_FLOAT:
+                            typeSize = 4; break;
+                        default:
+                            throw new IOException("Unsupported pixel type 0x" + Integer.toHexString(pixelType) + " by KTX writer");
+                    }
+                    bytesPerPixel = GLBuffers.bytesPerPixel(pixelFormat, pixelType);
+                }
+
+                final Buffer[] srcMipmaps = null != data.getMipmapData() ? data.getMipmapData() : new Buffer[] { data.getBuffer() };
+                final ByteBuffer[] mipmaps = new ByteBuffer[srcMipmaps.length];
+                for (int i = 0; i < mipmaps.length; i++) {
+                    if( !( srcMipmaps[i] instanceof ByteBuffer ) ) {
+                        throw new IOException("KTX writer doesn't support pixel storage buffer of type "+srcMipmaps[i].getClass().getName());
+                    }
+                    final ByteBuffer src = ((ByteBuffer) srcMipmaps[i]).duplicate();
+                    src.rewind();
+                    final int levelRowSize = bytesPerPixel * Math.max(1, data.getWidth() >> i);
+                    if( compressed || 0 == ( levelRowSize & 3 ) ) {
+                        mipmaps[i] = src;
+                    } else {
+                        // KTX requires rows aligned to 4 bytes, our data is tightly packed
+                        final int rows = Math.max(1, data.getHeight() >> i);
+                        final int alignedRowSize = ( levelRowSize + 3 ) & ~3;
+                        final ByteBuffer dst = ByteBuffer.allocate(alignedRowSize * rows);
+                        for(int r = 0; r < rows; r++) {
+                            src.limit( ( r + 1 ) * levelRowSize );
+                            src.position( r * levelRowSize );
+                            dst.position( r * alignedRowSize );
+                            dst.put(src);
+                        }
+                        dst.rewind();
+                        mipmaps[i] = dst;
+                    }
+                }
+
+                final int internalFormat;
+                if( compressed ) {
+                    internalFormat = data.getInternalFormat();
+                } else {
+                    // KTX requires a sized internal format for uncompressed data
+                    internalFormat = getSizedInternalFormat(0 != data.getInternalFormat() ? data.getInternalFormat() : pixelFormat, pixelType);
+                }
+                final KTXImage image = KTXImage.createFromData(internalFormat,
+                                                               compressed ? 0 : pixelFormat,
+                                                               pixelType,
+                                                               typeSize,
+                                                               pixelFormat,
+                                                               data.getWidth(),
+                                                               data.getHeight(),
+                                                               mipmaps);
+                image.write(file);
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Maps an unsized base internal format to the sized format matching the pixel type,
+         * sized formats and legacy alpha/luminance formats w/o a sized ES equivalent are returned as-is.
+         */
+        private static int getSizedInternalFormat(final int internalFormat, final int pixelType) {
+            switch( pixelType ) {
+                case GL.GL_UNSIGNED_BYTE:
+                    switch( internalFormat ) {
+                        case GL.GL_RGBA:
+                        case GL.GL_BGRA:
+                            return GL.GL_RGBA8;
+                        case GL.GL_RGB:
+                        case GL.GL_BGR:
+                            return GL.GL_RGB8;
+                        case GL2ES2.GL_RG:
+                            return GL2ES3.GL_RG8;
+                        case GL2ES2.GL_RED:
+                            return GL2ES3.GL_R8;
+                    }
+                    break;
+                case GL.GL_UNSIGNED_SHORT_5_6_5:
+                    if( GL.GL_RGB == internalFormat ) {
+                        return GL.GL_RGB565;
+                    }
+                    break;
+                case GL.GL_UNSIGNED_SHORT_4_4_4_4:
+                    if( GL.GL_RGBA == internalFormat ) {
+                        return GL.GL_RGBA4;
+                    }
+                    break;
+                case GL.GL_UNSIGNED_SHORT_5_5_5_1:
+                    if( GL.GL_RGBA == internalFormat ) {
+                        return GL.GL_RGB5_A1;
+                    }
+                    break;
+                case GL.GL_HALF_FLOAT:
+                    switch( internalFormat ) {
+                        case GL.GL_RGBA: return GL2ES3.GL_RGBA16F;
+                        case GL.GL_RGB:  return GL2ES3.GL_RGB16F;
+                        case GL2ES2.GL_RG:  return GL2ES3.GL_RG16F;
+                        case GL2ES2.GL_RED: return GL2ES3.GL_R16F;
+                    }
+                    break;
+                case GL.GL_FLOAT:
+                    switch( internalFormat ) {
+                        case GL.GL_RGBA: return GL2ES3.GL_RGBA32F;
+                        case GL.GL_RGB:  return GL2ES3.GL_RGB32F;
+                        case GL2ES2.GL_RG:  return GL2ES3.GL_RG32F;
+                        case GL2ES2.GL_RED: return GL2ES3.GL_R32F;
+                    }
+                    break;
+            }
+            return internalFormat;
+        }
+    }
+
     //----------------------------------------------------------------------
     // SGI (rgb) texture writer
     //
@@ -1353,6 +1784,10 @@ public class TextureIO {
     static class PNGTextureWriter implements TextureWriter {
         @Override
         public boolean write(final File file, final TextureData data) throws IOException {
+            return write(file, data, PNGPixelRect.CompressionPreset.DEFAULT);
+        }
+
+        public boolean write(final File file, final TextureData data, final PNGPixelRect.CompressionPreset preset) throws IOException {
             if (ImageType.T_PNG.equals(IOUtil.getFileSuffix(file))) {
                 // See whether the PNG writer can handle this TextureData
                 final GLPixelAttributes pixelAttribs = data.getPixelAttributes();
@@ -1377,7 +1812,7 @@ public class TextureIO {
                                                                     0 /* stride */, !data.getMustFlipVertically() /* isGLOriented */, buf /* pixels */,
                                                                     -1f, -1f);
                         final OutputStream outs = new BufferedOutputStream(IOUtil.getFileOutputStream(file, true /* allowOverwrite */));
-                        image.write(outs, true /* close */);
+                        image.write(outs, true /* close */, preset);
                         return true;
                     } else if( buf0 instanceof IntBuffer ) {
                         final IntBuffer buf = (IntBuffer) buf0;
@@ -1385,7 +1820,7 @@ public class TextureIO {
                         final OutputStream outs = new BufferedOutputStream(IOUtil.getFileOutputStream(file, true /* allowOverwrite */));
                         PNGPixelRect.write(pixFmt, size,
                                            0 /* stride */, !data.getMustFlipVertically() /* isGLOriented */, buf /* pixels */,
-                                           -1f, -1f, outs, true /* closeOutstream */);
+                                           -1f, -1f, outs, true /* closeOutstream */, preset);
                         return true;
                     } else {
                         throw new IOException("PNG writer doesn't support pixel storage buffer of type "+buf0.getClass().getName());
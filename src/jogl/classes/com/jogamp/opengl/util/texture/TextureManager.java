@@ -0,0 +1,613 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLProfile;
+
+import jogamp.opengl.Debug;
+
+/**
+ * Keeps the {@link Texture#getEstimatedMemorySize() estimated memory} of all managed {@link Texture}s
+ * within a configurable budget.
+ * <p>
+ * Textures are added either explicitly via {@link #add(GL, Texture, Source)}
+ * or implicitly by {@link TextureIO}'s <code>newTexture(..)</code> methods,
+ * if this instance has been set via {@link TextureIO#setTextureManager(TextureManager)}.
+ * </p>
+ * <p>
+ * Every {@link Texture#bind(GL)} of a managed texture marks it as most recently used.
+ * If the total exceeds the {@link #getBudget() budget}, the least recently bound
+ * textures of the lowest {@link #setPriority(Texture, int) priority} are evicted,
+ * i.e. their GL texture object is deleted while the {@link Texture} instance stays valid.
+ * Textures being {@link #isPinned(Texture) pinned} or without a {@link Source} are never evicted.
+ * </p>
+ * <p>
+ * An evicted texture is reloaded from its {@link Source} on its next {@link Texture#bind(GL)}
+ * or {@link Texture#getTextureObject(GL)}, while {@link Texture#getTextureObject()} returns <code>0</code>.
+ * The texture parameters, e.g. filter, wrap, swizzle and anisotropy, are captured at eviction
+ * and restored after reload.
+ * Since eviction and reload are performed with the GL object passed to {@link Texture#bind(GL)}
+ * or {@link #add(GL, Texture, Source)}, all managed textures shall belong to one shared GL context set.
+ * </p>
+ * <p>
+ * The default budget may be set via the property <code>jogl.texture.budget</code> in MiB,
+ * otherwise it is unlimited.
+ * </p>
+ */
+public class TextureManager {
+    private static final boolean DEBUG = Debug.debug("Texture");
+
+    /** Default budget in bytes, property <code>jogl.texture.budget</code> in MiB, otherwise {@link Long#MAX_VALUE}. */
+    public static final long DEFAULT_BUDGET;
+
+    static {
+        Debug.initSingleton();
+        final int mib = Debug.getIntProperty("jogl.texture.budget", true, 0);
+        DEFAULT_BUDGET = 0 < mib ? (long)mib * 1024L * 1024L : Long.MAX_VALUE;
+    }
+
+    /** Default priority of added textures, value {@value}. */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    /**
+     * Provides the {@link TextureData} to reload an evicted {@link Texture}.
+     */
+    public static interface Source {
+        /**
+         * Returns a new {@link TextureData} instance of the managed texture's content.
+         * <p>
+         * The returned data will be {@link TextureData#flush() flushed} after upload.
+         * </p>
+         * @param glp the {@link GLProfile} of the GL object used to reload the texture
+         */
+        TextureData newTextureData(GLProfile glp) throws IOException;
+    }
+
+    /**
+     * Listener notified about eviction and reload of managed textures,
+     * e.g. to collect application specific statistics.
+     * <p>
+     * Methods are called on the GL thread while holding this manager's lock.
+     * </p>
+     */
+    public static interface Listener {
+        /**
+         * A texture has been evicted.
+         * @param texture the evicted texture
+         * @param bytes the amount of released estimated memory
+         */
+        void evicted(Texture texture, long bytes);
+
+        /**
+         * An evicted texture has been reloaded.
+         * @param texture the reloaded texture
+         * @param bytes the amount of allocated estimated memory
+         * @param nanos the duration of loading and upload in nanoseconds
+         */
+        void reloaded(Texture texture, long bytes, long nanos);
+    }
+
+    /** Immutable statistics snapshot, see {@link TextureManager#getStatistics()}. */
+    public static class Statistics {
+        /** Number of managed textures. */
+        public final int textureCount;
+        /** Number of managed textures currently evicted. */
+        public final int evictedCount;
+        /** Estimated memory of all resident managed textures in bytes. */
+        public final long residentBytes;
+        /** Highest value of {@link #residentBytes} observed. */
+        public final long peakResidentBytes;
+        /** The budget in bytes. */
+        public final long budget;
+        /** Total number of evictions. */
+        public final long evictions;
+        /** Total number of reloads. */
+        public final long reloads;
+        /** Total time spent reloading in nanoseconds. */
+        public final long reloadNanos;
+
+        Statistics(final int textureCount, final int evictedCount, final long residentBytes, final long peakResidentBytes,
+                   final long budget, final long evictions, final long reloads, final long reloadNanos) {
+            this.textureCount = textureCount;
+            this.evictedCount = evictedCount;
+            this.residentBytes = residentBytes;
+            this.peakResidentBytes = peakResidentBytes;
+            this.budget = budget;
+            this.evictions = evictions;
+            this.reloads = reloads;
+            this.reloadNanos = reloadNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "TextureStats[textures "+textureCount+", evicted "+evictedCount+
+                   ", resident "+residentBytes+" / peak "+peakResidentBytes+" / budget "+budget+" bytes"+
+                   ", evictions "+evictions+", reloads "+reloads+" in "+(reloadNanos/1000000L)+" ms]";
+        }
+    }
+
+    /** Bookkeeping of one managed texture, referenced by {@link Texture} while managed. */
+    static class Entry {
+        final TextureManager manager;
+        final Texture texture;
+        final Source source;
+        int priority;
+        boolean pinned;
+        boolean evicted;
+        long bytes;
+        /** Texture parameter names and values captured at eviction, restored after reload. */
+        int[] paramNames, paramValues;
+        float anisotropy;
+
+        Entry(final TextureManager manager, final Texture texture, final Source source) {
+            this.manager = manager;
+            this.texture = texture;
+            this.source = source;
+            this.priority = DEFAULT_PRIORITY;
+            this.pinned = false;
+            this.evicted = false;
+            this.bytes = texture.getEstimatedMemorySize();
+        }
+        final boolean isEvictable() { return !evicted && !pinned && null != source; }
+    }
+
+    /** Access ordered, i.e. iteration starts w/ the least recently bound entry. */
+    private final LinkedHashMap<Texture, Entry> entries = new LinkedHashMap<Texture, Entry>(64, 0.75f, true);
+    private final ArrayList<Listener> listeners = new ArrayList<Listener>();
+    private long budget;
+    private long residentBytes = 0;
+    private long peakResidentBytes = 0;
+    private int evictedCount = 0;
+    private long evictions = 0;
+    private long reloads = 0;
+    private long reloadNanos = 0;
+
+    /** Creates a new instance using the {@link #DEFAULT_BUDGET}. */
+    public TextureManager() {
+        this(DEFAULT_BUDGET);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param budget the budget of estimated texture memory in bytes
+     * @throws IllegalArgumentException if budget is not positive
+     */
+    public TextureManager(final long budget) throws IllegalArgumentException {
+        setBudgetImpl(budget);
+    }
+
+    private void setBudgetImpl(final long budget) throws IllegalArgumentException {
+        if( 0 >= budget ) {
+            throw new IllegalArgumentException("Invalid budget "+budget);
+        }
+        this.budget = budget;
+    }
+
+    /** Returns the budget of estimated texture memory in bytes. */
+    public final synchronized long getBudget() { return budget; }
+
+    /**
+     * Sets the budget of estimated texture memory in bytes.
+     * <p>
+     * If the resident amount exceeds the new budget,
+     * textures are evicted immediately using the given GL object.
+     * </p>
+     * @param gl the current GL object, used for eviction
+     * @param budget the new budget in bytes
+     * @throws IllegalArgumentException if budget is not positive
+     */
+    public final synchronized void setBudget(final GL gl, final long budget) throws IllegalArgumentException {
+        setBudgetImpl(budget);
+        evictImpl(gl, null, 0);
+    }
+
+    public final synchronized void addListener(final Listener l) {
+        listeners.add(l);
+    }
+
+    public final synchronized void removeListener(final Listener l) {
+        listeners.remove(l);
+    }
+
+    /**
+     * Adds the given texture to this manager.
+     * <p>
+     * If the texture is already managed by this instance, only its source is updated.
+     * If the texture is managed by another instance, it is removed from the latter first.
+     * </p>
+     * <p>
+     * Textures added w/o source are accounted for, but will never be evicted.
+     * </p>
+     * <p>
+     * If the budget is exceeded after adding, other textures are evicted using the given GL object.
+     * </p>
+     * @param gl the current GL object, used for eviction
+     * @param texture the texture to manage
+     * @param source the source to reload the texture after eviction, may be <code>null</code>
+     */
+    public final void add(final GL gl, final Texture texture, final Source source) {
+        final Entry other = texture.managerEntry;
+        if( null != other && this != other.manager ) {
+            other.manager.remove(texture);
+        }
+        synchronized(this) {
+            final Entry old = entries.remove(texture);
+            final Entry e = new Entry(this, texture, source);
+            if( null != old ) {
+                e.priority = old.priority;
+                e.pinned = old.pinned;
+                removeImpl(old);
+            }
+            entries.put(texture, e);
+            texture.managerEntry = e;
+            residentBytes += e.bytes;
+            updatePeak();
+            evictImpl(gl, e, 0);
+        }
+    }
+
+    /**
+     * Removes the given texture from this manager, its GL texture object stays untouched.
+     * <p>
+     * Invoked by {@link Texture#destroy(GL)} implicitly.
+     * </p>
+     * @return <code>true</code> if the texture was managed by this instance, otherwise <code>false</code>.
+     */
+    public final synchronized boolean remove(final Texture texture) {
+        final Entry e = entries.remove(texture);
+        if( null != e ) {
+            removeImpl(e);
+            return true;
+        }
+        return false;
+    }
+    private void removeImpl(final Entry e) {
+        if( e.evicted ) {
+            evictedCount--;
+        } else {
+            residentBytes -= e.bytes;
+        }
+        if( e == e.texture.managerEntry ) {
+            e.texture.managerEntry = null;
+        }
+    }
+
+    /** Returns <code>true</code> if the given texture is managed by this instance. */
+    public final synchronized boolean contains(final Texture texture) {
+        return null != getEntry(texture);
+    }
+
+    /**
+     * Sets the priority of the given managed texture, default is {@link #DEFAULT_PRIORITY}.
+     * <p>
+     * Textures with a lower priority are evicted before those with a higher priority,
+     * regardless of their last use.
+     * </p>
+     * @return <code>false</code> if the texture is not managed by this instance, otherwise <code>true</code>.
+     */
+    public final synchronized boolean setPriority(final Texture texture, final int priority) {
+        final Entry e = getEntry(texture);
+        if( null != e ) {
+            e.priority = priority;
+            return true;
+        }
+        return false;
+    }
+
+    /** Returns the priority of the given managed texture or {@link #DEFAULT_PRIORITY} if not managed. */
+    public final synchronized int getPriority(final Texture texture) {
+        final Entry e = getEntry(texture);
+        return null != e ? e.priority : DEFAULT_PRIORITY;
+    }
+
+    /**
+     * Pins or unpins the given managed texture. A pinned texture is never evicted.
+     * @return <code>false</code> if the texture is not managed by this instance, otherwise <code>true</code>.
+     */
+    public final synchronized boolean setPinned(final Texture texture, final boolean pinned) {
+        final Entry e = getEntry(texture);
+        if( null != e ) {
+            e.pinned = pinned;
+            return true;
+        }
+        return false;
+    }
+
+    /** Returns <code>true</code> if the given texture is managed by this instance and pinned. */
+    public final synchronized boolean isPinned(final Texture texture) {
+        final Entry e = getEntry(texture);
+        return null != e && e.pinned;
+    }
+
+    /** Returns <code>true</code> if the given texture is managed by this instance and currently evicted. */
+    public final synchronized boolean isEvicted(final Texture texture) {
+        final Entry e = getEntry(texture);
+        return null != e && e.evicted;
+    }
+
+    /** Returns the estimated memory of all resident managed textures in bytes. */
+    public final synchronized long getResidentBytes() { return residentBytes; }
+
+    /** Returns a snapshot of this manager's statistics. */
+    public final synchronized Statistics getStatistics() {
+        return new Statistics(entries.size(), evictedCount, residentBytes, peakResidentBytes, budget, evictions, reloads, reloadNanos);
+    }
+
+    /** Resets the peak, eviction and reload counters. */
+    public final synchronized void resetStatistics() {
+        peakResidentBytes = residentBytes;
+        evictions = 0;
+        reloads = 0;
+        reloadNanos = 0;
+    }
+
+    /**
+     * Evicts managed textures until the resident amount is within the budget reduced by the given amount.
+     * <p>
+     * May be used to make room for upcoming allocations.
+     * </p>
+     * @param gl the current GL object
+     * @param reserve the amount of bytes to free in addition to the budget
+     * @return the amount of released bytes
+     */
+    public final synchronized long evict(final GL gl, final long reserve) {
+        return evictImpl(gl, null, reserve);
+    }
+
+    /**
+     * Evicts all evictable managed textures.
+     * @param gl the current GL object
+     * @return the amount of released bytes
+     */
+    public final synchronized long evictAll(final GL gl) {
+        long released = 0;
+        for(final Iterator<Entry> iter = entries.values().iterator(); iter.hasNext(); ) {
+            final Entry e = iter.next();
+            if( e.isEvictable() ) {
+                released += evictEntry(gl, e);
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Invoked by {@link Texture#bind(GL)} before binding, marks the texture as most recently used
+     * and reloads it if evicted.
+     */
+    final synchronized void touch(final GL gl, final Texture texture) throws GLException {
+        final Entry e = entries.get(texture); // updates access order
+        if( null == e ) {
+            return;
+        }
+        if( e.evicted ) {
+            reload(gl, e);
+        } else {
+            final long bytes = texture.getEstimatedMemorySize();
+            if( bytes != e.bytes ) {
+                // content has been updated via Texture.updateImage(..)
+                residentBytes += bytes - e.bytes;
+                e.bytes = bytes;
+                updatePeak();
+                evictImpl(gl, e, 0);
+            }
+        }
+    }
+
+    private Entry getEntry(final Texture texture) {
+        // LinkedHashMap.get(..) would modify the access order
+        final Entry e = texture.managerEntry;
+        return null != e && this == e.manager ? e : null;
+    }
+
+    private void updatePeak() {
+        if( residentBytes > peakResidentBytes ) {
+            peakResidentBytes = residentBytes;
+        }
+    }
+
+    private void reload(final GL gl, final Entry e) throws GLException {
+        // make room first, avoiding the temporary peak
+        evictImpl(gl, e, e.bytes);
+        final long t0 = System.nanoTime();
+        final TextureData data;
+        try {
+            data = e.source.newTextureData(gl.getGLProfile());
+        } catch (final IOException ioe) {
+            throw new GLException("Could not reload evicted "+e.texture, ioe);
+        }
+        if( null == data ) {
+            throw new GLException("Source returned null TextureData for evicted "+e.texture);
+        }
+        e.texture.updateImage(gl, data);
+        data.flush();
+        restoreParameters(gl, e); // texture is bound by updateImage(..)
+        final long dt = System.nanoTime() - t0;
+        e.evicted = false;
+        e.bytes = e.texture.getEstimatedMemorySize();
+        evictedCount--;
+        residentBytes += e.bytes;
+        reloads++;
+        reloadNanos += dt;
+        updatePeak();
+        if( DEBUG ) {
+            System.err.println("TextureManager: reloaded "+e.texture+" in "+(dt/1000L)+" us, "+getStatistics());
+        }
+        for(int i=0; i<listeners.size(); i++) {
+            listeners.get(i).reloaded(e.texture, e.bytes, dt);
+        }
+    }
+
+    /**
+     * Evicts entries until <code>residentBytes + reserve &le; budget</code>,
+     * lowest priority first, least recently used first within the same priority.
+     */
+    private long evictImpl(final GL gl, final Entry exclude, final long reserve) {
+        long released = 0;
+        final ArrayList<Entry> victims = new ArrayList<Entry>();
+        while( residentBytes + reserve > budget ) {
+            // lowest priority of all evictable entries
+            boolean found = false;
+            int priority = Integer.MAX_VALUE;
+            for(final Iterator<Entry> iter = entries.values().iterator(); iter.hasNext(); ) {
+                final Entry e = iter.next();
+                if( e != exclude && e.isEvictable() && e.priority <= priority ) {
+                    priority = e.priority;
+                    found = true;
+                }
+            }
+            if( !found ) {
+                if( DEBUG ) {
+                    System.err.println("TextureManager: budget exceeded, nothing left to evict: "+getStatistics());
+                }
+                break;
+            }
+            // collect victims of that priority from the head, i.e. least recently used first
+            long pending = residentBytes + reserve - budget;
+            for(final Iterator<Entry> iter = entries.values().iterator(); iter.hasNext() && 0 < pending; ) {
+                final Entry e = iter.next();
+                if( e != exclude && e.isEvictable() && e.priority == priority ) {
+                    victims.add(e);
+                    pending -= e.bytes;
+                }
+            }
+            for(int i=0; i<victims.size(); i++) {
+                released += evictEntry(gl, victims.get(i));
+            }
+            victims.clear();
+        }
+        return released;
+    }
+
+    private long evictEntry(final GL gl, final Entry e) {
+        final long bytes = e.bytes;
+        captureParameters(gl, e);
+        e.texture.destroyImpl(gl);
+        e.evicted = true;
+        evictedCount++;
+        residentBytes -= bytes;
+        evictions++;
+        if( DEBUG ) {
+            System.err.println("TextureManager: evicted "+e.texture+", "+bytes+" bytes");
+        }
+        for(int i=0; i<listeners.size(); i++) {
+            listeners.get(i).evicted(e.texture, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * Queries the texture parameters of the given entry's texture, restoring the previous binding.
+     * If the target's binding can't be queried, see {@link TextureState#getTextureTargetQueryName(int)},
+     * the target is unbound.
+     */
+    private static void captureParameters(final GL gl, final Entry e) {
+        final Texture texture = e.texture;
+        final int name = texture.getTextureObject();
+        if( 0 == name ) {
+            e.paramNames = null;
+            return;
+        }
+        final int target = texture.getTarget();
+        final int[] tmp = new int[1];
+        final int bindingQuery = TextureState.getTextureTargetQueryName(target);
+        int prevName = 0;
+        if( 0 != bindingQuery ) {
+            gl.glGetIntegerv(bindingQuery, tmp, 0);
+            prevName = tmp[0];
+        }
+        gl.glBindTexture(target, name);
+
+        final int[] names = getParameterNames(gl);
+        final int[] values = new int[names.length];
+        for(int i=0; i<names.length; i++) {
+            gl.glGetTexParameteriv(target, names[i], values, i);
+        }
+        e.paramNames = names;
+        e.paramValues = values;
+        if( gl.isExtensionAvailable(EXT_texture_filter_anisotropic) ) {
+            final float[] aniso = new float[1];
+            gl.glGetTexParameterfv(target, GL.GL_TEXTURE_MAX_ANISOTROPY_EXT, aniso, 0);
+            e.anisotropy = aniso[0];
+        } else {
+            e.anisotropy = 0f;
+        }
+        if( name != prevName ) {
+            gl.glBindTexture(target, prevName); // unknown binding query: unbind
+        }
+    }
+
+    /** Restores the texture parameters captured at eviction, the texture must be bound. */
+    private static void restoreParameters(final GL gl, final Entry e) {
+        final int[] names = e.paramNames;
+        if( null == names ) {
+            return;
+        }
+        final int target = e.texture.getTarget();
+        final int[] values = e.paramValues;
+        for(int i=0; i<names.length; i++) {
+            gl.glTexParameteri(target, names[i], values[i]);
+        }
+        if( 0f < e.anisotropy ) {
+            gl.glTexParameterf(target, GL.GL_TEXTURE_MAX_ANISOTROPY_EXT, e.anisotropy);
+        }
+        e.paramNames = null;
+        e.paramValues = null;
+    }
+
+    private static final String EXT_texture_filter_anisotropic = "GL_EXT_texture_filter_anisotropic";
+
+    private static final int[] paramNamesES2 = { GL.GL_TEXTURE_MIN_FILTER, GL.GL_TEXTURE_MAG_FILTER,
+                                                 GL.GL_TEXTURE_WRAP_S, GL.GL_TEXTURE_WRAP_T };
+    private static final int[] paramNamesGL2ES3 = { GL.GL_TEXTURE_MIN_FILTER, GL.GL_TEXTURE_MAG_FILTER,
+                                                    GL.GL_TEXTURE_WRAP_S, GL.GL_TEXTURE_WRAP_T, GL2ES2.GL_TEXTURE_WRAP_R,
+                                                    GL2ES3.GL_TEXTURE_BASE_LEVEL, GL2ES3.GL_TEXTURE_MAX_LEVEL };
+    private static final int[] paramNamesSwizzle = { GL.GL_TEXTURE_MIN_FILTER, GL.GL_TEXTURE_MAG_FILTER,
+                                                     GL.GL_TEXTURE_WRAP_S, GL.GL_TEXTURE_WRAP_T, GL2ES2.GL_TEXTURE_WRAP_R,
+                                                     GL2ES3.GL_TEXTURE_BASE_LEVEL, GL2ES3.GL_TEXTURE_MAX_LEVEL,
+                                                     GL2ES3.GL_TEXTURE_SWIZZLE_R, GL2ES3.GL_TEXTURE_SWIZZLE_G,
+                                                     GL2ES3.GL_TEXTURE_SWIZZLE_B, GL2ES3.GL_TEXTURE_SWIZZLE_A };
+
+    private static int[] getParameterNames(final GL gl) {
+        if( !gl.isGL2ES3() ) {
+            return paramNamesES2;
+        }
+        if( gl.isGLES3() || gl.isExtensionAvailable("GL_ARB_texture_swizzle") || gl.isExtensionAvailable("GL_EXT_texture_swizzle") ) {
+            return paramNamesSwizzle;
+        }
+        return paramNamesGL2ES3;
+    }
+}
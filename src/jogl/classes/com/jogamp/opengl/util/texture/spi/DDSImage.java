@@ -92,6 +92,8 @@ public class DDSImage {
     private FileChannel     chan;
     private ByteBuffer buf;
     private Header header;
+    /** Lazily computed byte offset of each mipmap level relative to its side, see {@link #getMipMapOffsets()}. */
+    private int[] mipMapOffsets;
 
     //
     // Selected bits in header flags
@@ -169,6 +171,11 @@ public class DDSImage {
 
     /** Reads a DirectDraw surface from the specified file, returning
         the resulting DDSImage.
+        <p>
+        The file is memory mapped and only the header is being parsed.
+        Mipmap levels and cubemap sides are sliced from the mapped region on demand
+        via {@link #getMipMap(int, int)}, hence only the accessed levels are paged in.
+        </p>
 
         @param file File object
         @return DDS image object
@@ -378,6 +385,9 @@ public class DDSImage {
 
     /**
      * Gets the <i>i</i>th mipmap data (0..getNumMipMaps() - 1)
+     * <p>
+     * The returned data is a slice of this image's buffer, i.e. no data is copied.
+     * </p>
      * @param side Cubemap side or 0 for 2D texture
      * @param map Mipmap index
      * @return Image object
@@ -399,14 +409,12 @@ public class DDSImage {
         if (isCubemap()) {
             seek += sideShiftInBytes(side);
         }
-        for (int i = 0; i < map; i++) {
-            seek += mipMapSizeInBytes(i);
-        }
-        buf.limit(seek + mipMapSizeInBytes(map));
-        buf.position(seek);
-        final ByteBuffer next = buf.slice();
-        buf.position(0);
-        buf.limit(buf.capacity());
+        seek += getMipMapOffsets()[map];
+        // Slice a duplicate, leaving the shared buffer's state untouched
+        final ByteBuffer b = buf.duplicate();
+        b.limit(seek + mipMapSizeInBytes(map));
+        b.position(seek);
+        final ByteBuffer next = b.slice();
         return new ImageInfo(next, mipMapWidth(map), mipMapHeight(map), isCompressed(), getCompressionFormat());
     }
 
@@ -425,13 +433,31 @@ public class DDSImage {
      * @return Mipmap image objects set
      */
     public ImageInfo[] getAllMipMaps( final int side ) {
+        return getMipMaps(side, 0);
+    }
+
+    /**
+     * Returns an array of ImageInfos corresponding to the mipmap
+     * levels <code>firstLevel</code> .. <code>getNumMipMaps() - 1</code> of this DDS file.
+     * <p>
+     * Skipping the top-most levels reduces I/O and memory consumption
+     * for memory mapped files, since the skipped levels are never accessed.
+     * </p>
+     * @param side Cubemap side or 0 for 2D texture
+     * @param firstLevel the first mipmap level to return, 0 for the top-most level
+     * @return Mipmap image objects set
+     */
+    public ImageInfo[] getMipMaps( final int side, final int firstLevel ) {
         int numLevels = getNumMipMaps();
         if (numLevels == 0) {
             numLevels = 1;
         }
-        final ImageInfo[] result = new ImageInfo[numLevels];
-        for (int i = 0; i < numLevels; i++) {
-            result[i] = getMipMap(side, i);
+        if (firstLevel < 0 || firstLevel >= numLevels) {
+            throw new RuntimeException("Illegal first mipmap number " + firstLevel + " (0.." + (numLevels - 1) + ")");
+        }
+        final ImageInfo[] result = new ImageInfo[numLevels - firstLevel];
+        for (int i = firstLevel; i < numLevels; i++) {
+            result[i - firstLevel] = getMipMap(side, i);
         }
         return result;
     }
@@ -702,6 +728,7 @@ public class DDSImage {
 
     private void readFromBuffer(final ByteBuffer buf) throws IOException {
         this.buf = buf;
+        this.mipMapOffsets = null;
         buf.order(ByteOrder.LITTLE_ENDIAN);
         header = new Header();
         header.read(buf);
@@ -760,6 +787,7 @@ public class DDSImage {
             buf.put(mipmapData[i]);
         }
         this.buf = buf;
+        this.mipMapOffsets = null;
 
         // Allocate and initialize a Header
         header = new Header();
@@ -880,18 +908,30 @@ public class DDSImage {
         }
     }
 
-    private int sideSizeInBytes() {
-        int numLevels = getNumMipMaps();
-        if (numLevels == 0) {
-            numLevels = 1;
-        }
-
-        int size = 0;
-        for (int i = 0; i < numLevels; i++) {
-            size += mipMapSizeInBytes(i);
+    /**
+     * Returns the byte offset of each mipmap level relative to its side,
+     * with one trailing element holding the side's total size.
+     * Computed once on demand.
+     */
+    private int[] getMipMapOffsets() {
+        int[] offsets = mipMapOffsets;
+        if (null == offsets) {
+            int numLevels = getNumMipMaps();
+            if (numLevels == 0) {
+                numLevels = 1;
+            }
+            offsets = new int[numLevels + 1];
+            for (int i = 0; i < numLevels; i++) {
+                offsets[i + 1] = offsets[i] + mipMapSizeInBytes(i);
+            }
+            mipMapOffsets = offsets;
         }
+        return offsets;
+    }
 
-        return size;
+    private int sideSizeInBytes() {
+        final int[] offsets = getMipMapOffsets();
+        return offsets[offsets.length - 1];
     }
 
     private int sideShiftInBytes(final int side) {
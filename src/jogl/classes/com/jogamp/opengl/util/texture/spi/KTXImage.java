@@ -0,0 +1,435 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture.spi;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.common.util.IOUtil;
+
+/**
+ * A reader and writer for Khronos KTX 1.1 texture container files.
+ * <p>
+ * KTX files carry the OpenGL enums required to upload the contained
+ * image data, i.e. <code>glInternalFormat</code>, <code>glFormat</code> and <code>glType</code>,
+ * and store all mipmap levels and cube map faces in the layout expected by
+ * <code>glCompressedTexImage2D</code> and <code>glTexImage2D</code>.
+ * Hence pre-compressed ETC2, ASTC or BPTC/S3TC data can be passed to the GL
+ * without any decoding.
+ * </p>
+ * <p>
+ * When read from a {@link File}, the file is memory mapped and all {@link ImageInfo#getData() image data}
+ * are slices of the mapped region, i.e. no copy is performed.
+ * </p>
+ * <p>
+ * Array and 3D textures are not supported.
+ * </p>
+ * <ul>
+ * <li>{@code https://www.khronos.org/opengles/sdk/tools/KTX/file_format_spec/}</li>
+ * </ul>
+ */
+public class KTXImage {
+
+    /** Simple class describing one image, i.e. one face of one mipmap level. */
+    public static class ImageInfo {
+        private final ByteBuffer data;
+        private final int width;
+        private final int height;
+
+        public ImageInfo(final ByteBuffer data, final int width, final int height) {
+            this.data = data; this.width = width; this.height = height;
+        }
+        public int        getWidth()  { return width;  }
+        public int        getHeight() { return height; }
+        public ByteBuffer getData()   { return data;   }
+    }
+
+    private FileInputStream fis;
+    private FileChannel     chan;
+    private ByteBuffer buf;
+    private Header header;
+    /** Byte offset of the first face's image data per mipmap level */
+    private int[] levelOffsets;
+    /** Byte size of one face's image data per mipmap level */
+    private int[] faceSizes;
+
+    /** Reads a KTX file from the specified file name, returning the resulting KTXImage. */
+    public static KTXImage read(final String filename) throws IOException {
+        return read(new File(filename));
+    }
+
+    /**
+     * Reads a KTX file from the specified file, returning the resulting KTXImage.
+     * <p>
+     * The file is memory mapped, {@link #close()} shall be called when the image data is no more required.
+     * </p>
+     */
+    public static KTXImage read(final File file) throws IOException {
+        final KTXImage image = new KTXImage();
+        image.readFromFile(file);
+        return image;
+    }
+
+    /**
+     * Reads a KTX file from the specified ByteBuffer, returning the resulting KTXImage.
+     * <p>
+     * All {@link ImageInfo#getData() image data} will share the given ByteBuffer's content.
+     * </p>
+     */
+    public static KTXImage read(final ByteBuffer buf) throws IOException {
+        final KTXImage image = new KTXImage();
+        image.readFromBuffer(buf);
+        return image;
+    }
+
+    /** Closes open files and resources associated with the open
+        KTXImage. No other methods may be called on this object once
+        this is called. */
+    public void close() {
+        try {
+            if (chan != null) {
+                chan.close();
+                chan = null;
+            }
+            if (fis != null) {
+                fis.close();
+                fis = null;
+            }
+            buf = null;
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Creates a new KTXImage from data supplied by the user. The
+     * resulting KTXImage can be written to disk using the write()
+     * method.
+     *
+     * @param glInternalFormat the OpenGL internal format, e.g. {@link GL#GL_RGBA8} or a compressed format
+     * @param glFormat the OpenGL pixel format, e.g. {@link GL#GL_RGBA}, or 0 for compressed data
+     * @param glType the OpenGL pixel type, e.g. {@link GL#GL_UNSIGNED_BYTE}, or 0 for compressed data
+     * @param glTypeSize the size of the pixel type's data unit in bytes for endianness conversion, 1 for compressed data
+     * @param glBaseInternalFormat the base internal format, e.g. {@link GL#GL_RGBA}
+     * @param width  the width in pixels of the topmost mipmap image
+     * @param height the height in pixels of the topmost mipmap image
+     * @param mipmapData the data for each mipmap level, uncompressed rows must be aligned to 4 bytes
+     * @throws IllegalArgumentException if the data does not match the specified arguments
+     * @return KTX image object
+     */
+    public static KTXImage createFromData(final int glInternalFormat, final int glFormat, final int glType, final int glTypeSize,
+                                          final int glBaseInternalFormat,
+                                          final int width, final int height,
+                                          final ByteBuffer[] mipmapData) throws IllegalArgumentException {
+        final KTXImage image = new KTXImage();
+        image.initFromData(glInternalFormat, glFormat, glType, glTypeSize, glBaseInternalFormat, width, height, mipmapData);
+        return image;
+    }
+
+    /** Writes this KTXImage to the specified file name. */
+    public void write(final String filename) throws IOException {
+        write(new File(filename));
+    }
+
+    /** Writes this KTXImage to the specified file. */
+    public void write(final File file) throws IOException {
+        final FileOutputStream stream = IOUtil.getFileOutputStream(file, true);
+        try {
+            final FileChannel chan = stream.getChannel();
+            final ByteBuffer b = buf.duplicate();
+            b.position(0);
+            b.limit(buf.capacity());
+            while( b.hasRemaining() ) {
+                chan.write(b);
+            }
+            chan.force(true);
+            chan.close();
+        } finally {
+            stream.close();
+        }
+    }
+
+    /** Returns {@code true} if the image data is compressed, i.e. <code>glType</code> is zero. */
+    public boolean isCompressed() { return 0 == header.glType; }
+
+    /** Returns the OpenGL internal format, i.e. the format passed to <code>glCompressedTexImage2D</code> for compressed data. */
+    public int getGLInternalFormat() { return header.glInternalFormat; }
+
+    /** Returns the OpenGL pixel format, zero for compressed data. */
+    public int getGLFormat() { return header.glFormat; }
+
+    /** Returns the OpenGL pixel type, zero for compressed data. */
+    public int getGLType() { return header.glType; }
+
+    /** Returns the OpenGL base internal format, e.g. {@link GL#GL_RGB} or {@link GL#GL_RGBA}. */
+    public int getGLBaseInternalFormat() { return header.glBaseInternalFormat; }
+
+    /** Width of the texture (or the top-most mipmap if mipmaps are present) */
+    public int getWidth() { return header.pixelWidth; }
+
+    /** Height of the texture (or the top-most mipmap if mipmaps are present) */
+    public int getHeight() { return header.pixelHeight; }
+
+    /** Returns {@code true} if this texture is a cube map, i.e. has six faces. */
+    public boolean isCubemap() { return 6 == header.numberOfFaces; }
+
+    /** Number of faces, 6 for cube maps, otherwise 1. */
+    public int getNumFaces() { return header.numberOfFaces; }
+
+    /** Number of stored mipmap levels, at least 1. */
+    public int getNumMipMaps() { return levelOffsets.length; }
+
+    /**
+     * Returns {@code true} if the file requests mipmaps to be generated by the GL,
+     * i.e. only the base level is stored.
+     */
+    public boolean getGenerateMipmaps() { return 0 == header.numberOfMipmapLevels; }
+
+    /** Gets the <i>i</i>th mipmap data of the first face (0..getNumMipMaps() - 1) */
+    public ImageInfo getMipMap(final int map) {
+        return getMipMap(0, map);
+    }
+
+    /**
+     * Gets the <i>i</i>th mipmap data (0..getNumMipMaps() - 1)
+     * @param face cube map face in the order +X, -X, +Y, -Y, +Z, -Z, or 0 for 2D textures
+     * @param map mipmap index
+     * @return image object sharing this image's data
+     */
+    public ImageInfo getMipMap(final int face, final int map) {
+        if( 0 > face || face >= header.numberOfFaces ) {
+            throw new IllegalArgumentException("Illegal face " + face + " (0.." + (header.numberOfFaces - 1) + ")");
+        }
+        if( 0 > map || map >= levelOffsets.length ) {
+            throw new IllegalArgumentException("Illegal mipmap number " + map + " (0.." + (levelOffsets.length - 1) + ")");
+        }
+        final int faceSize = faceSizes[map];
+        final int offset = levelOffsets[map] + face * align4(faceSize);
+        final ByteBuffer b = buf.duplicate();
+        b.position(offset);
+        b.limit(offset + faceSize);
+        final ByteBuffer next = b.slice();
+        next.order(buf.order());
+        return new ImageInfo(next, mipMapSize(header.pixelWidth, map), mipMapSize(header.pixelHeight, map));
+    }
+
+    /** Returns an array of ImageInfos corresponding to all mipmap levels of the given face. */
+    public ImageInfo[] getAllMipMaps(final int face) {
+        final ImageInfo[] result = new ImageInfo[levelOffsets.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = getMipMap(face, i);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "KTXImage["+header.pixelWidth+"x"+header.pixelHeight+", faces "+header.numberOfFaces+", levels "+levelOffsets.length+
+               ", internalFormat 0x"+Integer.toHexString(header.glInternalFormat)+", format 0x"+Integer.toHexString(header.glFormat)+
+               ", type 0x"+Integer.toHexString(header.glType)+", compressed "+isCompressed()+", order "+buf.order()+"]";
+    }
+
+    //----------------------------------------------------------------------
+    // Internals only below this point
+    //
+
+    private static final byte[] IDENTIFIER = new byte[] {
+        (byte)0xAB, (byte)0x4B, (byte)0x54, (byte)0x58, (byte)0x20, (byte)0x31, // 0xAB 'K' 'T' 'X' ' ' '1'
+        (byte)0x31, (byte)0xBB, (byte)0x0D, (byte)0x0A, (byte)0x1A, (byte)0x0A  // '1' 0xBB '\r' '\n' 0x1A '\n'
+    };
+    private static final int ENDIANNESS = 0x04030201;
+    private static final int HEADER_SIZE = 64;
+
+    static class Header {
+        int glType;
+        int glTypeSize;
+        int glFormat;
+        int glInternalFormat;
+        int glBaseInternalFormat;
+        int pixelWidth;
+        int pixelHeight;
+        int pixelDepth;
+        int numberOfArrayElements;
+        int numberOfFaces;
+        int numberOfMipmapLevels;
+        int bytesOfKeyValueData;
+
+        /** Reads the header and sets the given buffer's byte order according to the file's endianness. */
+        void read(final ByteBuffer buf) throws IOException {
+            for(int i=0; i<IDENTIFIER.length; i++) {
+                if( IDENTIFIER[i] != buf.get() ) {
+                    throw new IOException("Incorrect KTX identifier at byte "+i);
+                }
+            }
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            final int endianness = buf.getInt();
+            if( ENDIANNESS != endianness ) {
+                buf.order(ByteOrder.BIG_ENDIAN);
+                if( ENDIANNESS != Integer.reverseBytes(endianness) ) {
+                    throw new IOException("Incorrect KTX endianness 0x"+Integer.toHexString(endianness));
+                }
+            }
+            glType                = buf.getInt();
+            glTypeSize            = buf.getInt();
+            glFormat              = buf.getInt();
+            glInternalFormat      = buf.getInt();
+            glBaseInternalFormat  = buf.getInt();
+            pixelWidth            = buf.getInt();
+            pixelHeight           = buf.getInt();
+            pixelDepth            = buf.getInt();
+            numberOfArrayElements = buf.getInt();
+            numberOfFaces         = buf.getInt();
+            numberOfMipmapLevels  = buf.getInt();
+            bytesOfKeyValueData   = buf.getInt();
+        }
+
+        void write(final ByteBuffer buf) {
+            buf.put(IDENTIFIER);
+            buf.putInt(ENDIANNESS);
+            buf.putInt(glType);
+            buf.putInt(glTypeSize);
+            buf.putInt(glFormat);
+            buf.putInt(glInternalFormat);
+            buf.putInt(glBaseInternalFormat);
+            buf.putInt(pixelWidth);
+            buf.putInt(pixelHeight);
+            buf.putInt(pixelDepth);
+            buf.putInt(numberOfArrayElements);
+            buf.putInt(numberOfFaces);
+            buf.putInt(numberOfMipmapLevels);
+            buf.putInt(bytesOfKeyValueData);
+        }
+    }
+
+    private KTXImage() {
+    }
+
+    private void readFromFile(final File file) throws IOException {
+        fis = new FileInputStream(file);
+        chan = fis.getChannel();
+        final ByteBuffer buf = chan.map(FileChannel.MapMode.READ_ONLY,
+                                        0, (int) file.length());
+        try {
+            readFromBuffer(buf);
+        } catch (final IOException ioe) {
+            close();
+            throw ioe;
+        }
+    }
+
+    private void readFromBuffer(final ByteBuffer buf) throws IOException {
+        this.buf = buf;
+        buf.position(0);
+        header = new Header();
+        header.read(buf);
+        if( 0 != header.pixelDepth || 0 != header.numberOfArrayElements ) {
+            throw new IOException("KTX 3D and array textures not supported: depth "+header.pixelDepth+", array elements "+header.numberOfArrayElements);
+        }
+        if( 1 != header.numberOfFaces && 6 != header.numberOfFaces ) {
+            throw new IOException("Illegal KTX number of faces "+header.numberOfFaces);
+        }
+        if( 1 < header.glTypeSize && buf.order() != ByteOrder.nativeOrder() ) {
+            throw new IOException("KTX data of type size "+header.glTypeSize+" in non native byte order "+buf.order()+" not supported");
+        }
+        final int numLevels = Math.max(1, header.numberOfMipmapLevels);
+        levelOffsets = new int[numLevels];
+        faceSizes = new int[numLevels];
+        int offset = HEADER_SIZE + header.bytesOfKeyValueData;
+        for(int i=0; i<numLevels; i++) {
+            if( offset + 4 > buf.limit() ) {
+                throw new IOException("KTX data truncated at mipmap level "+i);
+            }
+            final int imageSize = buf.getInt(offset);
+            offset += 4;
+            levelOffsets[i] = offset;
+            // imageSize covers one face for non-array cube maps, otherwise the whole level
+            faceSizes[i] = imageSize;
+            offset += header.numberOfFaces * align4(imageSize);
+            if( offset > buf.limit() ) {
+                throw new IOException("KTX data truncated at mipmap level "+i+": "+offset+" > "+buf.limit());
+            }
+        }
+        buf.position(0);
+    }
+
+    private void initFromData(final int glInternalFormat, final int glFormat, final int glType, final int glTypeSize,
+                              final int glBaseInternalFormat,
+                              final int width, final int height,
+                              final ByteBuffer[] mipmapData) throws IllegalArgumentException {
+        if( null == mipmapData || 0 == mipmapData.length ) {
+            throw new IllegalArgumentException("No mipmap data given");
+        }
+        header = new Header();
+        header.glType = glType;
+        header.glTypeSize = 0 == glType ? 1 : glTypeSize;
+        header.glFormat = glFormat;
+        header.glInternalFormat = glInternalFormat;
+        header.glBaseInternalFormat = glBaseInternalFormat;
+        header.pixelWidth = width;
+        header.pixelHeight = height;
+        header.pixelDepth = 0;
+        header.numberOfArrayElements = 0;
+        header.numberOfFaces = 1;
+        header.numberOfMipmapLevels = mipmapData.length;
+        header.bytesOfKeyValueData = 0;
+
+        int totalSize = HEADER_SIZE;
+        for (int i = 0; i < mipmapData.length; i++) {
+            totalSize += 4 + align4(mipmapData[i].remaining());
+        }
+        final ByteBuffer buf = ByteBuffer.allocate(totalSize);
+        buf.order(ByteOrder.nativeOrder());
+        header.write(buf);
+        levelOffsets = new int[mipmapData.length];
+        faceSizes = new int[mipmapData.length];
+        for (int i = 0; i < mipmapData.length; i++) {
+            final int imageSize = mipmapData[i].remaining();
+            buf.putInt(imageSize);
+            levelOffsets[i] = buf.position();
+            faceSizes[i] = imageSize;
+            buf.put(mipmapData[i].duplicate());
+            buf.position(levelOffsets[i] + align4(imageSize)); // mipPadding
+        }
+        buf.rewind();
+        this.buf = buf;
+    }
+
+    private static int align4(final int size) {
+        return ( size + 3 ) & ~3;
+    }
+
+    private static int mipMapSize(final int size, final int map) {
+        return Math.max(1, size >> map);
+    }
+}
@@ -106,6 +106,44 @@ public class NetPbmTextureWriter implements TextureWriter {
         return res;
     }
 
+    /**
+     * Returns the header of a binary PPM or PAM image.
+     * @param magic 6 - PPM binary RGB, 7 - PAM binary RGB or RGBA
+     * @param width image width
+     * @param height image height
+     * @param comps 3 for RGB or 4 for RGBA, the latter only valid for PAM
+     */
+    public static String getHeader(final int magic, final int width, final int height, final int comps) {
+        final StringBuilder header = new StringBuilder();
+        header.append("P");
+        header.append(magic);
+        header.append("\n");
+        if(7==magic) {
+            header.append("WIDTH ");
+        }
+        header.append(width);
+        if(7==magic) {
+            header.append("\nHEIGHT ");
+        } else {
+            header.append(" ");
+        }
+        header.append(height);
+        if(7==magic) {
+            header.append("\nDEPTH ");
+            header.append(comps);
+            header.append("\nMAXVAL 255\nTUPLTYPE ");
+            if(4 == comps) {
+                header.append("RGB_ALPHA");
+            } else {
+                header.append("RGB");
+            }
+            header.append("\nENDHDR\n");
+        } else {
+            header.append("\n255\n");
+        }
+        return header.toString();
+    }
+
     private boolean writeImpl(final File file, final TextureData data) throws IOException {
         int pixelFormat = data.getPixelFormat();
         final int pixelType   = data.getPixelType();
@@ -142,35 +180,7 @@ public class NetPbmTextureWriter implements TextureWriter {
 
             final FileOutputStream fos = IOUtil.getFileOutputStream(file, true);
 
-            final StringBuilder header = new StringBuilder();
-            header.append("P");
-            header.append(magic);
-            header.append("\n");
-            if(7==magic) {
-                header.append("WIDTH ");
-            }
-            header.append(data.getWidth());
-            if(7==magic) {
-                header.append("\nHEIGHT ");
-            } else {
-                header.append(" ");
-            }
-            header.append(data.getHeight());
-            if(7==magic) {
-                header.append("\nDEPTH ");
-                header.append(comps);
-                header.append("\nMAXVAL 255\nTUPLTYPE ");
-                if(pixelFormat == GL.GL_RGBA) {
-                    header.append("RGB_ALPHA");
-                } else {
-                    header.append("RGB");
-                }
-                header.append("\nENDHDR\n");
-            } else {
-                header.append("\n255\n");
-            }
-
-            fos.write(header.toString().getBytes());
+            fos.write(getHeader(magic, data.getWidth(), data.getHeight(), comps).getBytes());
 
             final FileChannel fosc = fos.getChannel();
             fosc.write(buf);
@@ -40,6 +40,7 @@
 
 package com.jogamp.opengl.util.texture.spi;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -68,6 +69,31 @@ public interface TextureProvider {
         ImageType[] getImageTypes();
     }
 
+    /**
+     * Optional additional interface for {@link TextureProvider} implementation
+     * reading directly from a {@link File}, e.g. by memory mapping it.
+     * <p>
+     * Used by {@link com.jogamp.opengl.util.texture.TextureIO TextureIO} for file sources
+     * if the provider is mapped to the file's {@link ImageType}, avoiding to copy the file's content.
+     * </p>
+     */
+    public static interface SupportsFile {
+        /**
+         * Produces a TextureData object from a file, or returns null if
+         * the file format was not supported by this TextureProvider.
+         * <p>
+         * See {@link TextureProvider#newTextureData(GLProfile, InputStream, int, int, boolean, String)}
+         * for a description of the arguments.
+         * </p>
+         * @throws IOException if an error occurred while reading the file
+         */
+        public TextureData newTextureData(GLProfile glp, File file,
+                                          int internalFormat,
+                                          int pixelFormat,
+                                          boolean mipmap,
+                                          String fileSuffix) throws IOException;
+    }
+
     /**
      * Returns the known supported {@link ImageType}s, or {@code null} if unknown.
      * <p>
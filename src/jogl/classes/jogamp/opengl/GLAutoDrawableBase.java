@@ -45,6 +45,7 @@ import com.jogamp.opengl.GLContext;
 import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLFrameProfiler;
 import com.jogamp.opengl.GLOffscreenAutoDrawable;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.GLRunnable;
@@ -599,6 +600,61 @@ public abstract class GLAutoDrawableBase implements GLAutoDrawable, GLStateKeepe
         return helper.getExclusiveContextThread();
     }
 
+    @Override
+    public final GLFrameProfiler setFrameProfiling(final int frameCapacity) {
+        return helper.setFrameProfiling(frameCapacity);
+    }
+
+    @Override
+    public final GLFrameProfiler getFrameProfiler() {
+        return helper.getFrameProfiler();
+    }
+
+    /**
+     * Limits the time spent per frame executing {@link #invoke(boolean, GLRunnable) enqueued} {@link GLRunnable}s
+     * while an animator is animating, deferring remaining tasks to the following frames.
+     * @param nanos time budget in nanoseconds, 0 for unlimited (default)
+     * @see GLDrawableHelper#setGLRunnableTimeBudget(long)
+     */
+    public final void setGLRunnableTimeBudget(final long nanos) {
+        helper.setGLRunnableTimeBudget(nanos);
+    }
+
+    /** @see #setGLRunnableTimeBudget(long) */
+    public final long getGLRunnableTimeBudget() {
+        return helper.getGLRunnableTimeBudget();
+    }
+
+    /** Returns the number of currently {@link #invoke(boolean, GLRunnable) enqueued} {@link GLRunnable}s. */
+    public final int getGLRunnableQueueSize() {
+        return helper.getGLRunnableQueueSize();
+    }
+
+    /** Returns the number of executed {@link GLRunnable}s since last {@link #resetGLRunnableStatistics()}. */
+    public final long getGLRunnableExecutedCount() {
+        return helper.getGLRunnableExecutedCount();
+    }
+
+    /** Returns the number of {@link GLRunnable}s deferred to a later frame due to the {@link #setGLRunnableTimeBudget(long) time budget}. */
+    public final long getGLRunnableDeferredCount() {
+        return helper.getGLRunnableDeferredCount();
+    }
+
+    /** Returns the mean queue latency of executed {@link GLRunnable}s in nanoseconds. */
+    public final long getGLRunnableMeanWaitNanos() {
+        return helper.getGLRunnableMeanWaitNanos();
+    }
+
+    /** Returns the maximum queue latency of executed {@link GLRunnable}s in nanoseconds. */
+    public final long getGLRunnableMaxWaitNanos() {
+        return helper.getGLRunnableMaxWaitNanos();
+    }
+
+    /** Resets the {@link GLRunnable} queue statistics. */
+    public final void resetGLRunnableStatistics() {
+        helper.resetGLRunnableStatistics();
+    }
+
     /**
      * Invokes given {@code runnable} on current thread outside of a probable claimed exclusive thread,
      * i.e. releases the exclusive thread, executes the runnable and reclaims it.
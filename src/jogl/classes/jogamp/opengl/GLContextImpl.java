@@ -44,11 +44,13 @@ import java.lang.reflect.Method;
 import java.nio.IntBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.jogamp.common.ExceptionUtils;
 import com.jogamp.common.os.DynamicLookupHelper;
@@ -142,16 +144,18 @@ public abstract class GLContextImpl extends GLContext {
 
   protected GL gl;
 
-  protected static final Object mappedContextTypeObjectLock;
-  protected static final HashMap<String, ExtensionAvailabilityCache> mappedExtensionAvailabilityCache;
-  protected static final HashMap<String, ProcAddressTable> mappedGLProcAddress;
-  protected static final HashMap<String, ProcAddressTable> mappedGLXProcAddress;
+  /**
+   * Context type maps shared by all contexts of the same FQN,
+   * concurrent maps allowing contexts to be created in parallel w/o global lock contention.
+   */
+  protected static final ConcurrentHashMap<String, ExtensionAvailabilityCache> mappedExtensionAvailabilityCache;
+  protected static final ConcurrentHashMap<String, ProcAddressTable> mappedGLProcAddress;
+  protected static final ConcurrentHashMap<String, ProcAddressTable> mappedGLXProcAddress;
 
   static {
-      mappedContextTypeObjectLock = new Object();
-      mappedExtensionAvailabilityCache = new HashMap<String, ExtensionAvailabilityCache>();
-      mappedGLProcAddress = new HashMap<String, ProcAddressTable>();
-      mappedGLXProcAddress = new HashMap<String, ProcAddressTable>();
+      mappedExtensionAvailabilityCache = new ConcurrentHashMap<String, ExtensionAvailabilityCache>();
+      mappedGLProcAddress = new ConcurrentHashMap<String, ProcAddressTable>();
+      mappedGLXProcAddress = new ConcurrentHashMap<String, ProcAddressTable>();
   }
 
   public static void shutdownImpl() {
@@ -966,9 +970,30 @@ public abstract class GLContextImpl extends GLContext {
                GLContext.getAvailableGLVersionsSet(device));
     }
     if ( !GLContext.getAvailableGLVersionsSet(device) ) {
-        if( !mapGLVersions(device) ) {
-            // none of the ARB context creation calls was successful, bail out
-            return 0;
+        // restore or map, validate and potentially revert the GL version mapping of the device atomically
+        synchronized ( getDeviceMappingLock(device) ) {
+            return createContextARB(share, direct, device, glp, !GLContext.getAvailableGLVersionsSet(device));
+        }
+    }
+    return createContextARB(share, direct, device, glp, false);
+  }
+
+  private final long createContextARB(final long share, final boolean direct,
+                                      final AbstractGraphicsDevice device, final GLProfile glp, final boolean mapVersions)
+  {
+    final GLProfileCache profileCache = GLProfileCache.get();
+    GLRendererQuirks restoredStickySnapshot = null;
+    boolean mappedGLVersions = false;
+    if ( mapVersions ) {
+        if( null != profileCache ) {
+            restoredStickySnapshot = restoreAvailableGLVersions(profileCache, device);
+        }
+        if( null == restoredStickySnapshot ) {
+            if( !mapGLVersions(device) ) {
+                // none of the ARB context creation calls was successful, bail out
+                return 0;
+            }
+            mappedGLVersions = true;
         }
     }
 
@@ -995,9 +1020,102 @@ public abstract class GLContextImpl extends GLContext {
             }
         }
     }
+    if( null != restoredStickySnapshot ) {
+        final GLProfileCache.Entry entry = profileCache.get(device.getUniqueID());
+        if( 0 == _ctx || null == entry || !entry.getIdentity().equals(GLProfileCache.getDriverIdentity(glVendor, glRenderer, glVersion)) ) {
+            // stale cache entry, e.g. driver has been updated: drop it and probe regularly
+            if( DEBUG ) {
+                System.err.println(getThreadName() + ": createContextARB-MapGLVersions cache mismatch on "+device+": "+
+                                   GLProfileCache.getDriverIdentity(glVendor, glRenderer, glVersion)+" != "+entry);
+            }
+            if( 0 != _ctx ) {
+                destroyContextARBImpl(_ctx);
+            }
+            resetStates(false);
+            profileCache.remove(device.getUniqueID());
+            clearAvailableGLVersions(device);
+            GLRendererQuirks.setStickyDeviceQuirks(device, restoredStickySnapshot); // revert the cached quirks
+            return createContextARB(share, direct, device, glp, true);
+        }
+    } else if( mappedGLVersions && null != profileCache && 0 != _ctx ) {
+        storeAvailableGLVersions(profileCache, device);
+    }
     return _ctx;
   }
 
+  /**
+   * Restores the {@link GLProfileCache cached} GL version mapping and sticky quirks of the given device.
+   * <p>
+   * Caller must hold the {@link #getDeviceMappingLock(AbstractGraphicsDevice) device mapping lock}.
+   * </p>
+   * @return a snapshot of the sticky quirks before the restoration, allowing to revert them on a cache mismatch,
+   *         or null if no entry existed and nothing has been restored
+   */
+  private static final GLRendererQuirks restoreAvailableGLVersions(final GLProfileCache profileCache, final AbstractGraphicsDevice device) {
+    final GLProfileCache.Entry entry = profileCache.get(device.getUniqueID());
+    if( null == entry || entry.getVersions().isEmpty() ) {
+        return null;
+    }
+    final GLRendererQuirks stickySnapshot = new GLRendererQuirks();
+    GLRendererQuirks.pushStickyDeviceQuirks(device, stickySnapshot);
+    final String devKey = device.getUniqueID();
+    synchronized (GLContext.deviceVersionAvailable) {
+        for(final Map.Entry<String, Integer> v : entry.getVersions().entrySet()) {
+            GLContext.deviceVersionAvailable.put( (devKey+"-"+v.getKey()).intern(), v.getValue() );
+        }
+    }
+    final int[] quirks = entry.getQuirks();
+    synchronized(GLContextImpl.class) {
+        for(int i=0; i<quirks.length; i++) {
+            GLRendererQuirks.addStickyDeviceQuirk(device, quirks[i]);
+        }
+    }
+    GLContext.setAvailableGLVersionsSet(device, true);
+    if( DEBUG ) {
+        System.err.println(getThreadName() + ": createContextARB-MapGLVersions restored from cache on "+device+": "+entry);
+    }
+    return stickySnapshot;
+  }
+
+  /** Stores the freshly mapped GL versions and sticky quirks of the given device w/ this context's driver identity. */
+  private final void storeAvailableGLVersions(final GLProfileCache profileCache, final AbstractGraphicsDevice device) {
+    final String devPrefix = device.getUniqueID()+"-";
+    final Map<String, Integer> versions = new HashMap<String, Integer>();
+    synchronized (GLContext.deviceVersionAvailable) {
+        for(final Map.Entry<String, Integer> v : GLContext.deviceVersionAvailable.entrySet()) {
+            if( v.getKey().startsWith(devPrefix) ) {
+                versions.put(v.getKey().substring(devPrefix.length()), v.getValue());
+            }
+        }
+    }
+    final GLRendererQuirks sticky = GLRendererQuirks.getStickyDeviceQuirks(device);
+    final ArrayList<Integer> quirkList = new ArrayList<Integer>();
+    for(int i=0; i<GLRendererQuirks.getCount(); i++) {
+        if( sticky.exist(i) ) {
+            quirkList.add(Integer.valueOf(i));
+        }
+    }
+    final int[] quirks = new int[quirkList.size()];
+    for(int i=0; i<quirks.length; i++) {
+        quirks[i] = quirkList.get(i).intValue();
+    }
+    profileCache.put(device.getUniqueID(),
+                     new GLProfileCache.Entry(GLProfileCache.getDriverIdentity(glVendor, glRenderer, glVersion), versions, quirks));
+  }
+
+  /** Removes all GL version mappings of the given device. */
+  private static final void clearAvailableGLVersions(final AbstractGraphicsDevice device) {
+    final String devPrefix = device.getUniqueID()+"-";
+    synchronized (GLContext.deviceVersionAvailable) {
+        for(final Iterator<String> it = GLContext.deviceVersionAvailable.keySet().iterator(); it.hasNext(); ) {
+            if( it.next().startsWith(devPrefix) ) {
+                it.remove();
+            }
+        }
+    }
+    GLContext.setAvailableGLVersionsSet(device, false);
+  }
+
   //----------------------------------------------------------------------
   //
 
@@ -1168,8 +1286,24 @@ public abstract class GLContextImpl extends GLContext {
     }
   }
 
+  /**
+   * Per device lock object serializing {@link #mapGLVersions(AbstractGraphicsDevice)},
+   * allowing distinct devices to be mapped concurrently.
+   */
+  private static Object getDeviceMappingLock(final AbstractGraphicsDevice device) {
+    final String key = device.getUniqueID();
+    final Object lock = deviceMappingLocks.get(key);
+    if( null != lock ) {
+        return lock;
+    }
+    final Object newLock = new Object();
+    final Object preLock = deviceMappingLocks.putIfAbsent(key, newLock);
+    return null != preLock ? preLock : newLock;
+  }
+  private static final ConcurrentHashMap<String, Object> deviceMappingLocks = new ConcurrentHashMap<String, Object>();
+
   private final boolean mapGLVersions(final AbstractGraphicsDevice device) {
-    synchronized (GLContext.deviceVersionAvailable) {
+    synchronized ( getDeviceMappingLock(device) ) {
         final boolean hasOpenGLESSupport = drawable.getFactory().hasOpenGLESSupport();
         final boolean hasOpenGLDesktopSupport = drawable.getFactory().hasOpenGLDesktopSupport();
         final boolean hasMinorVersionSupport = drawable.getFactoryImpl().hasMajorMinorCreateContextARB();
@@ -2069,21 +2203,18 @@ public abstract class GLContextImpl extends GLContext {
     {
         final GLProfile glp = drawable.getGLProfile(); // !withinGLVersionsMapping
 
-        ProcAddressTable table = null;
-        synchronized(mappedContextTypeObjectLock) {
-            table = mappedGLProcAddress.get( contextFQN );
-            if(null != table) {
-                if( !verifyInstance(adevice, hasMajor, hasMinor, hasCtxProfileBits, "ProcAddressTable", table) ) {
-                    throw new GLException("GLContext GL ProcAddressTable mapped key("+contextFQN+" - " +
-                                          GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
-                                          ") -> "+ toHexString(table.hashCode()) +" not matching "+table.getClass().getName());
-                }
-                if( !withinGLVersionsMapping && !verifyInstance(glp, "ProcAddressTable", table) ) {
-                    throw new GLException("GLContext GL ProcAddressTable mapped key("+contextFQN+" - " +
-                                          GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
-                                          ") -> "+ toHexString(table.hashCode()) +": "+table.getClass().getName()+
-                                          " not matching "+glp.getGLImplBaseClassName()+"/"+glp);
-                }
+        final ProcAddressTable table = mappedGLProcAddress.get( contextFQN );
+        if(null != table) {
+            if( !verifyInstance(adevice, hasMajor, hasMinor, hasCtxProfileBits, "ProcAddressTable", table) ) {
+                throw new GLException("GLContext GL ProcAddressTable mapped key("+contextFQN+" - " +
+                                      GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
+                                      ") -> "+ toHexString(table.hashCode()) +" not matching "+table.getClass().getName());
+            }
+            if( !withinGLVersionsMapping && !verifyInstance(glp, "ProcAddressTable", table) ) {
+                throw new GLException("GLContext GL ProcAddressTable mapped key("+contextFQN+" - " +
+                                      GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
+                                      ") -> "+ toHexString(table.hashCode()) +": "+table.getClass().getName()+
+                                      " not matching "+glp.getGLImplBaseClassName()+"/"+glp);
             }
         }
         if(null != table) {
@@ -2100,23 +2231,23 @@ public abstract class GLContextImpl extends GLContext {
                 }
             }
         } else {
-            glProcAddressTable = (ProcAddressTable) createInstance(adevice, hasMajor, hasMinor, hasCtxProfileBits, false,
-                                                                   new Object[] { new GLProcAddressResolver() } );
-            resetProcAddressTable(glProcAddressTable, dynamicLookup);
+            final ProcAddressTable newTable = (ProcAddressTable) createInstance(adevice, hasMajor, hasMinor, hasCtxProfileBits, false,
+                                                                                new Object[] { new GLProcAddressResolver() } );
+            resetProcAddressTable(newTable, dynamicLookup);
 
-            synchronized(mappedContextTypeObjectLock) {
-                mappedGLProcAddress.put(contextFQN, glProcAddressTable);
-                if(DEBUG) {
-                    if( withinGLVersionsMapping ) {
-                        System.err.println(getThreadName() + ": GLContext GL ProcAddressTable mapping key("+contextFQN+" - " +
-                                           GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
-                                           ") -> "+toHexString(glProcAddressTable.hashCode()) +": "+glProcAddressTable.getClass().getName());
-                    } else {
-                        System.err.println(getThreadName() + ": GLContext GL ProcAddressTable mapping key("+contextFQN+" - " +
-                                           GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
-                                           ") -> "+toHexString(glProcAddressTable.hashCode()) +": "+glProcAddressTable.getClass().getName()+
-                                           " -> "+glp.getGLImplBaseClassName());
-                    }
+            // a concurrently created context of the same FQN may have mapped its equal table first
+            final ProcAddressTable preTable = mappedGLProcAddress.putIfAbsent(contextFQN, newTable);
+            glProcAddressTable = null != preTable ? preTable : newTable;
+            if(DEBUG) {
+                if( withinGLVersionsMapping ) {
+                    System.err.println(getThreadName() + ": GLContext GL ProcAddressTable mapping key("+contextFQN+" - " +
+                                       GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
+                                       ") -> "+toHexString(glProcAddressTable.hashCode()) +": "+glProcAddressTable.getClass().getName());
+                } else {
+                    System.err.println(getThreadName() + ": GLContext GL ProcAddressTable mapping key("+contextFQN+" - " +
+                                       GLContext.getGLVersion(hasMajor, hasMinor, hasCtxProfileBits, null)+
+                                       ") -> "+toHexString(glProcAddressTable.hashCode()) +": "+glProcAddressTable.getClass().getName()+
+                                       " -> "+glp.getGLImplBaseClassName());
                 }
             }
         }
@@ -2134,10 +2265,7 @@ public abstract class GLContextImpl extends GLContext {
     // Update ExtensionAvailabilityCache
     //
     {
-        ExtensionAvailabilityCache eCache;
-        synchronized(mappedContextTypeObjectLock) {
-            eCache = mappedExtensionAvailabilityCache.get( contextFQN );
-        }
+        final ExtensionAvailabilityCache eCache = mappedExtensionAvailabilityCache.get( contextFQN );
         if(null !=  eCache) {
             extensionAvailability = eCache;
             if(DEBUG) {
@@ -2145,15 +2273,14 @@ public abstract class GLContextImpl extends GLContext {
                                    toHexString(eCache.hashCode()) + " - entries: "+eCache.getTotalExtensionCount());
             }
         } else {
-            extensionAvailability = new ExtensionAvailabilityCache();
+            final ExtensionAvailabilityCache newCache = new ExtensionAvailabilityCache();
             setContextVersion(hasMajor, hasMinor, hasCtxProfileBits, vendorVersion, false); // pre-set of GL version, required for extension cache usage
-            extensionAvailability.reset(this);
-            synchronized(mappedContextTypeObjectLock) {
-                mappedExtensionAvailabilityCache.put(contextFQN, extensionAvailability);
-                if(DEBUG) {
-                    System.err.println(getThreadName() + ": GLContext GL ExtensionAvailabilityCache mapping key("+contextFQN+") -> "+
-                                       toHexString(extensionAvailability.hashCode()) + " - entries: "+extensionAvailability.getTotalExtensionCount());
-                }
+            newCache.reset(this);
+            final ExtensionAvailabilityCache preCache = mappedExtensionAvailabilityCache.putIfAbsent(contextFQN, newCache);
+            extensionAvailability = null != preCache ? preCache : newCache;
+            if(DEBUG) {
+                System.err.println(getThreadName() + ": GLContext GL ExtensionAvailabilityCache mapping key("+contextFQN+") -> "+
+                                   toHexString(extensionAvailability.hashCode()) + " - entries: "+extensionAvailability.getTotalExtensionCount());
             }
         }
     }
@@ -2604,20 +2731,16 @@ public abstract class GLContextImpl extends GLContext {
       System.err.println(getThreadName() + ": RM Context FQN: "+contextFQN+" - "+GLContext.getGLVersion(major, minor, ctxProfileBits, null));
     }
 
-    synchronized(mappedContextTypeObjectLock) {
-        final ProcAddressTable table = mappedGLProcAddress.remove( contextFQN );
-        if(DEBUG) {
-            final int hc = null != table ? table.hashCode() : 0;
-            System.err.println(getThreadName() + ": RM GLContext GL ProcAddressTable mapping key("+contextFQN+") -> "+toHexString(hc));
-        }
+    final ProcAddressTable table = mappedGLProcAddress.remove( contextFQN );
+    if(DEBUG) {
+        final int hc = null != table ? table.hashCode() : 0;
+        System.err.println(getThreadName() + ": RM GLContext GL ProcAddressTable mapping key("+contextFQN+") -> "+toHexString(hc));
     }
 
-    synchronized(mappedContextTypeObjectLock) {
-        final ExtensionAvailabilityCache  eCache = mappedExtensionAvailabilityCache.remove( contextFQN );
-        if(DEBUG) {
-            final int hc = null != eCache ? eCache.hashCode() : 0;
-            System.err.println(getThreadName() + ": RM GLContext GL ExtensionAvailabilityCache mapping key("+contextFQN+") -> "+toHexString(hc));
-        }
+    final ExtensionAvailabilityCache  eCache = mappedExtensionAvailabilityCache.remove( contextFQN );
+    if(DEBUG) {
+        final int hc = null != eCache ? eCache.hashCode() : 0;
+        System.err.println(getThreadName() + ": RM GLContext GL ExtensionAvailabilityCache mapping key("+contextFQN+") -> "+toHexString(hc));
     }
   }
 
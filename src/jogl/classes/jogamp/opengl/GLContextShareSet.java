@@ -37,7 +37,6 @@
  * Sun gratefully acknowledges that this software was originally authored
  * and developed by Kenneth Bradley Russell and Christopher John Kline.
  */
-
 package jogamp.opengl;
 
 import java.io.PrintStream;
@@ -61,17 +60,34 @@ public class GLContextShareSet {
 
   // This class is implemented using a HashMap which maps from all shared contexts
   // to a share set, containing all shared contexts itself.
-
-  private static final Map<GLContext, ShareSet> shareMap = new WeakIdentityHashMap<GLContext, ShareSet>();
+  //
+  // The map is lock-striped by the context's identity hash, so that the frequent lookups
+  // of (un)shared contexts created and destroyed in parallel don't contend on one global lock.
+  // Only the rare registration and unregistration of sharing is serialized via registrationLock,
+  // being acquired before any stripe lock.
+  // Each ShareSet is guarded by itself, while its created set is copy-on-write for lock-free reads.
+
+  private static final int STRIPE_COUNT = 16; // power of two
+  @SuppressWarnings("unchecked")
+  private static final Map<GLContext, ShareSet>[] shareMaps = new Map[STRIPE_COUNT];
+  static {
+      for(int i=0; i<STRIPE_COUNT; i++) {
+          shareMaps[i] = new WeakIdentityHashMap<GLContext, ShareSet>();
+      }
+  }
+  private static final Object registrationLock = new Object();
 
   private static class ShareSet {
-    private final Map<GLContext, GLContext> createdShares   = new IdentityHashMap<GLContext, GLContext>();
+    /** Copy-on-write, replaced under this instance's lock. */
+    private volatile Map<GLContext, GLContext> createdShares = new IdentityHashMap<GLContext, GLContext>();
     private final Map<GLContext, GLContext> destroyedShares = new WeakIdentityHashMap<GLContext, GLContext>();
 
-    public final void mapNewEntry(final GLContext slave, final GLContext master) {
+    public synchronized final void mapNewEntry(final GLContext slave, final GLContext master) {
         final GLContext preMaster;
         if ( slave.isCreated() ) {
-            preMaster = createdShares.put(slave, master);
+            final Map<GLContext, GLContext> created = new IdentityHashMap<GLContext, GLContext>(createdShares);
+            preMaster = created.put(slave, master);
+            createdShares = created;
         } else {
             preMaster= destroyedShares.put(slave, master);
         }
@@ -80,44 +96,50 @@ public class GLContextShareSet {
                                     " is not new w/ master "+toHexString(preMaster.hashCode()));
         }
     }
-    public final void mapEntryIfNew(final GLContext slave, final GLContext master) {
+    public synchronized final void mapEntryIfNew(final GLContext slave, final GLContext master) {
         if( null == getMaster(master) ) {
             mapNewEntry(slave, master);
         }
     }
 
-    public final GLContext getMaster(final GLContext ctx) {
+    public synchronized final GLContext getMaster(final GLContext ctx) {
         final GLContext c = createdShares.get(ctx);
         return null != c ? c : destroyedShares.get(ctx);
     }
 
+    /** Returns an immutable snapshot of the created shares, not requiring a lock. */
     public Set<GLContext> getCreatedShares() {
         return createdShares.keySet();
     }
 
-    public Set<GLContext> getDestroyedShares() {
-        return destroyedShares.keySet();
+    /** Returns a copy of the destroyed shares. */
+    public synchronized Set<GLContext> getDestroyedShares() {
+        return new IdentityHashMap<GLContext, GLContext>(destroyedShares).keySet();
     }
 
-    public void contextCreated(final GLContext ctx) {
+    public synchronized void contextCreated(final GLContext ctx) {
       final GLContext ctxMaster = destroyedShares.remove(ctx);
       if( null == ctxMaster ) {
             throw new InternalError("State of ShareSet corrupted: Context "+toHexString(ctx.hashCode())+
                                     " should have been in destroyed-set");
       }
-      final GLContext delMaster = createdShares.put(ctx, ctxMaster);
+      final Map<GLContext, GLContext> created = new IdentityHashMap<GLContext, GLContext>(createdShares);
+      final GLContext delMaster = created.put(ctx, ctxMaster);
       if( null != delMaster ) {
             throw new InternalError("State of ShareSet corrupted: Context "+toHexString(ctx.hashCode())+
                                     " shouldn't have been in created-set");
       }
+      createdShares = created;
     }
 
-    public void contextDestroyed(final GLContext ctx) {
-      final GLContext ctxMaster = createdShares.remove(ctx);
+    public synchronized void contextDestroyed(final GLContext ctx) {
+      final Map<GLContext, GLContext> created = new IdentityHashMap<GLContext, GLContext>(createdShares);
+      final GLContext ctxMaster = created.remove(ctx);
       if( null == ctxMaster ) {
             throw new InternalError("State of ShareSet corrupted: Context "+toHexString(ctx.hashCode())+
                                     " should have been in created-set");
       }
+      createdShares = created;
       final GLContext delMaster = destroyedShares.put(ctx, ctxMaster);
       if( null != delMaster ) {
             throw new InternalError("State of ShareSet corrupted: Context "+toHexString(ctx.hashCode())+
@@ -129,57 +151,61 @@ public class GLContextShareSet {
   /** Indicate that contexts <code>slave</code> and
       <code>master</code> will share textures and display lists. Both
       must be non-null. */
-  public static synchronized void registerSharing(final GLContext slave, final GLContext master) {
+  public static void registerSharing(final GLContext slave, final GLContext master) {
       if (slave == null || master == null) {
           throw new IllegalArgumentException("Both slave and master must be non-null");
       }
-      ShareSet share = entryFor(slave);
-      if ( null == share ) {
-          share = entryFor(master);
-      }
-      if ( null == share ) {
-          share = new ShareSet();
+      synchronized( registrationLock ) {
+          ShareSet share = entryFor(slave);
+          if ( null == share ) {
+              share = entryFor(master);
+          }
+          if ( null == share ) {
+              share = new ShareSet();
+          }
+          share.mapNewEntry(slave, master);
+          share.mapEntryIfNew(master, master); // this master could have a different master shared registered earlier!
+          mapEntryIfNew(slave, share);
+          mapEntryIfNew(master, share);
       }
-      share.mapNewEntry(slave, master);
-      share.mapEntryIfNew(master, master); // this master could have a different master shared registered earlier!
-      mapEntryIfNew(slave, share);
-      mapEntryIfNew(master, share);
       if (DEBUG) {
           System.err.println("GLContextShareSet: registereSharing: 1: " +
                   toHexString(slave.hashCode()) + ", 2: " + toHexString(master.hashCode()));
       }
   }
 
-  public static synchronized void unregisterSharing(final GLContext lastContext) {
+  public static void unregisterSharing(final GLContext lastContext) {
     if (lastContext == null) {
       throw new IllegalArgumentException("Last context is null");
     }
-    final ShareSet share = entryFor(lastContext);
-    if (share == null) {
-      throw new GLException("Last context is unknown: "+lastContext);
-    }
-    Set<GLContext> s = share.getCreatedShares();
-    if(s.size()>0) {
-        throw new GLException("Last context's share set contains "+s.size()+" non destroyed context");
-    }
-    s = share.getDestroyedShares();
-    if(s.size()==0) {
-        throw new GLException("Last context's share set contains no destroyed context");
-    }
-    if (DEBUG) {
-      System.err.println("GLContextShareSet: unregisterSharing: " +
-              toHexString(lastContext.hashCode())+", entries: "+s.size());
-    }
-    for(final Iterator<GLContext> iter = s.iterator() ; iter.hasNext() ; ) {
-        final GLContext ctx = iter.next();
-        if(null == removeEntry(ctx)) {
-            throw new GLException("Removal of shareSet for context failed");
+    synchronized( registrationLock ) {
+        final ShareSet share = entryFor(lastContext);
+        if (share == null) {
+          throw new GLException("Last context is unknown: "+lastContext);
+        }
+        Set<GLContext> s = share.getCreatedShares();
+        if(s.size()>0) {
+            throw new GLException("Last context's share set contains "+s.size()+" non destroyed context");
+        }
+        s = share.getDestroyedShares();
+        if(s.size()==0) {
+            throw new GLException("Last context's share set contains no destroyed context");
+        }
+        if (DEBUG) {
+          System.err.println("GLContextShareSet: unregisterSharing: " +
+                  toHexString(lastContext.hashCode())+", entries: "+s.size());
+        }
+        for(final Iterator<GLContext> iter = s.iterator() ; iter.hasNext() ; ) {
+            final GLContext ctx = iter.next();
+            if(null == removeEntry(ctx)) {
+                throw new GLException("Removal of shareSet for context failed");
+            }
         }
     }
   }
 
   /** Returns true if the given GLContext is shared, otherwise false. */
-  public static synchronized boolean isShared(final GLContext context) {
+  public static boolean isShared(final GLContext context) {
     if (context == null) {
       throw new IllegalArgumentException("context is null");
     }
@@ -193,7 +219,7 @@ public class GLContextShareSet {
    * Returns the given <code>context</code>, if it is a shared master.
    * </p>
    */
-  public static synchronized GLContext getSharedMaster(final GLContext context) {
+  public static GLContext getSharedMaster(final GLContext context) {
     final ShareSet share = entryFor(context);
     if (share == null) {
       return null;
@@ -201,7 +227,7 @@ public class GLContextShareSet {
     return share.getMaster(context);
   }
 
-  private static synchronized Set<GLContext> getCreatedSharesImpl(final GLContext context) {
+  private static Set<GLContext> getCreatedSharesImpl(final GLContext context) {
     if (context == null) {
       throw new IllegalArgumentException("context is null");
     }
@@ -211,7 +237,7 @@ public class GLContextShareSet {
     }
     return null;
   }
-  private static synchronized Set<GLContext> getDestroyedSharesImpl(final GLContext context) {
+  private static Set<GLContext> getDestroyedSharesImpl(final GLContext context) {
     if (context == null) {
       throw new IllegalArgumentException("context is null");
     }
@@ -223,23 +249,23 @@ public class GLContextShareSet {
   }
 
   /** Returns true if the given GLContext has shared and created GLContext left including itself, otherwise false. */
-  public static synchronized boolean hasCreatedSharesLeft(final GLContext context) {
+  public static boolean hasCreatedSharesLeft(final GLContext context) {
       final Set<GLContext> s = getCreatedSharesImpl(context);
       return null != s && s.size() > 0;
   }
   /** Returns number of created shares for the given GLContext including itself, zero if none. */
-  public static synchronized int getCreatedShareCount(final GLContext context) {
+  public static int getCreatedShareCount(final GLContext context) {
       final Set<GLContext> s = getCreatedSharesImpl(context);
       return null != s ? s.size() : 0;
   }
   /** Returns number of destroyed shares for the given GLContext including itself, zero if none. */
-  public static synchronized int getDestroyedShareCount(final GLContext context) {
+  public static int getDestroyedShareCount(final GLContext context) {
       final Set<GLContext> s = getDestroyedSharesImpl(context);
       return null != s ? s.size() : 0;
   }
 
   /** Returns a new array-list of created GLContext shared with the given GLContext. */
-  public static synchronized ArrayList<GLContext> getCreatedShares(final GLContext context) {
+  public static ArrayList<GLContext> getCreatedShares(final GLContext context) {
       final ArrayList<GLContext> otherShares = new ArrayList<GLContext>();
       final Set<GLContext> createdShares = getCreatedSharesImpl(context);
       if( null != createdShares ) {
@@ -254,7 +280,7 @@ public class GLContextShareSet {
   }
 
   /** Returns a new array-list of destroyed GLContext shared with the given GLContext. */
-  public static synchronized ArrayList<GLContext> getDestroyedShares(final GLContext context) {
+  public static ArrayList<GLContext> getDestroyedShares(final GLContext context) {
       final ArrayList<GLContext> otherShares = new ArrayList<GLContext>();
       final Set<GLContext> destroyedShares = getDestroyedSharesImpl(context);
       if( null != destroyedShares ) {
@@ -269,7 +295,7 @@ public class GLContextShareSet {
   }
 
   /** Mark the given GLContext as being created. */
-  public static synchronized boolean contextCreated(final GLContext context) {
+  public static boolean contextCreated(final GLContext context) {
     final ShareSet share = entryFor(context);
     if (share != null) {
       share.contextCreated(context);
@@ -279,7 +305,7 @@ public class GLContextShareSet {
   }
 
   /** Mark the given GLContext as being destroyed. */
-  public static synchronized boolean contextDestroyed(final GLContext context) {
+  public static boolean contextDestroyed(final GLContext context) {
     final ShareSet share = entryFor(context);
     if (share != null) {
       share.contextDestroyed(context);
@@ -289,8 +315,15 @@ public class GLContextShareSet {
   }
 
   /** Returns the number of tracked shared GLContext. */
-  public static synchronized int getSize() {
-      return shareMap.size();
+  public static int getSize() {
+      int size = 0;
+      for(int i=0; i<STRIPE_COUNT; i++) {
+          final Map<GLContext, ShareSet> map = shareMaps[i];
+          synchronized( map ) {
+              size += map.size();
+          }
+      }
+      return size;
   }
 
   public static void printMap(final PrintStream out) {
@@ -298,17 +331,26 @@ public class GLContextShareSet {
       final Map<GLContext, GLContext> createdCtxSet = new IdentityHashMap<GLContext, GLContext>();
       final Map<GLContext, GLContext> destroyedCtxSet = new IdentityHashMap<GLContext, GLContext>();
 
-      final Set<GLContext> keys = shareMap.keySet();
-      for( final GLContext key : keys ) {
-          final ShareSet sset = shareMap.get(key);
-          if( null != sset ) {
-              for( final GLContext kc : sset.createdShares.keySet() ) {
-                  createdCtxSet.putIfAbsent(kc, kc);
-              }
-              for( final GLContext kd : sset.destroyedShares.keySet() ) {
-                  destroyedCtxSet.putIfAbsent(kd, kd);
+      final Map<GLContext, ShareSet> snapshot = new IdentityHashMap<GLContext, ShareSet>();
+      for(int i=0; i<STRIPE_COUNT; i++) {
+          final Map<GLContext, ShareSet> map = shareMaps[i];
+          synchronized( map ) {
+              for( final GLContext key : map.keySet() ) {
+                  final ShareSet sset = map.get(key);
+                  if( null != sset ) {
+                      snapshot.put(key, sset);
+                  }
               }
           }
+      }
+      for( final GLContext key : snapshot.keySet() ) {
+          final ShareSet sset = snapshot.get(key);
+          for( final GLContext kc : sset.getCreatedShares() ) {
+              createdCtxSet.put(kc, kc);
+          }
+          for( final GLContext kd : sset.getDestroyedShares() ) {
+              destroyedCtxSet.put(kd, kd);
+          }
           final GLContext master = key.getSharedMaster();
           final boolean isMaster = master == key;
           final int masterHash = null != master ? master.hashCode() : 0;
@@ -329,18 +371,31 @@ public class GLContextShareSet {
   //----------------------------------------------------------------------
   // Internals only below this point
 
+  private static Map<GLContext, ShareSet> stripeFor(final GLContext context) {
+    final int h = System.identityHashCode(context);
+    return shareMaps[ ( h ^ ( h >>> 16 ) ) & ( STRIPE_COUNT - 1 ) ];
+  }
 
   private static ShareSet entryFor(final GLContext context) {
-    return shareMap.get(context);
+    final Map<GLContext, ShareSet> map = stripeFor(context);
+    synchronized( map ) {
+        return map.get(context);
+    }
   }
 
   private static void mapEntryIfNew(final GLContext context, final ShareSet share) {
-    if ( null == shareMap.get(context) ) {
-        shareMap.put(context, share);
+    final Map<GLContext, ShareSet> map = stripeFor(context);
+    synchronized( map ) {
+        if ( null == map.get(context) ) {
+            map.put(context, share);
+        }
     }
   }
   private static ShareSet removeEntry(final GLContext context) {
-    return shareMap.remove(context);
+    final Map<GLContext, ShareSet> map = stripeFor(context);
+    synchronized( map ) {
+        return map.remove(context);
+    }
   }
 
   private static String toHexString(final long hex) {
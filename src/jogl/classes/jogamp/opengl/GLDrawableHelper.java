@@ -44,6 +44,9 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.jogamp.nativewindow.NativeSurface;
 import com.jogamp.nativewindow.NativeWindowException;
@@ -58,6 +61,7 @@ import com.jogamp.opengl.GLDrawableFactory;
 import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLFBODrawable;
+import com.jogamp.opengl.GLFrameProfiler;
 import com.jogamp.opengl.GLRunnable;
 
 import com.jogamp.common.ExceptionUtils;
@@ -81,14 +85,29 @@ public class GLDrawableHelper {
   private final Object listenersLock = new Object();
   private final ArrayList<GLEventListener> listeners = new ArrayList<GLEventListener>();
   private final HashSet<GLEventListener> listenersToBeInit = new HashSet<GLEventListener>();
+  /**
+   * Guards {@link #setAnimator(GLAnimatorControl)} and frame profiler updates.
+   * Producers never take this lock, the {@link #glRunnables} queue is lock-free.
+   */
   private final Object glRunnablesLock = new Object();
-  private ArrayList<GLRunnableTask> glRunnables = new ArrayList<GLRunnableTask>();
-  private volatile int glRunnableCount = 0;
+  /** Multi-producer single-consumer queue of pending {@link GLRunnableTask}s, drained by the GL thread within {@link #display(GLAutoDrawable)}. */
+  private final ConcurrentLinkedQueue<GLRunnableTask> glRunnables = new ConcurrentLinkedQueue<GLRunnableTask>();
+  /** Number of queued {@link #glRunnables}, incremented before enqueuing and decremented after dequeuing. */
+  private final AtomicInteger glRunnableCount = new AtomicInteger(0);
+  private volatile long glRunnableTimeBudget = 0;
+  // GLRunnable statistics, written by the GL thread and reset by any thread
+  private final AtomicLong glRunnableExecCount = new AtomicLong(0);
+  private final AtomicLong glRunnableDeferCount = new AtomicLong(0);
+  private final AtomicLong glRunnableWaitSum = new AtomicLong(0);
+  private final AtomicLong glRunnableWaitMax = new AtomicLong(0);
   private boolean autoSwapBufferMode;
   private volatile Thread exclusiveContextThread;
   /** -1 release, 0 nop, 1 claim */
   private volatile int exclusiveContextSwitch;
-  private GLAnimatorControl animatorCtrl;
+  private volatile GLAnimatorControl animatorCtrl;
+  private volatile GLFrameProfilerImpl frameProfiler;
+  /** Replaced {@link #frameProfiler} whose GPU queries are pending deletion on the GL thread. */
+  private volatile GLFrameProfilerImpl retiredFrameProfiler;
   private static Runnable nop = new Runnable() { @Override public void run() {} };
 
   private GLContext sharedContext;
@@ -107,10 +126,10 @@ public class GLDrawableHelper {
     autoSwapBufferMode = true;
     exclusiveContextThread = null;
     exclusiveContextSwitch = 0;
-    synchronized(glRunnablesLock) {
-        glRunnableCount = 0;
-        glRunnables.clear();
-    }
+    glRunnables.clear();
+    glRunnableCount.set(0);
+    glRunnableTimeBudget = 0;
+    resetGLRunnableStatistics();
     animatorCtrl = null;
     sharedContext = null;
     sharedAutoDrawable = null;
@@ -652,6 +671,10 @@ public class GLDrawableHelper {
    * @param sendReshape set to true if the subsequent display call won't reshape, otherwise false to avoid double reshape.
    **/
   public final void init(final GLAutoDrawable drawable, final boolean sendReshape) {
+    final GLFrameProfilerImpl fp = frameProfiler;
+    if( null != fp ) {
+        fp.invalidateGPU(); // new native context
+    }
     setViewportAndClear(drawable, 0, 0, drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
     synchronized(listenersLock) {
         final ArrayList<GLEventListener> _listeners = listeners;
@@ -671,29 +694,111 @@ public class GLDrawableHelper {
   }
 
   public final void display(final GLAutoDrawable drawable) {
-    displayImpl(drawable);
+    if( null != retiredFrameProfiler ) {
+        disposeRetiredFrameProfiler(drawable.getGL());
+    }
+    final GLFrameProfilerImpl fp = frameProfiler;
+    if( null != fp ) {
+        displayProfiled(drawable, fp);
+        return;
+    }
+    displayImpl(drawable, null);
     // runForAllGLEventListener(drawable, displayAction);
-    if( glRunnableCount > 0 && !execGLRunnables(drawable) ) { // glRunnableCount volatile OK; execGL.. only executed if size > 0
-        displayImpl(drawable);
+    if( glRunnableCount.get() > 0 && !execGLRunnables(drawable, null) ) { // execGL.. only executed if size > 0
+        displayImpl(drawable, null);
         // runForAllGLEventListener(drawable, displayAction);
     }
   }
-  private final void displayImpl(final GLAutoDrawable drawable) {
+  private final void displayProfiled(final GLAutoDrawable drawable, final GLFrameProfilerImpl fp) {
+    fp.beginFrame(drawable.getGL());
+    try {
+        displayImpl(drawable, fp);
+        if( glRunnableCount.get() > 0 && !execGLRunnables(drawable, fp) ) {
+            displayImpl(drawable, fp);
+        }
+    } finally {
+        fp.endCommands(drawable.getGL());
+    }
+    // frame ends after swapBuffers, see swapBuffersImpl(..)
+  }
+  private final void displayImpl(final GLAutoDrawable drawable, final GLFrameProfilerImpl fp) {
       synchronized(listenersLock) {
           final ArrayList<GLEventListener> _listeners = listeners;
           final int listenerCount = _listeners.size();
           for (int i=0; i < listenerCount; i++) {
             final GLEventListener listener = _listeners.get(i) ;
+            final long t0 = null != fp ? System.nanoTime() : 0;
             // GLEventListener may need to be init,
             // in case this one is added after the realization of the GLAutoDrawable
             if( listenersToBeInit.remove(listener) ) {
                 init( listener, drawable, true /* sendReshape */ );
             }
             listener.display(drawable);
+            if( null != fp ) {
+                fp.listenerDisplayed(i, listener, System.nanoTime() - t0);
+            }
           }
       }
   }
 
+  /**
+   * Enables or disables recording of per-frame timings, see {@link GLAutoDrawable#setFrameProfiling(int)}.
+   * <p>
+   * A replaced profiler's GPU queries are deleted on the GL thread
+   * with the next {@link #display(GLAutoDrawable)} or {@link #disposeGL(GLAutoDrawable, GLContext, boolean)}.
+   * </p>
+   * @param frameCapacity number of retained frames, or 0 to disable recording
+   * @return the new {@link GLFrameProfiler} or <code>null</code> if disabled
+   */
+  public final GLFrameProfiler setFrameProfiling(final int frameCapacity) {
+      if( 0 > frameCapacity ) {
+          throw new IllegalArgumentException("Invalid frameCapacity "+frameCapacity);
+      }
+      synchronized(glRunnablesLock) {
+          final GLFrameProfilerImpl old = frameProfiler;
+          if( null != old ) {
+              retiredFrameProfiler = old;
+          }
+          frameProfiler = 0 < frameCapacity ? new GLFrameProfilerImpl(frameCapacity) : null;
+          return frameProfiler;
+      }
+  }
+
+  /** Returns the current {@link GLFrameProfiler} or <code>null</code>, see {@link #setFrameProfiling(int)}. */
+  public final GLFrameProfiler getFrameProfiler() {
+      return frameProfiler;
+  }
+
+  private final void disposeRetiredFrameProfiler(final GL gl) {
+      final GLFrameProfilerImpl retired;
+      synchronized(glRunnablesLock) {
+          retired = retiredFrameProfiler;
+          retiredFrameProfiler = null;
+      }
+      if( null != retired ) {
+          retired.dispose(gl);
+      }
+  }
+
+  /**
+   * Swaps the buffers if {@link #getAutoSwapBufferMode()} and
+   * completes a {@link #displayProfiled(GLAutoDrawable, GLFrameProfilerImpl) profiled frame}.
+   */
+  private final void swapBuffersImpl(final GLDrawable drawable) {
+      final GLFrameProfilerImpl fp = frameProfiler;
+      if( null != fp && fp.isFrameOpen() ) {
+          if( autoSwapBufferMode ) {
+              final long t0 = System.nanoTime();
+              drawable.swapBuffers();
+              fp.endFrame(System.nanoTime() - t0);
+          } else {
+              fp.endFrame(0);
+          }
+      } else if ( autoSwapBufferMode ) {
+          drawable.swapBuffers();
+      }
+  }
+
   public static interface GLEventListenerAction {
       public void run(final GLAutoDrawable drawable, final GLEventListener listener);
   }
@@ -753,32 +858,97 @@ public class GLDrawableHelper {
     }
   }
 
-  private final boolean execGLRunnables(final GLAutoDrawable drawable) { // glRunnables.size()>0
-    // swap one-shot list asap
-    final ArrayList<GLRunnableTask> _glRunnables;
-    synchronized(glRunnablesLock) {
-        if( glRunnables.size() > 0 ) {
-            glRunnableCount = 0;
-            _glRunnables = glRunnables;
-            glRunnables = new ArrayList<GLRunnableTask>();
-        } else {
-            return true;
-        }
-    }
+  private final boolean execGLRunnables(final GLAutoDrawable drawable, final GLFrameProfilerImpl fp) { // glRunnableCount > 0
+    // Only execute tasks queued so far, tasks enqueued meanwhile are executed with the next frame.
+    // If a non-waiting task throws, the remaining tasks stay queued for the next frame
+    // instead of being dropped, hence a waiting invoker behind it is not stranded.
+    int n = glRunnableCount.get();
+    final long budget = glRunnableTimeBudget;
+    final boolean budgeted = 0 < budget && isAnimatorAnimating();
+    final long t0 = System.nanoTime();
+    long t1 = t0;
     boolean res = true;
-    for (int i=0; i < _glRunnables.size(); i++) {
-        res = _glRunnables.get(i).run(drawable) && res;
+    while( 0 < n-- ) {
+        final GLRunnableTask task = glRunnables.poll();
+        if( null == task ) {
+            break; // counted but not yet enqueued
+        }
+        glRunnableCount.decrementAndGet();
+        final long wait = t1 - task.getEnqueueNanos();
+        try {
+            res = task.run(drawable) && res;
+        } finally {
+            final long t2 = System.nanoTime();
+            glRunnableExecCount.incrementAndGet();
+            glRunnableWaitSum.addAndGet(wait);
+            long max;
+            while( wait > ( max = glRunnableWaitMax.get() ) && !glRunnableWaitMax.compareAndSet(max, wait) ) { }
+            if( null != fp ) {
+                fp.runnableExecuted(wait, t2 - t1);
+            }
+            t1 = t2;
+        }
+        if( budgeted && 0 < n && t1 - t0 >= budget ) {
+            glRunnableDeferCount.addAndGet(n); // remaining tasks stay queued for the next frame
+            break;
+        }
     }
     return res;
   }
 
   public final void flushGLRunnables() {
-    synchronized(glRunnablesLock) {
-        glRunnableCount = 0;
-        while( glRunnables.size() > 0 ) {
-            glRunnables.remove(0).flush();
-        }
+    GLRunnableTask task;
+    while( null != ( task = glRunnables.poll() ) ) {
+        glRunnableCount.decrementAndGet();
+        task.flush();
+    }
+  }
+
+  /**
+   * Limits the time spent executing enqueued {@link GLRunnable}s per {@link #display(GLAutoDrawable) frame}
+   * while an {@link GLAnimatorControl animator} is animating.
+   * <p>
+   * At least one task is executed per frame. Remaining tasks stay queued in order
+   * and are executed with the following frames, spreading bursts of small tasks
+   * posted by producer threads over multiple frames.
+   * Without an animating animator all queued tasks are executed, since no further frame may follow.
+   * </p>
+   * @param nanos time budget in nanoseconds, 0 for unlimited (default)
+   */
+  public final void setGLRunnableTimeBudget(final long nanos) {
+    if( 0 > nanos ) {
+        throw new IllegalArgumentException("Negative time budget "+nanos);
     }
+    glRunnableTimeBudget = nanos;
+  }
+
+  /** @see #setGLRunnableTimeBudget(long) */
+  public final long getGLRunnableTimeBudget() { return glRunnableTimeBudget; }
+
+  /** Returns the number of currently queued {@link GLRunnable}s. */
+  public final int getGLRunnableQueueSize() { return Math.max(0, glRunnableCount.get()); }
+
+  /** Returns the number of executed {@link GLRunnable}s since last {@link #resetGLRunnableStatistics()}. */
+  public final long getGLRunnableExecutedCount() { return glRunnableExecCount.get(); }
+
+  /** Returns the number of {@link GLRunnable}s deferred to a later frame due to the {@link #setGLRunnableTimeBudget(long) time budget}. */
+  public final long getGLRunnableDeferredCount() { return glRunnableDeferCount.get(); }
+
+  /** Returns the mean time in nanoseconds an executed {@link GLRunnable} waited in the queue. */
+  public final long getGLRunnableMeanWaitNanos() {
+    final long cnt = glRunnableExecCount.get();
+    return 0 < cnt ? glRunnableWaitSum.get() / cnt : 0;
+  }
+
+  /** Returns the longest time in nanoseconds an executed {@link GLRunnable} waited in the queue. */
+  public final long getGLRunnableMaxWaitNanos() { return glRunnableWaitMax.get(); }
+
+  /** Resets the {@link GLRunnable} execution statistics. */
+  public final void resetGLRunnableStatistics() {
+    glRunnableExecCount.set(0);
+    glRunnableDeferCount.set(0);
+    glRunnableWaitSum.set(0);
+    glRunnableWaitMax.set(0);
   }
 
   public final void setAnimator(final GLAnimatorControl animator) throws GLException {
@@ -791,25 +961,27 @@ public class GLDrawableHelper {
   }
 
   public final GLAnimatorControl getAnimator() {
-    synchronized(glRunnablesLock) {
-        return animatorCtrl;
-    }
+    return animatorCtrl;
   }
 
   public final boolean isAnimatorStartedOnOtherThread() {
-    return ( null != animatorCtrl ) ? animatorCtrl.isStarted() && animatorCtrl.getThread() != Thread.currentThread() : false ;
+    final GLAnimatorControl a = animatorCtrl;
+    return ( null != a ) ? a.isStarted() && a.getThread() != Thread.currentThread() : false ;
   }
 
   public final boolean isAnimatorStarted() {
-    return ( null != animatorCtrl ) ? animatorCtrl.isStarted() : false ;
+    final GLAnimatorControl a = animatorCtrl;
+    return ( null != a ) ? a.isStarted() : false ;
   }
 
   public final boolean isAnimatorAnimatingOnOtherThread() {
-    return ( null != animatorCtrl ) ? animatorCtrl.isAnimating() && animatorCtrl.getThread() != Thread.currentThread() : false ;
+    final GLAnimatorControl a = animatorCtrl;
+    return ( null != a ) ? a.isAnimating() && a.getThread() != Thread.currentThread() : false ;
   }
 
   public final boolean isAnimatorAnimating() {
-    return ( null != animatorCtrl ) ? animatorCtrl.isAnimating() : false ;
+    final GLAnimatorControl a = animatorCtrl;
+    return ( null != a ) ? a.isAnimating() : false ;
   }
 
   public static final boolean isLockedByOtherThread(final GLAutoDrawable d) {
@@ -881,36 +1053,40 @@ public class GLDrawableHelper {
     final Object rTaskLock = new Object();
     synchronized(rTaskLock) {
         boolean deferredHere;
-        synchronized(glRunnablesLock) {
-            final boolean isGLThread = drawable.isThreadGLCapable();
-            deferredHere = isAnimatorAnimatingOnOtherThread();
-            if( deferredHere ) {
-                if( wait && isLockedByThisThread(drawable) ) {
-                    if( isGLThread ) {
-                        // Run immediately, don't defer since locked by this thread, but isGLThread
-                        deferredHere = false;
-                        wait = false;
-                    } else {
-                        // Locked by this thread, but _not_ isGLThread -> ERROR
-                        throw new IllegalStateException("Deferred, wait, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
-                    }
+        final boolean isGLThread = drawable.isThreadGLCapable();
+        deferredHere = isAnimatorAnimatingOnOtherThread();
+        if( deferredHere ) {
+            if( wait && isLockedByThisThread(drawable) ) {
+                if( isGLThread ) {
+                    // Run immediately, don't defer since locked by this thread, but isGLThread
+                    deferredHere = false;
+                    wait = false;
+                } else {
+                    // Locked by this thread, but _not_ isGLThread -> ERROR
+                    throw new IllegalStateException("Deferred, wait, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
                 }
-            } else {
-                if( !isGLThread && isLockedByThisThread(drawable) ) {
-                    // Will be deferred on GL thread by display() (blocking), but locked by this thread -> ERROR
-                    throw new IllegalStateException("Not deferred, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
-                }
-                wait = false; // don't wait if exec immediately
             }
-            rTask = new GLRunnableTask(glRunnable,
-                                       wait ? rTaskLock : null,
-                                       wait  /* catch Exceptions if waiting for result */);
-            glRunnableCount++;
-            glRunnables.add(rTask);
+        } else {
+            if( !isGLThread && isLockedByThisThread(drawable) ) {
+                // Will be deferred on GL thread by display() (blocking), but locked by this thread -> ERROR
+                throw new IllegalStateException("Not deferred, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
+            }
+            wait = false; // don't wait if exec immediately
+        }
+        rTask = new GLRunnableTask(glRunnable,
+                                   wait ? rTaskLock : null,
+                                   wait  /* catch Exceptions if waiting for result */);
+        enqueueImpl(rTask);
+        if( deferredHere && rTask.isInQueue() && !isAnimatorAnimatingOnOtherThread() &&
+            ( isGLThread || !isLockedByThisThread(drawable) ) ) {
+            // Animator paused, stopped or replaced via setAnimator(..) after the decision above,
+            // don't rely on it for draining the queue but execute it on this thread.
+            deferredHere = false;
         }
         if( !deferredHere ) {
             drawable.display();
-        } else if( wait ) {
+        }
+        if( wait ) {
             try {
                 while( rTask.isInQueue() ) {
                     rTaskLock.wait(); // free lock, allow execution of rTask
@@ -947,40 +1123,43 @@ public class GLDrawableHelper {
     final Object rTaskLock = new Object();
     synchronized(rTaskLock) {
         boolean deferredHere;
-        synchronized(glRunnablesLock) {
-            final boolean isGLThread = drawable.isThreadGLCapable();
-            deferredHere = isAnimatorAnimatingOnOtherThread();
-            if( deferredHere ) {
-                if( wait && isLockedByThisThread(drawable) ) {
-                    if( isGLThread ) {
-                        // Run immediately, don't defer since locked by this thread, but isGLThread
-                        deferredHere = false;
-                        wait = false;
-                    } else {
-                        // Locked by this thread, but _not_ isGLThread -> ERROR
-                        throw new IllegalStateException("Deferred, wait, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
-                    }
+        final boolean isGLThread = drawable.isThreadGLCapable();
+        deferredHere = isAnimatorAnimatingOnOtherThread();
+        if( deferredHere ) {
+            if( wait && isLockedByThisThread(drawable) ) {
+                if( isGLThread ) {
+                    // Run immediately, don't defer since locked by this thread, but isGLThread
+                    deferredHere = false;
+                    wait = false;
+                } else {
+                    // Locked by this thread, but _not_ isGLThread -> ERROR
+                    throw new IllegalStateException("Deferred, wait, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
                 }
-            } else {
-                if( !isGLThread && isLockedByThisThread(drawable) ) {
-                    // Will be deferred on GL thread by display() (blocking), but locked by this thread -> ERROR
-                    throw new IllegalStateException("Not deferred, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
-                }
-                wait = false; // don't wait if exec immediately
             }
-            for(int i=0; i<count-1; i++) {
-                glRunnableCount++;
-                glRunnables.add( new GLRunnableTask(newGLRunnables.get(i), null, false) );
+        } else {
+            if( !isGLThread && isLockedByThisThread(drawable) ) {
+                // Will be deferred on GL thread by display() (blocking), but locked by this thread -> ERROR
+                throw new IllegalStateException("Not deferred, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
             }
-            rTask = new GLRunnableTask(newGLRunnables.get(count-1),
-                                       wait ? rTaskLock : null,
-                                       wait  /* catch Exceptions if waiting for result */);
-            glRunnableCount++;
-            glRunnables.add(rTask);
+            wait = false; // don't wait if exec immediately
+        }
+        for(int i=0; i<count-1; i++) {
+            enqueueImpl( new GLRunnableTask(newGLRunnables.get(i), null, false) );
+        }
+        rTask = new GLRunnableTask(newGLRunnables.get(count-1),
+                                   wait ? rTaskLock : null,
+                                   wait  /* catch Exceptions if waiting for result */);
+        enqueueImpl(rTask);
+        if( deferredHere && rTask.isInQueue() && !isAnimatorAnimatingOnOtherThread() &&
+            ( isGLThread || !isLockedByThisThread(drawable) ) ) {
+            // Animator paused, stopped or replaced via setAnimator(..) after the decision above,
+            // don't rely on it for draining the queue but execute it on this thread.
+            deferredHere = false;
         }
         if( !deferredHere ) {
             drawable.display();
-        } else if( wait ) {
+        }
+        if( wait ) {
             try {
                 while( rTask.isInQueue() ) {
                     rTaskLock.wait(); // free lock, allow execution of rTask
@@ -1001,10 +1180,12 @@ public class GLDrawableHelper {
     if( null == glRunnable) {
         return;
     }
-    synchronized(glRunnablesLock) {
-        glRunnableCount++;
-        glRunnables.add( new GLRunnableTask(glRunnable, null, false) );
-    }
+    enqueueImpl( new GLRunnableTask(glRunnable, null, false) );
+  }
+
+  private final void enqueueImpl(final GLRunnableTask task) {
+    glRunnableCount.incrementAndGet(); // count first, consumer tolerates a not yet visible task
+    glRunnables.offer(task);
   }
 
   public final void setAutoSwapBufferMode(final boolean enable) {
@@ -1197,6 +1378,13 @@ public class GLDrawableHelper {
                 disposeCaught = t;
             }
         }
+        final GLFrameProfilerImpl fp = frameProfiler;
+        if( null != fp ) {
+            fp.dispose(context.getGL());
+        }
+        if( null != retiredFrameProfiler ) {
+            disposeRetiredFrameProfiler(context.getGL());
+        }
       }
     } finally {
       try {
@@ -1291,9 +1479,7 @@ public class GLDrawableHelper {
                       initAction.run();
                   }
                   runnable.run();
-                  if ( autoSwapBufferMode ) {
-                      drawable.swapBuffers();
-                  }
+                  swapBuffersImpl(drawable);
               } catch (final Throwable t) {
                   glEventListenerCaught = t;
               } finally {
@@ -1408,8 +1594,9 @@ public class GLDrawableHelper {
                   runnable.run();
                   tdS = System.currentTimeMillis();
                   tdR = tdS - tdR; // render time
-                  if ( autoSwapBufferMode ) {
-                      drawable.swapBuffers();
+                  final boolean swap = autoSwapBufferMode;
+                  swapBuffersImpl(drawable);
+                  if ( swap ) {
                       tdX = System.currentTimeMillis();
                       tdS = tdX - tdS; // swapBuffers
                   }
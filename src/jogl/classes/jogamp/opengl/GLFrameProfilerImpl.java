@@ -0,0 +1,433 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.jogamp.common.util.VersionNumber;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLFrameProfiler;
+
+/**
+ * {@link GLFrameProfiler} implementation fed by {@link GLDrawableHelper}.
+ * <p>
+ * All recording methods are called by the single thread holding the drawable's {@link GLContext},
+ * which publishes each frame into its ring slot guarded by a per-slot sequence number:
+ * odd while writing, even once complete. Readers copy a slot and discard it
+ * if its sequence number changed meanwhile.
+ * </p>
+ */
+public class GLFrameProfilerImpl implements GLFrameProfiler {
+    /** <code>GL_TIME_ELAPSED</code>, equal to <code>GL_TIME_ELAPSED_EXT</code>. */
+    private static final int GL_TIME_ELAPSED = 0x88BF;
+    private static final VersionNumber Version3_3 = new VersionNumber(3, 3, 0);
+    /** Number of GPU queries in flight, i.e. frames latency until a GPU result is being read. */
+    private static final int GPU_QUERIES = 4;
+
+    private static final int IDX_NUMBER = 0;
+    private static final int IDX_START = 1;
+    private static final int IDX_TOTAL = 2;
+    private static final int IDX_LISTENERS = 3;
+    private static final int IDX_RUNNABLE_COUNT = 4;
+    private static final int IDX_RUNNABLES = 5;
+    private static final int IDX_RUNNABLE_WAIT = 6;
+    private static final int IDX_SWAP = 7;
+    private static final int IDX_GPU = 8;
+    private static final int IDX_LISTENER_COUNT = 9;
+    private static final int IDX_LISTENER0 = 10;
+    private static final int STRIDE = IDX_LISTENER0 + MAX_LISTENERS;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray versions;
+    private final AtomicLongArray data;
+    private final AtomicReferenceArray<GLEventListener[]> listenerSets;
+    /** Number of published frames, i.e. next frame number. */
+    private volatile long published;
+    /** Frames below this number are hidden, see {@link #reset()}. */
+    private volatile long base;
+    private volatile int gpuState; // 0 unknown, 1 available, -1 n/a
+
+    // writer state, owned by the GL thread
+    private boolean frameOpen;
+    private long frameNumber;
+    private long frameStart;
+    private final GLEventListener[] curListeners = new GLEventListener[MAX_LISTENERS];
+    private final long[] curListenerNanos = new long[MAX_LISTENERS];
+    private int curListenerCount;
+    private long curListenersNanos;
+    private int curRunnableCount;
+    private long curRunnableNanos;
+    private long curRunnableWait;
+    private long curGPUQueryFrame;
+    private GLEventListener[] lastListenerSet;
+
+    private GLContext queryContext;
+    private final int[] queries = new int[GPU_QUERIES];
+    private final long[] queryFrames = new long[GPU_QUERIES];
+    private final int[] queryResult = new int[1];
+    private int queryNext;
+    private int activeQuery;
+
+    /**
+     * @param frameCapacity number of retained frames, rounded up to the next power of two
+     */
+    public GLFrameProfilerImpl(final int frameCapacity) {
+        if( 0 >= frameCapacity ) {
+            throw new IllegalArgumentException("Invalid frameCapacity "+frameCapacity);
+        }
+        int c = 1;
+        while( c < frameCapacity ) {
+            c <<= 1;
+        }
+        capacity = c;
+        mask = c - 1;
+        versions = new AtomicLongArray(c);
+        data = new AtomicLongArray(c * STRIDE);
+        listenerSets = new AtomicReferenceArray<GLEventListener[]>(c);
+        published = 0;
+        base = 0;
+        gpuState = 0;
+        frameOpen = false;
+        frameNumber = 0;
+        activeQuery = -1;
+        Arrays.fill(queryFrames, -1);
+    }
+
+    //
+    // Recording, called by GLDrawableHelper on the GL thread w/ context being current
+    //
+
+    /* pp */ final boolean isFrameOpen() { return frameOpen; }
+
+    /* pp */ final void beginFrame(final GL gl) {
+        if( frameOpen ) {
+            // previous frame not swapped, e.g. due to an exception
+            endFrame(0);
+        }
+        if( 0 <= gpuState ) {
+            beginGPUQuery(gl);
+        }
+        curListenerCount = 0;
+        curListenersNanos = 0;
+        curRunnableCount = 0;
+        curRunnableNanos = 0;
+        curRunnableWait = 0;
+        frameOpen = true;
+        frameStart = System.nanoTime();
+    }
+
+    /* pp */ final void listenerDisplayed(final int idx, final GLEventListener l, final long nanos) {
+        curListenersNanos += nanos;
+        if( idx < MAX_LISTENERS ) {
+            if( idx >= curListenerCount ) {
+                curListeners[idx] = l;
+                curListenerNanos[idx] = nanos;
+                curListenerCount = idx + 1;
+            } else if( curListeners[idx] == l ) {
+                curListenerNanos[idx] += nanos; // repeated display pass
+            }
+        }
+    }
+
+    /* pp */ final void runnableExecuted(final long waitNanos, final long nanos) {
+        curRunnableCount++;
+        curRunnableNanos += nanos;
+        if( waitNanos > curRunnableWait ) {
+            curRunnableWait = waitNanos;
+        }
+    }
+
+    /** Ends the GPU query of the current frame, must be issued before swapping the buffers. */
+    /* pp */ final void endCommands(final GL gl) {
+        if( 0 <= activeQuery ) {
+            gl.getGL2ES3().glEndQuery(GL_TIME_ELAPSED);
+            activeQuery = -1;
+        }
+    }
+
+    /* pp */ final void endFrame(final long swapNanos) {
+        final long now = System.nanoTime();
+        final long n = frameNumber;
+        final int slot = (int) ( n & mask );
+        final int o = slot * STRIDE;
+        versions.set(slot, 2*n+1);
+        data.lazySet(o+IDX_NUMBER, n);
+        data.lazySet(o+IDX_START, frameStart);
+        data.lazySet(o+IDX_TOTAL, now - frameStart);
+        data.lazySet(o+IDX_LISTENERS, curListenersNanos);
+        data.lazySet(o+IDX_RUNNABLE_COUNT, curRunnableCount);
+        data.lazySet(o+IDX_RUNNABLES, curRunnableNanos);
+        data.lazySet(o+IDX_RUNNABLE_WAIT, curRunnableWait);
+        data.lazySet(o+IDX_SWAP, swapNanos);
+        data.lazySet(o+IDX_GPU, -1);
+        data.lazySet(o+IDX_LISTENER_COUNT, curListenerCount);
+        for(int i=0; i<curListenerCount; i++) {
+            data.lazySet(o+IDX_LISTENER0+i, curListenerNanos[i]);
+        }
+        listenerSets.set(slot, getListenerSet());
+        versions.set(slot, 2*n+2);
+        frameNumber = n + 1;
+        published = n + 1;
+        frameOpen = false;
+    }
+
+    /** Returns the current listener identities, reusing the previous array if unchanged to avoid garbage. */
+    private final GLEventListener[] getListenerSet() {
+        final GLEventListener[] last = lastListenerSet;
+        boolean same = null != last && last.length == curListenerCount;
+        for(int i=0; same && i<curListenerCount; i++) {
+            same = last[i] == curListeners[i];
+        }
+        if( same ) {
+            return last;
+        }
+        final GLEventListener[] set = new GLEventListener[curListenerCount];
+        System.arraycopy(curListeners, 0, set, 0, curListenerCount);
+        lastListenerSet = set;
+        return set;
+    }
+
+    private final void beginGPUQuery(final GL gl) {
+        final GLContext ctx = gl.getContext();
+        if( ctx != queryContext ) {
+            invalidateGPU();
+            if( !isTimerQueryAvailable(gl) ) {
+                gpuState = -1;
+                return;
+            }
+            queryContext = ctx;
+            gl.getGL2ES3().glGenQueries(GPU_QUERIES, queries, 0);
+            gpuState = 1;
+        }
+        final GL2ES3 gl2es3 = gl.getGL2ES3();
+        final int[] tmp = queryResult;
+        for(int i=0; i<GPU_QUERIES; i++) {
+            final long qn = queryFrames[i];
+            if( 0 <= qn ) {
+                gl2es3.glGetQueryObjectuiv(queries[i], GL2ES3.GL_QUERY_RESULT_AVAILABLE, tmp, 0);
+                if( GL.GL_FALSE != tmp[0] ) {
+                    gl2es3.glGetQueryObjectuiv(queries[i], GL2ES3.GL_QUERY_RESULT, tmp, 0);
+                    setGPUNanos(qn, 0xffffffffL & tmp[0]);
+                    queryFrames[i] = -1;
+                }
+            }
+        }
+        if( 0 > queryFrames[queryNext] ) {
+            gl2es3.glBeginQuery(GL_TIME_ELAPSED, queries[queryNext]);
+            queryFrames[queryNext] = frameNumber;
+            activeQuery = queryNext;
+            queryNext = ( queryNext + 1 ) % GPU_QUERIES;
+        }
+    }
+
+    private final void setGPUNanos(final long n, final long nanos) {
+        final int slot = (int) ( n & mask );
+        if( versions.get(slot) == 2*n+2 ) {
+            versions.set(slot, 2*n+1);
+            data.set(slot*STRIDE+IDX_GPU, nanos);
+            versions.set(slot, 2*n+2);
+        }
+    }
+
+    /** Drops all GPU queries w/o deleting them, e.g. after the native context has been recreated. */
+    /* pp */ final void invalidateGPU() {
+        queryContext = null;
+        activeQuery = -1;
+        queryNext = 0;
+        Arrays.fill(queryFrames, -1);
+        if( 0 < gpuState ) {
+            gpuState = 0;
+        }
+    }
+
+    /** Deletes all GPU queries, if created on given current context. */
+    /* pp */ final void dispose(final GL gl) {
+        if( null != queryContext && gl.getContext() == queryContext ) {
+            endCommands(gl);
+            gl.getGL2ES3().glDeleteQueries(GPU_QUERIES, queries, 0);
+        }
+        invalidateGPU();
+    }
+
+    private static boolean isTimerQueryAvailable(final GL gl) {
+        if( !gl.isGL2ES3() ) {
+            return false;
+        }
+        final GLContext ctx = gl.getContext();
+        if( !ctx.isGLES() && ctx.getGLVersionNumber().compareTo(Version3_3) >= 0 ) {
+            return true;
+        }
+        return gl.isExtensionAvailable("GL_ARB_timer_query") ||
+               gl.isExtensionAvailable("GL_EXT_timer_query") ||
+               gl.isExtensionAvailable("GL_EXT_disjoint_timer_query");
+    }
+
+    //
+    // GLFrameProfiler, any thread
+    //
+
+    @Override
+    public final int getFrameCapacity() { return capacity; }
+
+    @Override
+    public final long getFrameCount() { return published - base; }
+
+    @Override
+    public final boolean isGPUTimingAvailable() { return 0 < gpuState; }
+
+    /**
+     * Copies frame <code>n</code> into <code>dst</code> and returns its listener set,
+     * or <code>null</code> if the slot does not hold a complete frame <code>n</code>.
+     */
+    private final GLEventListener[] read(final long n, final long[] dst) {
+        final int slot = (int) ( n & mask );
+        final long v = versions.get(slot);
+        if( v != 2*n+2 ) {
+            return null;
+        }
+        final int o = slot * STRIDE;
+        for(int i=0; i<STRIDE; i++) {
+            dst[i] = data.get(o+i);
+        }
+        final GLEventListener[] set = listenerSets.get(slot);
+        if( v != versions.get(slot) || null == set ) {
+            return null;
+        }
+        return set;
+    }
+
+    @Override
+    public final Frame[] getFrames(final int count) {
+        final long end = published;
+        final long start = Math.max(base, end - Math.min(count, capacity));
+        final long[] tmp = new long[STRIDE];
+        final Frame[] frames = new Frame[(int)Math.max(0, end - start)];
+        int j = 0;
+        for(long n = start; n < end; n++) {
+            final GLEventListener[] set = read(n, tmp);
+            if( null != set ) {
+                frames[j++] = toFrame(tmp, set);
+            }
+        }
+        return j == frames.length ? frames : Arrays.copyOf(frames, j);
+    }
+
+    @Override
+    public final Frame getLastFrame() {
+        final Frame[] f = getFrames(1);
+        return 0 < f.length ? f[0] : null;
+    }
+
+    private static Frame toFrame(final long[] d, final GLEventListener[] set) {
+        final int lc = Math.min(set.length, (int)d[IDX_LISTENER_COUNT]);
+        final long[] ln = new long[lc];
+        System.arraycopy(d, IDX_LISTENER0, ln, 0, lc);
+        return new Frame(d[IDX_NUMBER], d[IDX_START], d[IDX_TOTAL], set, ln, d[IDX_LISTENERS],
+                         (int)d[IDX_RUNNABLE_COUNT], d[IDX_RUNNABLES], d[IDX_RUNNABLE_WAIT],
+                         d[IDX_SWAP], d[IDX_GPU]);
+    }
+
+    private static int metricIndex(final Metric m) {
+        switch(m) {
+            case TOTAL: return IDX_TOTAL;
+            case LISTENERS: return IDX_LISTENERS;
+            case RUNNABLES: return IDX_RUNNABLES;
+            case RUNNABLE_WAIT: return IDX_RUNNABLE_WAIT;
+            case SWAP: return IDX_SWAP;
+            case GPU: return IDX_GPU;
+            default: throw new IllegalArgumentException("Unknown metric "+m);
+        }
+    }
+
+    @Override
+    public final long getPercentile(final Metric m, final float p) {
+        return percentile(metricIndex(m), null, p);
+    }
+
+    @Override
+    public final long getListenerPercentile(final GLEventListener listener, final float p) {
+        if( null == listener ) {
+            throw new IllegalArgumentException("Null listener");
+        }
+        return percentile(-1, listener, p);
+    }
+
+    private final long percentile(final int idx, final GLEventListener listener, final float p) {
+        if( 0f > p || p > 1f ) {
+            throw new IllegalArgumentException("Percentile not within [0..1]: "+p);
+        }
+        final long end = published;
+        final long start = Math.max(base, end - capacity);
+        final long[] tmp = new long[STRIDE];
+        final long[] values = new long[(int)Math.max(0, end - start)];
+        int count = 0;
+        for(long n = start; n < end; n++) {
+            final GLEventListener[] set = read(n, tmp);
+            if( null != set ) {
+                long v = -1;
+                if( null == listener ) {
+                    v = tmp[idx];
+                } else {
+                    final int lc = Math.min(set.length, (int)tmp[IDX_LISTENER_COUNT]);
+                    for(int i=0; i<lc; i++) {
+                        if( set[i] == listener ) {
+                            v = tmp[IDX_LISTENER0+i];
+                            break;
+                        }
+                    }
+                }
+                if( 0 <= v ) {
+                    values[count++] = v;
+                }
+            }
+        }
+        if( 0 == count ) {
+            return -1;
+        }
+        Arrays.sort(values, 0, count);
+        final int i = Math.max(0, (int)Math.ceil(p * count) - 1);
+        return values[Math.min(i, count-1)];
+    }
+
+    @Override
+    public final void reset() {
+        base = published;
+    }
+
+    @Override
+    public final String toString() {
+        return "GLFrameProfiler[frames "+getFrameCount()+"/"+capacity+", gpu "+isGPUTimingAvailable()+
+               ", total p50 "+getPercentile(Metric.TOTAL, 0.5f)/1000+" us, p99 "+getPercentile(Metric.TOTAL, 0.99f)/1000+" us]";
+    }
+}
@@ -0,0 +1,341 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import com.jogamp.common.util.PropertyAccess;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRendererQuirks;
+
+/**
+ * Opt-in persistent cache of the per device GL version mapping, see {@link GLContextImpl}'s <code>mapGLVersions</code>,
+ * allowing warm starts to skip creating the temporary probing contexts.
+ * <p>
+ * The cache is enabled by property <code>jogl.glprofile.cache</code>, denoting the cache file.
+ * An empty value or <code>true</code> selects <code>${user.home}/.jogamp/jogl/glprofile.cache</code>.
+ * </p>
+ * <p>
+ * Each device entry, keyed by {@link com.jogamp.nativewindow.AbstractGraphicsDevice#getUniqueID()}, holds
+ * <ul>
+ *   <li>the available GL versions as mapped per major version and profile,</li>
+ *   <li>the sticky device {@link GLRendererQuirks} detected while mapping and</li>
+ *   <li>the {@link #getDriverIdentity(String, String, String) driver identity} of the first context created after mapping.</li>
+ * </ul>
+ * The whole file is discarded if its {@link #getSignature() signature}, i.e. JOGL version, OS, architecture,
+ * profile and quirk overriding properties as well as driver selecting environment variables, does not match.
+ * A restored device entry is validated against the driver identity of the first context created with it,
+ * a mismatch evicts the entry and triggers regular probing.
+ * </p>
+ * <p>
+ * Only desktop GL contexts created via <code>ARB_create_context</code> utilize the cache.
+ * </p>
+ */
+public class GLProfileCache {
+    protected static final boolean DEBUG = Debug.debug("GLProfile");
+
+    /** Property name selecting the cache file, {@value}. */
+    public static final String PROPERTY = "jogl.glprofile.cache";
+
+    private static final String KEY_SIGNATURE = "signature";
+    private static final String KEY_PREFIX = "device.";
+    private static final String SUFFIX_IDENTITY = ".identity";
+    private static final String SUFFIX_VERSIONS = ".versions";
+    private static final String SUFFIX_QUIRKS = ".quirks";
+    private static final String[] DRIVER_ENV = { "LIBGL_ALWAYS_SOFTWARE", "MESA_GL_VERSION_OVERRIDE", "__GLX_VENDOR_LIBRARY_NAME", "DRI_PRIME", "__NV_PRIME_RENDER_OFFLOAD" };
+
+    /** Cached mapping of one device. */
+    public static final class Entry {
+        private final String identity;
+        private final Map<String, Integer> versions;
+        private final int[] quirks;
+
+        /**
+         * @param identity the {@link GLProfileCache#getDriverIdentity(String, String, String) driver identity}
+         * @param versions mapped GL versions, keyed by the device version key w/o device prefix
+         * @param quirks sticky {@link GLRendererQuirks} bits
+         */
+        public Entry(final String identity, final Map<String, Integer> versions, final int[] quirks) {
+            this.identity = identity;
+            this.versions = Collections.unmodifiableMap(new LinkedHashMap<String, Integer>(versions));
+            this.quirks = quirks.clone();
+        }
+        public final String getIdentity() { return identity; }
+        public final Map<String, Integer> getVersions() { return versions; }
+        public final int[] getQuirks() { return quirks.clone(); }
+
+        @Override
+        public final boolean equals(final Object o) {
+            if( !(o instanceof Entry) ) {
+                return false;
+            }
+            final Entry e = (Entry)o;
+            return identity.equals(e.identity) && versions.equals(e.versions) && Arrays.equals(quirks, e.quirks);
+        }
+        @Override
+        public final int hashCode() {
+            return 31 * ( 31 * identity.hashCode() + versions.hashCode() ) + Arrays.hashCode(quirks);
+        }
+        @Override
+        public final String toString() {
+            return "Entry[identity '"+identity+"', versions "+versions+", quirks "+Arrays.toString(quirks)+"]";
+        }
+    }
+
+    private static final GLProfileCache instance;
+
+    static {
+        Debug.initSingleton();
+        final String v = PropertyAccess.getProperty(PROPERTY, true);
+        if( null == v ) {
+            instance = null;
+        } else if( 0 == v.length() || "true".equalsIgnoreCase(v) ) {
+            final String home = PropertyAccess.getProperty("user.home", false);
+            instance = new GLProfileCache(new File(home, ".jogamp"+File.separator+"jogl"+File.separator+"glprofile.cache"), getSignature());
+        } else {
+            instance = new GLProfileCache(new File(v), getSignature());
+        }
+    }
+
+    /** Returns the cache enabled via property {@link #PROPERTY}, otherwise <code>null</code>. */
+    public static GLProfileCache get() { return instance; }
+
+    private final File file;
+    private final String signature;
+    private final Properties props = new Properties();
+    private boolean loaded;
+
+    /**
+     * @param file the cache file, created at first {@link #put(String, Entry) store}
+     * @param signature the expected signature, a mismatching cache file is ignored
+     */
+    public GLProfileCache(final File file, final String signature) {
+        this.file = file;
+        this.signature = signature;
+        this.loaded = false;
+    }
+
+    public final File getFile() { return file; }
+
+    private final void load() {
+        if( loaded ) {
+            return;
+        }
+        loaded = true;
+        if( !file.isFile() ) {
+            return;
+        }
+        try {
+            final InputStream in = new FileInputStream(file);
+            try {
+                props.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (final IOException ioe) {
+            if( DEBUG ) {
+                System.err.println("GLProfileCache: Failed to read "+file+": "+ioe.getMessage());
+            }
+            props.clear();
+        }
+        if( !signature.equals(props.getProperty(KEY_SIGNATURE)) ) {
+            if( DEBUG ) {
+                System.err.println("GLProfileCache: Signature mismatch, discarding "+file);
+            }
+            props.clear();
+        }
+    }
+
+    private final void store() {
+        props.setProperty(KEY_SIGNATURE, signature);
+        final File dir = file.getAbsoluteFile().getParentFile();
+        try {
+            if( null != dir && !dir.isDirectory() && !dir.mkdirs() ) {
+                throw new IOException("Cannot create directory "+dir);
+            }
+            final File tmp = new File(file.getPath()+".tmp");
+            final OutputStream out = new FileOutputStream(tmp);
+            try {
+                props.store(out, "JOGL GLProfile cache");
+            } finally {
+                out.close();
+            }
+            if( !tmp.renameTo(file) ) {
+                // non atomic fallback, e.g. on Windows if target exists
+                if( !file.delete() || !tmp.renameTo(file) ) {
+                    throw new IOException("Cannot rename "+tmp+" to "+file);
+                }
+            }
+        } catch (final IOException ioe) {
+            if( DEBUG ) {
+                System.err.println("GLProfileCache: Failed to write "+file+": "+ioe.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the cached {@link Entry} for the given device or <code>null</code> if none exists or it is malformed.
+     */
+    public final synchronized Entry get(final String deviceID) {
+        load();
+        final String key = KEY_PREFIX + deviceID;
+        final String identity = props.getProperty(key+SUFFIX_IDENTITY);
+        final String versions = props.getProperty(key+SUFFIX_VERSIONS);
+        final String quirks = props.getProperty(key+SUFFIX_QUIRKS);
+        if( null == identity || null == versions || null == quirks ) {
+            return null;
+        }
+        try {
+            final Map<String, Integer> vmap = new LinkedHashMap<String, Integer>();
+            if( 0 < versions.length() ) {
+                final String[] pairs = versions.split(";");
+                for(int i=0; i<pairs.length; i++) {
+                    final int sep = pairs[i].indexOf('=');
+                    if( 0 >= sep ) {
+                        return null;
+                    }
+                    vmap.put(pairs[i].substring(0, sep), Integer.valueOf((int)Long.parseLong(pairs[i].substring(sep+1), 16)));
+                }
+            }
+            final int[] qbits;
+            if( 0 < quirks.length() ) {
+                final String[] q = quirks.split(",");
+                qbits = new int[q.length];
+                for(int i=0; i<q.length; i++) {
+                    qbits[i] = Integer.parseInt(q[i]);
+                    if( 0 > qbits[i] || qbits[i] >= GLRendererQuirks.getCount() ) {
+                        return null;
+                    }
+                }
+            } else {
+                qbits = new int[0];
+            }
+            return new Entry(identity, vmap, qbits);
+        } catch (final NumberFormatException nfe) {
+            if( DEBUG ) {
+                System.err.println("GLProfileCache: Malformed entry for "+deviceID+": "+nfe.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /** Stores the given {@link Entry} for the given device and writes the cache file. */
+    public final synchronized void put(final String deviceID, final Entry e) {
+        load();
+        final String key = KEY_PREFIX + deviceID;
+        final StringBuilder sb = new StringBuilder();
+        for(final Iterator<Map.Entry<String, Integer>> it = e.versions.entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<String, Integer> v = it.next();
+            if( 0 < sb.length() ) {
+                sb.append(';');
+            }
+            sb.append(v.getKey()).append('=').append(Integer.toHexString(v.getValue().intValue()));
+        }
+        props.setProperty(key+SUFFIX_VERSIONS, sb.toString());
+        sb.setLength(0);
+        for(int i=0; i<e.quirks.length; i++) {
+            if( 0 < i ) {
+                sb.append(',');
+            }
+            sb.append(e.quirks[i]);
+        }
+        props.setProperty(key+SUFFIX_QUIRKS, sb.toString());
+        props.setProperty(key+SUFFIX_IDENTITY, e.identity);
+        store();
+        if( DEBUG ) {
+            System.err.println("GLProfileCache: Stored "+deviceID+": "+e);
+        }
+    }
+
+    /** Removes the cached {@link Entry} of the given device, if existing, and writes the cache file. */
+    public final synchronized void remove(final String deviceID) {
+        load();
+        final String key = KEY_PREFIX + deviceID;
+        if( null != props.remove(key+SUFFIX_IDENTITY) ) {
+            props.remove(key+SUFFIX_VERSIONS);
+            props.remove(key+SUFFIX_QUIRKS);
+            store();
+            if( DEBUG ) {
+                System.err.println("GLProfileCache: Evicted "+deviceID);
+            }
+        }
+    }
+
+    /**
+     * Returns the driver identity of a context, i.e. vendor, renderer and the GL version string
+     * w/o the leading GL version number and profile annotations.
+     * The latter makes the identity independent of the requested profile,
+     * e.g. <code>4.6 (Compatibility Profile) Mesa 23.0.4</code> and <code>4.5 (Core Profile) Mesa 23.0.4</code>
+     * both result in <code>Mesa 23.0.4</code>.
+     */
+    public static String getDriverIdentity(final String vendor, final String renderer, final String version) {
+        String v = null != version ? version.trim() : "";
+        final int sp = v.indexOf(' ');
+        v = 0 < sp ? v.substring(sp+1) : "";
+        v = v.replaceAll("\\([^)]*\\)", "").replaceAll("\\s+", " ").trim();
+        return vendor + " | " + renderer + " | " + v;
+    }
+
+    /**
+     * Returns the signature of this launch's environment affecting the GL version mapping.
+     */
+    public static String getSignature() {
+        final StringBuilder sb = new StringBuilder();
+        final Package p = Package.getPackage("com.jogamp.opengl");
+        sb.append("jogl ").append(null != p ? p.getImplementationVersion() : "n/a");
+        sb.append(", os ").append(PropertyAccess.getProperty("os.name", false)).append(' ').append(PropertyAccess.getProperty("os.version", false));
+        sb.append(", arch ").append(PropertyAccess.getProperty("os.arch", false));
+        sb.append(", disable[desktop ").append(GLProfile.disableOpenGLDesktop).append(", core ").append(GLProfile.disableOpenGLCore)
+          .append(", es ").append(GLProfile.disableOpenGLES).append(", arb ").append(GLProfile.disableOpenGLARBContext).append(']');
+        sb.append(", quirks[force ").append(PropertyAccess.getProperty("jogl.quirks.force", true))
+          .append(", ignore ").append(PropertyAccess.getProperty("jogl.quirks.ignore", true)).append(']');
+        for(int i=0; i<DRIVER_ENV.length; i++) {
+            String e;
+            try {
+                e = System.getenv(DRIVER_ENV[i]);
+            } catch (final SecurityException se) {
+                e = "n/a";
+            }
+            if( null != e ) {
+                sb.append(", ").append(DRIVER_ENV[i]).append('=').append(e);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -40,6 +40,7 @@ public class GLRunnableTask implements GLRunnable {
     GLRunnable runnable;
     Object notifyObject;
     boolean catchExceptions;
+    final long enqueueNanos;
     volatile boolean isExecuted;
     volatile boolean isFlushed;
 
@@ -49,6 +50,7 @@ public class GLRunnableTask implements GLRunnable {
         this.runnable = runnable ;
         this.notifyObject = notifyObject ;
         this.catchExceptions = catchExceptions;
+        this.enqueueNanos = System.nanoTime();
         isExecuted = false;
         isFlushed = false;
     }
@@ -126,5 +128,8 @@ public class GLRunnableTask implements GLRunnable {
     public boolean isFlushed() { return isFlushed; }
 
     public Throwable getThrowable() { return runnableException; }
+
+    /** @return the {@link System#nanoTime()} this task has been created, i.e. enqueued. */
+    public long getEnqueueNanos() { return enqueueNanos; }
 }
 
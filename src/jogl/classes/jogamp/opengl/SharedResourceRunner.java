@@ -85,6 +85,19 @@ public class SharedResourceRunner implements Runnable {
         Resource mapGet(final AbstractGraphicsDevice device);
         /** Called within synchronized block. */
         Collection<Resource> mapValues();
+
+        /**
+         * Returns <code>true</code> if {@link #createSharedResource(AbstractGraphicsDevice)}
+         * may be invoked on the calling thread concurrently for distinct devices,
+         * i.e. outside of the synchronized block.
+         * <p>
+         * Otherwise creation is serialized on the shared resource runner thread.
+         * </p>
+         * <p>
+         * Called within synchronized block.
+         * </p>
+         */
+        boolean isParallelCreationSupported();
     }
     public static abstract class AImplementation implements Implementation {
         private final HashMap<String /* uniqueId */, SharedResourceRunner.Resource> sharedMap = new HashMap<String, SharedResourceRunner.Resource>();
@@ -108,9 +121,15 @@ public class SharedResourceRunner implements Runnable {
         public final Collection<SharedResourceRunner.Resource> mapValues() {
             return sharedMap.values();
         }
+        @Override
+        public boolean isParallelCreationSupported() {
+            return false;
+        }
     }
 
     final HashSet<String> devicesTried = new HashSet<String>();
+    /** Devices whose shared resource is being created concurrently, mapped to their creating thread. */
+    final HashMap<String, Thread> devicesPending = new HashMap<String, Thread>();
     final Implementation impl;
 
     Thread thread;
@@ -209,10 +228,38 @@ public class SharedResourceRunner implements Runnable {
     }
 
     public SharedResourceRunner.Resource getOrCreateShared(final AbstractGraphicsDevice device) {
+        return getOrCreateSharedImpl(device, false);
+    }
+
+    /**
+     * Variant of {@link #getOrCreateShared(AbstractGraphicsDevice)}, which creates the shared resource
+     * on the calling thread outside of the synchronized block if the
+     * {@link Implementation#isParallelCreationSupported() implementation supports parallel creation},
+     * allowing distinct devices to be probed concurrently.
+     * <p>
+     * Concurrent callers for the same device wait until its creation has finished.
+     * Otherwise the resource is created on the shared resource runner thread.
+     * </p>
+     */
+    public SharedResourceRunner.Resource getOrCreateSharedConcurrent(final AbstractGraphicsDevice device) {
+        return getOrCreateSharedImpl(device, true);
+    }
+
+    private SharedResourceRunner.Resource getOrCreateSharedImpl(final AbstractGraphicsDevice device, final boolean allowConcurrent) {
         SharedResourceRunner.Resource sr = null;
         if(null != device) {
+            boolean createConcurrent = false;
             synchronized (this) {
                 start();
+                final String key = device.getUniqueID();
+                try {
+                    Thread creator;
+                    while ( null != ( creator = devicesPending.get(key) ) && Thread.currentThread() != creator ) {
+                        this.wait();
+                    }
+                } catch (final InterruptedException ex) {
+                    throw new InterruptedRuntimeException(ex);
+                }
                 sr = impl.mapGet(device);
                 if (null == sr) {
                     if ( !getDeviceTried(device) ) {
@@ -222,19 +269,61 @@ public class SharedResourceRunner implements Runnable {
                             ExceptionUtils.dumpStack(System.err);
                         }
                         if ( impl.isDeviceSupported(device) ) {
-                            try {
-                                doAndWait(device, null);
-                            } catch (final InterruptedException ex) {
-                                throw new InterruptedRuntimeException(ex);
+                            if( allowConcurrent && impl.isParallelCreationSupported() ) {
+                                devicesPending.put(key, Thread.currentThread());
+                                createConcurrent = true;
+                            } else {
+                                try {
+                                    doAndWait(device, null);
+                                } catch (final InterruptedException ex) {
+                                    throw new InterruptedRuntimeException(ex);
+                                }
+                                sr = impl.mapGet(device);
                             }
-                            sr = impl.mapGet(device);
                         }
-                        if (DEBUG) {
+                        if (DEBUG && !createConcurrent) {
                             System.err.println("SharedResourceRunner.getOrCreateShared() " + device + ": "+ ( ( null != sr ) ? "success" : "failed" ) +" - "+getThreadName());
                         }
                     }
                 }
             }
+            if( createConcurrent ) {
+                sr = createSharedConcurrent(device);
+            }
+        }
+        return sr;
+    }
+
+    private SharedResourceRunner.Resource createSharedConcurrent(final AbstractGraphicsDevice device) {
+        if (DEBUG) {
+            System.err.println("SharedResourceRunner.createSharedConcurrent() " + device + ": create - "+getThreadName());
+        }
+        Resource sr = null;
+        try {
+            sr = impl.createSharedResource(device);
+        } catch (final Exception e) {
+            ExceptionUtils.dumpThrowable("handled", e);
+        } finally {
+            synchronized (this) {
+                devicesPending.remove(device.getUniqueID());
+                if (null != sr) {
+                    if( running ) {
+                        impl.mapPut(device, sr);
+                    } else {
+                        // runner has been stopped meanwhile, drop the orphaned resource
+                        try {
+                            impl.releaseSharedResource(sr);
+                        } catch (final Throwable t) {
+                            ExceptionUtils.dumpThrowable("", t);
+                        }
+                        sr = null;
+                    }
+                }
+                this.notifyAll();
+            }
+        }
+        if (DEBUG) {
+            System.err.println("SharedResourceRunner.createSharedConcurrent() " + device + ": "+ ( ( null != sr ) ? "success" : "failed" ) +" - "+getThreadName());
         }
         return sr;
     }
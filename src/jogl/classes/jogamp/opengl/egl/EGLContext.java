@@ -372,10 +372,7 @@ public class EGLContext extends GLContextImpl {
         if (DEBUG) {
           System.err.println(getThreadName() + ": Initializing EGLextension address table: "+key);
         }
-        ProcAddressTable table = null;
-        synchronized(mappedContextTypeObjectLock) {
-            table = mappedGLXProcAddress.get( key );
-        }
+        final ProcAddressTable table = mappedGLXProcAddress.get( key );
         if(null != table) {
             eglExtProcAddressTable = (EGLExtProcAddressTable) table;
             if(DEBUG) {
@@ -385,13 +382,13 @@ public class EGLContext extends GLContextImpl {
                 eglExtImpl = new EGLExtImpl(this, eglExtProcAddressTable);
             }
         } else {
-            eglExtProcAddressTable = new EGLExtProcAddressTable(new GLProcAddressResolver());
-            resetProcAddressTable(eglExtProcAddressTable, dlh);
-            synchronized(mappedContextTypeObjectLock) {
-                mappedGLXProcAddress.put(key, eglExtProcAddressTable);
-                if(DEBUG) {
-                    System.err.println(getThreadName() + ": GLContext EGL ProcAddressTable mapping key("+key+") -> "+toHexString(eglExtProcAddressTable.hashCode()));
-                }
+            final EGLExtProcAddressTable newTable = new EGLExtProcAddressTable(new GLProcAddressResolver());
+            resetProcAddressTable(newTable, dlh);
+            // a concurrently created context of the same device may have mapped its equal table first
+            final ProcAddressTable preTable = mappedGLXProcAddress.putIfAbsent(key, newTable);
+            eglExtProcAddressTable = null != preTable ? (EGLExtProcAddressTable) preTable : newTable;
+            if(DEBUG) {
+                System.err.println(getThreadName() + ": GLContext EGL ProcAddressTable mapping key("+key+") -> "+toHexString(eglExtProcAddressTable.hashCode()));
             }
             eglExtImpl = new EGLExtImpl(this, eglExtProcAddressTable);
         }
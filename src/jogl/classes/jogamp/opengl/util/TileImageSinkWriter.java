@@ -0,0 +1,162 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.util.TileRenderer;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+/**
+ * Assembles the tiles of one tile row into a strip and streams completed strips
+ * to a {@link TileRenderer.ImageSink}, used by {@link TileRenderer}.
+ * <p>
+ * Only one strip of <code>image-width x tile-height</code> pixels is held in memory.
+ * Tiles of a later tile row block in {@link #consume(ByteBuffer, int, int, int, int)}
+ * until the current strip has been written.
+ * Since tiles are consumed in rendering order, either on the GL thread or
+ * via a FIFO worker pool, this cannot deadlock.
+ * </p>
+ */
+public class TileImageSinkWriter implements TileReadbackPipeline.TileConsumer {
+    private final TileRenderer.ImageSink sink;
+    private final int width, height, tileWidth, tileHeight, rows, columns, bpp;
+    private final boolean topToBottom;
+    private final ByteBuffer strip;
+    private int stripRow;
+    private int stripRemaining;
+    private int stripCount = 0;
+    private GLException error = null;
+
+    /**
+     * Calls {@link TileRenderer.ImageSink#begin(int, int, GLPixelAttributes)}.
+     *
+     * @param sink the sink receiving the strips
+     * @param pixelAttribs pixel attributes of the read tiles
+     * @param width clipped image width
+     * @param height clipped image height
+     * @param tileWidth tile width w/o border
+     * @param tileHeight tile height w/o border
+     * @param topToBottom true if the tile rows are rendered top to bottom, i.e. {@link TileRenderer#TR_TOP_TO_BOTTOM}
+     * @throws GLException wrapping an {@link IOException} thrown by the sink
+     */
+    public TileImageSinkWriter(final TileRenderer.ImageSink sink, final GLPixelAttributes pixelAttribs,
+                               final int width, final int height, final int tileWidth, final int tileHeight,
+                               final boolean topToBottom) throws GLException {
+        this.sink = sink;
+        this.width = width;
+        this.height = height;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.columns = ( width + tileWidth - 1 ) / tileWidth;
+        this.rows = ( height + tileHeight - 1 ) / tileHeight;
+        this.bpp = pixelAttribs.pfmt.comp.bytesPerPixel();
+        this.topToBottom = topToBottom;
+        this.strip = Buffers.newDirectByteBuffer(width * Math.min(tileHeight, height) * bpp);
+        this.stripRow = topToBottom ? rows - 1 : 0;
+        this.stripRemaining = columns;
+        try {
+            sink.begin(width, height, pixelAttribs);
+        } catch (final IOException e) {
+            throw new GLException("Image sink failed to begin", e);
+        }
+    }
+
+    /** Returns the number of strips written to the sink. */
+    public final synchronized int getStripCount() { return stripCount; }
+
+    @Override
+    public void consume(final ByteBuffer pixels, final int column, final int row, final int width, final int height) throws GLException {
+        synchronized( this ) {
+            while( row != stripRow && null == error ) {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    error = new GLException("Interrupted while waiting for tile row "+stripRow, e);
+                    notifyAll();
+                }
+            }
+            if( null != error ) {
+                throw error;
+            }
+        }
+        // tiles of the same row occupy distinct regions of the strip
+        final ByteBuffer src = pixels.duplicate();
+        final ByteBuffer dst = strip.duplicate();
+        final int rowBytes = width * bpp;
+        final int stripRowBytes = this.width * bpp;
+        final int dstX = column * tileWidth * bpp;
+        for(int y=0; y<height; y++) {
+            src.limit( ( y + 1 ) * rowBytes ).position( y * rowBytes );
+            dst.limit( dst.capacity() ).position( y * stripRowBytes + dstX );
+            dst.put(src);
+        }
+        synchronized( this ) {
+            if( 0 == --stripRemaining ) {
+                final int y = stripRow * tileHeight;
+                final int rowCount = Math.min(tileHeight, this.height - y);
+                strip.limit(rowCount * stripRowBytes).position(0);
+                try {
+                    sink.writeRows(strip, y, rowCount);
+                } catch (final IOException e) {
+                    error = new GLException("Image sink failed to write rows ["+y+".."+(y+rowCount-1)+"]", e);
+                } finally {
+                    strip.clear();
+                }
+                stripCount++;
+                stripRow += topToBottom ? -1 : 1;
+                stripRemaining = columns;
+                notifyAll();
+                if( null != error ) {
+                    throw error;
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls {@link TileRenderer.ImageSink#end()} after all strips have been written.
+     * @throws GLException if not all strips have been written or wrapping an {@link IOException} thrown by the sink
+     */
+    public final synchronized void finish() throws GLException {
+        if( null != error ) {
+            throw error;
+        }
+        if( rows != stripCount ) {
+            throw new GLException("Only "+stripCount+" of "+rows+" tile rows written to image sink");
+        }
+        try {
+            sink.end();
+        } catch (final IOException e) {
+            throw new GLException("Image sink failed to end", e);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.util.GLPixelStorageModes;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+/**
+ * Pipelined tile readback used by {@link com.jogamp.opengl.util.TileRenderer}.
+ * <p>
+ * Each tile is read into one of <i>N</i> pixel pack buffer objects (PBO) guarded by a fence sync object,
+ * while the next tile renders. Once a fence has been signaled, the PBO is mapped
+ * and its mapped range is handed to a {@link TileConsumer} on a worker thread.
+ * The GL thread only issues the map and unmaps the PBO after the consumer has completed,
+ * at the latest when the PBO is reused.
+ * </p>
+ * <p>
+ * All methods except {@link TileConsumer#consume(ByteBuffer, int, int, int, int)}
+ * must be called on the GL thread with the context current.
+ * </p>
+ */
+public class TileReadbackPipeline {
+    /** Consumes the pixels of one tile, called on a worker thread or on the GL thread if no worker is used. */
+    public static interface TileConsumer {
+        /**
+         * @param pixels tightly packed tile pixels, bottom row first, in native byte order,
+         *               only valid for the duration of this call
+         * @param column tile column
+         * @param row tile row
+         * @param width tile width in pixels
+         * @param height tile height in pixels
+         */
+        void consume(ByteBuffer pixels, int column, int row, int width, int height);
+    }
+
+    private static class Slot {
+        int pbo = 0;
+        int pboSize = 0;
+        long sync = 0;
+        boolean pending = false;
+        boolean mapped = false;
+        Future<?> task = null;
+        int column, row, width, height, byteSize;
+        TileConsumer consumer;
+    }
+    private static final long WAIT_TIMEOUT = 1000000000L; // 1s
+
+    private final GLPixelStorageModes psm = new GLPixelStorageModes();
+    private final Slot[] slots;
+    private final ExecutorService executor;
+    private int next = 0;
+    private int pendingCount = 0;
+    private long tileCount = 0;
+    private long stallCount = 0;
+
+    /**
+     * Returns true if the given GL object supports PBOs and fences.
+     */
+    public static boolean isSupported(final GL gl) {
+        return gl.isGL3ES3() &&
+               gl.isFunctionAvailable("glFenceSync") &&
+               gl.isFunctionAvailable("glClientWaitSync") &&
+               gl.isFunctionAvailable("glMapBufferRange");
+    }
+
+    /**
+     * @param gl the current GL object
+     * @param slotCount number of PBOs, &ge; 1
+     * @param threadCount number of worker threads, 0 to consume tiles on the GL thread
+     * @param threadName base name of the worker threads
+     */
+    public TileReadbackPipeline(final GL gl, final int slotCount, final int threadCount, final String threadName) {
+        if( 1 > slotCount || 0 > threadCount ) {
+            throw new IllegalArgumentException("Invalid slotCount "+slotCount+" or threadCount "+threadCount);
+        }
+        slots = new Slot[slotCount];
+        final int[] names = new int[slotCount];
+        gl.glGenBuffers(slotCount, names, 0);
+        for(int i=0; i<slotCount; i++) {
+            slots[i] = new Slot();
+            slots[i].pbo = names[i];
+        }
+        if( 0 < threadCount ) {
+            executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+                private int threadNum = 0;
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, threadName+"-"+(threadNum++));
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        } else {
+            executor = null;
+        }
+    }
+
+    /** Returns the number of read tiles. */
+    public final long getTileCount() { return tileCount; }
+
+    /** Returns the number of times a tile readback had to wait, since all PBOs were pending. */
+    public final long getStallCount() { return stallCount; }
+
+    /**
+     * Issues the asynchronous read of the given framebuffer region of the current read buffer
+     * and hands all previously read tiles, whose fence has been signaled, to their consumer.
+     */
+    public final void readTile(final GL gl, final int srcX, final int srcY, final int width, final int height,
+                               final GLPixelAttributes pixelAttribs, final int column, final int row,
+                               final TileConsumer consumer) throws GLException {
+        final GL3ES3 gl3es3 = gl.getGL3ES3();
+        complete(gl3es3, false, false);
+
+        final Slot slot = slots[next];
+        if( slot.pending ) {
+            stallCount++;
+            complete(gl3es3, true, true);
+        }
+        // PBO may still be mapped by the previous consumer of this slot
+        unmap(gl3es3, slot, true);
+        slot.byteSize = width * height * pixelAttribs.pfmt.comp.bytesPerPixel();
+        slot.column = column;
+        slot.row = row;
+        slot.width = width;
+        slot.height = height;
+        slot.consumer = consumer;
+
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+        if( slot.pboSize < slot.byteSize ) {
+            gl.glBufferData(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.byteSize, null, GL2ES3.GL_STREAM_READ);
+            slot.pboSize = slot.byteSize;
+        }
+        psm.setPackAlignment(gl, 1);
+        psm.setPackRowLength(gl3es3, width);
+        gl.glReadPixels(srcX, srcY, width, height, pixelAttribs.format, pixelAttribs.type, 0L);
+        psm.restore(gl);
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        slot.sync = gl3es3.glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        slot.pending = true;
+        pendingCount++;
+        tileCount++;
+        next = ( next + 1 ) % slots.length;
+    }
+
+    /**
+     * Waits for all pending tiles and their consumers to complete.
+     * @throws GLException if a consumer has thrown an exception
+     */
+    public final void finish(final GL gl) throws GLException {
+        final GL3ES3 gl3es3 = gl.getGL3ES3();
+        complete(gl3es3, true, false);
+        for(int i=0; i<slots.length; i++) {
+            unmap(gl3es3, slots[i], true);
+        }
+    }
+
+    /**
+     * Releases all resources w/o delivering pending tiles.
+     */
+    public final void destroy(final GL gl) {
+        final int[] names = new int[slots.length];
+        for(int i=0; i<slots.length; i++) {
+            final Slot slot = slots[i];
+            if( 0 != slot.sync ) {
+                gl.getGL3ES3().glDeleteSync(slot.sync);
+                slot.sync = 0;
+            }
+            slot.pending = false;
+            try {
+                unmap(gl.getGL3ES3(), slot, true);
+            } catch (final GLException gle) {
+                // dropped, destruction
+            }
+            names[i] = slot.pbo;
+        }
+        gl.glDeleteBuffers(names.length, names, 0);
+        pendingCount = 0;
+        if( null != executor ) {
+            executor.shutdown();
+        }
+    }
+
+    private void complete(final GL3ES3 gl, final boolean block, final boolean onlyOne) throws GLException {
+        for(int i=0; i<slots.length; i++) {
+            unmap(gl, slots[i], false); // release PBOs of completed consumers early
+        }
+        int count = 0;
+        while( 0 < pendingCount && ( !onlyOne || 0 == count ) ) {
+            final Slot slot = slots[ ( next - pendingCount + slots.length ) % slots.length ];
+            if( 0 != slot.sync ) {
+                int r;
+                do {
+                    r = gl.glClientWaitSync(slot.sync, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, block ? WAIT_TIMEOUT : 0);
+                } while( block && GL3ES3.GL_TIMEOUT_EXPIRED == r );
+                if( GL3ES3.GL_TIMEOUT_EXPIRED == r ) {
+                    break;
+                }
+                gl.glDeleteSync(slot.sync);
+                slot.sync = 0;
+            }
+            slot.pending = false;
+            pendingCount--;
+            deliver(gl, slot);
+            count++;
+        }
+    }
+
+    private void deliver(final GL3ES3 gl, final Slot slot) throws GLException {
+        final ByteBuffer pixels;
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+        try {
+            pixels = gl.glMapBufferRange(GL2ES3.GL_PIXEL_PACK_BUFFER, 0, slot.byteSize, GL.GL_MAP_READ_BIT);
+            if( null == pixels ) {
+                throw new GLException("Could not map tile PBO, glerr 0x"+Integer.toHexString(gl.glGetError()));
+            }
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        }
+        slot.mapped = true;
+        pixels.order(ByteOrder.nativeOrder());
+        pixels.position(0);
+        pixels.limit(slot.byteSize);
+        final TileConsumer consumer = slot.consumer;
+        final int column = slot.column, row = slot.row, width = slot.width, height = slot.height;
+        if( null != executor ) {
+            // worker reads the mapped range, the PBO is unmapped on the GL thread after completion
+            slot.task = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    consumer.consume(pixels, column, row, width, height);
+                }
+            });
+        } else {
+            try {
+                consumer.consume(pixels, column, row, width, height);
+            } finally {
+                unmap(gl, slot, true);
+            }
+        }
+    }
+
+    /**
+     * Unmaps the slot's PBO after its consumer has completed.
+     * @param block if true wait for the consumer, otherwise only unmap if it has already completed
+     * @throws GLException if the consumer has thrown an exception, the PBO is unmapped nevertheless
+     */
+    private static void unmap(final GL3ES3 gl, final Slot slot, final boolean block) throws GLException {
+        if( !block && null != slot.task && !slot.task.isDone() ) {
+            return;
+        }
+        try {
+            waitTask(slot);
+        } finally {
+            if( slot.mapped ) {
+                slot.mapped = false;
+                gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, slot.pbo);
+                gl.glUnmapBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER);
+                gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+            }
+        }
+    }
+
+    private static void waitTask(final Slot slot) throws GLException {
+        if( null != slot.task ) {
+            final Future<?> task = slot.task;
+            slot.task = null;
+            try {
+                task.get();
+            } catch (final InterruptedException ie) {
+                throw new GLException("Interrupted while waiting for tile consumer", ie);
+            } catch (final ExecutionException ee) {
+                throw new GLException("Tile consumer failed", ee.getCause());
+            }
+        }
+    }
+}
@@ -70,6 +70,8 @@ public class GLSLArrayHandler extends GLVBOArrayHandler {
   }
 
   private final int[] tempI = new int[1];
+  /** VBO offset of the last vertex attribute pointer setup, which changes while streaming */
+  private long pointerVBOOffset = 0;
 
   private final void enableShaderState(final GL2ES2 glsl, final boolean enable, final ShaderState st) {
     if(enable) {
@@ -97,14 +99,16 @@ public class GLSLArrayHandler extends GLVBOArrayHandler {
                 }
                 ad.setVBOWritten(true);
                 st.vertexAttribPointer(glsl, ad);
+                pointerVBOOffset = ad.getVBOOffset();
                 glsl.glBindBuffer(ad.getVBOTarget(), 0);
             } else if(st.getAttribLocation(glsl, ad) >= 0) {
                 // didn't experience a performance hit on this query ..
                 // (using ShaderState's location query above to validate the location)
                 glsl.glGetVertexAttribiv(ad.getLocation(), GL2ES2.GL_VERTEX_ATTRIB_ARRAY_BUFFER_BINDING, tempI, 0);
-                if(ad.getVBOName() != tempI[0]) {
+                if(ad.getVBOName() != tempI[0] || ad.getVBOOffset() != pointerVBOOffset) {
                     glsl.glBindBuffer(ad.getVBOTarget(), ad.getVBOName());
                     st.vertexAttribPointer(glsl, ad);
+                    pointerVBOOffset = ad.getVBOOffset();
                     glsl.glBindBuffer(ad.getVBOTarget(), 0);
                 }
             }
@@ -148,14 +152,16 @@ public class GLSLArrayHandler extends GLVBOArrayHandler {
                 }
                 ad.setVBOWritten(true);
                 glsl.glVertexAttribPointer(ad);
+                pointerVBOOffset = ad.getVBOOffset();
                 glsl.glBindBuffer(ad.getVBOTarget(), 0);
             } else {
                 // didn't experience a performance hit on this query ..
                 // (using ShaderState's location query above to validate the location)
                 glsl.glGetVertexAttribiv(location, GL2ES2.GL_VERTEX_ATTRIB_ARRAY_BUFFER_BINDING, tempI, 0);
-                if(ad.getVBOName() != tempI[0]) {
+                if(ad.getVBOName() != tempI[0] || ad.getVBOOffset() != pointerVBOOffset) {
                     glsl.glBindBuffer(ad.getVBOTarget(), ad.getVBOName());
                     glsl.glVertexAttribPointer(ad);
+                    pointerVBOOffset = ad.getVBOOffset();
                     glsl.glBindBuffer(ad.getVBOTarget(), 0);
                 }
             }
@@ -42,6 +42,13 @@ public enum FilterType {
 	 * the filters (for every row!)
 	 */
 	FILTER_VERYAGGRESSIVE(-3),
+	/**
+	 * Minimum sum strategy: for every row, try each of the above filters and
+	 * select the one with the minimum sum of absolute (signed) differences, as
+	 * recommended by the PNG specification. Slower than the default, but
+	 * usually gives the smallest files.
+	 */
+	FILTER_MINSUM(-4),
 	/**
 	 * Uses all fiters, one for lines, cyciclally. Only for tests.
 	 */
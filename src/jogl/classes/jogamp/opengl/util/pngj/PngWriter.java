@@ -72,6 +72,7 @@ public class PngWriter {
 
 	protected byte[] rowb = null; // element 0 is filter type!
 	protected byte[] rowbfilter = null; // current line with filter
+	protected byte[] rowbfilterMin = null; // best line found so far, only used by FILTER_MINSUM
 
 	protected byte[] rowbprev = null; // rowb prev
 
@@ -256,6 +257,10 @@ public class PngWriter {
 	private void filterRow(final int rown) {
 		// warning: filters operation rely on: "previos row" (rowbprev) is
 		// initialized to 0 the first time
+		if (filterStrat.configuredType == FilterType.FILTER_MINSUM) {
+			filterRowMinSum();
+			return;
+		}
 		if (filterStrat.shouldTestAll(rown)) {
 			filterRowNone();
 			reportResultsForFilter(rown, FilterType.FILTER_NONE, true);
@@ -270,6 +275,40 @@ public class PngWriter {
 		}
 		final FilterType filterType = filterStrat.gimmeFilterType(rown, true);
 		rowbfilter[0] = (byte) filterType.val;
+		filterRowByType(filterType);
+		if (filterStrat.computesStatistics()) // histogram is only consumed when testing all filters
+			reportResultsForFilter(rown, filterType, false);
+	}
+
+	/**
+	 * Applies each of the five filters to the current row, keeping the one with
+	 * the minimum sum of absolute differences (libpng heuristic).
+	 */
+	private void filterRowMinSum() {
+		if (rowbfilterMin == null)
+			rowbfilterMin = new byte[rowbfilter.length];
+		FilterType best = FilterType.FILTER_NONE;
+		int bestSum = Integer.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			final FilterType type = FilterType.getByVal(i);
+			filterRowByType(type);
+			final int s = sumRowbfilter();
+			if (s < bestSum) {
+				bestSum = s;
+				best = type;
+				// keep this one, next filter goes into the former best buffer
+				final byte[] tmp = rowbfilterMin;
+				rowbfilterMin = rowbfilter;
+				rowbfilter = tmp;
+			}
+		}
+		final byte[] tmp = rowbfilter;
+		rowbfilter = rowbfilterMin;
+		rowbfilterMin = tmp;
+		rowbfilter[0] = (byte) best.val;
+	}
+
+	private void filterRowByType(final FilterType filterType) {
 		switch (filterType) {
 		case FILTER_NONE:
 			filterRowNone();
@@ -289,7 +328,6 @@ public class PngWriter {
 		default:
 			throw new PngjUnsupportedException("Filter type " + filterType + " not implemented");
 		}
-		reportResultsForFilter(rown, filterType, false);
 	}
 
 	private void prepareEncodeRow(final int rown) {
@@ -532,7 +570,7 @@ public class PngWriter {
 	 * @param filterType
 	 *            One of the five prediction types or strategy to choose it (see
 	 *            <code>PngFilterType</code>) Recommended values: DEFAULT
-	 *            (default) or AGGRESIVE
+	 *            (default), AGGRESIVE or MINSUM (smallest output)
 	 */
 	public void setFilterType(final FilterType filterType) {
 		filterStrat = new FilterWriteStrategy(imgInfo, filterType);
@@ -224,6 +224,18 @@ public class X11GLXDrawableFactory extends GLDrawableFactoryImpl {
   }
 
   class SharedResourceImplementation extends SharedResourceRunner.AImplementation {
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Each shared resource opens its own X11 display connection,
+         * hence distinct devices may be probed concurrently.
+         * </p>
+         */
+        @Override
+        public boolean isParallelCreationSupported() {
+            return true;
+        }
+
         @Override
         public boolean isDeviceSupported(final AbstractGraphicsDevice device) {
             final boolean res;
@@ -371,6 +383,16 @@ public class X11GLXDrawableFactory extends GLDrawableFactoryImpl {
     return (SharedResource) sharedResourceRunner.getOrCreateShared(device);
   }
 
+  @Override
+  protected final boolean createSharedResourceConcurrent(AbstractGraphicsDevice device) {
+    device = validateDevice(device);
+    if( null != device ) {
+        final SharedResourceRunner.Resource sr = sharedResourceRunner.getOrCreateSharedConcurrent(device);
+        return null != sr && sr.isAvailable();
+    }
+    return false;
+  }
+
   protected final long getOrCreateSharedDpy(final AbstractGraphicsDevice device) {
     final SharedResourceRunner.Resource sr = getOrCreateSharedResource( device );
     if(null!=sr) {
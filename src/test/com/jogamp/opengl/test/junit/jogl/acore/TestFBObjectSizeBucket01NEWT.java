@@ -0,0 +1,172 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import com.jogamp.opengl.FBObject;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.FBObject.Attachment;
+import com.jogamp.opengl.FBObject.TextureAttachment;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link FBObject#setSizeBucket(int) size bucket} over-allocation
+ * and attachment recycling via {@link FBObject.AttachmentPool}.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestFBObjectSizeBucket01NEWT extends UITestCase {
+
+    private static void runOffscreen(final GLRunnable action) {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        Assert.assertNotNull(glad);
+        try {
+            glad.display();
+            Assert.assertTrue(glad.invoke(true, action));
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    private static void testBucket(final int sizeBucket, final int allocSmall, final int allocLarge) {
+        runOffscreen(new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                final FBObject fbo = new FBObject();
+                fbo.setSizeBucket(sizeBucket);
+                fbo.init(gl, 100, 100, 0);
+                final TextureAttachment tex = fbo.attachTexture2D(gl, 0, true);
+                fbo.attachRenderbuffer(gl, Attachment.Type.DEPTH, FBObject.DEFAULT_BITS);
+                Assert.assertTrue(fbo.isStatusValid());
+                Assert.assertEquals(allocSmall, fbo.getAllocatedWidth());
+                Assert.assertEquals(allocSmall, tex.getWidth());
+                Assert.assertEquals(allocSmall, fbo.getDepthAttachment().getHeight());
+                final int texName = tex.getName();
+                final int depthName = fbo.getDepthAttachment().getName();
+
+                // within bucket: logical size only
+                Assert.assertTrue(fbo.reset(gl, allocSmall - 10, allocSmall - 20, 0));
+                Assert.assertEquals(allocSmall - 10, fbo.getWidth());
+                Assert.assertEquals(allocSmall - 20, fbo.getHeight());
+                Assert.assertEquals(allocSmall, fbo.getAllocatedWidth());
+                Assert.assertEquals(allocSmall, fbo.getAllocatedHeight());
+                Assert.assertEquals(texName, tex.getName());
+                Assert.assertEquals(depthName, fbo.getDepthAttachment().getName());
+                Assert.assertTrue(fbo.isStatusValid());
+
+                // crossing bucket: reallocation
+                fbo.reset(gl, allocSmall + 1, allocSmall + 1, 0);
+                Assert.assertEquals(allocSmall + 1, fbo.getWidth());
+                Assert.assertEquals(allocLarge, fbo.getAllocatedWidth());
+                Assert.assertEquals(allocLarge, tex.getWidth());
+                Assert.assertEquals(allocLarge, fbo.getDepthAttachment().getWidth());
+                Assert.assertTrue(fbo.isStatusValid());
+                System.err.println(fbo);
+                fbo.destroy(gl);
+                Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+                return true;
+            }
+        });
+    }
+
+    @Test
+    public void test01_Bucket64() {
+        testBucket(64, 128, 192);
+    }
+
+    @Test
+    public void test02_BucketPOT() {
+        testBucket(FBObject.SIZE_BUCKET_POT, 128, 256);
+    }
+
+    @Test
+    public void test03_AttachmentPool() {
+        runOffscreen(new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                final FBObject.AttachmentPool pool = FBObject.AttachmentPool.get(gl);
+                Assert.assertSame(pool, FBObject.AttachmentPool.get(gl));
+
+                final FBObject fbo1 = new FBObject();
+                fbo1.setAttachmentPool(pool);
+                fbo1.init(gl, 100, 100, 0);
+                final int texName = fbo1.attachTexture2D(gl, 0, true).getName();
+                fbo1.attachRenderbuffer(gl, Attachment.Type.DEPTH, FBObject.DEFAULT_BITS);
+                final int depthName = fbo1.getDepthAttachment().getName();
+                Assert.assertEquals(0, pool.getHitCount());
+                fbo1.destroy(gl);
+                Assert.assertEquals(2, pool.getIdleCount());
+
+                final FBObject fbo2 = new FBObject();
+                fbo2.setAttachmentPool(pool);
+                fbo2.init(gl, 100, 100, 0);
+                Assert.assertEquals(texName, fbo2.attachTexture2D(gl, 0, true).getName());
+                fbo2.attachRenderbuffer(gl, Attachment.Type.DEPTH, FBObject.DEFAULT_BITS);
+                Assert.assertEquals(depthName, fbo2.getDepthAttachment().getName());
+                Assert.assertTrue(fbo2.isStatusValid());
+                Assert.assertEquals(2, pool.getHitCount());
+                Assert.assertEquals(0, pool.getIdleCount());
+
+                // different size is not served by the pool
+                final FBObject fbo3 = new FBObject();
+                fbo3.setAttachmentPool(pool);
+                fbo3.init(gl, 50, 50, 0);
+                fbo3.attachTexture2D(gl, 0, true);
+                Assert.assertEquals(2, pool.getHitCount());
+
+                fbo3.destroy(gl);
+                fbo2.destroy(gl);
+                Assert.assertEquals(3, pool.getIdleCount());
+                System.err.println(pool);
+                pool.clear(gl);
+                Assert.assertEquals(0, pool.getIdleCount());
+                Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+                return true;
+            }
+        });
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestFBObjectSizeBucket01NEWT.class.getName());
+    }
+}
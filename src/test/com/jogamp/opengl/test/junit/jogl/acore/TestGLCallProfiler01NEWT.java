@@ -0,0 +1,132 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCallProfiler;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLPipelineFactory;
+import com.jogamp.opengl.GLProfile;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates the generated <code>ProfileGL*</code> pipeline statistics of {@link GLCallProfiler}
+ * using an offscreen drawable issuing a known number of GL calls per frame.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLCallProfiler01NEWT extends UITestCase {
+    static final int frames = 10;
+
+    private static class KnownCalls implements GLEventListener {
+        GLCallProfiler profiler;
+        GLCallProfiler.Snapshot lastFrame;
+        @Override
+        public void init(final GLAutoDrawable drawable) {
+            drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Profile", null, drawable.getGL(), null) );
+            profiler = (GLCallProfiler) drawable.getGL();
+        }
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+        @Override
+        public void display(final GLAutoDrawable drawable) {
+            final GL gl = drawable.getGL();
+            gl.glClearColor(0f, 0f, 0f, 1f);
+            gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+            gl.glEnable(GL.GL_DEPTH_TEST);
+            gl.glDisable(GL.GL_DEPTH_TEST);
+            gl.glDrawArrays(GL.GL_POINTS, 0, 0);
+            lastFrame = profiler.endFrame();
+        }
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+    }
+
+    @Test
+    public void test01_CallCounts() {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        final KnownCalls listener = new KnownCalls();
+        glad.addGLEventListener(listener);
+        try {
+            glad.display(); // init
+            Assert.assertNotNull(listener.profiler);
+            listener.profiler.reset();
+            for(int i=0; i<frames; i++) {
+                glad.display();
+            }
+            final GLCallProfiler p = listener.profiler;
+            final int clearId = p.getFunctionId("glClear");
+            final int enableId = p.getFunctionId("glEnable");
+            final int drawId = p.getFunctionId("glDrawArrays");
+            Assert.assertTrue(0 <= clearId && 0 <= enableId && 0 <= drawId);
+            Assert.assertEquals(-1, p.getFunctionId("noSuchFunction"));
+            Assert.assertEquals("glClear", p.getFunctionName(clearId));
+            Assert.assertEquals(frames, p.getCallCount(clearId));
+            Assert.assertEquals(frames, p.getCallCount(enableId));
+            Assert.assertEquals(frames, p.getCallCount(drawId));
+            Assert.assertTrue(0 < p.getCallNanos(clearId));
+
+            final GLCallProfiler.Snapshot f = listener.lastFrame;
+            System.err.println(f.toString(5, true));
+            Assert.assertEquals(1, f.getCallCount(clearId));
+            Assert.assertEquals(1, f.getDrawCalls());
+            Assert.assertEquals(3, f.getStateChanges());
+            Assert.assertTrue(5 <= f.getTotalCalls());
+            final int[] top = f.getTop(3, false);
+            Assert.assertTrue(top.length <= 3);
+            for(int i=1; i<top.length; i++) {
+                Assert.assertTrue(f.getCallCount(top[i-1]) >= f.getCallCount(top[i]));
+            }
+
+            final GLCallProfiler.Snapshot all = p.snapshot();
+            Assert.assertEquals(frames, all.getDrawCalls());
+            p.reset();
+            Assert.assertEquals(0, p.getCallCount(clearId));
+            Assert.assertEquals(0, p.snapshot().getTotalCalls());
+            Assert.assertEquals(0, p.endFrame().getTop(10, true).length);
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLCallProfiler01NEWT.class.getName());
+    }
+}
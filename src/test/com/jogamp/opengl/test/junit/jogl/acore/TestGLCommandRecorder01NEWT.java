@@ -0,0 +1,252 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.util.RecordGL2ES2;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Records GL commands on worker threads via the generated {@link RecordGL2ES2}
+ * and validates their replay on the GL thread.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLCommandRecorder01NEWT extends UITestCase {
+    static final int size = 64;
+    static final float[][] colors = { { 1f, 0f, 0f }, { 0f, 1f, 0f }, { 0f, 0f, 1f }, { 1f, 1f, 0f } };
+
+    private GLOffscreenAutoDrawable createDrawable() {
+        final GLProfile glp = GLProfile.getGL2ES2();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, size, size);
+        glad.display(); // init
+        return glad;
+    }
+
+    /** Records a scissored clear of the given quadrant. */
+    private static void recordQuadrant(final GL2ES2 gl, final int q) {
+        final int h = size / 2;
+        gl.glEnable(GL.GL_SCISSOR_TEST);
+        gl.glScissor( ( q % 2 ) * h, ( q / 2 ) * h, h, h);
+        gl.glClearColor(colors[q][0], colors[q][1], colors[q][2], 1f);
+        gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+        gl.glDisable(GL.GL_SCISSOR_TEST);
+    }
+
+    private void validateQuadrants(final GLAutoDrawable glad) {
+        final ByteBuffer pixels = Buffers.newDirectByteBuffer(size*size*4);
+        glad.invoke(true, new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                gl.glPixelStorei(GL.GL_PACK_ALIGNMENT, 1);
+                gl.glReadPixels(0, 0, size, size, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, pixels);
+                return true;
+            }
+        });
+        final int h = size / 2;
+        for(int q=0; q<4; q++) {
+            final int x = ( q % 2 ) * h + h / 2;
+            final int y = ( q / 2 ) * h + h / 2;
+            final int i = ( y * size + x ) * 4;
+            for(int c=0; c<3; c++) {
+                Assert.assertEquals("quadrant "+q+", component "+c, (int)(colors[q][c]*255f), pixels.get(i+c) & 0xff);
+            }
+        }
+    }
+
+    @Test
+    public void test01_RecordOnWorkerThreads() throws InterruptedException {
+        final GLOffscreenAutoDrawable glad = createDrawable();
+        try {
+            final GL2ES2 gl = glad.getGL().getGL2ES2();
+            final RecordGL2ES2[] recs = new RecordGL2ES2[4];
+            final Thread[] workers = new Thread[4];
+            for(int q=0; q<4; q++) {
+                final int _q = q;
+                recs[q] = new RecordGL2ES2(gl);
+                workers[q] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        recordQuadrant(recs[_q], _q);
+                    } }, getSimpleTestName(".")+"-Worker"+q);
+                workers[q].start();
+            }
+            for(int q=0; q<4; q++) {
+                workers[q].join();
+                Assert.assertEquals(5, recs[q].getCommandCount());
+            }
+
+            // batch all recordings into one submission
+            final RecordGL2ES2 batch = new RecordGL2ES2(gl);
+            for(int q=0; q<4; q++) {
+                batch.append(recs[q]);
+            }
+            Assert.assertEquals(20, batch.getCommandCount());
+            glad.invoke(true, batch);
+            validateQuadrants(glad);
+
+            // the command stream is kept, i.e. replay is repeatable
+            glad.invoke(true, new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable drawable) {
+                    final GL gl = drawable.getGL();
+                    gl.glClearColor(0f, 0f, 0f, 1f);
+                    gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                    return true;
+                }
+            });
+            glad.invoke(true, batch);
+            validateQuadrants(glad);
+
+            batch.reset();
+            Assert.assertTrue(batch.isEmpty());
+            Assert.assertEquals(0, batch.getSize());
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test02_Arguments() {
+        final GLOffscreenAutoDrawable glad = createDrawable();
+        try {
+            final RecordGL2ES2 rec = new RecordGL2ES2(glad.getGL().getGL2ES2());
+            final FloatBuffer data = Buffers.newDirectFloatBuffer(256);
+            rec.glBufferData(GL.GL_ARRAY_BUFFER, 256*Buffers.SIZEOF_FLOAT, data, GL.GL_STATIC_DRAW);
+            Assert.assertTrue("buffer payload not copied", rec.getSize() >= 256*Buffers.SIZEOF_FLOAT);
+            rec.glDeleteBuffers(2, new int[] { 0, 0, 0 }, 1);
+            rec.glBindAttribLocation(0, 0, "vertex");
+            rec.reset();
+
+            // commands returning values or writing into their arguments are not recordable
+            try {
+                rec.glGenBuffers(1, new int[1], 0);
+                Assert.fail("glGenBuffers recorded");
+            } catch (final GLException e) { }
+            try {
+                rec.glGetError();
+                Assert.fail("glGetError recorded");
+            } catch (final GLException e) { }
+            Assert.assertTrue(rec.isEmpty());
+
+            // arrays are copied by the element count given by the call, not to their end
+            rec.glUniform4fv(0, 1, new float[1024], 4);
+            Assert.assertTrue("array copied beyond its count", rec.getSize() < 64);
+            final int size = rec.getSize();
+            try {
+                rec.glUniform4fv(0, 2, new float[6], 0);
+                Assert.fail("array range not checked");
+            } catch (final GLException e) { }
+            Assert.assertEquals("invalid command not dropped", size, rec.getSize());
+            Assert.assertEquals(1, rec.getCommandCount());
+            rec.reset();
+
+            recordQuadrant(rec, 0);
+            recordQuadrant(rec, 1);
+            recordQuadrant(rec, 2);
+            recordQuadrant(rec, 3);
+            glad.invoke(true, rec);
+            validateQuadrants(glad);
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test03_Serialization() throws IOException {
+        final RecordGL2ES2 rec = new RecordGL2ES2(null);
+        rec.glClearColor(0f, 0f, 1f, 1f);
+        rec.glClear(GL.GL_COLOR_BUFFER_BIT);
+        rec.glUniform4fv(0, 1, new float[] { 1f, 2f, 3f, 4f }, 0);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        rec.write(out);
+        final byte[] stream = out.toByteArray();
+
+        final RecordGL2ES2 copy = new RecordGL2ES2(null);
+        copy.read(new ByteArrayInputStream(stream));
+        Assert.assertEquals(rec.getCommandCount(), copy.getCommandCount());
+        Assert.assertEquals(rec.getSize(), copy.getSize());
+
+        // header: magic, version, byte order, type name, opcode count and opcode table hash
+        final int hashPos = 4 + 4 + 1 + 2 + RecordGL2ES2.class.getName().length() + 4;
+        stream[hashPos] ^= 0x01;
+        try {
+            copy.read(new ByteArrayInputStream(stream));
+            Assert.fail("opcode table mismatch not detected");
+        } catch (final IOException e) {
+            System.err.println("Expected: "+e.getMessage());
+        }
+        stream[hashPos] ^= 0x01;
+
+        // command count and size follow the header
+        final int sizePos = hashPos + 8 + 4;
+        stream[sizePos] |= (byte)0x80; // negative size
+        try {
+            copy.read(new ByteArrayInputStream(stream));
+            Assert.fail("negative stream size not detected");
+        } catch (final IOException e) {
+            System.err.println("Expected: "+e.getMessage());
+        }
+        stream[sizePos] &= (byte)0x7f;
+
+        // truncated stream
+        try {
+            copy.read(new ByteArrayInputStream(stream, 0, stream.length - 1));
+            Assert.fail("truncated stream not detected");
+        } catch (final IOException e) {
+            System.err.println("Expected: "+e.getMessage());
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLCommandRecorder01NEWT.class.getName());
+    }
+}
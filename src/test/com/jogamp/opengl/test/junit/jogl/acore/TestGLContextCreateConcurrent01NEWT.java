@@ -0,0 +1,159 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+
+import jogamp.opengl.GLContextShareSet;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Stress test and benchmark creating and destroying short-lived offscreen contexts
+ * on multiple threads in parallel, w/ and w/o sharing, validating the
+ * concurrent context registries of {@link GLContextShareSet} and GLContextImpl.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLContextCreateConcurrent01NEWT extends UITestCase {
+    static int threadCount = 4;
+    static int iterations = 20;
+    static GLProfile glp;
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton();
+        glp = GLProfile.getDefault();
+    }
+
+    private static GLOffscreenAutoDrawable create(final GLAutoDrawable sharedDrawable) {
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        if( null != sharedDrawable ) {
+            glad.setSharedAutoDrawable(sharedDrawable);
+        }
+        return glad;
+    }
+
+    private void test(final boolean shared) throws InterruptedException {
+        final int sharedBase = GLContextShareSet.getSize();
+        final AtomicInteger created = new AtomicInteger(0);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final GLRunnable clear = new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                gl.glFinish();
+                return true;
+            }
+        };
+        final Thread[] threads = new Thread[threadCount];
+        final long t0 = System.nanoTime();
+        for(int i=0; i<threadCount; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final GLOffscreenAutoDrawable master;
+                        if( shared ) {
+                            master = create(null);
+                            master.display();
+                        } else {
+                            master = null;
+                        }
+                        for(int j=0; j<iterations; j++) {
+                            final GLOffscreenAutoDrawable glad = create(master);
+                            glad.display();
+                            Assert.assertTrue(glad.getContext().isCreated());
+                            Assert.assertEquals(shared, glad.getContext().isShared());
+                            glad.invoke(true, clear);
+                            glad.destroy();
+                            created.incrementAndGet();
+                        }
+                        if( null != master ) {
+                            Assert.assertEquals(1, GLContextShareSet.getCreatedShareCount(master.getContext()));
+                            master.destroy();
+                        }
+                    } catch (final Throwable t) {
+                        t.printStackTrace();
+                        error.compareAndSet(null, t);
+                    }
+                } }, getSimpleTestName(".")+"-T"+i);
+            threads[i].start();
+        }
+        for(int i=0; i<threadCount; i++) {
+            threads[i].join();
+        }
+        final long dt = System.nanoTime() - t0;
+        System.err.printf("%s: shared %b, %d threads, %d contexts, %8.3f ms, %8.3f ms/context%n",
+                getSimpleTestName("."), shared, threadCount, created.get(), dt/1e6, dt/1e6/created.get());
+        if( null != error.get() ) {
+            Assert.fail("Error: "+error.get());
+        }
+        Assert.assertEquals(threadCount*iterations, created.get());
+        Assert.assertEquals("Shared contexts not unregistered", sharedBase, GLContextShareSet.getSize());
+    }
+
+    @Test
+    public void test01_Unshared() throws InterruptedException {
+        test(false);
+    }
+
+    @Test
+    public void test02_Shared() throws InterruptedException {
+        test(true);
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-threads")) {
+                threadCount = MiscUtils.atoi(args[++i], threadCount);
+            } else if(args[i].equals("-iterations")) {
+                iterations = MiscUtils.atoi(args[++i], iterations);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLContextCreateConcurrent01NEWT.class.getName());
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLFrameProfiler;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLFrameProfiler} records of {@link GLAutoDrawable#setFrameProfiling(int)}
+ * using an offscreen drawable with listeners of known CPU cost.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLFrameProfiler01NEWT extends UITestCase {
+
+    private static class SimulatedCost implements GLEventListener {
+        final long costMillis;
+        SimulatedCost(final long costMillis) { this.costMillis = costMillis; }
+        @Override
+        public void init(final GLAutoDrawable drawable) { }
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+        @Override
+        public void display(final GLAutoDrawable drawable) {
+            drawable.getGL().glClear(GL.GL_COLOR_BUFFER_BIT);
+            try {
+                Thread.sleep(costMillis);
+            } catch (final InterruptedException e) { }
+        }
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+    }
+
+    private static GLOffscreenAutoDrawable createDrawable() {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        glad.display(); // init
+        return glad;
+    }
+
+    @Test
+    public void test01_Disabled() {
+        final GLOffscreenAutoDrawable glad = createDrawable();
+        try {
+            Assert.assertNull(glad.getFrameProfiler());
+            glad.display();
+            final GLFrameProfiler fp = glad.setFrameProfiling(GLFrameProfiler.DEFAULT_FRAME_CAPACITY);
+            Assert.assertNotNull(fp);
+            Assert.assertSame(fp, glad.getFrameProfiler());
+            Assert.assertEquals(0, fp.getFrameCount());
+            Assert.assertNull(fp.getLastFrame());
+            Assert.assertEquals(-1, fp.getPercentile(GLFrameProfiler.Metric.TOTAL, 0.5f));
+            Assert.assertNull(glad.setFrameProfiling(0));
+            Assert.assertNull(glad.getFrameProfiler());
+            glad.display();
+            Assert.assertEquals(0, fp.getFrameCount());
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test02_ListenerTiming() {
+        final GLOffscreenAutoDrawable glad = createDrawable();
+        final SimulatedCost fast = new SimulatedCost(1);
+        final SimulatedCost slow = new SimulatedCost(10);
+        glad.addGLEventListener(fast);
+        glad.addGLEventListener(slow);
+        try {
+            final GLFrameProfiler fp = glad.setFrameProfiling(16);
+            Assert.assertEquals(16, fp.getFrameCapacity());
+            final int frames = 24;
+            for(int i=0; i<frames; i++) {
+                glad.display();
+            }
+            Assert.assertEquals(frames, fp.getFrameCount());
+            final GLFrameProfiler.Frame[] records = fp.getFrames(frames);
+            Assert.assertEquals(16, records.length);
+            for(int i=0; i<records.length; i++) {
+                final GLFrameProfiler.Frame f = records[i];
+                Assert.assertEquals(frames - 16 + i, f.getNumber());
+                Assert.assertEquals(2, f.getListenerCount());
+                Assert.assertSame(fast, f.getListener(0));
+                Assert.assertSame(slow, f.getListener(1));
+                Assert.assertTrue(f.toString(), f.getListenerNanos(1) >= 10000000L);
+                Assert.assertTrue(f.toString(), f.getListenersNanos() >= f.getListenerNanos(0) + f.getListenerNanos(1));
+                Assert.assertTrue(f.toString(), f.getTotalNanos() >= f.getListenersNanos() + f.getSwapNanos());
+            }
+            System.err.println(fp.getLastFrame());
+            System.err.println(fp);
+            final long fastP50 = fp.getListenerPercentile(fast, 0.5f);
+            final long slowP50 = fp.getListenerPercentile(slow, 0.5f);
+            Assert.assertTrue("fast "+fastP50+", slow "+slowP50, fastP50 < slowP50);
+            Assert.assertTrue(fp.getPercentile(GLFrameProfiler.Metric.TOTAL, 0.5f) <= fp.getPercentile(GLFrameProfiler.Metric.TOTAL, 0.99f));
+            Assert.assertEquals(-1, fp.getListenerPercentile(new SimulatedCost(0), 0.5f));
+            if( fp.isGPUTimingAvailable() ) {
+                Assert.assertTrue(0 <= fp.getPercentile(GLFrameProfiler.Metric.GPU, 0.5f));
+            }
+            fp.reset();
+            Assert.assertEquals(0, fp.getFrameCount());
+            Assert.assertEquals(0, fp.getFrames(frames).length);
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test03_RunnableTiming() {
+        final GLOffscreenAutoDrawable glad = createDrawable();
+        try {
+            final GLFrameProfiler fp = glad.setFrameProfiling(8);
+            glad.invoke(true, new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable drawable) {
+                    try {
+                        Thread.sleep(5);
+                    } catch (final InterruptedException e) { }
+                    return true;
+                }
+            });
+            final GLFrameProfiler.Frame f = fp.getLastFrame();
+            Assert.assertNotNull(f);
+            System.err.println(f);
+            Assert.assertEquals(1, f.getRunnableCount());
+            Assert.assertTrue(f.toString(), f.getRunnableNanos() >= 5000000L);
+            Assert.assertTrue(f.toString(), f.getRunnableMaxWaitNanos() >= 0);
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLFrameProfiler01NEWT.class.getName());
+    }
+}
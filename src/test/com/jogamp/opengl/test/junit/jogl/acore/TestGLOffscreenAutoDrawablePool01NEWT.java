@@ -0,0 +1,188 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.util.GLOffscreenAutoDrawablePool;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates reuse, resizing, state reset, sharing and waiting of {@link GLOffscreenAutoDrawablePool}.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLOffscreenAutoDrawablePool01NEWT extends UITestCase {
+
+    private static boolean isEnabled(final GLAutoDrawable glad, final int cap) {
+        final boolean[] res = { false };
+        glad.invoke(true, new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                res[0] = drawable.getGL().glIsEnabled(cap);
+                return true;
+            }
+        });
+        return res[0];
+    }
+
+    @Test
+    public void test01_LeaseRelease() throws InterruptedException {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawablePool pool = new GLOffscreenAutoDrawablePool(GLDrawableFactory.getFactory(glp), 2);
+        try {
+            // create and reuse
+            final GLOffscreenAutoDrawable a = pool.lease(caps, 64, 64);
+            Assert.assertTrue(a.getContext().isCreated());
+            Assert.assertEquals(1, pool.getCreationCount());
+            final int[] tex = new int[1];
+            a.invoke(true, new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable drawable) {
+                    final GL gl = drawable.getGL();
+                    gl.glGenTextures(1, tex, 0);
+                    gl.glBindTexture(GL.GL_TEXTURE_2D, tex[0]);
+                    gl.glEnable(GL.GL_BLEND);
+                    return true;
+                }
+            });
+            pool.release(a);
+            Assert.assertEquals(1, pool.getIdleCount());
+
+            final GLOffscreenAutoDrawable a2 = pool.lease(caps, 64, 64);
+            Assert.assertSame(a, a2);
+            Assert.assertEquals(1, pool.getCreationCount());
+            Assert.assertEquals(0, pool.getResizeCount());
+            Assert.assertFalse("State not reset", isEnabled(a2, GL.GL_BLEND));
+
+            // second drawable shares GL objects
+            final GLOffscreenAutoDrawable b = pool.lease(caps, 64, 64);
+            Assert.assertNotSame(a2, b);
+            Assert.assertEquals(2, pool.getCreationCount());
+            final boolean[] isTexture = { false };
+            b.invoke(true, new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable drawable) {
+                    isTexture[0] = drawable.getGL().glIsTexture(tex[0]);
+                    return true;
+                }
+            });
+            Assert.assertTrue("Texture not shared", isTexture[0]);
+            pool.release(b);
+
+            // same size class is resized
+            final GLOffscreenAutoDrawable b2 = pool.lease(caps, 60, 50);
+            Assert.assertSame(b, b2);
+            Assert.assertEquals(1, pool.getResizeCount());
+            Assert.assertEquals(60, b2.getSurfaceWidth());
+            Assert.assertEquals(50, b2.getSurfaceHeight());
+
+            // exhausted pool times out
+            Assert.assertNull(pool.lease(caps, 64, 64, 10));
+            Assert.assertEquals(1, pool.getWaitCount());
+
+            // exhausted pool waits for release
+            final Thread releaser = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(100);
+                    } catch (final InterruptedException e) { }
+                    pool.release(a2);
+                } }, getSimpleTestName(".")+"-Releaser");
+            releaser.start();
+            final GLOffscreenAutoDrawable c = pool.lease(caps, 64, 64);
+            releaser.join();
+            Assert.assertSame(a2, c);
+            Assert.assertEquals(2, pool.getWaitCount());
+            Assert.assertEquals(2, pool.getSize());
+
+            // other size class evicts the least recently used idle drawable
+            pool.release(c);
+            final GLOffscreenAutoDrawable d = pool.lease(caps, 512, 512);
+            Assert.assertEquals(1, pool.getEvictionCount());
+            Assert.assertEquals(3, pool.getCreationCount());
+            Assert.assertEquals(2, pool.getSize());
+            pool.release(d);
+            pool.release(b2);
+            System.err.println(pool);
+        } finally {
+            pool.destroy();
+        }
+        Assert.assertEquals(0, pool.getSize());
+    }
+
+    @Test
+    public void test02_DestroyWhileLeased() throws InterruptedException {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawablePool pool = new GLOffscreenAutoDrawablePool(GLDrawableFactory.getFactory(glp), 2);
+        final GLOffscreenAutoDrawable a = pool.lease(caps, 64, 64);
+        final GLOffscreenAutoDrawable b = pool.lease(caps, 64, 64);
+        pool.release(b);
+        pool.destroy();
+        Assert.assertEquals(1, pool.getSize());
+        try {
+            pool.lease(caps, 64, 64);
+            Assert.fail("Leased from destroyed pool");
+        } catch (final IllegalStateException e) { }
+
+        // the shared master context stays alive while a drawable is leased
+        final boolean[] rendered = { false };
+        a.invoke(true, new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                rendered[0] = GL.GL_NO_ERROR == gl.glGetError();
+                return true;
+            }
+        });
+        Assert.assertTrue(rendered[0]);
+        pool.release(a);
+        Assert.assertEquals(0, pool.getSize());
+        Assert.assertFalse(a.isRealized());
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLOffscreenAutoDrawablePool01NEWT.class.getName());
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.nativewindow.AbstractGraphicsDevice;
+import com.jogamp.nativewindow.NativeWindowFactory;
+import com.jogamp.nativewindow.x11.X11GraphicsDevice;
+import com.jogamp.opengl.*;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+/**
+ * Validates {@link GLProfile#initProfilesForDevices(java.util.Collection)}
+ * and on demand queried OpenGL ES profiles if {@link GLProfile#deferOpenGLES} is set.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLProfile05NEWTDevices extends UITestCase {
+
+    @Test
+    public void test01InitProfilesForDevices() throws InterruptedException {
+        // The default device is initialized by GLProfile.initSingleton(), hence use two additional distinct devices,
+        // i.e. own X11 display connections w/ distinct unit IDs, to exercise the concurrent path.
+        Assume.assumeTrue(NativeWindowFactory.TYPE_X11 == NativeWindowFactory.getNativeWindowType(true));
+        final AbstractGraphicsDevice defaultDevice = GLProfile.getDefaultDevice();
+        final AbstractGraphicsDevice otherDevice1 = new X11GraphicsDevice(defaultDevice.getConnection(), 1, null /* ToolkitLock */);
+        final AbstractGraphicsDevice otherDevice2 = new X11GraphicsDevice(defaultDevice.getConnection(), 2, null /* ToolkitLock */);
+        try {
+            final List<AbstractGraphicsDevice> devices = new ArrayList<AbstractGraphicsDevice>();
+            devices.add(defaultDevice);
+            devices.add(otherDevice1);
+            devices.add(otherDevice2);
+            devices.add(null);
+            Assert.assertTrue(GLContext.getAvailableGLVersionsSet(defaultDevice));
+            for(int i=1; i<3; i++) {
+                Assert.assertNotEquals(defaultDevice.getUniqueID(), devices.get(i).getUniqueID());
+                Assert.assertFalse(GLContext.getAvailableGLVersionsSet(devices.get(i)));
+            }
+            final long t0 = System.nanoTime();
+            final int count = GLProfile.initProfilesForDevices(devices);
+            final long t1 = System.nanoTime();
+            System.err.println("initProfilesForDevices: "+count+" of "+devices.size()+" in "+(t1-t0)/1000000.0+" ms");
+            Assert.assertEquals(3, count);
+            for(int i=0; i<3; i++) {
+                final GLProfile glp = GLProfile.getDefault(devices.get(i));
+                System.err.println("Device "+devices.get(i)+": "+glp);
+                Assert.assertNotNull(glp);
+                // the GL versions of both pending devices have been mapped by their concurrently created shared resources
+                Assert.assertTrue(GLContext.getAvailableGLVersionsSet(devices.get(i)));
+            }
+            // already initialized devices are not probed again
+            Assert.assertEquals(3, GLProfile.initProfilesForDevices(devices));
+        } finally {
+            otherDevice2.close();
+            otherDevice1.close();
+        }
+    }
+
+    @Test
+    public void test02DeferredProfiles() throws InterruptedException {
+        final AbstractGraphicsDevice device = GLProfile.getDefaultDevice();
+        final boolean deferred = GLProfile.isOpenGLESDeferred(device);
+        System.err.println("deferOpenGLES "+GLProfile.deferOpenGLES+", deferred on "+device+": "+deferred);
+        if( !GLProfile.deferOpenGLES ) {
+            Assert.assertFalse(deferred);
+        }
+        final String[] esProfiles = new String[] { GLProfile.GLES3, GLProfile.GLES2, GLProfile.GLES1 };
+        for(int i=0; i<esProfiles.length; i++) {
+            final boolean avail = GLProfile.isAvailable(device, esProfiles[i]);
+            System.err.println(esProfiles[i]+" available: "+avail);
+            if( avail ) {
+                Assert.assertNotNull(GLProfile.get(device, esProfiles[i]));
+            }
+        }
+        // querying an unavailable OpenGL ES profile has resolved the deferral
+        Assert.assertFalse(GLProfile.isOpenGLESDeferred(device));
+        // the desktop profiles shall remain available after querying the deferred ones
+        Assert.assertNotNull(GLProfile.getDefault());
+    }
+
+    public static void main(final String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-deferES")) {
+                System.setProperty("jogl.defer.opengles", "true");
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLProfile05NEWTDevices.class.getName());
+    }
+
+}
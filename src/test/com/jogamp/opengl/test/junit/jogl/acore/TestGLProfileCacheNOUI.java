@@ -0,0 +1,121 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import jogamp.opengl.GLProfileCache;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.SingletonJunitCase;
+
+/**
+ * Validates the persistent {@link GLProfileCache} file handling w/o creating any GL context.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLProfileCacheNOUI extends SingletonJunitCase {
+    static final String device = ".x11_:0_0";
+
+    private static GLProfileCache.Entry createEntry(final String identity) {
+        final Map<String, Integer> versions = new HashMap<String, Integer>();
+        versions.put("0x4000002", Integer.valueOf(0x04060002));
+        versions.put("0x4000004", Integer.valueOf(0x04060004));
+        versions.put("0x2000002", Integer.valueOf(0x04060002));
+        return new GLProfileCache.Entry(identity, versions, new int[] { 1, 7 });
+    }
+
+    private static File createTempFile() throws IOException {
+        final File f = File.createTempFile("glprofile", ".cache");
+        f.delete();
+        f.deleteOnExit();
+        return f;
+    }
+
+    @Test
+    public void test01_RoundTrip() throws IOException {
+        final File f = createTempFile();
+        final GLProfileCache.Entry e = createEntry("vendor | renderer | Mesa 23.0.4");
+        final GLProfileCache c0 = new GLProfileCache(f, "sig");
+        Assert.assertNull(c0.get(device));
+        c0.put(device, e);
+        Assert.assertTrue(f.isFile());
+
+        final GLProfileCache c1 = new GLProfileCache(f, "sig");
+        Assert.assertEquals(e, c1.get(device));
+        Assert.assertNull(c1.get(".x11_:1_0"));
+
+        c1.remove(device);
+        Assert.assertNull(c1.get(device));
+        Assert.assertNull(new GLProfileCache(f, "sig").get(device));
+        f.delete();
+    }
+
+    @Test
+    public void test02_SignatureMismatch() throws IOException {
+        final File f = createTempFile();
+        new GLProfileCache(f, "sig-a").put(device, createEntry("id"));
+        Assert.assertNull(new GLProfileCache(f, "sig-b").get(device));
+        Assert.assertNotNull(new GLProfileCache(f, "sig-a").get(device));
+        f.delete();
+    }
+
+    @Test
+    public void test03_Malformed() throws IOException {
+        final File f = createTempFile();
+        final GLProfileCache c0 = new GLProfileCache(f, "sig");
+        c0.put(device, createEntry("id"));
+        final FileOutputStream out = new FileOutputStream(f, true);
+        out.write(("device."+device.replace(":", "\\:")+".quirks=1,x\n").getBytes("ISO-8859-1"));
+        out.close();
+        Assert.assertNull(new GLProfileCache(f, "sig").get(device));
+        f.delete();
+    }
+
+    @Test
+    public void test04_DriverIdentity() {
+        Assert.assertEquals(GLProfileCache.getDriverIdentity("Intel", "Mesa Intel(R) UHD", "4.6 (Compatibility Profile) Mesa 23.0.4"),
+                            GLProfileCache.getDriverIdentity("Intel", "Mesa Intel(R) UHD", "4.5 (Core Profile) Mesa 23.0.4"));
+        Assert.assertEquals(GLProfileCache.getDriverIdentity("NVIDIA Corporation", "GeForce", "4.6.0 NVIDIA 535.54.03"),
+                            GLProfileCache.getDriverIdentity("NVIDIA Corporation", "GeForce", "3.3.0 NVIDIA 535.54.03"));
+        Assert.assertFalse(GLProfileCache.getDriverIdentity("NVIDIA Corporation", "GeForce", "4.6.0 NVIDIA 535.54.03").equals(
+                           GLProfileCache.getDriverIdentity("NVIDIA Corporation", "GeForce", "4.6.0 NVIDIA 545.29.06")));
+        Assert.assertNotNull(GLProfileCache.getSignature());
+    }
+
+    public static void main(final String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestGLProfileCacheNOUI.class.getName());
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+
+import jogamp.opengl.GLAutoDrawableBase;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.Animator;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Posts {@link GLRunnable}s from multiple producer threads into an animated
+ * {@link GLAutoDrawable}, validating execution order per producer, the per frame
+ * time budget and the queue statistics.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLRunnableQueue01NEWT extends UITestCase {
+    static final int producerCount = 8;
+    static final int tasksPerProducer = 200;
+
+    private static GLOffscreenAutoDrawable createDrawable() {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        return GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+    }
+
+    private static void produce(final GLAutoDrawable glad, final long taskNanos, final AtomicInteger orderErrors) throws InterruptedException {
+        final AtomicInteger executed = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(producerCount);
+        for(int p=0; p<producerCount; p++) {
+            final int[] next = new int[] { 0 };
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(int i=0; i<tasksPerProducer; i++) {
+                        final int seq = i;
+                        glad.invoke(false, new GLRunnable() {
+                            @Override
+                            public boolean run(final GLAutoDrawable drawable) {
+                                if( next[0] != seq ) {
+                                    orderErrors.incrementAndGet();
+                                }
+                                next[0] = seq + 1;
+                                if( 0 < taskNanos ) {
+                                    final long t0 = System.nanoTime();
+                                    while( System.nanoTime() - t0 < taskNanos ) { }
+                                }
+                                executed.incrementAndGet();
+                                if( tasksPerProducer == seq + 1 ) {
+                                    done.countDown();
+                                }
+                                return true;
+                            }
+                        });
+                    }
+                }
+            }, "Producer-"+p).start();
+        }
+        Assert.assertTrue("executed "+executed.get(), done.await(20, TimeUnit.SECONDS));
+        Assert.assertEquals(producerCount*tasksPerProducer, executed.get());
+    }
+
+    private void run(final long budgetNanos, final long taskNanos) throws InterruptedException {
+        final GLOffscreenAutoDrawable glad = createDrawable();
+        final GLAutoDrawableBase gladb = (GLAutoDrawableBase) glad;
+        final Animator animator = new Animator(glad);
+        try {
+            gladb.setGLRunnableTimeBudget(budgetNanos);
+            Assert.assertEquals(budgetNanos, gladb.getGLRunnableTimeBudget());
+            animator.start();
+            final AtomicInteger orderErrors = new AtomicInteger(0);
+            produce(glad, taskNanos, orderErrors);
+            animator.stop();
+            System.err.println("budget "+budgetNanos/1000+" us: executed "+gladb.getGLRunnableExecutedCount()+
+                               ", deferred "+gladb.getGLRunnableDeferredCount()+", wait mean "+gladb.getGLRunnableMeanWaitNanos()/1000+
+                               " us, max "+gladb.getGLRunnableMaxWaitNanos()/1000+" us");
+            Assert.assertEquals(0, orderErrors.get());
+            Assert.assertEquals(0, gladb.getGLRunnableQueueSize());
+            Assert.assertEquals(producerCount*tasksPerProducer, gladb.getGLRunnableExecutedCount());
+            Assert.assertTrue(gladb.getGLRunnableMaxWaitNanos() >= gladb.getGLRunnableMeanWaitNanos());
+            if( 0 == budgetNanos ) {
+                Assert.assertEquals(0, gladb.getGLRunnableDeferredCount());
+            } else {
+                Assert.assertTrue("deferred "+gladb.getGLRunnableDeferredCount(), 0 < gladb.getGLRunnableDeferredCount());
+            }
+            gladb.resetGLRunnableStatistics();
+            Assert.assertEquals(0, gladb.getGLRunnableExecutedCount());
+        } finally {
+            if( animator.isStarted() ) {
+                animator.stop();
+            }
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test01_Unlimited() throws InterruptedException {
+        run(0, 0);
+    }
+
+    @Test
+    public void test02_Budget() throws InterruptedException {
+        run(1000000L /* 1ms */, 200000L /* 0.2ms */);
+    }
+
+    @Test
+    public void test03_NoAnimatorIgnoresBudget() {
+        final GLOffscreenAutoDrawable glad = createDrawable();
+        final GLAutoDrawableBase gladb = (GLAutoDrawableBase) glad;
+        try {
+            glad.display();
+            gladb.setGLRunnableTimeBudget(1);
+            final AtomicInteger executed = new AtomicInteger(0);
+            final GLRunnable r = new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable drawable) {
+                    executed.incrementAndGet();
+                    return true;
+                }
+            };
+            for(int i=0; i<10; i++) {
+                glad.invoke(false, r);
+            }
+            Assert.assertEquals(10, executed.get());
+            Assert.assertEquals(0, gladb.getGLRunnableDeferredCount());
+            Assert.assertEquals(0, gladb.getGLRunnableQueueSize());
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLRunnableQueue01NEWT.class.getName());
+    }
+}
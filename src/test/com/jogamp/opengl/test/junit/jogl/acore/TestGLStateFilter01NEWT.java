@@ -0,0 +1,140 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCallProfiler;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLPipelineFactory;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.GLStateFilter;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates the generated <code>StateFilterGL*</code> pipeline of {@link GLStateFilter}
+ * by counting the calls reaching a downstream <code>ProfileGL*</code> pipeline.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLStateFilter01NEWT extends UITestCase {
+    GLStateFilter filter;
+    GLCallProfiler profiler;
+
+    private void issue(final GL gl, final int times) {
+        for(int i=0; i<times; i++) {
+            gl.glEnable(GL.GL_BLEND);
+            gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+            gl.glActiveTexture(GL.GL_TEXTURE0);
+            gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+            gl.glDepthMask(true);
+        }
+    }
+
+    private long downstreamCalls(final String name) {
+        return profiler.getCallCount(profiler.getFunctionId(name));
+    }
+
+    @Test
+    public void test01_Filter() {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        try {
+            glad.display(); // init
+            glad.invoke(true, new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable drawable) {
+                    profiler = (GLCallProfiler) drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Profile", null, drawable.getGL(), null) );
+                    filter = (GLStateFilter) drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.StateFilter", null, drawable.getGL(), null) );
+                    final GL gl = drawable.getGL();
+
+                    issue(gl, 10);
+                    Assert.assertEquals(1, downstreamCalls("glEnable"));
+                    Assert.assertEquals(1, downstreamCalls("glBlendFunc"));
+                    Assert.assertEquals(1, downstreamCalls("glActiveTexture"));
+                    Assert.assertEquals(1, downstreamCalls("glBindTexture"));
+                    Assert.assertEquals(1, downstreamCalls("glBindBuffer"));
+                    Assert.assertEquals(1, downstreamCalls("glDepthMask"));
+                    Assert.assertEquals(6, filter.getPassedCount());
+                    Assert.assertEquals(54, filter.getFilteredCount());
+                    Assert.assertTrue(gl.glIsEnabled(GL.GL_BLEND));
+
+                    // state changes are passed
+                    gl.glDisable(GL.GL_BLEND);
+                    Assert.assertFalse(gl.glIsEnabled(GL.GL_BLEND));
+                    gl.glEnable(GL.GL_BLEND);
+                    Assert.assertEquals(2, downstreamCalls("glEnable"));
+
+                    // foreign modification bypassing the filter requires invalidation
+                    gl.getDownstreamGL().glDisable(GL.GL_BLEND);
+                    filter.invalidate();
+                    gl.glEnable(GL.GL_BLEND);
+                    Assert.assertTrue(gl.glIsEnabled(GL.GL_BLEND));
+
+                    // deleting textures invalidates the texture bindings
+                    final int[] tex = new int[1];
+                    gl.glGenTextures(1, tex, 0);
+                    gl.glBindTexture(GL.GL_TEXTURE_2D, tex[0]);
+                    final long bindCount = downstreamCalls("glBindTexture");
+                    gl.glDeleteTextures(1, tex, 0);
+                    gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+                    Assert.assertEquals(bindCount+1, downstreamCalls("glBindTexture"));
+
+                    // disabled filter passes all calls
+                    filter.setFilterEnabled(false);
+                    filter.resetCounter();
+                    profiler.reset();
+                    issue(gl, 3);
+                    Assert.assertEquals(3, downstreamCalls("glEnable"));
+                    Assert.assertEquals(0, filter.getFilteredCount());
+                    Assert.assertEquals(18, filter.getPassedCount());
+                    gl.glDisable(GL.GL_BLEND);
+                    drawable.setGL(drawable.getGL().getDownstreamGL().getDownstreamGL());
+                    return true;
+                }
+            });
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLStateFilter01NEWT.class.getName());
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore.anim;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.PacedAnimator;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link PacedAnimator}'s frame rate, prediction and frame skipping
+ * using an offscreen drawable with a simulated display cost.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPacedAnimator01NEWT extends UITestCase {
+    static long duration = 1000; // ms
+
+    private static class SimulatedCost implements GLEventListener {
+        volatile long costMillis;
+        SimulatedCost(final long costMillis) { this.costMillis = costMillis; }
+        @Override
+        public void init(final GLAutoDrawable drawable) { }
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+        @Override
+        public void display(final GLAutoDrawable drawable) {
+            try {
+                Thread.sleep(costMillis);
+            } catch (final InterruptedException e) { }
+        }
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+    }
+
+    private static PacedAnimator run(final int fps, final long costMillis) throws InterruptedException {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        glad.addGLEventListener(new SimulatedCost(costMillis));
+        final PacedAnimator animator = new PacedAnimator(glad, fps);
+        try {
+            animator.setUpdateFPSFrames(1, null);
+            animator.start();
+            Thread.sleep(duration/4); // warm up prediction
+            animator.resetPacingStatistics();
+            animator.resetFPSCounter();
+            Thread.sleep(duration);
+            animator.stop();
+            System.err.println("fps "+fps+", cost "+costMillis+" ms: "+animator.getTotalFPS()+" fps, "+animator);
+            return animator;
+        } finally {
+            if( animator.isStarted() ) {
+                animator.stop();
+            }
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test01_30FPS_Cost5ms() throws InterruptedException {
+        final PacedAnimator animator = run(30, 5);
+        Assert.assertEquals(1000000000L/30, animator.getFrameTimeBudget());
+        Assert.assertTrue("fps "+animator.getTotalFPS(), 20f < animator.getTotalFPS() && animator.getTotalFPS() < 40f);
+        Assert.assertTrue("predicted "+animator.getPredictedFrameNanos(),
+                          4000000L <= animator.getPredictedFrameNanos() && animator.getPredictedFrameNanos() < 1000000000L/30);
+        Assert.assertTrue("parked "+animator.getTotalParkNanos(), 0 < animator.getTotalParkNanos());
+        Assert.assertEquals(0, animator.getSkippedFrameCount());
+    }
+
+    @Test
+    public void test02_60FPS_Cost40ms() throws InterruptedException {
+        final PacedAnimator animator = run(60, 40);
+        Assert.assertTrue("predicted "+animator.getPredictedFrameNanos(), 1000000000L/60 < animator.getPredictedFrameNanos());
+        Assert.assertTrue("late "+animator.getLateFrameCount(), 0 < animator.getLateFrameCount());
+        Assert.assertTrue("skipped "+animator.getSkippedFrameCount(), 0 < animator.getSkippedFrameCount());
+        Assert.assertTrue("fps "+animator.getTotalFPS(), animator.getTotalFPS() < 30f);
+    }
+
+    @Test
+    public void test03_Unpaced() throws InterruptedException {
+        final PacedAnimator animator = run(0, 1);
+        Assert.assertEquals(0, animator.getFrameTimeBudget());
+        Assert.assertEquals(0, animator.getLateFrameCount());
+        Assert.assertEquals(0, animator.getSkippedFrameCount());
+        Assert.assertTrue("frames "+animator.getFrameCount(), 0 < animator.getFrameCount());
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                i++;
+                duration = MiscUtils.atol(args[i], duration);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPacedAnimator01NEWT.class.getName());
+    }
+}
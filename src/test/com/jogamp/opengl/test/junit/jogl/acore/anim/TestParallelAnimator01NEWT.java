@@ -0,0 +1,176 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore.anim;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.ParallelAnimator;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link ParallelAnimator} renders offscreen drawables concurrently,
+ * each on its own worker thread holding the exclusive context,
+ * and releases the workers when paused or stopped.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestParallelAnimator01NEWT extends UITestCase {
+    static long duration = 1000; // ms
+    static final long costMillis = 40;
+
+    private static class Recorder implements GLEventListener {
+        volatile Thread displayThread;
+        volatile Thread ectThread;
+        volatile int frames;
+        @Override
+        public void init(final GLAutoDrawable drawable) { }
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+        @Override
+        public void display(final GLAutoDrawable drawable) {
+            displayThread = Thread.currentThread();
+            ectThread = drawable.getExclusiveContextThread();
+            frames++;
+            try {
+                Thread.sleep(costMillis);
+            } catch (final InterruptedException e) { }
+        }
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+    }
+
+    private static GLOffscreenAutoDrawable createDrawable(final Recorder recorder) {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        glad.addGLEventListener(recorder);
+        glad.display(); // realize
+        return glad;
+    }
+
+    private void testImpl(final boolean swapBarrier) throws InterruptedException {
+        final Recorder r1 = new Recorder(), r2 = new Recorder(), r3 = new Recorder();
+        final GLOffscreenAutoDrawable d1 = createDrawable(r1), d2 = createDrawable(r2), d3 = createDrawable(r3);
+        final ParallelAnimator animator = new ParallelAnimator();
+        animator.setSwapBarrier(swapBarrier);
+        Assert.assertEquals(swapBarrier, animator.isSwapBarrier());
+        Assert.assertTrue(animator.isWorkerExclusiveContext());
+        try {
+            animator.setExclusiveContext(true);
+            Assert.fail("Animator wide exclusive context accepted");
+        } catch (final GLException e) {
+            Assert.assertFalse(animator.isExclusiveContextEnabled());
+        }
+        try {
+            animator.add(d1);
+            animator.add(d2);
+            animator.add(d3);
+            animator.setUpdateFPSFrames(1, null);
+            animator.start();
+            Thread.sleep(duration/4);
+            animator.resetFPSCounter();
+            Thread.sleep(duration);
+            Assert.assertEquals(3, animator.getWorkerCount());
+            animator.pause();
+            Assert.assertEquals(0, animator.getWorkerCount());
+            final float fps = animator.getTotalFPS();
+            System.err.println("swapBarrier "+swapBarrier+": "+fps+" fps, sequential max "+1000f/(3*costMillis)+" fps");
+
+            // distinct workers, each claiming the exclusive context
+            Assert.assertNotNull(r1.displayThread);
+            Assert.assertNotSame(r1.displayThread, r2.displayThread);
+            Assert.assertNotSame(r2.displayThread, r3.displayThread);
+            Assert.assertNotSame(r1.displayThread, r3.displayThread);
+            Assert.assertSame(r1.displayThread, r1.ectThread);
+            Assert.assertSame(r2.displayThread, r2.ectThread);
+            Assert.assertSame(r3.displayThread, r3.ectThread);
+            Assert.assertNotSame(animator.getThread(), r1.displayThread);
+
+            // concurrent: faster than sequential rendering could achieve
+            Assert.assertTrue("fps "+fps, fps > 1.5f * 1000f/(3*costMillis));
+
+            // released exclusive context while paused
+            Assert.assertNull(d1.getExclusiveContextThread());
+            Assert.assertNull(d2.getExclusiveContextThread());
+            Assert.assertNull(d3.getExclusiveContextThread());
+            d1.display();
+            Assert.assertSame(Thread.currentThread(), r1.displayThread);
+
+            animator.resume();
+            Thread.sleep(duration/4);
+            animator.remove(d3);
+            final int f3 = r3.frames;
+            Thread.sleep(duration/4);
+            Assert.assertEquals(f3, r3.frames);
+            Assert.assertEquals(2, animator.getWorkerCount());
+            animator.stop();
+            Assert.assertEquals(0, animator.getWorkerCount());
+            Assert.assertNull(d1.getExclusiveContextThread());
+            Assert.assertNull(d2.getExclusiveContextThread());
+        } finally {
+            if( animator.isStarted() ) {
+                animator.stop();
+            }
+            d1.destroy();
+            d2.destroy();
+            d3.destroy();
+        }
+    }
+
+    @Test
+    public void test01_SwapBarrier() throws InterruptedException {
+        testImpl(true);
+    }
+
+    @Test
+    public void test02_NoSwapBarrier() throws InterruptedException {
+        testImpl(false);
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                i++;
+                duration = MiscUtils.atol(args[i], duration);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestParallelAnimator01NEWT.class.getName());
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.awt;
+
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.awt.GLJPanel;
+import javax.swing.JFrame;
+
+import com.jogamp.opengl.test.junit.util.AWTRobotUtil;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.Animator;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLJPanel}'s <a href="../../../../../../opengl/awt/GLJPanel.html#pboReadback">PBO readback</a>
+ * against the synchronous readback, incl. vertical orientation,
+ * by clearing the lower half green and the upper half blue and painting the panel into a {@link BufferedImage}.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLJPanelPBOReadbackAWT extends UITestCase {
+    static long duration = 500; // ms
+    static int width = 640, height = 480;
+
+    private static class HalfClear implements GLEventListener {
+        @Override
+        public void init(final GLAutoDrawable drawable) { }
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+        @Override
+        public void display(final GLAutoDrawable drawable) {
+            final GL gl = drawable.getGL();
+            final int w = drawable.getSurfaceWidth();
+            final int h = drawable.getSurfaceHeight();
+            gl.glEnable(GL.GL_SCISSOR_TEST);
+            gl.glScissor(0, 0, w, h/2);
+            gl.glClearColor(0f, 1f, 0f, 1f);
+            gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+            gl.glScissor(0, h/2, w, h - h/2);
+            gl.glClearColor(0f, 0f, 1f, 1f);
+            gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+            gl.glDisable(GL.GL_SCISSOR_TEST);
+        }
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+    }
+
+    private void testImpl(final boolean pboReadback, final boolean skipVerticalFlip) throws InterruptedException {
+        if( !GLProfile.isAvailable(GLProfile.GL2ES2) ) {
+            System.err.println(getSimpleTestName(".")+": GLProfile n/a");
+            return;
+        }
+        final GLCapabilities caps = new GLCapabilities(GLProfile.getGL2ES2());
+        final GLJPanel glc = new GLJPanel(caps);
+        glc.setPBOReadback(pboReadback);
+        glc.setSkipGLOrientationVerticalFlip(skipVerticalFlip);
+        final Dimension glc_sz = new Dimension(width, height);
+        glc.setMinimumSize(glc_sz);
+        glc.setPreferredSize(glc_sz);
+        glc.addGLEventListener(new HalfClear());
+        final JFrame frame = new JFrame(getSimpleTestName("."));
+        frame.getContentPane().add(glc);
+        try {
+            javax.swing.SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    frame.pack();
+                    frame.setVisible(true);
+                }});
+        } catch( final Throwable throwable ) {
+            throwable.printStackTrace();
+            Assume.assumeNoException( throwable );
+        }
+        Assert.assertTrue("Component didn't become visible", AWTRobotUtil.waitForVisible(glc, true, null));
+        Assert.assertTrue("Component didn't become realized", AWTRobotUtil.waitForRealized(glc, true, null));
+
+        // pipelined readback while animated
+        final Animator animator = new Animator(glc);
+        animator.start();
+        Thread.sleep(duration);
+        animator.stop();
+        System.err.println(getSimpleTestName(".")+": pbo "+pboReadback+", readback "+glc.getMeanReadbackNanos()/1000+
+                           " us, blit "+glc.getMeanBlitNanos()/1000+" us");
+        Assert.assertTrue("No readback measured", 0 < glc.getLastReadbackNanos());
+        Assert.assertTrue("No blit measured", 0 < glc.getLastBlitNanos());
+        glc.resetReadbackStatistics();
+        Assert.assertEquals(0, glc.getMeanReadbackNanos());
+
+        // immediate readback w/o animator
+        final BufferedImage image = new BufferedImage(glc.getWidth(), glc.getHeight(), BufferedImage.TYPE_INT_RGB);
+        try {
+            javax.swing.SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    final Graphics g = image.getGraphics();
+                    glc.paint(g);
+                    g.dispose();
+                }});
+        } catch( final Throwable throwable ) {
+            throwable.printStackTrace();
+            Assume.assumeNoException( throwable );
+        }
+        final int top = image.getRGB(image.getWidth()/2, image.getHeight()/4) & 0x00ffffff;
+        final int bottom = image.getRGB(image.getWidth()/2, image.getHeight()*3/4) & 0x00ffffff;
+        System.err.println(getSimpleTestName(".")+": top 0x"+Integer.toHexString(top)+", bottom 0x"+Integer.toHexString(bottom));
+        if( skipVerticalFlip && glc.isGLOriented() ) {
+            Assert.assertEquals(0x00ff00, top);
+            Assert.assertEquals(0x0000ff, bottom);
+        } else {
+            Assert.assertEquals(0x0000ff, top);
+            Assert.assertEquals(0x00ff00, bottom);
+        }
+
+        try {
+            javax.swing.SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    frame.setVisible(false);
+                    frame.remove(glc);
+                    frame.dispose();
+                }});
+        } catch( final Throwable throwable ) {
+            throwable.printStackTrace();
+            Assume.assumeNoException( throwable );
+        }
+    }
+
+    @Test
+    public void test01_Sync() throws InterruptedException {
+        testImpl(false, false);
+    }
+
+    @Test
+    public void test02_PBO() throws InterruptedException {
+        testImpl(true, false);
+    }
+
+    @Test
+    public void test03_PBO_SkipFlip() throws InterruptedException {
+        testImpl(true, true);
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                i++;
+                duration = MiscUtils.atol(args[i], duration);
+            } else if(args[i].equals("-width")) {
+                i++;
+                width = MiscUtils.atoi(args[i], width);
+            } else if(args[i].equals("-height")) {
+                i++;
+                height = MiscUtils.atoi(args[i], height);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLJPanelPBOReadbackAWT.class.getName());
+    }
+}
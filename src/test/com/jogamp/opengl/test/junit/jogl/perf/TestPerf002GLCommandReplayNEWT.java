@@ -0,0 +1,177 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.perf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.util.RecordGL2ES2;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.test.junit.jogl.demos.es2.GearsES2;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+/**
+ * Captures the GL command stream of N {@link GearsES2} frames into a file via {@link RecordGL2ES2}
+ * and measures its replay against the real GL as well as against a no-op GL,
+ * the latter being the pure Java side dispatch cost.
+ * <p>
+ * The capture file is kept if passed via <code>-file</code>.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPerf002GLCommandReplayNEWT extends UITestCase {
+    static int width = 256, height = 256, frames = 10, loops = 100;
+    static String fileName = null;
+
+    @BeforeClass
+    public static void initClass() {
+        GLProfile.initSingleton();
+    }
+
+    private static long replay(final GLAutoDrawable glad, final RecordGL2ES2 rec, final int loops) {
+        final long[] dt = { 0 };
+        glad.invoke(true, new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                final GL2ES2 gl = drawable.getGL().getGL2ES2();
+                final long t0 = System.nanoTime();
+                for(int i=0; i<loops; i++) {
+                    rec.replay(gl);
+                }
+                gl.glFinish();
+                dt[0] = System.nanoTime() - t0;
+                return true;
+            }
+        });
+        return dt[0];
+    }
+
+    private static long replayNop(final RecordGL2ES2 rec, final int loops) {
+        final RecordGL2ES2 nop = new RecordGL2ES2(null);
+        nop.setRecording(false);
+        final long t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            rec.replay(nop);
+        }
+        return System.nanoTime() - t0;
+    }
+
+    private static void dump(final String name, final RecordGL2ES2 rec, final int loops, final long dt) {
+        final long commands = (long)rec.getCommandCount() * loops;
+        System.err.printf("%s: %d loops, %d commands, %8.3f ms, %8.2f ns/command%n",
+                name, loops, commands, dt/1e6, (double)dt/commands);
+    }
+
+    @Test
+    public void test01_CaptureReplay() throws IOException {
+        final GLProfile glp = GLProfile.getGL2ES2();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, width, height);
+        final GearsES2 gears = new GearsES2(0);
+        gears.setVerbose(false);
+        glad.addGLEventListener(gears);
+        final File file = null != fileName ? new File(fileName) : File.createTempFile(getSimpleTestName("."), ".glcmd");
+        try {
+            glad.display(); // init, not captured
+
+            // capture
+            final RecordGL2ES2 capture = new RecordGL2ES2(glad.getGL().getGL2ES2());
+            capture.setPassThrough(true);
+            glad.setGL(capture);
+            for(int i=0; i<frames; i++) {
+                glad.display();
+            }
+            glad.setGL(capture.getDownstreamGL());
+            Assert.assertTrue("Nothing captured", 0 < capture.getCommandCount());
+            final BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+            try {
+                capture.write(out);
+            } finally {
+                out.close();
+            }
+            System.err.println("Captured "+frames+" frames: "+capture.getCommandCount()+" commands, "+capture.getSize()+" bytes -> "+file);
+
+            // replay from file
+            final RecordGL2ES2 rec = new RecordGL2ES2(null);
+            final BufferedInputStream in = new BufferedInputStream(new FileInputStream(file));
+            try {
+                rec.read(in);
+            } finally {
+                in.close();
+            }
+            Assert.assertEquals(capture.getCommandCount(), rec.getCommandCount());
+            Assert.assertEquals(capture.getSize(), rec.getSize());
+
+            replay(glad, rec, 1); // warm-up
+            replayNop(rec, loops);
+            dump("Replay GL ", rec, loops, replay(glad, rec, loops));
+            dump("Replay Nop", rec, loops, replayNop(rec, loops));
+        } finally {
+            glad.destroy();
+            if( null == fileName ) {
+                file.delete();
+            }
+        }
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = MiscUtils.atoi(args[++i], width);
+            } else if(args[i].equals("-height")) {
+                height = MiscUtils.atoi(args[++i], height);
+            } else if(args[i].equals("-frames")) {
+                frames = MiscUtils.atoi(args[++i], frames);
+            } else if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            } else if(args[i].equals("-file")) {
+                fileName = args[++i];
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPerf002GLCommandReplayNEWT.class.getName());
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.tile;
+
+import java.nio.ByteBuffer;
+
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.TileRenderer;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Compares the image produced by the {@link TileRenderer}'s
+ * synchronous and <a href="../../../../../../util/TileRenderer.html#pipelined">pipelined</a> mode,
+ * each tile cleared with a color derived from its column and row.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTiledRendering3PipelinedNEWT extends UITestCase {
+    static int tileSize = 64;
+    static int imageWidth = tileSize * 7 - 13;
+    static int imageHeight = tileSize * 5 - 7;
+
+    static GLProfile getGL2ES3() {
+        final GLProfile glp = GLProfile.getMaxProgrammableCore(true);
+        if( null == glp || !glp.isGL2ES3() ) {
+            System.err.println("GL2ES3 n/a, has max-core "+glp);
+            return null;
+        }
+        return glp;
+    }
+
+    private static ByteBuffer render(final GLOffscreenAutoDrawable glad, final int pboCount, final int threadCount) {
+        final TileRenderer renderer = new TileRenderer();
+        renderer.setImageSize(imageWidth, imageHeight);
+        renderer.setTileSize(tileSize, tileSize, 0);
+        renderer.setPipelined(pboCount, threadCount);
+
+        glad.getContext().makeCurrent();
+        try {
+            final GL gl = glad.getGL();
+            final GLPixelBuffer.GLPixelBufferProvider pixelBufferProvider = GLPixelBuffer.defaultProviderWithRowStride;
+            final PixelFormat.Composition hostPixelComp = pixelBufferProvider.getHostPixelComp(gl.getGLProfile(), 4);
+            final GLPixelAttributes pixelAttribs = pixelBufferProvider.getAttributes(gl, 4, true);
+            final GLPixelBuffer pixelBuffer = pixelBufferProvider.allocate(gl, hostPixelComp, pixelAttribs, true, imageWidth, imageHeight, 1, 0);
+            renderer.setImageBuffer(pixelBuffer);
+
+            final long t0 = System.nanoTime();
+            while( !renderer.eot() ) {
+                renderer.beginTile(gl);
+                final int c = renderer.getParam(TileRenderer.TR_CURRENT_COLUMN);
+                final int r = renderer.getParam(TileRenderer.TR_CURRENT_ROW);
+                gl.glClearColor(c * 32 / 255f, r * 32 / 255f, 0.5f, 1f);
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                renderer.endTile(gl);
+            }
+            final long t1 = System.nanoTime();
+            System.err.println("PBOs "+pboCount+", threads "+threadCount+": "+(t1-t0)/1000+" us");
+            Assert.assertEquals(0 < pboCount, renderer.isPipelined());
+            return (ByteBuffer) pixelBuffer.buffer;
+        } finally {
+            glad.getContext().release();
+        }
+    }
+
+    private void doTest(final int pboCount, final int threadCount) {
+        final GLProfile glp = getGL2ES3();
+        if( null == glp ) {
+            return;
+        }
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, tileSize, tileSize);
+        glad.display(); // realize
+        try {
+            final ByteBuffer expected = render(glad, 0, 0);
+            final ByteBuffer pipelined = render(glad, pboCount, threadCount);
+            Assert.assertEquals(expected.capacity(), pipelined.capacity());
+            final int bpp = 4;
+            for(int y=0; y<imageHeight; y++) {
+                for(int x=0; x<imageWidth; x++) {
+                    final int i = ( y * imageWidth + x ) * bpp;
+                    final int c = x / tileSize;
+                    final int r = y / tileSize;
+                    Assert.assertEquals("sync "+x+"/"+y, c * 32, expected.get(i) & 0xff);
+                    Assert.assertEquals("sync "+x+"/"+y, r * 32, expected.get(i+1) & 0xff);
+                    for(int j=0; j<bpp; j++) {
+                        Assert.assertEquals("pipelined "+x+"/"+y, expected.get(i+j), pipelined.get(i+j));
+                    }
+                }
+            }
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test01_PBO1_Thread0() {
+        doTest(1, 0);
+    }
+
+    @Test
+    public void test02_PBO3_Thread2() {
+        doTest(3, 2);
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-tile")) {
+                i++;
+                tileSize = MiscUtils.atoi(args[i], tileSize);
+            } else if(args[i].equals("-width")) {
+                i++;
+                imageWidth = MiscUtils.atoi(args[i], imageWidth);
+            } else if(args[i].equals("-height")) {
+                i++;
+                imageHeight = MiscUtils.atoi(args[i], imageHeight);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTiledRendering3PipelinedNEWT.class.getName());
+    }
+}
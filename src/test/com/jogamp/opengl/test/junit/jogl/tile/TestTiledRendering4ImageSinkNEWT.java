@@ -0,0 +1,194 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.tile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.NetPbmImageSink;
+import com.jogamp.opengl.util.PNGImageSink;
+import com.jogamp.opengl.util.PNGPixelRect;
+import com.jogamp.opengl.util.TileRenderer;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.texture.spi.NetPbmTextureWriter;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Streams the image produced by the {@link TileRenderer} to a
+ * {@link TileRenderer.ImageSink}, each tile cleared with a color derived from its column and row,
+ * and validates the encoded PNG and PPM images.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTiledRendering4ImageSinkNEWT extends UITestCase {
+    static int tileSize = 64;
+    static int imageWidth = tileSize * 7 - 13;
+    static int imageHeight = tileSize * 5 - 7;
+
+    private static void render(final GLOffscreenAutoDrawable glad, final TileRenderer.ImageSink sink,
+                               final int pboCount, final int threadCount) {
+        final TileRenderer renderer = new TileRenderer();
+        renderer.setImageSize(imageWidth, imageHeight);
+        renderer.setTileSize(tileSize, tileSize, 0);
+        renderer.setRowOrder(TileRenderer.TR_TOP_TO_BOTTOM);
+        renderer.setPipelined(pboCount, threadCount);
+
+        glad.getContext().makeCurrent();
+        try {
+            final GL gl = glad.getGL();
+            final GLPixelAttributes pixelAttribs = GLPixelBuffer.defaultProviderWithRowStride.getAttributes(gl, 4, true);
+            Assert.assertEquals(PixelFormat.RGBA8888, pixelAttribs.pfmt);
+            renderer.setImageSink(sink, pixelAttribs);
+
+            final long t0 = System.nanoTime();
+            while( !renderer.eot() ) {
+                renderer.beginTile(gl);
+                final int c = renderer.getParam(TileRenderer.TR_CURRENT_COLUMN);
+                final int r = renderer.getParam(TileRenderer.TR_CURRENT_ROW);
+                gl.glClearColor(c * 32 / 255f, r * 32 / 255f, 0.5f, 1f);
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                renderer.endTile(gl);
+            }
+            final long t1 = System.nanoTime();
+            System.err.println("Sink "+sink.getClass().getSimpleName()+", PBOs "+pboCount+", threads "+threadCount+": "+(t1-t0)/1000+" us");
+        } finally {
+            glad.getContext().release();
+        }
+    }
+
+    /**
+     * @param pixels pixels in OpenGL orientation, i.e. bottom row first
+     */
+    private static void validate(final ByteBuffer pixels, final int offset, final int bpp) {
+        for(int y=0; y<imageHeight; y++) {
+            for(int x=0; x<imageWidth; x++) {
+                final int i = offset + ( y * imageWidth + x ) * bpp;
+                final int c = x / tileSize;
+                final int r = y / tileSize;
+                Assert.assertEquals("red "+x+"/"+y, c * 32, pixels.get(i) & 0xff);
+                Assert.assertEquals("green "+x+"/"+y, r * 32, pixels.get(i+1) & 0xff);
+            }
+        }
+    }
+
+    private void doTestPNG(final int pboCount, final int threadCount) throws IOException {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, tileSize, tileSize);
+        glad.display(); // realize
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            render(glad, new PNGImageSink(out, true), pboCount, threadCount);
+            final PNGPixelRect image = PNGPixelRect.read(new ByteArrayInputStream(out.toByteArray()),
+                                                         PixelFormat.RGBA8888, false /* directBuffer */, 0 /* stride */,
+                                                         true /* isGLOriented */);
+            Assert.assertEquals(imageWidth, image.getSize().getWidth());
+            Assert.assertEquals(imageHeight, image.getSize().getHeight());
+            Assert.assertEquals(imageWidth * 4, image.getStride());
+            validate(image.getPixels(), 0, 4);
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    private void doTestPPM(final int pboCount, final int threadCount) throws IOException {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, tileSize, tileSize);
+        glad.display(); // realize
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            render(glad, new NetPbmImageSink(out, true, 6), pboCount, threadCount);
+            final byte[] header = NetPbmTextureWriter.getHeader(6, imageWidth, imageHeight, 3).getBytes();
+            final byte[] data = out.toByteArray();
+            Assert.assertEquals(header.length + imageWidth * imageHeight * 3, data.length);
+            // flip the top-down PPM rows into OpenGL orientation
+            final int stride = imageWidth * 3;
+            final ByteBuffer pixels = ByteBuffer.allocate(imageHeight * stride);
+            for(int y=0; y<imageHeight; y++) {
+                pixels.put(data, header.length + ( imageHeight - 1 - y ) * stride, stride);
+            }
+            validate(pixels, 0, 3);
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test01_PNG_Sync() throws IOException {
+        doTestPNG(0, 0);
+    }
+
+    @Test
+    public void test02_PNG_PBO3_Thread2() throws IOException {
+        doTestPNG(3, 2);
+    }
+
+    @Test
+    public void test11_PPM_Sync() throws IOException {
+        doTestPPM(0, 0);
+    }
+
+    @Test
+    public void test12_PPM_PBO2_Thread0() throws IOException {
+        doTestPPM(2, 0);
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-tile")) {
+                i++;
+                tileSize = MiscUtils.atoi(args[i], tileSize);
+            } else if(args[i].equals("-width")) {
+                i++;
+                imageWidth = MiscUtils.atoi(args[i], imageWidth);
+            } else if(args[i].equals("-height")) {
+                i++;
+                imageHeight = MiscUtils.atoi(args[i], imageHeight);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTiledRendering4ImageSinkNEWT.class.getName());
+    }
+}
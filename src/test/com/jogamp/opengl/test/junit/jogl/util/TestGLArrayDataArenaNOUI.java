@@ -0,0 +1,188 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.util.GLArrayDataAllocator;
+import com.jogamp.opengl.util.GLArrayDataArena;
+import com.jogamp.opengl.util.GLArrayDataClient;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.junit.util.SingletonJunitCase;
+
+/**
+ * Validates {@link GLArrayDataClient} geometric growth, {@link GLArrayDataArena} reuse
+ * and {@link GLArrayDataAllocator} accounting w/o creating any GL context.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLArrayDataArenaNOUI extends SingletonJunitCase {
+
+    @Test
+    public void test01_GeometricGrowth() {
+        final long total0 = GLArrayDataAllocator.getTotalDirectBytes();
+        final GLArrayDataClient adc = GLArrayDataClient.createGLSL("mgl_Vertex", 3, GL.GL_FLOAT, false, 4);
+        int capacity = adc.getBuffer().capacity();
+        int growCount = 0;
+        for(int i=0; i<100000; i++) {
+            adc.putf(i); adc.putf(i); adc.putf(i);
+            if( capacity != adc.getBuffer().capacity() ) {
+                capacity = adc.getBuffer().capacity();
+                growCount++;
+            }
+        }
+        Assert.assertTrue("Too many grow operations "+growCount, growCount <= 20);
+        Assert.assertTrue(capacity >= 300000);
+        Assert.assertTrue(capacity < 2 * 300000);
+        adc.seal(true);
+        Assert.assertEquals(100000, adc.getElementCount());
+        Assert.assertEquals(99999f, ((java.nio.FloatBuffer)adc.getBuffer()).get(3*99999), 0f);
+        Assert.assertEquals(total0 + 4L*capacity, GLArrayDataAllocator.getTotalDirectBytes());
+        adc.destroy(null);
+        Assert.assertEquals(total0, GLArrayDataAllocator.getTotalDirectBytes());
+    }
+
+    @Test
+    public void test02_ArenaReuse() {
+        final GLArrayDataArena arena = new GLArrayDataArena(1 << 20);
+        final long total0 = GLArrayDataAllocator.getTotalDirectBytes();
+
+        final ByteBuffer a = arena.allocate(1000);
+        Assert.assertEquals(1024, a.capacity());
+        Assert.assertTrue(a.isDirect());
+        Assert.assertEquals(ByteOrder.nativeOrder(), a.order());
+        Assert.assertEquals(total0 + 1024, GLArrayDataAllocator.getTotalDirectBytes());
+        // remainder of the slab is retained
+        Assert.assertEquals(GLArrayDataArena.DEFAULT_SLAB_SIZE - 1024, arena.getRetainedBytes());
+        final ByteBuffer b = arena.allocate(1024);
+        Assert.assertNotSame(a, b);
+        Assert.assertEquals(GLArrayDataArena.DEFAULT_SLAB_SIZE, arena.getDirectBytes());
+
+        arena.release(a);
+        Assert.assertEquals(total0 + 1024, GLArrayDataAllocator.getTotalDirectBytes());
+        final ByteBuffer c = arena.allocate(900);
+        Assert.assertSame(a, c);
+        Assert.assertEquals(0, c.position());
+        Assert.assertEquals(1024, c.limit());
+
+        // large size classes are allocated individually
+        final ByteBuffer d = arena.allocate(100000);
+        Assert.assertEquals(1 << 17, d.capacity());
+        arena.release(d);
+        Assert.assertSame(d, arena.allocate(1 << 17));
+        System.err.println(arena);
+        arena.release(d);
+        arena.release(c);
+        arena.release(b);
+        Assert.assertEquals(total0, GLArrayDataAllocator.getTotalDirectBytes());
+        arena.clear();
+        Assert.assertEquals(0, arena.getRetainedBytes());
+    }
+
+    @Test
+    public void test03_ClientWithArena() {
+        final GLArrayDataArena arena = new GLArrayDataArena(1 << 24);
+        final long total0 = GLArrayDataAllocator.getTotalDirectBytes();
+        final GLArrayDataClient adc = GLArrayDataClient.createGLSL("mgl_Vertex", 4, GL.GL_FLOAT, false, 0);
+        adc.setAllocator(arena);
+        for(int i=0; i<4*10000; i++) {
+            adc.putf(i);
+        }
+        final int capacity = adc.getBuffer().capacity();
+        Assert.assertEquals(total0 + 4L*capacity, GLArrayDataAllocator.getTotalDirectBytes());
+        adc.destroy(null);
+        Assert.assertEquals(total0, GLArrayDataAllocator.getTotalDirectBytes());
+        Assert.assertTrue(arena.getRetainedBytes() >= 4L*capacity);
+
+        // 2nd mesh reuses the released buffers
+        final int reuse0 = arena.getReuseCount();
+        final long direct0 = arena.getDirectBytes();
+        final GLArrayDataClient adc2 = GLArrayDataClient.createGLSL("mgl_Vertex", 4, GL.GL_FLOAT, false, 0);
+        adc2.setAllocator(arena);
+        for(int i=0; i<4*10000; i++) {
+            adc2.putf(i);
+        }
+        Assert.assertTrue(arena.getReuseCount() > reuse0);
+        Assert.assertEquals(direct0, arena.getDirectBytes());
+        adc2.destroy(null);
+        Assert.assertEquals(total0, GLArrayDataAllocator.getTotalDirectBytes());
+    }
+
+    @Test
+    public void test04_RetainedBytesLimit() {
+        // carving a slab would exceed the maximum of retained bytes, hence allocated individually
+        final GLArrayDataArena arena = new GLArrayDataArena(1024);
+        final ByteBuffer a = arena.allocate(1000);
+        Assert.assertEquals(1024, a.capacity());
+        Assert.assertEquals(0, arena.getRetainedBytes());
+        Assert.assertEquals(1024, arena.getDirectBytes());
+        arena.release(a);
+        Assert.assertEquals(1024, arena.getRetainedBytes());
+        final ByteBuffer b = arena.allocate(100);
+        Assert.assertEquals(256, b.capacity());
+        Assert.assertEquals(1024, arena.getRetainedBytes());
+        arena.release(b);
+        Assert.assertEquals(1024, arena.getRetainedBytes()); // exceeding, dropped
+    }
+
+    @Test
+    public void test05_SharedBufferNotReused() {
+        // slab size of the minimum size class, i.e. no carving and no retained slab pieces
+        final GLArrayDataArena arena = new GLArrayDataArena(GLArrayDataArena.MIN_SIZE_CLASS, 1 << 20);
+        final long total0 = GLArrayDataAllocator.getTotalDirectBytes();
+        final GLArrayDataClient adc = GLArrayDataClient.createGLSL("mgl_Vertex", 4, GL.GL_FLOAT, false, 0);
+        adc.setAllocator(arena);
+        adc.putf(1f); adc.putf(2f); adc.putf(3f); adc.putf(4f);
+        final int capacity0 = adc.getBuffer().capacity();
+        final GLArrayDataClient copy = new GLArrayDataClient(adc);
+
+        // growing discards the buffer still sliced by the copy instead of retaining it for reuse
+        for(int i=0; i<capacity0; i++) {
+            adc.putf(i);
+        }
+        Assert.assertTrue(capacity0 < adc.getBuffer().capacity());
+        Assert.assertEquals(0, arena.getRetainedBytes());
+        Assert.assertEquals(total0 + 4L*adc.getBuffer().capacity(), GLArrayDataAllocator.getTotalDirectBytes());
+        Assert.assertEquals(1f, ((java.nio.FloatBuffer)copy.getBuffer()).get(0), 0f);
+
+        // the grown buffer has not been shared, hence is retained
+        adc.destroy(null);
+        Assert.assertEquals(total0, GLArrayDataAllocator.getTotalDirectBytes());
+        Assert.assertTrue(0 < arena.getRetainedBytes());
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLArrayDataArenaNOUI.class.getName());
+    }
+}
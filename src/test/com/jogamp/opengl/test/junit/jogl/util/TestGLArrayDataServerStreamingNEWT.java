@@ -0,0 +1,159 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.util.GLArrayDataServer;
+import com.jogamp.opengl.util.GLStreamingBufferRing;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates the {@link GLArrayDataServer#setStreaming(int) streaming mode} of {@link GLArrayDataServer},
+ * writing each frame's data into the next {@link GLStreamingBufferRing} segment.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLArrayDataServerStreamingNEWT extends UITestCase {
+
+    @Test
+    public void test01_StreamingRing() {
+        if( !GLProfile.isAvailable(GLProfile.GL2ES2) ) {
+            System.err.println("GL2ES2 n/a");
+            return;
+        }
+        final GLProfile glp = GLProfile.get(GLProfile.GL2ES2);
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        Assert.assertNotNull(glad);
+        try {
+            glad.display();
+            Assert.assertTrue(glad.invoke(true, new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable drawable) {
+                    final GL gl = drawable.getGL();
+                    final int segmentCount = 3;
+                    final GLArrayDataServer ads = GLArrayDataServer.createGLSL("mgl_Vertex", 3, GL.GL_FLOAT, false, 8, GL2ES2.GL_STREAM_DRAW);
+                    ads.setStreaming(segmentCount);
+                    final GLStreamingBufferRing ring = ads.getStreamingRing();
+                    Assert.assertNotNull(ring);
+                    System.err.println("Persistent mapping supported: "+GLStreamingBufferRing.isPersistentMappingSupported(gl));
+
+                    int vboName = 0;
+                    for(int frame=0; frame<10; frame++) {
+                        ads.reset(gl);
+                        for(int i=0; i<8*3; i++) {
+                            ads.putf(frame * 100 + i);
+                        }
+                        ads.seal(gl, true);
+                        Assert.assertTrue(ads.isVBOWritten());
+                        if( 0 == frame ) {
+                            vboName = ads.getVBOName();
+                            Assert.assertTrue(0 != vboName);
+                        } else {
+                            Assert.assertEquals("VBO reallocated", vboName, ads.getVBOName());
+                        }
+                        final int segmentSize = ring.getSegmentSize();
+                        Assert.assertTrue(segmentSize >= 8*3*Buffers.SIZEOF_FLOAT);
+                        Assert.assertEquals((long)( frame % segmentCount ) * segmentSize, ads.getVBOOffset());
+                        if( gl.isGL2GL3() ) {
+                            final FloatBuffer fb = Buffers.newDirectFloatBuffer(8*3);
+                            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, ads.getVBOName());
+                            gl.getGL2GL3().glGetBufferSubData(GL.GL_ARRAY_BUFFER, ads.getVBOOffset(), 8*3*Buffers.SIZEOF_FLOAT, fb);
+                            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+                            Assert.assertEquals(frame * 100 + 0f, fb.get(0), 0f);
+                            Assert.assertEquals(frame * 100 + 23f, fb.get(23), 0f);
+                        }
+                    }
+                    Assert.assertEquals(10, ring.getWriteCount());
+                    Assert.assertEquals(1, ring.getAllocCount());
+
+                    // growing data reallocates the ring
+                    ads.reset(gl);
+                    for(int i=0; i<1000*3; i++) {
+                        ads.putf(i);
+                    }
+                    ads.seal(gl, true);
+                    Assert.assertEquals(2, ring.getAllocCount());
+                    Assert.assertEquals(0, ads.getVBOOffset());
+                    System.err.println(ring);
+
+                    // slightly growing data reallocates the ring w/ at least doubled segments
+                    final int grownSegmentSize = ring.getSegmentSize();
+                    ads.reset(gl);
+                    for(int i=0; i<1100*3; i++) {
+                        ads.putf(i);
+                    }
+                    ads.seal(gl, true);
+                    Assert.assertEquals(3, ring.getAllocCount());
+                    Assert.assertTrue(ring.getSegmentSize() >= 2 * grownSegmentSize);
+                    ads.reset(gl);
+                    for(int i=0; i<1500*3; i++) {
+                        ads.putf(i);
+                    }
+                    ads.seal(gl, true);
+                    Assert.assertEquals(3, ring.getAllocCount());
+
+                    ads.destroy(gl);
+                    Assert.assertEquals(0, ring.getVBOName());
+
+                    // element arrays are not streamable, indexed draw calls would require the segment's offset
+                    final GLArrayDataServer indices = GLArrayDataServer.createData(1, GL.GL_UNSIGNED_SHORT, 6, GL2ES2.GL_STREAM_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);
+                    try {
+                        indices.setStreaming(segmentCount);
+                        Assert.fail("Streaming element array");
+                    } catch (final IllegalStateException e) { }
+                    indices.destroy(gl);
+                    Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+                    return true;
+                }
+            }));
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLArrayDataServerStreamingNEWT.class.getName());
+    }
+}
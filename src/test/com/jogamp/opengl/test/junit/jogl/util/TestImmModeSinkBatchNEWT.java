@@ -0,0 +1,179 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES1;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.fixedfunc.GLMatrixFunc;
+import com.jogamp.opengl.util.ImmModeSink;
+import com.jogamp.opengl.util.glsl.fixedfunc.FixedFuncUtil;
+import com.jogamp.opengl.util.glsl.fixedfunc.ShaderSelectionMode;
+
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link ImmModeSink#setBatching(boolean) batching} of glBegin/glEnd blocks,
+ * i.e. compatible blocks are rendered with a single draw call and incompatible blocks flush the batch.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestImmModeSinkBatchNEWT extends UITestCase {
+    static final int width = 64, height = 64;
+
+    static void quad(final ImmModeSink ims, final float x0, final float y0, final float x1, final float y1, final int mode) {
+        ims.glBegin(mode);
+        ims.glColor3f(1f, 0f, 0f); ims.glVertex2f(x0, y0);
+        ims.glColor3f(1f, 0f, 0f); ims.glVertex2f(x1, y0);
+        if( GL.GL_TRIANGLE_STRIP == mode || ImmModeSink.GL_QUAD_STRIP == mode ) {
+            ims.glColor3f(1f, 0f, 0f); ims.glVertex2f(x0, y1);
+            ims.glColor3f(1f, 0f, 0f); ims.glVertex2f(x1, y1);
+        } else {
+            ims.glColor3f(1f, 0f, 0f); ims.glVertex2f(x1, y1);
+            ims.glColor3f(1f, 0f, 0f); ims.glVertex2f(x0, y1);
+        }
+    }
+
+    static void testBatch(final GL2ES1 gl, final boolean useVBO) {
+        final ImmModeSink ims = ImmModeSink.createFixed(4,
+                                                        2, GL.GL_FLOAT, // vertex
+                                                        3, GL.GL_FLOAT, // color
+                                                        0, GL.GL_FLOAT, // normal
+                                                        0, GL.GL_FLOAT, // texCoords
+                                                        useVBO ? GL.GL_STATIC_DRAW : 0);
+        ims.setBatching(true);
+        Assert.assertTrue(ims.isBatching());
+
+        gl.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+        gl.glLoadIdentity();
+        gl.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        gl.glLoadIdentity();
+        gl.glClearColor(0f, 0f, 0f, 1f);
+        gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+
+        // 4 x 4 grid of quads, fans, strips and polygons covering the viewport: all batched as triangles
+        final int[] modes = { ImmModeSink.GL_QUADS, GL.GL_TRIANGLE_FAN, GL.GL_TRIANGLE_STRIP, ImmModeSink.GL_POLYGON };
+        for(int j=0; j<4; j++) {
+            for(int i=0; i<4; i++) {
+                quad(ims, -1f + i*0.5f, -1f + j*0.5f, -0.5f + i*0.5f, -0.5f + j*0.5f, modes[j]);
+                ims.glEnd(gl, true);
+            }
+        }
+        Assert.assertEquals(16*4, ims.getBatchElementCount());
+        Assert.assertEquals(0, ims.getBatchFlushCount());
+
+        // incompatible primitive type flushes the pending batch
+        ims.glBegin(GL.GL_LINE_LOOP);
+        ims.glColor3f(0f, 1f, 0f); ims.glVertex2f(-1f, -1f);
+        ims.glColor3f(0f, 1f, 0f); ims.glVertex2f( 1f, -1f);
+        ims.glColor3f(0f, 1f, 0f); ims.glVertex2f( 1f,  1f);
+        ims.glEnd(gl, true);
+        Assert.assertEquals(1, ims.getBatchFlushCount());
+        Assert.assertEquals(3, ims.getBatchElementCount());
+
+        ims.flush(gl);
+        Assert.assertEquals(2, ims.getBatchFlushCount());
+        Assert.assertEquals(0, ims.getBatchElementCount());
+        ims.flush(gl); // NOP
+        Assert.assertEquals(2, ims.getBatchFlushCount());
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+
+        final ByteBuffer pixel = Buffers.newDirectByteBuffer(4);
+        gl.glReadPixels(width/2-5, height/2-3, 1, 1, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, pixel);
+        System.err.println("Pixel: "+(0xff & pixel.get(0))+", "+(0xff & pixel.get(1))+", "+(0xff & pixel.get(2)));
+        Assert.assertTrue("Batched quads not rendered", 0xff == ( 0xff & pixel.get(0) ));
+
+        // drawing recorded blocks flushes the pending batch first, preserving order
+        quad(ims, -1f, -1f, 1f, 1f, ImmModeSink.GL_QUADS);
+        ims.glEnd(gl, true);
+        Assert.assertEquals(4, ims.getBatchElementCount());
+        quad(ims, -1f, -1f, 1f, 1f, ImmModeSink.GL_QUADS);
+        ims.glEnd(gl, false);
+        Assert.assertEquals(4, ims.getBatchElementCount());
+        ims.draw(gl, true);
+        Assert.assertEquals(3, ims.getBatchFlushCount());
+        Assert.assertEquals(0, ims.getBatchElementCount());
+
+        // reset(gl) flushes the pending batch as well
+        quad(ims, -1f, -1f, 1f, 1f, ImmModeSink.GL_QUADS);
+        ims.glEnd(gl, true);
+        ims.reset(gl);
+        Assert.assertEquals(4, ims.getBatchFlushCount());
+        Assert.assertEquals(0, ims.getBatchElementCount());
+        Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+
+        ims.destroy(gl);
+    }
+
+    void doTest(final boolean useVBO) {
+        final GLProfile glp = GLProfile.getMaxFixedFunc(true);
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, width, height);
+        Assert.assertNotNull(glad);
+        try {
+            glad.display();
+            Assert.assertTrue(glad.invoke(true, new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable drawable) {
+                    final GL2ES1 gl = FixedFuncUtil.wrapFixedFuncEmul(drawable.getGL(), ShaderSelectionMode.AUTO, null, false, false);
+                    testBatch(gl, useVBO);
+                    return true;
+                } } ));
+        } finally {
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test01Batch_VBOOff() {
+        doTest(false);
+    }
+
+    @Test
+    public void test02Batch_VBOOn() {
+        doTest(true);
+    }
+
+    public static void main(final String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestImmModeSinkBatchNEWT.class.getName());
+    }
+}
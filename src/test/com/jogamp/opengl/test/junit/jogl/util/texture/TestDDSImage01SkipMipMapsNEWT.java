@@ -0,0 +1,124 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
+import java.nio.Buffer;
+
+import com.jogamp.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+
+/**
+ * Validates the memory mapped {@link DDSImage} mipmap access
+ * and {@link TextureIO#setSkipMipmapLevels(int)}.
+ * <p>
+ * No GL context is required.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestDDSImage01SkipMipMapsNEWT extends UITestCase {
+
+    private File initFile(final String filename) throws URISyntaxException {
+        final URLConnection connection = IOUtil.getResource(filename, getClass().getClassLoader(), getClass());
+        Assert.assertNotNull(connection);
+        final File file = new File(connection.getURL().toURI());
+        Assert.assertTrue(file.exists());
+        return file;
+    }
+
+    private void testImpl(final String filename, final int skip) throws IOException, URISyntaxException {
+        final File file = initFile(filename);
+        final DDSImage image = DDSImage.read(file);
+        final int numMipMaps = image.getNumMipMaps();
+        final DDSImage.ImageInfo[] all = image.getAllMipMaps(0);
+        Assert.assertEquals(numMipMaps, all.length);
+        final int firstLevel = Math.min(skip, numMipMaps - 1);
+        final DDSImage.ImageInfo[] part = image.getMipMaps(0, firstLevel);
+        Assert.assertEquals(numMipMaps - firstLevel, part.length);
+        for(int i=0; i<part.length; i++) {
+            Assert.assertEquals(all[firstLevel+i].getWidth(), part[i].getWidth());
+            Assert.assertEquals(all[firstLevel+i].getHeight(), part[i].getHeight());
+            Assert.assertEquals(all[firstLevel+i].getData(), part[i].getData());
+        }
+
+        final int skip0 = TextureIO.getSkipMipmapLevels();
+        try {
+            TextureIO.setSkipMipmapLevels(skip);
+            final TextureData data = TextureIO.newTextureData(GLProfile.getGL2ES2(), file, true /* mipmap */, null);
+            System.err.println("DDS skip "+skip+": "+data);
+            Assert.assertEquals(all[firstLevel].getWidth(), data.getWidth());
+            Assert.assertEquals(all[firstLevel].getHeight(), data.getHeight());
+            final Buffer[] mipmaps = data.getMipmapData();
+            Assert.assertEquals(numMipMaps - firstLevel, mipmaps.length);
+            for(int i=0; i<mipmaps.length; i++) {
+                Assert.assertEquals(all[firstLevel+i].getData(), mipmaps[i]);
+            }
+            data.flush();
+        } finally {
+            TextureIO.setSkipMipmapLevels(skip0);
+        }
+        image.close();
+    }
+
+    @Test
+    public void test01_DXT1_Skip0() throws IOException, URISyntaxException {
+        testImpl("test-64x32_DXT1.dds", 0);
+    }
+
+    @Test
+    public void test02_DXT1_Skip2() throws IOException, URISyntaxException {
+        testImpl("test-64x32_DXT1.dds", 2);
+    }
+
+    @Test
+    public void test03_Uncompressed_Skip3() throws IOException, URISyntaxException {
+        testImpl("test-64x32_uncompressed.dds", 3);
+    }
+
+    @Test
+    public void test04_DXT5_SkipAll() throws IOException, URISyntaxException {
+        testImpl("test-64x32_DXT5.dds", 100);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestDDSImage01SkipMipMapsNEWT.class.getName());
+    }
+}
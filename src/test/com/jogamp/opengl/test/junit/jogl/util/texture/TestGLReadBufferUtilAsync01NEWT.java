@@ -0,0 +1,147 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.nio.ByteBuffer;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.util.GLReadBufferUtil;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLReadBufferUtil#readPixelsAsync(GL, boolean)}:
+ * Each frame is cleared w/ a distinct red value, which must be delivered in order.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLReadBufferUtilAsync01NEWT extends UITestCase {
+    static GLProfile glp;
+    static int width = 256, height = 256;
+    static int frames = 60;
+
+    @BeforeClass
+    public static void initClass() {
+        glp = GLProfile.getDefault();
+        Assert.assertNotNull(glp);
+    }
+
+    private void testImpl(final int slotCount) throws InterruptedException {
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, width, height);
+        Assert.assertNotNull(glad);
+
+        final int[] delivered = { 0 };
+        final GLReadBufferUtil readBuffer = new GLReadBufferUtil(true, false);
+        readBuffer.setAsyncReadback(slotCount, new GLReadBufferUtil.AsyncReadListener() {
+            @Override
+            public void pixelsRead(final GLReadBufferUtil util, final GL gl, final long frameNumber, final long latencyNanos) {
+                Assert.assertEquals(delivered[0], frameNumber);
+                final ByteBuffer pixels = (ByteBuffer) util.getPixelBuffer().buffer;
+                final int red = pixels.get(0) & 0xff;
+                Assert.assertEquals("frame "+frameNumber, getRed(frameNumber), red);
+                delivered[0]++;
+            }
+        });
+        final boolean[] supported = { false };
+        glad.addGLEventListener(new GLEventListener() {
+            int f = 0;
+            public void init(final GLAutoDrawable drawable) {
+                supported[0] = GLReadBufferUtil.isAsyncReadbackSupported(drawable.getGL());
+            }
+            public void dispose(final GLAutoDrawable drawable) {
+                readBuffer.dispose(drawable.getGL());
+            }
+            public void display(final GLAutoDrawable drawable) {
+                final GL gl = drawable.getGL();
+                gl.glClearColor(getRed(f)/255f, 0f, 0f, 1f);
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+                Assert.assertTrue(readBuffer.readPixelsAsync(gl, false));
+                f++;
+                if( frames == f ) {
+                    readBuffer.finishAsync(gl);
+                }
+            }
+            public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+        });
+        for(int i=0; i<frames; i++) {
+            glad.display();
+        }
+        System.err.println("Slots "+slotCount+", async supported "+supported[0]+
+                           ", issued "+readBuffer.getAsyncIssuedCount()+", delivered "+readBuffer.getAsyncDeliveredCount()+
+                           ", stalls "+readBuffer.getAsyncStallCount()+", fallbacks "+readBuffer.getAsyncFallbackCount()+
+                           ", latency "+readBuffer.getAsyncMeanLatencyNanos()/1000+" us, "+readBuffer.getAsyncMeanLatencyFrames()+" frames");
+        Assert.assertEquals(frames, delivered[0]);
+        Assert.assertEquals(frames, readBuffer.getAsyncIssuedCount());
+        Assert.assertEquals(frames, readBuffer.getAsyncDeliveredCount());
+        Assert.assertEquals(0, readBuffer.getAsyncPendingCount());
+        Assert.assertTrue(readBuffer.getAsyncMeanLatencyFrames() <= slotCount);
+        if( supported[0] ) {
+            Assert.assertEquals(0, readBuffer.getAsyncFallbackCount());
+        } else {
+            Assert.assertEquals(frames, readBuffer.getAsyncFallbackCount());
+        }
+        glad.destroy();
+    }
+    private static int getRed(final long frame) {
+        return (int) ( ( frame * 37 ) % 256 );
+    }
+
+    @Test
+    public void test01Slots1() throws InterruptedException {
+        testImpl(1);
+    }
+
+    @Test
+    public void test02Slots3() throws InterruptedException {
+        testImpl(3);
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-frames")) {
+                i++;
+                frames = MiscUtils.atoi(args[i], frames);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLReadBufferUtilAsync01NEWT.class.getName());
+    }
+}
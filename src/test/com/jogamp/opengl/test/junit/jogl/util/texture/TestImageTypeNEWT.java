@@ -31,7 +31,9 @@ package com.jogamp.opengl.test.junit.jogl.util.texture;
 import com.jogamp.opengl.test.junit.util.UITestCase;
 import com.jogamp.opengl.util.texture.ImageType;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.junit.Assert;
@@ -86,6 +88,53 @@ public class TestImageTypeNEWT extends UITestCase {
         testImpl(imageTstFiles.ddsStreams, new ImageType(ImageType.T_DDS));
     }
 
+    /** Delivers at most 7 bytes per read, like a network stream, counting all reads */
+    static class ChunkedInputStream extends FilterInputStream {
+        int readCalls = 0;
+        ChunkedInputStream(final InputStream in) { super(in); }
+        @Override
+        public int read() throws IOException {
+            readCalls++;
+            return super.read();
+        }
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            readCalls++;
+            return super.read(b, off, Math.min(7, len));
+        }
+        @Override
+        public int available() throws IOException {
+            return Math.min(7, super.available());
+        }
+    }
+
+    @Test
+    public void test10HeaderCachingChunked() throws InterruptedException, IOException {
+        for(int i=0; i<imageTstFiles.pngStreams.size(); i++) {
+            final ImageTstFiles.NamedInputStream s = imageTstFiles.pngStreams.get(i);
+            final ChunkedInputStream chunked = new ChunkedInputStream(s.stream);
+            final ImageType.HeaderCachingInputStream stream = new ImageType.HeaderCachingInputStream(chunked);
+            final ImageType t0 = new ImageType(stream);
+            final int readCalls = chunked.readCalls;
+            Assert.assertTrue(0 < readCalls);
+            final ImageType t1 = new ImageType(stream);
+            final String t2 = ImageType.Util.getFileSuffix(stream);
+            System.err.printf("Test %3d: path %s, has-type %s, reads %d%n", i, s.basePath, t0, readCalls);
+            Assert.assertEquals(ImageType.T_PNG, t0.type);
+            Assert.assertEquals(ImageType.T_PNG, t1.type);
+            Assert.assertEquals(ImageType.T_PNG, t2);
+            Assert.assertArrayEquals(t0.header, t1.header);
+            Assert.assertEquals(readCalls, chunked.readCalls);
+            // header is still available to the consumer
+            final byte[] header = new byte[ImageType.MAGIC_MAX_SIZE];
+            int n = 0;
+            while( n < header.length ) {
+                n += stream.read(header, n, header.length - n);
+            }
+            Assert.assertArrayEquals(t0.header, header);
+        }
+    }
+
     public static void main(final String args[]) throws IOException {
         org.junit.runner.JUnitCore.main(TestImageTypeNEWT.class.getName());
     }
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.texture.ImageType;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+import com.jogamp.opengl.util.texture.spi.KTXImage;
+
+/**
+ * Converts the DDS test images to KTX and validates
+ * {@link KTXImage} and the KTX {@link TextureIO} provider and writer.
+ * <p>
+ * No GL context is required.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestKTXImage01NEWT extends UITestCase {
+
+    private File initFile(final String filename) throws URISyntaxException {
+        final URLConnection connection = IOUtil.getResource(filename, getClass().getClassLoader(), getClass());
+        Assert.assertNotNull(connection);
+        final File file = new File(connection.getURL().toURI());
+        Assert.assertTrue(file.exists());
+        return file;
+    }
+
+    private void testCompressedImpl(final String ddsFilename, final int glInternalFormat, final int glBaseInternalFormat)
+            throws IOException, URISyntaxException {
+        final DDSImage ddsImage = DDSImage.read(initFile(ddsFilename));
+        final int numMipMaps = ddsImage.getNumMipMaps();
+        final ByteBuffer[] mipmaps = new ByteBuffer[numMipMaps];
+        for(int i=0; i<numMipMaps; i++) {
+            mipmaps[i] = ddsImage.getMipMap(i).getData();
+        }
+        final KTXImage ktxImage = KTXImage.createFromData(glInternalFormat, 0, 0, 1, glBaseInternalFormat,
+                                                          ddsImage.getWidth(), ddsImage.getHeight(), mipmaps);
+        final File ktxFile = new File(getSimpleTestName(".")+"-"+ddsFilename+".ktx");
+        ktxImage.write(ktxFile);
+
+        final KTXImage ktxImage2 = KTXImage.read(ktxFile);
+        System.err.println("KTX: "+ktxImage2);
+        Assert.assertTrue(ktxImage2.isCompressed());
+        Assert.assertEquals(glInternalFormat, ktxImage2.getGLInternalFormat());
+        Assert.assertEquals(ddsImage.getWidth(), ktxImage2.getWidth());
+        Assert.assertEquals(ddsImage.getHeight(), ktxImage2.getHeight());
+        Assert.assertEquals(numMipMaps, ktxImage2.getNumMipMaps());
+        for(int i=0; i<numMipMaps; i++) {
+            final KTXImage.ImageInfo info = ktxImage2.getMipMap(i);
+            Assert.assertEquals(ddsImage.getMipMap(i).getWidth(), info.getWidth());
+            Assert.assertEquals(ddsImage.getMipMap(i).getHeight(), info.getHeight());
+            Assert.assertEquals(ddsImage.getMipMap(i).getData(), info.getData());
+        }
+        ktxImage2.close();
+        ddsImage.close();
+
+        final TextureData texData = TextureIO.newTextureData(GLProfile.getGL2ES2(), ktxFile, true /* mipmap */, null);
+        System.err.println("KTX TextureData: "+texData);
+        Assert.assertEquals(new ImageType(ImageType.T_KTX), texData.getSourceImageType());
+        Assert.assertTrue(texData.isDataCompressed());
+        Assert.assertEquals(glInternalFormat, texData.getInternalFormat());
+        Assert.assertEquals(numMipMaps, texData.getMipmapData().length);
+        texData.flush();
+    }
+
+    @Test
+    public void test01_DXT1() throws IOException, URISyntaxException {
+        testCompressedImpl("test-64x32_DXT1.dds", GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT, GL.GL_RGB);
+    }
+
+    @Test
+    public void test02_DXT5() throws IOException, URISyntaxException {
+        testCompressedImpl("test-64x32_DXT5.dds", GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, GL.GL_RGBA);
+    }
+
+    @Test
+    public void test03_Uncompressed_TextureIOWrite() throws IOException, URISyntaxException {
+        final String ddsFilename = "test-64x32_uncompressed.dds";
+        final TextureData ddsData = TextureIO.newTextureData(GLProfile.getGL2ES2(), initFile(ddsFilename), true /* mipmap */, null);
+        final File ktxFile = new File(getSimpleTestName(".")+"-"+ddsFilename+".ktx");
+        TextureIO.write(ddsData, ktxFile);
+
+        final KTXImage ktxImage = KTXImage.read(ktxFile);
+        final int ktxInternalFormat = ktxImage.getGLInternalFormat();
+        ktxImage.close();
+        Assert.assertTrue("Unsized internal format 0x"+Integer.toHexString(ktxInternalFormat),
+                          GL.GL_RGB8 == ktxInternalFormat || GL.GL_RGBA8 == ktxInternalFormat);
+
+        final TextureData ktxData = TextureIO.newTextureData(GLProfile.getGL2ES2(), ktxFile, true /* mipmap */, null);
+        System.err.println("DDS TextureData: "+ddsData);
+        System.err.println("KTX TextureData: "+ktxData);
+        Assert.assertFalse(ktxData.isDataCompressed());
+        Assert.assertEquals(ddsData.getWidth(), ktxData.getWidth());
+        Assert.assertEquals(ddsData.getHeight(), ktxData.getHeight());
+        Assert.assertEquals(ddsData.getPixelFormat(), ktxData.getPixelFormat());
+        Assert.assertEquals(4, ktxData.getAlignment());
+        final Buffer[] ddsMipmaps = ddsData.getMipmapData();
+        final Buffer[] ktxMipmaps = ktxData.getMipmapData();
+        Assert.assertEquals(ddsMipmaps.length, ktxMipmaps.length);
+        // top level row size is aligned to 4 bytes, hence identical
+        Assert.assertEquals(ddsMipmaps[0], ktxMipmaps[0]);
+        ktxData.flush();
+        ddsData.flush();
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestKTXImage01NEWT.class.getName());
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+
+import com.jogamp.nativewindow.util.Dimension;
+import com.jogamp.nativewindow.util.PixelFormat;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.PNGPixelRect;
+import com.jogamp.opengl.util.PNGPixelRect.CompressionPreset;
+
+/**
+ * Validates the lossless round trip of {@link PNGPixelRect#write(java.io.OutputStream, boolean, CompressionPreset)}
+ * for all {@link CompressionPreset}s.
+ * <p>
+ * Launched via {@link #main(String[])} w/ <code>-bench</code>, the encoding throughput and resulting size
+ * are measured on a 1920x1080 image, see <code>-loops</code>, <code>-width</code> and <code>-height</code>.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPNGPixelRect02CompressionNEWT extends UITestCase {
+    static boolean bench = false;
+    static int loops = 1;
+    static int width = 320, height = 180;
+
+    @Test
+    public void test01SyntheticScreenshot() throws IOException {
+        // large uniform areas and sharp edges, typical for UI screenshots
+        final ByteBuffer pixels = ByteBuffer.allocate(width * height * 4);
+        for(int y=0; y<height; y++) {
+            for(int x=0; x<width; x++) {
+                final boolean panel = ( x / ( width / 6 ) + y / ( height / 6 ) ) % 2 == 0;
+                final boolean text = panel && ( y % 18 ) < 10 && ( x * 7 + y ) % 13 < 5;
+                final byte c = text ? (byte)0x20 : ( panel ? (byte)0xE0 : (byte)0x80 );
+                pixels.put(c).put(c).put((byte)(x & 0xff)).put((byte)0xff);
+            }
+        }
+        pixels.rewind();
+        final PNGPixelRect image = new PNGPixelRect(PixelFormat.RGBA8888, new Dimension(width, height),
+                                                    0 /* stride */, false /* isGLOriented */, pixels, -1f, -1f);
+        benchmarkImpl("screenshot", image);
+    }
+
+    @Test
+    public void test02Photo() throws IOException {
+        final String basename = "test-ntscN_3-01-160x90";
+        final URLConnection urlConn = IOUtil.getResource(basename+".png", this.getClass().getClassLoader(), this.getClass());
+        if( null == urlConn ) {
+            throw new IOException("Cannot find "+basename+".png");
+        }
+        final PNGPixelRect tile = PNGPixelRect.read(urlConn.getInputStream(), null, false /* directBuffer */, 0 /* destMinStrideInBytes */, false /* destIsGLOriented */);
+        // tile the small test image to a reasonable benchmark size
+        final int tw = tile.getSize().getWidth();
+        final int th = tile.getSize().getHeight();
+        final int bpp = tile.getPixelformat().comp.bytesPerPixel();
+        final ByteBuffer src = tile.getPixels();
+        final ByteBuffer pixels = ByteBuffer.allocate(width * height * bpp);
+        for(int y=0; y<height; y++) {
+            for(int x=0; x<width; x++) {
+                final int o = ( ( y % th ) * tile.getStride() ) + ( x % tw ) * bpp;
+                for(int i=0; i<bpp; i++) {
+                    pixels.put(src.get(o+i));
+                }
+            }
+        }
+        pixels.rewind();
+        final PNGPixelRect image = new PNGPixelRect(tile.getPixelformat(), new Dimension(width, height),
+                                                    0 /* stride */, false /* isGLOriented */, pixels, -1f, -1f);
+        benchmarkImpl("photo", image);
+    }
+
+    private void benchmarkImpl(final String name, final PNGPixelRect image) throws IOException {
+        final double rawMB = (double) image.getPixels().capacity() / ( 1024.0 * 1024.0 );
+        for(final CompressionPreset preset : CompressionPreset.values()) {
+            ByteArrayOutputStream bos = null;
+            final long t0 = System.nanoTime();
+            for(int i=0; i<loops; i++) {
+                bos = new ByteArrayOutputStream(image.getPixels().capacity() / 2);
+                image.write(bos, true /* close */, preset);
+            }
+            final long t1 = System.nanoTime();
+            final double msPl = ( t1 - t0 ) / 1000000.0 / loops;
+            final byte[] png = bos.toByteArray();
+            if( bench ) {
+                System.err.printf("%s %-10s: %8.2f ms/l, %7.2f MB/s, size %9d bytes, ratio %5.2f%%%n",
+                                  name, preset, msPl, rawMB / ( msPl / 1000.0 ), png.length,
+                                  100.0 * png.length / image.getPixels().capacity());
+            }
+
+            final PNGPixelRect image_R = PNGPixelRect.read(new ByteArrayInputStream(png), image.getPixelformat(),
+                                                           false /* directBuffer */, 0 /* destMinStrideInBytes */, false /* destIsGLOriented */);
+            image.getPixels().rewind();
+            Assert.assertEquals(image.getPixels(), image_R.getPixels());
+        }
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-bench")) {
+                bench = true;
+                loops = 10;
+                width = 1920;
+                height = 1080;
+            } else if(args[i].equals("-loops")) {
+                i++;
+                loops = MiscUtils.atoi(args[i], loops);
+            } else if(args[i].equals("-width")) {
+                i++;
+                width = MiscUtils.atoi(args[i], width);
+            } else if(args[i].equals("-height")) {
+                i++;
+                height = MiscUtils.atoi(args[i], height);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPNGPixelRect02CompressionNEWT.class.getName());
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureIO;
+import com.jogamp.opengl.util.texture.TextureManager;
+
+/**
+ * Validates {@link TextureManager}'s LRU and priority based eviction
+ * and reload of textures created via {@link TextureIO}.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTextureManager01NEWT extends UITestCase {
+    static final String[] files = { "test-64x32_DXT1.dds", "test-64x32_DXT5.dds", "test-64x32_uncompressed.dds" };
+
+    private File initFile(final String filename) throws URISyntaxException {
+        final URLConnection connection = IOUtil.getResource(filename, getClass().getClassLoader(), getClass());
+        Assert.assertNotNull(connection);
+        return new File(connection.getURL().toURI());
+    }
+
+    @Test
+    public void test01EvictReload() throws IOException, URISyntaxException {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        glad.display(); // realize
+        glad.getContext().makeCurrent();
+        final TextureManager manager = new TextureManager();
+        final TextureManager manager0 = TextureIO.getTextureManager();
+        try {
+            final GL gl = glad.getGL();
+            TextureIO.setTextureManager(manager);
+            final Texture[] textures = new Texture[files.length];
+            long total = 0;
+            for(int i=0; i<files.length; i++) {
+                textures[i] = TextureIO.newTexture(initFile(files[i]), true /* mipmap */);
+                Assert.assertTrue(manager.contains(textures[i]));
+                total += textures[i].getEstimatedMemorySize();
+            }
+            Assert.assertEquals(total, manager.getResidentBytes());
+            final Texture t0 = textures[0], t1 = textures[1], t2 = textures[2];
+            final long s0 = t0.getEstimatedMemorySize();
+
+            // shrink budget by one byte: least recently used t0 gets evicted
+            manager.setBudget(gl, total - 1);
+            System.err.println("#1 "+manager.getStatistics());
+            Assert.assertTrue(manager.isEvicted(t0));
+            Assert.assertFalse(manager.isEvicted(t1));
+            Assert.assertFalse(manager.isEvicted(t2));
+            Assert.assertEquals(total - s0, manager.getResidentBytes());
+
+            // binding t0 reloads it, evicting the now least recently used t1
+            t0.bind(gl);
+            System.err.println("#2 "+manager.getStatistics());
+            Assert.assertFalse(manager.isEvicted(t0));
+            Assert.assertNotEquals(0, t0.getTextureObject());
+            Assert.assertEquals(s0, t0.getEstimatedMemorySize());
+            Assert.assertTrue(manager.isEvicted(t1));
+            Assert.assertFalse(manager.isEvicted(t2));
+
+            // lower priority of t2: it is evicted before the least recently used t0
+            manager.setPriority(t2, TextureManager.DEFAULT_PRIORITY - 1);
+            t1.bind(gl);
+            System.err.println("#3 "+manager.getStatistics());
+            Assert.assertFalse(manager.isEvicted(t0));
+            Assert.assertFalse(manager.isEvicted(t1));
+            Assert.assertTrue(manager.isEvicted(t2));
+
+            // pinned textures are never evicted
+            manager.setPriority(t2, TextureManager.DEFAULT_PRIORITY);
+            manager.setPinned(t1, true);
+            t2.bind(gl);
+            System.err.println("#4 "+manager.getStatistics());
+            Assert.assertTrue(manager.isEvicted(t0));
+            Assert.assertFalse(manager.isEvicted(t1));
+            Assert.assertFalse(manager.isEvicted(t2));
+            Assert.assertTrue(manager.getResidentBytes() <= manager.getBudget());
+
+            final TextureManager.Statistics stats = manager.getStatistics();
+            Assert.assertEquals(files.length, stats.textureCount);
+            Assert.assertEquals(1, stats.evictedCount);
+            Assert.assertEquals(4, stats.evictions);
+            Assert.assertEquals(3, stats.reloads);
+            Assert.assertEquals(total, stats.peakResidentBytes);
+
+            for(int i=0; i<textures.length; i++) {
+                textures[i].destroy(gl);
+                Assert.assertFalse(manager.contains(textures[i]));
+            }
+            Assert.assertEquals(0, manager.getResidentBytes());
+            Assert.assertEquals(0, manager.getStatistics().evictedCount);
+        } finally {
+            TextureIO.setTextureManager(manager0);
+            glad.getContext().release();
+            glad.destroy();
+        }
+    }
+
+    @Test
+    public void test02ReloadKeepsParameters() throws IOException, URISyntaxException {
+        final GLProfile glp = GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+        glad.display(); // realize
+        glad.getContext().makeCurrent();
+        final TextureManager manager = new TextureManager();
+        final TextureManager manager0 = TextureIO.getTextureManager();
+        try {
+            final GL gl = glad.getGL();
+            TextureIO.setTextureManager(manager);
+            final Texture t0 = TextureIO.newTexture(initFile(files[2]), false /* mipmap */);
+            t0.setTexParameteri(gl, GL.GL_TEXTURE_MAG_FILTER, GL.GL_NEAREST);
+            t0.setTexParameteri(gl, GL.GL_TEXTURE_WRAP_S, GL.GL_REPEAT);
+
+            manager.evictAll(gl);
+            Assert.assertTrue(manager.isEvicted(t0));
+            Assert.assertEquals(0, t0.getTextureObject());
+
+            // querying the texture object w/ GL reloads it, restoring its parameters
+            Assert.assertNotEquals(0, t0.getTextureObject(gl));
+            Assert.assertFalse(manager.isEvicted(t0));
+            final int[] value = new int[1];
+            t0.bind(gl);
+            gl.glGetTexParameteriv(t0.getTarget(), GL.GL_TEXTURE_MAG_FILTER, value, 0);
+            Assert.assertEquals(GL.GL_NEAREST, value[0]);
+            gl.glGetTexParameteriv(t0.getTarget(), GL.GL_TEXTURE_WRAP_S, value, 0);
+            Assert.assertEquals(GL.GL_REPEAT, value[0]);
+            Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+
+            t0.destroy(gl);
+        } finally {
+            TextureIO.setTextureManager(manager0);
+            glad.getContext().release();
+            glad.destroy();
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestTextureManager01NEWT.class.getName());
+    }
+}